@@ -0,0 +1,244 @@
+package datawave.edge.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import datawave.edge.protobuf.EdgeData;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+/**
+ * Decodes protocol buffer edge values for the combiners, which read millions of them during a compaction. It accepts and rejects the same bytes as
+ * {@link EdgeData.EdgeValue#parseFrom(byte[])}, but reads the hours and duration histograms straight into long arrays that are reused from one value to the
+ * next, and leaves the strings undecoded until they are asked for.
+ * <p>
+ * An instance is not thread safe, and everything it returns is overwritten by the next call to {@link #parseFrom(byte[])}.
+ */
+public class EdgeValueDecoder {
+    
+    private boolean hasCount;
+    private long count;
+    private boolean hasHourBitmask;
+    private int hourBitmask;
+    private ByteString sourceValue;
+    private ByteString sinkValue;
+    private ByteString loadDate;
+    private boolean hasBadActivity;
+    private boolean badActivity;
+    private EdgeData.EdgeValue.UUID uuid;
+    private ByteString uuidString;
+    
+    private long[] hours = new long[EdgeValueHelper.ACTIVITY_HISTOGRAM_LENGTH];
+    private int hoursCount;
+    private long[] duration = new long[EdgeValueHelper.DURATION_HISTOGRAM_LENGTH];
+    private int durationCount;
+    
+    /**
+     * Decode an edge value, replacing the previous one
+     * 
+     * @param bytes
+     *            the serialized protocol buffer
+     * @throws InvalidProtocolBufferException
+     *             if the bytes are not an edge value, e.g. an old varint value, in which case nothing is decoded
+     */
+    public void parseFrom(byte[] bytes) throws InvalidProtocolBufferException {
+        clear();
+        try {
+            CodedInputStream input = CodedInputStream.newInstance(bytes);
+            boolean done = false;
+            while (!done) {
+                int tag = input.readTag();
+                switch (tag) {
+                    case 0:
+                        done = true;
+                        break;
+                    case 8:
+                        hasCount = true;
+                        count = input.readInt64();
+                        break;
+                    case 16:
+                        hours = append(hours, hoursCount++, input.readInt64());
+                        break;
+                    case 18: {
+                        int limit = input.pushLimit(input.readRawVarint32());
+                        while (input.getBytesUntilLimit() > 0) {
+                            hours = append(hours, hoursCount++, input.readInt64());
+                        }
+                        input.popLimit(limit);
+                        break;
+                    }
+                    case 24:
+                        duration = append(duration, durationCount++, input.readInt64());
+                        break;
+                    case 26: {
+                        int limit = input.pushLimit(input.readRawVarint32());
+                        while (input.getBytesUntilLimit() > 0) {
+                            duration = append(duration, durationCount++, input.readInt64());
+                        }
+                        input.popLimit(limit);
+                        break;
+                    }
+                    case 32:
+                        hasHourBitmask = true;
+                        hourBitmask = input.readInt32();
+                        break;
+                    case 42:
+                        sourceValue = input.readBytes();
+                        break;
+                    case 50:
+                        sinkValue = input.readBytes();
+                        break;
+                    case 58:
+                        loadDate = input.readBytes();
+                        break;
+                    case 64:
+                        hasBadActivity = true;
+                        badActivity = input.readBool();
+                        break;
+                    case 74: {
+                        EdgeData.EdgeValue.UUID next = input.readMessage(EdgeData.EdgeValue.UUID.PARSER, ExtensionRegistryLite.getEmptyRegistry());
+                        // a repeated message field is merged, as the generated parser does
+                        uuid = (uuid == null) ? next : uuid.toBuilder().mergeFrom(next).buildPartial();
+                        break;
+                    }
+                    case 82:
+                        uuidString = input.readBytes();
+                        break;
+                    default:
+                        // unknown fields are dropped, the combiners never write them back out
+                        if (!input.skipField(tag)) {
+                            done = true;
+                        }
+                        break;
+                }
+            }
+            input.checkLastTagWas(0);
+            if (uuid != null && !uuid.isInitialized()) {
+                throw new InvalidProtocolBufferException("Message missing required fields: uuid");
+            }
+        } catch (InvalidProtocolBufferException e) {
+            clear();
+            throw e;
+        } catch (IOException e) {
+            clear();
+            throw new InvalidProtocolBufferException(e.getMessage());
+        }
+    }
+    
+    private static long[] append(long[] longs, int index, long value) {
+        if (index == longs.length) {
+            longs = Arrays.copyOf(longs, longs.length * 2);
+        }
+        longs[index] = value;
+        return longs;
+    }
+    
+    private void clear() {
+        hasCount = false;
+        count = 0;
+        hasHourBitmask = false;
+        hourBitmask = 0;
+        sourceValue = null;
+        sinkValue = null;
+        loadDate = null;
+        hasBadActivity = false;
+        badActivity = false;
+        uuid = null;
+        uuidString = null;
+        hoursCount = 0;
+        durationCount = 0;
+    }
+    
+    public boolean hasCount() {
+        return hasCount;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public boolean hasHourBitmask() {
+        return hasHourBitmask;
+    }
+    
+    public int getHourBitmask() {
+        return hourBitmask;
+    }
+    
+    public boolean hasSourceValue() {
+        return sourceValue != null;
+    }
+    
+    public String getSourceValue() {
+        return toString(sourceValue);
+    }
+    
+    public boolean hasSinkValue() {
+        return sinkValue != null;
+    }
+    
+    public String getSinkValue() {
+        return toString(sinkValue);
+    }
+    
+    public boolean hasLoadDate() {
+        return loadDate != null;
+    }
+    
+    public String getLoadDate() {
+        return toString(loadDate);
+    }
+    
+    public boolean hasBadActivity() {
+        return hasBadActivity;
+    }
+    
+    public boolean getBadActivity() {
+        return badActivity;
+    }
+    
+    public boolean hasUuid() {
+        return uuid != null;
+    }
+    
+    public EdgeData.EdgeValue.UUID getUuid() {
+        return (uuid == null) ? EdgeData.EdgeValue.UUID.getDefaultInstance() : uuid;
+    }
+    
+    public boolean hasUuidString() {
+        return uuidString != null;
+    }
+    
+    public String getUuidString() {
+        return toString(uuidString);
+    }
+    
+    /**
+     * @return the hours histogram, of which the first {@link #getHoursCount()} elements were decoded
+     */
+    public long[] getHours() {
+        return hours;
+    }
+    
+    public int getHoursCount() {
+        return hoursCount;
+    }
+    
+    /**
+     * @return the duration histogram, of which the first {@link #getDurationCount()} elements were decoded
+     */
+    public long[] getDuration() {
+        return duration;
+    }
+    
+    public int getDurationCount() {
+        return durationCount;
+    }
+    
+    private static String toString(ByteString bytes) {
+        return (bytes == null) ? "" : bytes.toStringUtf8();
+    }
+}
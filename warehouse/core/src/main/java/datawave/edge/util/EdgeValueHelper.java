@@ -1,5 +1,7 @@
 package datawave.edge.util;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -8,7 +10,9 @@ import datawave.edge.protobuf.EdgeData;
 import datawave.edge.protobuf.EdgeData.EdgeValue;
 
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.ValueFormatException;
 import org.apache.accumulo.core.iterators.user.SummingArrayCombiner.VarLongArrayEncoder;
+import org.apache.hadoop.io.WritableUtils;
 import org.apache.log4j.Logger;
 
 import com.google.protobuf.InvalidProtocolBufferException;
@@ -82,6 +86,26 @@ public class EdgeValueHelper {
         return new VarLongArrayEncoder().decode(bytes);
     }
     
+    /**
+     * Decodes the same old varint array values as {@link #getVarLongList(byte[])}, without boxing each long
+     * 
+     * @param bytes
+     *            the encoded value
+     * @return the longs
+     */
+    public static long[] getVarLongArray(byte[] bytes) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        try {
+            long[] longs = new long[WritableUtils.readVInt(in)];
+            for (int ii = 0; ii < longs.length; ii++) {
+                longs[ii] = WritableUtils.readVLong(in);
+            }
+            return longs;
+        } catch (IOException | NegativeArraySizeException e) {
+            throw new ValueFormatException(e);
+        }
+    }
+    
     // encode stuff
     
     public static Value encodeActivityHistogram(List<Long> longs) {
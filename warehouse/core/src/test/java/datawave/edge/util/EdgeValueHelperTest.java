@@ -15,6 +15,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -258,6 +259,27 @@ public class EdgeValueHelperTest {
         assertEquals(new Long(1l), oldAsList.get(6));
     }
     
+    @Test
+    public void testReadOldArray() {
+        List<Long> longList = EdgeValueHelper.initUnitList(24, 6, true);
+        longList.set(0, Long.MAX_VALUE);
+        longList.set(23, Long.MIN_VALUE);
+        byte[] oldBytes = SummingArrayCombiner.VAR_LONG_ARRAY_ENCODER.encode(longList);
+        
+        long[] oldAsArray = EdgeValueHelper.getVarLongArray(oldBytes);
+        assertEquals(longList.size(), oldAsArray.length);
+        for (int ii = 0; ii < oldAsArray.length; ii++) {
+            assertEquals((long) longList.get(ii), oldAsArray[ii]);
+        }
+        
+        try {
+            EdgeValueHelper.getVarLongArray(Arrays.copyOf(oldBytes, oldBytes.length - 1));
+            fail("Expected a truncated array to fail like getVarLongList does");
+        } catch (ValueFormatException e) {
+            // expected
+        }
+    }
+    
     private static final Value NULL_VALUE = new Value(new byte[0]);
     
     @Test
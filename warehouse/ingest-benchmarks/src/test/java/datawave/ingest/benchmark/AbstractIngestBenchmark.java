@@ -0,0 +1,92 @@
+package datawave.ingest.benchmark;
+
+import datawave.ingest.data.RawRecordContainer;
+import datawave.ingest.mapreduce.EventMapper;
+import datawave.ingest.mapreduce.handler.DataTypeHandler;
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.ingest.mapreduce.job.writer.BulkContextWriter;
+import datawave.ingest.mapreduce.job.writer.ContextWriter;
+import datawave.ingest.test.StandaloneStatusReporter;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.MapContext;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.map.WrappedMapper;
+import org.apache.hadoop.mapreduce.task.MapContextImpl;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sets up an {@link EventMapper} over the records of a sample datatype, as a map task would, writing to an {@link EmittedKeyValueWriter} through the
+ * {@link BulkContextWriter}. Each operation of a benchmark is one record, so the score is in records per unit of time.
+ */
+@State(Scope.Benchmark)
+public abstract class AbstractIngestBenchmark {
+    
+    @Param({"csv", "json", "wikipedia", "nyctlc"})
+    public String datatype;
+    
+    /**
+     * count to only count the emitted key values, accumulo to also write them to an in memory Accumulo instance
+     */
+    @Param({"count", "accumulo"})
+    public String sink;
+    
+    protected EventMapper<LongWritable,RawRecordContainer,BulkIngestKey,Value> mapper;
+    protected Mapper<LongWritable,RawRecordContainer,BulkIngestKey,Value>.Context context;
+    protected EmittedKeyValueWriter writer;
+    protected List<RawRecordContainer> records;
+    protected List<DataTypeHandler<LongWritable>> handlers;
+    
+    protected final LongWritable key = new LongWritable();
+    private int next = 0;
+    
+    @Setup(Level.Trial)
+    public void setupMapper() throws Exception {
+        SampleDatatype sample = SampleDatatype.valueOf(datatype.toUpperCase(Locale.ENGLISH));
+        Configuration conf = sample.configure();
+        conf.setClass(EventMapper.CONTEXT_WRITER_CLASS, BulkContextWriter.class, ContextWriter.class);
+        records = sample.readRecords(conf);
+        
+        if ("accumulo".equals(sink)) {
+            writer = new EmittedKeyValueWriter(getClass().getSimpleName() + '-' + datatype + '-' + System.nanoTime());
+        } else {
+            writer = new EmittedKeyValueWriter();
+        }
+        MapContext<LongWritable,RawRecordContainer,BulkIngestKey,Value> mapContext = new MapContextImpl<>(conf, new TaskAttemptID(), null, writer, null,
+                        new StandaloneStatusReporter(), null);
+        context = new WrappedMapper<LongWritable,RawRecordContainer,BulkIngestKey,Value>().getMapContext(mapContext);
+        
+        mapper = new EventMapper<>();
+        mapper.setup(context);
+        
+        // the handlers of a datatype are set up by the first record of it
+        mapper.map(key, records.get(0), context);
+        handlers = mapper.getHandlerMap().get(sample.getTypeName());
+    }
+    
+    /**
+     * @return the next record, cycling through the sample input
+     */
+    protected RawRecordContainer nextRecord() {
+        RawRecordContainer record = records.get(next);
+        key.set(next);
+        next = (next + 1) % records.size();
+        return record;
+    }
+    
+    @TearDown(Level.Trial)
+    public void cleanupMapper() throws Exception {
+        mapper.cleanup(context);
+        writer.close(context);
+    }
+}
@@ -0,0 +1,118 @@
+package datawave.ingest.benchmark;
+
+import datawave.edge.util.EdgeKey;
+import datawave.edge.util.EdgeKey.EDGE_FORMAT;
+import datawave.edge.util.EdgeKey.STATS_TYPE;
+import datawave.edge.util.EdgeValue;
+import datawave.edge.util.EdgeValueHelper;
+import datawave.edge.util.ExtendedHyperLogLogPlus;
+import datawave.iterators.EdgeCombiner;
+import datawave.iterators.ProtobufEdgeCombiner;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.Combiner;
+import org.apache.hadoop.io.Text;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Combines the values of an edge the way a compaction does, with the {@link EdgeCombiner} or with the {@link ProtobufEdgeCombiner} that it replaced. The
+ * score is values/sec, and the gc profiler that the main method adds gives the bytes allocated per value as gc.alloc.rate.norm.
+ * <p>
+ * Run the main method from the test classpath, this is not run as part of the unit tests.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class EdgeCombinerBenchmark {
+    
+    private static final int VALUES = 1000;
+    
+    @Param({"primitive", "protobuf"})
+    public String combiner;
+    
+    @Param({"standard", "activity", "duration", "links"})
+    public String edge;
+    
+    private Combiner edgeCombiner;
+    private Key key;
+    private final List<Value> values = new ArrayList<>(VALUES);
+    
+    @Setup
+    public void setup() throws IOException {
+        edgeCombiner = "primitive".equals(combiner) ? new EdgeCombiner() : new ProtobufEdgeCombiner();
+        
+        Random random = new Random(814);
+        EdgeKey.EdgeKeyBuilder keyBuilder;
+        if ("standard".equals(edge)) {
+            keyBuilder = EdgeKey.newBuilder(EDGE_FORMAT.STANDARD).setSinkData("SINK").setSinkRelationship("TO");
+        } else {
+            keyBuilder = EdgeKey.newBuilder(EDGE_FORMAT.STATS).setStatsType(STATS_TYPE.valueOf(edge.toUpperCase()));
+        }
+        key = keyBuilder.setSourceData("SOURCE").setType("TYPE").setSourceRelationship("FROM").setYyyymmdd("20180101").setColvis(new Text("ALL")).build()
+                        .encode();
+        
+        for (int ii = 0; ii < VALUES; ii++) {
+            if ("links".equals(edge)) {
+                ExtendedHyperLogLogPlus links = new ExtendedHyperLogLogPlus();
+                for (int jj = random.nextInt(100); jj >= 0; jj--) {
+                    links.offer("SINK" + random.nextInt(10000));
+                }
+                values.add(new Value(links.getBytes()));
+                continue;
+            }
+            
+            // the values of a key as the edge handler writes them, a single event each
+            EdgeValue.EdgeValueBuilder builder = EdgeValue.newBuilder();
+            builder.setLoadDate("2018010" + random.nextInt(10));
+            builder.setUuid(new UUID(random.nextLong(), random.nextLong()).toString());
+            builder.setSourceValue("source");
+            if ("standard".equals(edge)) {
+                builder.setCount(1l);
+                builder.setHour(random.nextInt(24));
+                builder.setSinkValue("sink");
+            } else if ("activity".equals(edge)) {
+                builder.setHours(EdgeValueHelper.getLongListForHour(random.nextInt(24), false));
+            } else {
+                builder.setDuration(EdgeValueHelper.getLongListForDuration(random.nextInt(3600), false));
+            }
+            values.add(builder.build().encode());
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public Value reduce() {
+        return edgeCombiner.reduce(key, values.iterator());
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(EdgeCombinerBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,32 @@
+package datawave.ingest.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The totals of an iteration, reported next to the score of a benchmark. The bytes emitted per record are bytes / records.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class Emitted {
+    
+    public long records;
+    public long keyValues;
+    public long bytes;
+    
+    @Setup(Level.Iteration)
+    public void reset() {
+        records = 0;
+        keyValues = 0;
+        bytes = 0;
+    }
+    
+    void add(EmittedKeyValueWriter writer, long keyValuesBefore, long bytesBefore) {
+        records++;
+        keyValues += writer.getKeyValues() - keyValuesBefore;
+        bytes += writer.getBytes() - bytesBefore;
+    }
+}
@@ -0,0 +1,122 @@
+package datawave.ingest.benchmark;
+
+import datawave.accumulo.inmemory.InMemoryInstance;
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.TableExistsException;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The output of the benchmarked mapper, which counts the key values emitted and their serialized size, and optionally writes them to an in memory Accumulo
+ * instance so that the cost of loading them is measured as well.
+ */
+public class EmittedKeyValueWriter extends RecordWriter<BulkIngestKey,Value> {
+    
+    private final Connector connector;
+    private final Map<Text,BatchWriter> writers = new HashMap<>();
+    
+    private long keyValues = 0;
+    private long bytes = 0;
+    
+    /**
+     * Count the key values without writing them anywhere
+     */
+    public EmittedKeyValueWriter() {
+        this.connector = null;
+    }
+    
+    /**
+     * Count the key values and write them to a new in memory Accumulo instance
+     *
+     * @param instanceName
+     *            the name of the instance
+     * @throws AccumuloException
+     *             if the instance cannot be created
+     * @throws AccumuloSecurityException
+     *             if the instance cannot be connected to
+     */
+    public EmittedKeyValueWriter(String instanceName) throws AccumuloException, AccumuloSecurityException {
+        this.connector = new InMemoryInstance(instanceName).getConnector("root", new PasswordToken(new byte[0]));
+    }
+    
+    @Override
+    public void write(BulkIngestKey key, Value value) throws IOException {
+        keyValues++;
+        Key k = key.getKey();
+        bytes += k.getSize() + value.getSize();
+        
+        if (connector != null) {
+            Mutation m = new Mutation(k.getRow());
+            if (k.isDeleted()) {
+                m.putDelete(k.getColumnFamily(), k.getColumnQualifier(), new ColumnVisibility(k.getColumnVisibility()), k.getTimestamp());
+            } else {
+                m.put(k.getColumnFamily(), k.getColumnQualifier(), new ColumnVisibility(k.getColumnVisibility()), k.getTimestamp(), value);
+            }
+            try {
+                getWriter(key.getTableName()).addMutation(m);
+            } catch (AccumuloException | AccumuloSecurityException | TableNotFoundException e) {
+                throw new IOException("Unable to write to " + key.getTableName(), e);
+            }
+        }
+    }
+    
+    private BatchWriter getWriter(Text tableName) throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
+        BatchWriter writer = writers.get(tableName);
+        if (writer == null) {
+            String table = tableName.toString();
+            if (!connector.tableOperations().exists(table)) {
+                try {
+                    connector.tableOperations().create(table);
+                } catch (TableExistsException e) {
+                    // created since the check
+                }
+            }
+            writer = connector.createBatchWriter(table, new BatchWriterConfig());
+            writers.put(new Text(tableName), writer);
+        }
+        return writer;
+    }
+    
+    /**
+     * @return the number of key values written so far
+     */
+    public long getKeyValues() {
+        return keyValues;
+    }
+    
+    /**
+     * @return the serialized size of the keys and values written so far
+     */
+    public long getBytes() {
+        return bytes;
+    }
+    
+    @Override
+    public void close(TaskAttemptContext context) throws IOException {
+        try {
+            for (BatchWriter writer : writers.values()) {
+                writer.close();
+            }
+        } catch (AccumuloException e) {
+            throw new IOException(e);
+        } finally {
+            writers.clear();
+        }
+    }
+}
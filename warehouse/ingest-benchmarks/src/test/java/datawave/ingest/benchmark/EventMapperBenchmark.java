@@ -0,0 +1,45 @@
+package datawave.ingest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps the records of the sample datatypes end to end: normalization by the ingest helper, key generation by each configured handler, the metadata and the
+ * context writer. The score is records/sec, the {@link Emitted} counters give the key values and bytes emitted per record, and the gc profiler that the main
+ * method adds gives the allocation rate, with gc.alloc.rate.norm being the bytes allocated per record.
+ * <p>
+ * Run the main method from the test classpath, this is not run as part of the unit tests.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EventMapperBenchmark extends AbstractIngestBenchmark {
+    
+    @Benchmark
+    public void map(Emitted emitted) throws IOException, InterruptedException {
+        long keyValues = writer.getKeyValues();
+        long bytes = writer.getBytes();
+        mapper.map(key, nextRecord(), context);
+        emitted.add(writer, keyValues, bytes);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(EventMapperBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+}
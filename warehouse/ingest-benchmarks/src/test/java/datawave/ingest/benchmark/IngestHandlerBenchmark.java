@@ -0,0 +1,99 @@
+package datawave.ingest.benchmark;
+
+import com.google.common.collect.Multimap;
+import datawave.ingest.data.RawRecordContainer;
+import datawave.ingest.data.config.NormalizedContentInterface;
+import datawave.ingest.mapreduce.handler.DataTypeHandler;
+import org.apache.hadoop.io.LongWritable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the stages of the ingest path separately for the records of the sample datatypes:
+ * <ul>
+ * <li>normalize: the fields of a record from the ingest helper, including the virtual and composite fields</li>
+ * <li>handle: the key values generated by the handlers from fields normalized ahead of time, and the writing of them</li>
+ * </ul>
+ * The handle benchmark runs every handler configured for the datatype, or only the one named by the handler parameter, e.g. -p handler=FacetHandler.
+ * <p>
+ * Run the main method from the test classpath, this is not run as part of the unit tests.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IngestHandlerBenchmark extends AbstractIngestBenchmark {
+    
+    /**
+     * the simple class name of the handler to run, or all
+     */
+    @Param({"all"})
+    public String handler;
+    
+    private DataTypeHandler<LongWritable> normalizer;
+    private List<DataTypeHandler<LongWritable>> selected;
+    private List<Multimap<String,NormalizedContentInterface>> fields;
+    
+    @Setup(Level.Trial)
+    public void setupHandlers() throws Exception {
+        selected = new ArrayList<>();
+        for (DataTypeHandler<LongWritable> h : handlers) {
+            if (normalizer == null && h.getHelper(records.get(0).getDataType()) != null) {
+                normalizer = h;
+            }
+            if ("all".equals(handler) || h.getClass().getSimpleName().equals(handler)) {
+                selected.add(h);
+            }
+        }
+        if (normalizer == null || selected.isEmpty()) {
+            throw new IllegalStateException("No handler " + handler + " with an ingest helper for " + datatype + " in " + handlers);
+        }
+        
+        fields = new ArrayList<>(records.size());
+        for (RawRecordContainer record : records) {
+            fields.add(mapper.getFields(record, normalizer));
+        }
+    }
+    
+    @Benchmark
+    public Multimap<String,NormalizedContentInterface> normalize() throws Exception {
+        return mapper.getFields(nextRecord(), normalizer);
+    }
+    
+    @Benchmark
+    public void handle(Emitted emitted) throws Exception {
+        long keyValues = writer.getKeyValues();
+        long bytes = writer.getBytes();
+        // nextRecord sets the key to the index of the record
+        RawRecordContainer record = nextRecord();
+        Multimap<String,NormalizedContentInterface> recordFields = fields.get((int) key.get());
+        for (DataTypeHandler<LongWritable> h : selected) {
+            mapper.executeHandler(key, record, recordFields, h, context);
+        }
+        mapper.getContextWriter().commit(context);
+        emitted.add(writer, keyValues, bytes);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(IngestHandlerBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+}
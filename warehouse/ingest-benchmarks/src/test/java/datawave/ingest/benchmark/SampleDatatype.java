@@ -0,0 +1,132 @@
+package datawave.ingest.benchmark;
+
+import datawave.data.type.LcNoDiacriticsType;
+import datawave.ingest.data.RawRecordContainer;
+import datawave.ingest.data.TypeRegistry;
+import datawave.ingest.data.config.ingest.BaseIngestHelper;
+import datawave.ingest.input.reader.EventRecordReader;
+import datawave.ingest.mapreduce.handler.shard.ShardedDataTypeHandler;
+import datawave.ingest.mapreduce.handler.tokenize.ExtendedContentIndexingColumnBasedHandler;
+import datawave.util.TableName;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.apache.hadoop.util.ReflectionUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The sample datatypes, configured from their ingest configurations in datawave-ingest-configuration and read from the sample input in the test jar of their
+ * module.
+ */
+public enum SampleDatatype {
+    
+    CSV("mycsv", "input/my.csv", "config/mycsv-ingest-config.xml"),
+    JSON("myjson", "input/my.json", "config/myjson-ingest-config.xml", "config/facet-config.xml"),
+    WIKIPEDIA("wikipedia", "input/enwiki-20130305-pages-articles-brief.xml", "config/wikipedia-ingest-config.xml"),
+    NYCTLC("nyctlc", "input/nyctlc.csv", "config/nyctlc-ingest-config.xml");
+    
+    private final String typeName;
+    private final String input;
+    private final String[] configs;
+    
+    SampleDatatype(String typeName, String input, String... configs) {
+        this.typeName = typeName;
+        this.input = input;
+        this.configs = configs;
+    }
+    
+    public String getTypeName() {
+        return typeName;
+    }
+    
+    /**
+     * Create the configuration for the datatype, with the sharded tables that the unit tests of the sample modules use and the type registry initialized
+     *
+     * @return the configuration
+     */
+    public Configuration configure() {
+        Configuration conf = new Configuration();
+        for (String config : configs) {
+            conf.addResource(getResource(config));
+        }
+        conf.set(TypeRegistry.INGEST_DATA_TYPES, typeName);
+        conf.setInt(ShardedDataTypeHandler.NUM_SHARDS, 131);
+        conf.set(ShardedDataTypeHandler.SHARD_TNAME, TableName.SHARD);
+        conf.set(ShardedDataTypeHandler.SHARD_GIDX_TNAME, TableName.SHARD_INDEX);
+        conf.set(ShardedDataTypeHandler.SHARD_GRIDX_TNAME, TableName.SHARD_RINDEX);
+        conf.set(ShardedDataTypeHandler.METADATA_TABLE_NAME, TableName.METADATA);
+        conf.set(BaseIngestHelper.DEFAULT_TYPE, LcNoDiacriticsType.class.getName());
+        conf.setBoolean(ExtendedContentIndexingColumnBasedHandler.OPT_OFFLINE, true);
+        
+        TypeRegistry.reset();
+        TypeRegistry.getInstance(conf);
+        return conf;
+    }
+    
+    /**
+     * Read the sample input with the configured reader of the datatype
+     *
+     * @param conf
+     *            the configuration from {@link #configure()}
+     * @return a copy of each record
+     * @throws IOException
+     *             if the input cannot be read
+     * @throws InterruptedException
+     *             if interrupted while reading
+     */
+    public List<RawRecordContainer> readRecords(Configuration conf) throws IOException, InterruptedException {
+        File file = getInputFile();
+        Class<?> readerClass = conf.getClass(typeName + ".reader.class", null);
+        if (readerClass == null) {
+            throw new IllegalStateException("No reader configured for " + typeName);
+        }
+        RecordReader<?,?> reader = (RecordReader<?,?>) ReflectionUtils.newInstance(readerClass, conf);
+        TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+        
+        List<RawRecordContainer> records = new ArrayList<>();
+        try {
+            reader.initialize(new FileSplit(new Path(file.toURI().toString()), 0, file.length(), null), context);
+            while (reader.nextKeyValue()) {
+                records.add(((EventRecordReader) reader).getEvent().copy());
+            }
+        } finally {
+            reader.close();
+        }
+        if (records.isEmpty()) {
+            throw new IllegalStateException("No records read from " + input);
+        }
+        return records;
+    }
+    
+    /**
+     * The sample input is packaged in a test jar, so copy it out to a local file for the reader
+     */
+    private File getInputFile() throws IOException {
+        File file = File.createTempFile(typeName, input.substring(input.lastIndexOf('.')));
+        file.deleteOnExit();
+        try (InputStream in = getResource(input).openStream()) {
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file;
+    }
+    
+    private static URL getResource(String name) {
+        URL url = SampleDatatype.class.getClassLoader().getResource(name);
+        if (url == null) {
+            throw new IllegalStateException("Did not find " + name + " on the classpath");
+        }
+        return url;
+    }
+}
@@ -27,7 +27,6 @@ import org.apache.log4j.Logger;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -135,22 +134,22 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
     
     private Multimap<String,datawave.data.type.Type<?>> typeFieldMap = null;
     private Multimap<String,datawave.data.type.Type<?>> typePatternMap = null;
-    private Multimap<Matcher,datawave.data.type.Type<?>> typeCompiledPatternMap = null;
     protected Set<String> indexOnlyFields = Sets.newHashSet();
     
     protected Set<String> indexedFields = Sets.newHashSet();
     protected Map<String,Pattern> indexedPatterns = Maps.newHashMap();
-    protected Set<String> unindexedFields = Sets.newHashSet();
     
     protected Set<String> reverseIndexedFields = Sets.newHashSet();
     protected Map<String,Pattern> reverseIndexedPatterns = Maps.newHashMap();
-    protected Set<String> reverseUnindexedFields = Sets.newHashSet();
     
     // for all the atoms that are normalized, but not indexed
     protected Set<String> normalizedFields = Sets.newHashSet();
-    protected Set<String> unNormalizedFields = Sets.newHashSet();
     protected Map<String,Pattern> normalizedPatterns = Maps.newHashMap();
     
+    // the decisions made from the patterns above, built on first use
+    private volatile FieldPolicyCache fieldPolicyCache = null;
+    private int fieldPolicyCacheSize = FieldPolicyCache.DEFAULT_FIELD_POLICY_CACHE_SIZE;
+    
     protected Set<String> allIndexFields = Sets.newTreeSet(); // the indexed
                                                               // fields across
                                                               // all types
@@ -171,7 +170,6 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
     protected FailurePolicy defaultFailedFieldPolicy = FailurePolicy.FAIL;
     protected Map<String,FailurePolicy> failedFieldPolicy = null;
     protected Map<String,FailurePolicy> failedFieldPatternPolicy = null;
-    protected Map<Matcher,FailurePolicy> failedFieldCompiledPatternPolicy = null;
     protected String failedNormalizationField = "FAILED_NORMALIZATION_FIELD";
     
     protected MarkingsHelper markingsHelper = null;
@@ -188,7 +186,8 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
         this.typeFieldMap = HashMultimap.create();
         this.typeFieldMap.put(null, new NoOpType());
         this.typePatternMap = HashMultimap.create();
-        this.typeCompiledPatternMap = null;
+        this.fieldPolicyCache = null;
+        this.fieldPolicyCacheSize = config.getInt(FieldPolicyCache.FIELD_POLICY_CACHE_SIZE, FieldPolicyCache.DEFAULT_FIELD_POLICY_CACHE_SIZE);
         
         this.getVirtualIngest().setup(config);
         
@@ -568,18 +567,29 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
     
     @Override
     public boolean isDataTypeField(String fieldName) {
-        return this.typeFieldMap.containsKey(fieldName);
-        
+        if (this.typeFieldMap.containsKey(fieldName)) {
+            return true;
+        }
+        return !this.typePatternMap.isEmpty() && !getFieldPolicy(fieldName).getTypePatterns().isEmpty();
     }
     
-    private void compilePatterns() {
-        Multimap<Matcher,datawave.data.type.Type<?>> patterns = HashMultimap.create();
-        if (typePatternMap != null) {
-            for (String pattern : typePatternMap.keySet()) {
-                patterns.putAll(compileFieldNamePattern(pattern), typePatternMap.get(pattern));
-            }
+    /**
+     * Get the decisions made from the configured field name patterns for a field name. The cache is shared with the other helpers that have the same
+     * patterns, and is looked up once the patterns are complete, i.e. on first use after setup.
+     *
+     * @param fieldName
+     *            the field name
+     * @return the decisions for the field name
+     */
+    protected FieldPolicyCache.FieldPolicy getFieldPolicy(String fieldName) {
+        FieldPolicyCache cache = fieldPolicyCache;
+        if (cache == null) {
+            cache = FieldPolicyCache.getSharedCache(indexedPatterns.keySet(), reverseIndexedPatterns.keySet(), normalizedPatterns.keySet(),
+                            typePatternMap == null ? Collections.<String> emptySet() : typePatternMap.keySet(),
+                            failedFieldPatternPolicy == null ? Collections.<String,FailurePolicy> emptyMap() : failedFieldPatternPolicy, fieldPolicyCacheSize);
+            fieldPolicyCache = cache;
         }
-        typeCompiledPatternMap = patterns;
+        return cache.get(fieldName);
     }
     
     public static Matcher compileFieldNamePattern(String fieldNamePattern) {
@@ -593,18 +603,9 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
         
         LinkedList<datawave.data.type.Type<?>> types = new LinkedList<>(typeFieldMap.get(typeFieldName));
         
-        if (types.isEmpty()) {
-            if (typeCompiledPatternMap == null) {
-                compilePatterns();
-            }
-            
-            for (Matcher patternMatcher : typeCompiledPatternMap.keySet()) {
-                
-                if (patternMatcher.reset(fieldName).matches()) {
-                    Collection<datawave.data.type.Type<?>> patternTypes = typeCompiledPatternMap.get(patternMatcher);
-                    types.addAll(patternTypes);
-                    typeFieldMap.putAll(fieldName, patternTypes);
-                }
+        if (types.isEmpty() && !typePatternMap.isEmpty()) {
+            for (String pattern : getFieldPolicy(fieldName).getTypePatterns()) {
+                types.addAll(typePatternMap.get(pattern));
             }
         }
         
@@ -770,19 +771,10 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
     public boolean isNormalizedField(String fieldName) {
         if (this.normalizedFields.contains(fieldName)) {
             return true;
-        } else if (this.unNormalizedFields.contains(fieldName)) {
-            return false;
-        } else if (this.normalizedPatterns.isEmpty()) { // avoids filling unNormalizedFields if not necessary
+        } else if (this.normalizedPatterns.isEmpty()) { // avoids the cache if not necessary
             return false;
         } else {
-            for (Pattern pattern : this.normalizedPatterns.values()) {
-                if (pattern.matcher(fieldName).matches()) {
-                    this.normalizedFields.add(fieldName);
-                    return true;
-                }
-            }
-            this.unNormalizedFields.add(fieldName);
-            return false;
+            return getFieldPolicy(fieldName).isNormalized();
         }
     }
     
@@ -807,19 +799,10 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
             return true;
         } else if (this.indexedFields.contains(fieldName)) {
             return true;
-        } else if (this.unindexedFields.contains(fieldName)) {
-            return false;
-        } else if (this.indexedPatterns.isEmpty()) { // avoids filling unindexedFields if not necessary
+        } else if (this.indexedPatterns.isEmpty()) { // avoids the cache if not necessary
             return false;
         } else {
-            for (Pattern pattern : this.indexedPatterns.values()) {
-                if (pattern.matcher(fieldName).matches()) {
-                    this.indexedFields.add(fieldName); // update so we don't need to match the next time we see it
-                    return true;
-                }
-            }
-            this.unindexedFields.add(fieldName);
-            return false;
+            return getFieldPolicy(fieldName).isIndexed();
         }
     }
     
@@ -837,19 +820,10 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
             return true;
         } else if (this.reverseIndexedFields.contains(fieldName)) {
             return true;
-        } else if (this.reverseUnindexedFields.contains(fieldName)) {
-            return false;
-        } else if (this.reverseIndexedPatterns.isEmpty()) { // avoids filling reverseUnindexedFields if not necessary
+        } else if (this.reverseIndexedPatterns.isEmpty()) { // avoids the cache if not necessary
             return false;
         } else {
-            for (Pattern pattern : this.reverseIndexedPatterns.values()) {
-                if (pattern.matcher(fieldName).matches()) {
-                    this.reverseIndexedFields.add(fieldName); // update so we don't need to match the next time we see it
-                    return true;
-                }
-            }
-            this.reverseUnindexedFields.add(fieldName);
-            return false;
+            return getFieldPolicy(fieldName).isReverseIndexed();
         }
     }
     
@@ -958,29 +932,11 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
         return ns;
     }
     
-    private void compilePolicyPatterns() {
-        Map<Matcher,FailurePolicy> patterns = new HashMap<>();
-        if (failedFieldPatternPolicy != null) {
-            for (String pattern : failedFieldPatternPolicy.keySet()) {
-                patterns.put(Pattern.compile(pattern.replace("*", ".*")).matcher(""), failedFieldPatternPolicy.get(pattern));
-            }
-        }
-        failedFieldCompiledPatternPolicy = patterns;
-    }
-    
     protected FailurePolicy getFailurePolicy(String fieldName) {
         FailurePolicy policy = failedFieldPolicy.get(fieldName);
         if (policy == null) {
-            if (failedFieldCompiledPatternPolicy == null)
-                compilePolicyPatterns();
-            if (!failedFieldCompiledPatternPolicy.isEmpty()) {
-                for (Matcher patternMatcher : failedFieldCompiledPatternPolicy.keySet()) {
-                    
-                    if (patternMatcher.reset(fieldName).matches()) {
-                        policy = failedFieldCompiledPatternPolicy.get(patternMatcher);
-                        break;
-                    }
-                }
+            if (!failedFieldPatternPolicy.isEmpty()) {
+                policy = getFieldPolicy(fieldName).getFailurePolicy();
             }
             if (policy == null) {
                 policy = defaultFailedFieldPolicy;
@@ -1143,6 +1099,8 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
                 typeFieldMap.put(null, datawaveType);
             } else if (fieldName.indexOf('*') >= 0 || fieldName.indexOf('+') >= 0) { // We need a more conclusive test for regex
                 typePatternMap.put(fieldName, datawaveType);
+                // the patterns have changed
+                fieldPolicyCache = null;
             } else {
                 typeFieldMap.put(fieldName, datawaveType);
             }
@@ -0,0 +1,283 @@
+package datawave.ingest.data.config.ingest;
+
+import com.google.common.cache.AbstractCache.SimpleStatsCounter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import datawave.ingest.data.config.ingest.BaseIngestHelper.FailurePolicy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * The decisions that a {@link BaseIngestHelper} makes for a field name from its configured field name patterns: whether the field is indexed, reverse indexed
+ * or normalized, which type patterns it matches and which failure policy pattern applies to it. Matching a field name against every pattern is expensive when a
+ * feed has thousands of distinct field names, so the decisions are made once per field name and kept in a table bounded by
+ * {@link #FIELD_POLICY_CACHE_SIZE}, from which the least recently used field names are evicted.
+ * <p>
+ * The decisions only depend on the patterns, so a cache is shared by all of the helpers with the same patterns, e.g. those of the handlers of a datatype in a
+ * mapper. The explicitly configured field names are not in the cache, the helper checks them first. A cache is safe to use from multiple threads.
+ * <p>
+ * The hits, misses and evictions of every cache are also added to totals for all of the caches, which outlive the caches themselves so that nothing is lost
+ * from the reported stats when a cache that is no longer used is collected.
+ */
+public class FieldPolicyCache {
+    
+    /**
+     * Configuration parameter for the maximum number of field names in a cache
+     */
+    public static final String FIELD_POLICY_CACHE_SIZE = "ingest.field.policy.cache.size";
+    public static final int DEFAULT_FIELD_POLICY_CACHE_SIZE = 10000;
+    
+    public static final String HITS = "HITS";
+    public static final String MISSES = "MISSES";
+    public static final String EVICTIONS = "EVICTIONS";
+    
+    // the shared caches, keyed by their patterns
+    private static final Cache<Key,FieldPolicyCache> sharedCaches = CacheBuilder.newBuilder().weakValues().build();
+    // the stats of all of the caches, including those that have been collected
+    private static final SimpleStatsCounter totalStats = new SimpleStatsCounter();
+    private static CacheStats reportedStats = new CacheStats(0, 0, 0, 0, 0, 0);
+    
+    private final Map<String,Pattern> indexedPatterns;
+    private final Map<String,Pattern> reverseIndexedPatterns;
+    private final Map<String,Pattern> normalizedPatterns;
+    private final Map<String,Pattern> typePatterns;
+    private final Map<Pattern,FailurePolicy> failurePolicyPatterns;
+    private final Cache<String,FieldPolicy> policies;
+    private final SimpleStatsCounter stats = new SimpleStatsCounter();
+    
+    /**
+     * The decisions for a field name
+     */
+    public static class FieldPolicy {
+        private final boolean indexed;
+        private final boolean reverseIndexed;
+        private final boolean normalized;
+        private final List<String> typePatterns;
+        private final FailurePolicy failurePolicy;
+        
+        private FieldPolicy(boolean indexed, boolean reverseIndexed, boolean normalized, List<String> typePatterns, FailurePolicy failurePolicy) {
+            this.indexed = indexed;
+            this.reverseIndexed = reverseIndexed;
+            this.normalized = normalized;
+            this.typePatterns = typePatterns;
+            this.failurePolicy = failurePolicy;
+        }
+        
+        /**
+         * @return true if the field name matches an indexed field pattern
+         */
+        public boolean isIndexed() {
+            return indexed;
+        }
+        
+        /**
+         * @return true if the field name matches a reverse indexed field pattern
+         */
+        public boolean isReverseIndexed() {
+            return reverseIndexed;
+        }
+        
+        /**
+         * @return true if the field name matches a normalized field pattern
+         */
+        public boolean isNormalized() {
+            return normalized;
+        }
+        
+        /**
+         * @return the type patterns that the field name matches, as configured
+         */
+        public List<String> getTypePatterns() {
+            return typePatterns;
+        }
+        
+        /**
+         * @return the policy of the first failure policy pattern that the field name matches, or null
+         */
+        public FailurePolicy getFailurePolicy() {
+            return failurePolicy;
+        }
+    }
+    
+    /**
+     * The patterns of a cache, as configured
+     */
+    private static class Key {
+        private final Set<String> indexed;
+        private final Set<String> reverseIndexed;
+        private final Set<String> normalized;
+        private final Set<String> types;
+        private final Map<String,FailurePolicy> failurePolicies;
+        
+        private Key(Collection<String> indexed, Collection<String> reverseIndexed, Collection<String> normalized, Collection<String> types,
+                        Map<String,FailurePolicy> failurePolicies) {
+            this.indexed = new TreeSet<>(indexed);
+            this.reverseIndexed = new TreeSet<>(reverseIndexed);
+            this.normalized = new TreeSet<>(normalized);
+            this.types = new TreeSet<>(types);
+            this.failurePolicies = new TreeMap<>(failurePolicies);
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return indexed.equals(other.indexed) && reverseIndexed.equals(other.reverseIndexed) && normalized.equals(other.normalized)
+                            && types.equals(other.types) && failurePolicies.equals(other.failurePolicies);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(indexed, reverseIndexed, normalized, types, failurePolicies);
+        }
+    }
+    
+    private FieldPolicyCache(Key key, int maxSize) {
+        this.indexedPatterns = compile(key.indexed);
+        this.reverseIndexedPatterns = compile(key.reverseIndexed);
+        this.normalizedPatterns = compile(key.normalized);
+        this.typePatterns = compile(key.types);
+        
+        ImmutableMap.Builder<Pattern,FailurePolicy> failurePolicies = ImmutableMap.builder();
+        for (Map.Entry<String,FailurePolicy> entry : key.failurePolicies.entrySet()) {
+            failurePolicies.put(compile(entry.getKey()), entry.getValue());
+        }
+        this.failurePolicyPatterns = failurePolicies.build();
+        
+        this.policies = CacheBuilder.newBuilder().maximumSize(maxSize).removalListener(new RemovalListener<String,FieldPolicy>() {
+            @Override
+            public void onRemoval(RemovalNotification<String,FieldPolicy> notification) {
+                if (notification.wasEvicted()) {
+                    stats.recordEviction();
+                    totalStats.recordEviction();
+                }
+            }
+        }).build();
+    }
+    
+    /**
+     * Get the cache shared by the helpers with the given patterns, creating it if needed
+     *
+     * @param indexedPatterns
+     *            the indexed field patterns
+     * @param reverseIndexedPatterns
+     *            the reverse indexed field patterns
+     * @param normalizedPatterns
+     *            the normalized field patterns
+     * @param typePatterns
+     *            the field name patterns with configured types
+     * @param failurePolicyPatterns
+     *            the field name patterns with a configured failure policy
+     * @param maxSize
+     *            the maximum number of field names in the cache, if it is created
+     * @return the cache
+     */
+    public static FieldPolicyCache getSharedCache(Collection<String> indexedPatterns, Collection<String> reverseIndexedPatterns,
+                    Collection<String> normalizedPatterns, Collection<String> typePatterns, Map<String,FailurePolicy> failurePolicyPatterns, int maxSize) {
+        Key key = new Key(indexedPatterns, reverseIndexedPatterns, normalizedPatterns, typePatterns, failurePolicyPatterns);
+        FieldPolicyCache cache = sharedCaches.getIfPresent(key);
+        if (cache == null) {
+            synchronized (sharedCaches) {
+                cache = sharedCaches.getIfPresent(key);
+                if (cache == null) {
+                    cache = new FieldPolicyCache(key, maxSize);
+                    sharedCaches.put(key, cache);
+                }
+            }
+        }
+        return cache;
+    }
+    
+    private static Map<String,Pattern> compile(Collection<String> fieldNamePatterns) {
+        ImmutableMap.Builder<String,Pattern> patterns = ImmutableMap.builder();
+        for (String fieldNamePattern : fieldNamePatterns) {
+            patterns.put(fieldNamePattern, compile(fieldNamePattern));
+        }
+        return patterns.build();
+    }
+    
+    private static Pattern compile(String fieldNamePattern) {
+        return Pattern.compile(fieldNamePattern.replace("*", ".*"));
+    }
+    
+    /**
+     * @param fieldName
+     *            the field name
+     * @return the decisions for the field name
+     */
+    public FieldPolicy get(String fieldName) {
+        FieldPolicy policy = policies.getIfPresent(fieldName);
+        if (policy != null) {
+            stats.recordHits(1);
+            totalStats.recordHits(1);
+        } else {
+            // the decisions only depend on the patterns, so a field name matched by two threads at once gets the same decisions
+            policy = match(fieldName);
+            policies.put(fieldName, policy);
+            stats.recordMisses(1);
+            totalStats.recordMisses(1);
+        }
+        return policy;
+    }
+    
+    private FieldPolicy match(String fieldName) {
+        List<String> types = new ArrayList<>();
+        for (Map.Entry<String,Pattern> entry : typePatterns.entrySet()) {
+            if (entry.getValue().matcher(fieldName).matches()) {
+                types.add(entry.getKey());
+            }
+        }
+        FailurePolicy failurePolicy = null;
+        for (Map.Entry<Pattern,FailurePolicy> entry : failurePolicyPatterns.entrySet()) {
+            if (entry.getKey().matcher(fieldName).matches()) {
+                failurePolicy = entry.getValue();
+                break;
+            }
+        }
+        return new FieldPolicy(matches(indexedPatterns, fieldName), matches(reverseIndexedPatterns, fieldName), matches(normalizedPatterns, fieldName),
+                        types.isEmpty() ? ImmutableList.of() : ImmutableList.copyOf(types), failurePolicy);
+    }
+    
+    private static boolean matches(Map<String,Pattern> patterns, String fieldName) {
+        for (Pattern pattern : patterns.values()) {
+            if (pattern.matcher(fieldName).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * @return the hits, misses and evictions of this cache
+     */
+    public CacheStats getStats() {
+        return stats.snapshot();
+    }
+    
+    /**
+     * Get the hits, misses and evictions of the shared caches since the last call, e.g. to add them to the counters of a task
+     *
+     * @return the stats since the last call
+     */
+    public static synchronized CacheStats takeStats() {
+        CacheStats total = totalStats.snapshot();
+        CacheStats stats = total.minus(reportedStats);
+        reportedStats = total;
+        return stats;
+    }
+}
@@ -138,6 +138,18 @@ public class TokenizationHelper {
     public static final String MAX_URL_DECODES = ".token.interfield.position.increment";
     private int maxUrlDecodes = 2;
     
+    // the number of threads that tokenize the content fields of a document in parallel, or zero to tokenize them on the calling thread
+    public static final String TOKENIZER_POOL_SIZE = ".tokenizer.pool.size";
+    private int tokenizerPoolSize = 0;
+    
+    // the number of characters of a field tokenized by one task of the pool
+    public static final String TOKENIZER_CHUNK_SIZE = ".tokenizer.chunk.size";
+    private int tokenizerChunkSize = 64 * 1024;
+    
+    // the time after which a task of the pool stops tokenizing its chunk and keeps the tokens it has
+    public static final String TOKENIZER_CHUNK_DEADLINE_MSEC = ".tokenizer.chunk.deadline.msec";
+    private long tokenizerChunkDeadlineMsec = Long.MAX_VALUE;
+    
     public TokenizationHelper(DataTypeHelper helper, Configuration conf) throws IllegalArgumentException {
         analyzerClassName = conf.get(helper.getType().typeName() + ANALYZER_CLASS, analyzerClassName);
         stopWordList = conf.get(helper.getType().typeName() + STOP_WORD_LIST, stopWordList);
@@ -159,6 +171,9 @@ public class TokenizationHelper {
         tokenizerTimeWarnThresholdMsec = conf.getLong(helper.getType().typeName() + TOKENIZER_TIME_WARN_MSEC, tokenizerTimeWarnThresholdMsec);
         tokenizerTimeErrorThresholdMsec = conf.getLong(helper.getType().typeName() + TOKENIZER_TIME_ERROR_MSEC, tokenizerTimeErrorThresholdMsec);
         interFieldPositionIncrement = conf.getInt(helper.getType().typeName() + INTERFIELD_POSITION_INCREMENT, interFieldPositionIncrement);
+        tokenizerPoolSize = conf.getInt(helper.getType().typeName() + TOKENIZER_POOL_SIZE, tokenizerPoolSize);
+        tokenizerChunkSize = conf.getInt(helper.getType().typeName() + TOKENIZER_CHUNK_SIZE, tokenizerChunkSize);
+        tokenizerChunkDeadlineMsec = conf.getLong(helper.getType().typeName() + TOKENIZER_CHUNK_DEADLINE_MSEC, tokenizerChunkDeadlineMsec);
         
         final String nameProp = helper.getType().typeName() + TOKENIZER_TIME_THRESHOLD_NAMES;
         final String threshProp = helper.getType().typeName() + TOKENIZER_TIME_THRESHOLDS_MSEC;
@@ -347,6 +362,30 @@ public class TokenizationHelper {
         this.maxUrlDecodes = maxUrlDecodes;
     }
     
+    public int getTokenizerPoolSize() {
+        return tokenizerPoolSize;
+    }
+    
+    public void setTokenizerPoolSize(int tokenizerPoolSize) {
+        this.tokenizerPoolSize = tokenizerPoolSize;
+    }
+    
+    public int getTokenizerChunkSize() {
+        return tokenizerChunkSize;
+    }
+    
+    public void setTokenizerChunkSize(int tokenizerChunkSize) {
+        this.tokenizerChunkSize = tokenizerChunkSize;
+    }
+    
+    public long getTokenizerChunkDeadlineMsec() {
+        return tokenizerChunkDeadlineMsec;
+    }
+    
+    public void setTokenizerChunkDeadlineMsec(long tokenizerChunkDeadlineMsec) {
+        this.tokenizerChunkDeadlineMsec = tokenizerChunkDeadlineMsec;
+    }
+    
     public TokenSearch configureSearchUtil(TokenSearch searchUtil) {
         searchUtil.setDirtyWordTokensEnabled(isDirtyWordTokensEnabled());
         searchUtil.setFileWordTokensEnabled(isFileWordTokensEnabled());
@@ -1,5 +1,6 @@
 package datawave.ingest.mapreduce;
 
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
@@ -12,12 +13,15 @@ import datawave.ingest.data.config.NormalizedContentInterface;
 import datawave.ingest.data.config.NormalizedFieldAndValue;
 import datawave.ingest.data.config.filter.KeyValueFilter;
 import datawave.ingest.data.config.ingest.CompositeIngest;
+import datawave.ingest.data.config.ingest.FieldPolicyCache;
 import datawave.ingest.data.config.ingest.FilterIngest;
 import datawave.ingest.data.config.ingest.IngestHelperInterface;
 import datawave.ingest.data.config.ingest.VirtualIngest;
 import datawave.ingest.input.reader.event.EventErrorSummary;
 import datawave.ingest.mapreduce.handler.DataTypeHandler;
 import datawave.ingest.mapreduce.handler.ExtendedDataTypeHandler;
+import datawave.ingest.mapreduce.handler.KeyValueSink;
+import datawave.ingest.mapreduce.handler.KeyValueSinkDataTypeHandler;
 import datawave.ingest.mapreduce.handler.error.ErrorDataTypeHandler;
 import datawave.ingest.mapreduce.job.BulkIngestKey;
 import datawave.ingest.mapreduce.job.ConstraintChecker;
@@ -78,9 +82,10 @@ import java.util.concurrent.TimeUnit;
  * is within the window, then the map will parse the Event into a map of field names and field values, the map method will call the process() method on each
  * DataTypeHandler implementation that has been configured for the Type of Event.
  *
- * This class no longer supports processing events in a multi-threaded fashion as that was proven to NOT be beneficial in the long run (i.e. The bulk of the
- * time is spent in the ContextWriter which is synchronized. Also multithreading mean potentially more memory use which we should already be maximizing per
- * machine in the hadoop map-reduce cluster.)
+ * By default events are processed in the task thread. Processing events in threads that share one synchronized ContextWriter proved to NOT be beneficial
+ * as the bulk of the time was spent waiting on the ContextWriter, and more threads mean more memory use which we should already be maximizing per machine.
+ * When there are more cores than mappers, the EVENT_MAPPER_THREADS property can instead be set to run a number of these mappers in separate threads, each
+ * with its own handlers and ContextWriters, see {@link EventMapperWorkers}.
  *
  *
  *
@@ -127,6 +132,21 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
     
     public static final String ID_FILTER_FSTS = "ingest.event.mapper.id.filter.fsts";
     
+    /**
+     * The number of threads to process events in, each with its own handlers and context writers. Defaults to 1, processing events in the task thread.
+     */
+    public static final String EVENT_MAPPER_THREADS = "ingest.event.mapper.threads";
+    
+    /**
+     * The number of key values that a thread collects before writing them to the task output
+     */
+    public static final String EVENT_MAPPER_THREADS_BATCH_SIZE = "ingest.event.mapper.threads.batch.size";
+    
+    /**
+     * The number of records that are read ahead of the threads
+     */
+    public static final String EVENT_MAPPER_THREADS_QUEUE_SIZE = "ingest.event.mapper.threads.queue.size";
+    
     protected Map<String,List<DataTypeHandler<K1>>> typeMap = new HashMap<>();
     
     /**
@@ -146,6 +166,9 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
     
     private ContextWriter<K2,V2> contextWriter = null;
     
+    // reused across events for the handlers that can put their keys and values in a sink
+    private final KeyValueSink sink = new KeyValueSink();
+    
     protected long offset = 0;
     
     protected String splitStart = null;
@@ -356,6 +379,19 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         return typeMap.get(typeStr);
     }
     
+    @Override
+    public void run(Context context) throws IOException, InterruptedException {
+        int threads = context.getConfiguration().getInt(EVENT_MAPPER_THREADS, 1);
+        if (threads > 1) {
+            log.info("Processing events in " + threads + " threads");
+            int batchSize = context.getConfiguration().getInt(EVENT_MAPPER_THREADS_BATCH_SIZE, 1000);
+            int queueSize = context.getConfiguration().getInt(EVENT_MAPPER_THREADS_QUEUE_SIZE, threads * 100);
+            new EventMapperWorkers<K1,V1,K2,V2>(getClass(), threads, batchSize, queueSize).run(context);
+        } else {
+            super.run(context);
+        }
+    }
+    
     private List<String> getDataTypeFilterClassNames() {
         
         SortedMap<Integer,String[]> priorityToFilters = new TreeMap<>();
@@ -407,13 +443,18 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         if (rawData != null) {
             long rawDataBytes = rawData.length;
             getCounter(context, IngestInput.LINE_BYTES.toString(), "TOTAL").increment(rawDataBytes);
-            long minBytes = getCounter(context, IngestInput.LINE_BYTES.toString(), "MIN").getValue();
-            if (rawDataBytes < minBytes) {
-                getCounter(context, IngestInput.LINE_BYTES.toString(), "MIN").setValue(rawDataBytes);
+            // the counters may be shared with other threads, see EVENT_MAPPER_THREADS
+            Counter minBytes = getCounter(context, IngestInput.LINE_BYTES.toString(), "MIN");
+            synchronized (minBytes) {
+                if (rawDataBytes < minBytes.getValue()) {
+                    minBytes.setValue(rawDataBytes);
+                }
             }
-            long maxBytes = getCounter(context, IngestInput.LINE_BYTES.toString(), "MAX").getValue();
-            if (rawDataBytes > maxBytes) {
-                getCounter(context, IngestInput.LINE_BYTES.toString(), "MAX").setValue(rawDataBytes);
+            Counter maxBytes = getCounter(context, IngestInput.LINE_BYTES.toString(), "MAX");
+            synchronized (maxBytes) {
+                if (rawDataBytes > maxBytes.getValue()) {
+                    maxBytes.setValue(rawDataBytes);
+                }
             }
         }
         
@@ -638,6 +679,12 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         }
         typeMap.clear();
         
+        // the field policy caches are shared by the ingest helpers of the handlers, so report them once
+        CacheStats fieldPolicyStats = FieldPolicyCache.takeStats();
+        getCounter(context, IngestProcess.FIELD_POLICY_CACHE.name(), FieldPolicyCache.HITS).increment(fieldPolicyStats.hitCount());
+        getCounter(context, IngestProcess.FIELD_POLICY_CACHE.name(), FieldPolicyCache.MISSES).increment(fieldPolicyStats.missCount());
+        getCounter(context, IngestProcess.FIELD_POLICY_CACHE.name(), FieldPolicyCache.EVICTIONS).increment(fieldPolicyStats.evictionCount());
+        
         // Add the counters from the standalone reporter to this context.
         Counters counters = reporter.getCounters();
         for (CounterGroup cg : counters) {
@@ -822,7 +869,17 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         // method to call on the DataTypeHandler interface.
         Multimap<BulkIngestKey,Value> r;
         
-        if (!(handler instanceof ExtendedDataTypeHandler)) {
+        if (handler instanceof KeyValueSinkDataTypeHandler && !(handler instanceof ExtendedDataTypeHandler)
+                        && ((KeyValueSinkDataTypeHandler<K1>) handler).usesKeyValueSink()) {
+            sink.clear();
+            if (((KeyValueSinkDataTypeHandler<K1>) handler).processBulk(key, event, fields, new ContextWrappedStatusReporter(getContext(context)), sink)) {
+                count = sink.flush(contextWriter, context);
+            } else {
+                sink.clear();
+                getCounter(context, IngestInput.EVENT_FATAL_ERROR).increment(1);
+                getCounter(context, IngestInput.EVENT_FATAL_ERROR.name(), "NullMultiMap").increment(1);
+            }
+        } else if (!(handler instanceof ExtendedDataTypeHandler)) {
             r = handler.processBulk(key, event, fields, new ContextWrappedStatusReporter(getContext(context)));
             if (r == null) {
                 getCounter(context, IngestInput.EVENT_FATAL_ERROR).increment(1);
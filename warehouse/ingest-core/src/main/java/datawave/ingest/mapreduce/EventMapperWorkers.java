@@ -0,0 +1,293 @@
+package datawave.ingest.mapreduce;
+
+import datawave.ingest.data.RawRecordContainer;
+import datawave.ingest.metric.IngestProcess;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.StatusReporter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.map.WrappedMapper;
+import org.apache.hadoop.mapreduce.task.MapContextImpl;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs the records of a map task through a number of {@link EventMapper}s, each in its own thread. The task thread reads the records and hands copies of them
+ * to the workers through a bounded queue.
+ * <p>
+ * Each worker is a separate mapper instance, set up and cleaned up in its own thread, so it has its own data type handlers, its own chain of context writers
+ * (including the {@link datawave.ingest.mapreduce.job.metrics.KeyValueCountingContextWriter} when metrics are enabled) and its own commit and rollback of each
+ * event, which keeps the error table handling of a single mapper. The output of a worker's context writers is collected in a batch and written to the task
+ * output under a single lock, so that the workers only contend for the output once per batch. Counters are shared with the task.
+ * <p>
+ * The sequence file offset of each event is the position of its record in the split. In a single mapper, events skipped for being older than the discard
+ * interval are not counted in the offset.
+ *
+ * @param <K1>
+ *            input key
+ * @param <V1>
+ *            input value
+ * @param <K2>
+ *            output key
+ * @param <V2>
+ *            output value
+ */
+public class EventMapperWorkers<K1,V1 extends RawRecordContainer,K2,V2> {
+    
+    private static final Logger log = Logger.getLogger(EventMapperWorkers.class);
+    
+    private final Class<? extends EventMapper> mapperClass;
+    private final int threads;
+    private final int batchSize;
+    private final BlockingQueue<Record<K1,V1>> queue;
+    
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean aborted = false;
+    
+    private static class Record<K1,V1> {
+        private final K1 key;
+        private final V1 value;
+        private final long offset;
+        
+        private Record(K1 key, V1 value, long offset) {
+            this.key = key;
+            this.value = value;
+            this.offset = offset;
+        }
+    }
+    
+    // tells a worker that there are no more records
+    private final Record<K1,V1> end = new Record<>(null, null, -1);
+    
+    public EventMapperWorkers(Class<? extends EventMapper> mapperClass, int threads, int batchSize, int queueSize) {
+        this.mapperClass = mapperClass;
+        this.threads = threads;
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(threads, queueSize));
+    }
+    
+    /**
+     * Process all of the records of the task
+     *
+     * @param context
+     *            the context of the task
+     * @throws IOException
+     *             if a worker failed
+     * @throws InterruptedException
+     */
+    @SuppressWarnings("unchecked")
+    public void run(Mapper<K1,V1,K2,V2>.Context context) throws IOException, InterruptedException {
+        Configuration conf = context.getConfiguration();
+        CountDownLatch setupComplete = new CountDownLatch(threads);
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            EventMapper<K1,V1,K2,V2> mapper = ReflectionUtils.newInstance(mapperClass, conf);
+            Thread thread = new Thread(new Worker(i, mapper, context, setupComplete), "EventMapper worker " + i);
+            thread.setDaemon(true);
+            workers.add(thread);
+            thread.start();
+        }
+        
+        try {
+            // wait for every worker to be set up before handing out records, so that a setup failure stops the task before any events are processed
+            setupComplete.await();
+            checkFailure();
+            
+            long offset = 0;
+            while (context.nextKeyValue()) {
+                // readers may reuse the key and value objects, so the worker gets a copy
+                K1 key = context.getCurrentKey();
+                if (key instanceof Writable) {
+                    key = (K1) WritableUtils.clone((Writable) key, conf);
+                }
+                put(new Record<>(key, (V1) context.getCurrentValue().copy(), offset++));
+            }
+            for (int i = 0; i < threads; i++) {
+                put(end);
+            }
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            aborted = true;
+            throw e;
+        } finally {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+        checkFailure();
+    }
+    
+    private void put(Record<K1,V1> record) throws IOException, InterruptedException {
+        while (!queue.offer(record, 100, TimeUnit.MILLISECONDS)) {
+            checkFailure();
+        }
+    }
+    
+    private void checkFailure() throws IOException {
+        Throwable e = failure.get();
+        if (e != null) {
+            aborted = true;
+            if (e instanceof RuntimeException) {
+                // constraint violations and other runtime failures fail the task as they would in a single mapper
+                throw (RuntimeException) e;
+            }
+            throw new IOException("EventMapper worker failed", e);
+        }
+    }
+    
+    private class Worker implements Runnable {
+        private final int id;
+        private final EventMapper<K1,V1,K2,V2> mapper;
+        private final BatchingRecordWriter writer;
+        private final Mapper<K1,V1,K2,V2>.Context context;
+        private final CountDownLatch setupComplete;
+        
+        /**
+         * The worker's context shares the task's configuration, split, counters and output
+         */
+        private Worker(int id, EventMapper<K1,V1,K2,V2> mapper, Mapper<K1,V1,K2,V2>.Context taskContext, CountDownLatch setupComplete) {
+            this.id = id;
+            this.mapper = mapper;
+            this.writer = new BatchingRecordWriter(taskContext);
+            MapContextImpl<K1,V1,K2,V2> mapContext = new MapContextImpl<>(taskContext.getConfiguration(), taskContext.getTaskAttemptID(), null, writer,
+                            taskContext.getOutputCommitter(), new SharedStatusReporter(taskContext), taskContext.getInputSplit());
+            this.context = new WrappedMapper<K1,V1,K2,V2>().getMapContext(mapContext);
+            this.setupComplete = setupComplete;
+        }
+        
+        @Override
+        public void run() {
+            long records = 0;
+            long processingTime = 0;
+            try {
+                try {
+                    mapper.setup(context);
+                } finally {
+                    setupComplete.countDown();
+                }
+                
+                while (!aborted) {
+                    Record<K1,V1> record = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (record == end) {
+                        break;
+                    } else if (record != null) {
+                        long start = System.nanoTime();
+                        mapper.offset = record.offset;
+                        mapper.map(record.key, record.value, context);
+                        processingTime += System.nanoTime() - start;
+                        records++;
+                    }
+                }
+                
+                if (!aborted) {
+                    mapper.cleanup(context);
+                    // write the last partial batch
+                    writer.close(context);
+                    reportRate(records, processingTime);
+                }
+            } catch (Throwable e) {
+                log.error("EventMapper worker " + id + " failed", e);
+                failure.compareAndSet(null, e);
+                aborted = true;
+            }
+        }
+        
+        private void reportRate(long records, long processingTime) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(processingTime);
+            long recordsPerSecond = processingTime == 0 ? 0 : records * TimeUnit.SECONDS.toNanos(1) / processingTime;
+            log.info("EventMapper worker " + id + " processed " + records + " records in " + millis + "ms (" + recordsPerSecond + " records/sec)");
+            // counters are summed across the tasks of the job, so only the records and the time are counted and the rate is left to be derived from them
+            context.getCounter(IngestProcess.MAPPER_THREAD.name(), id + ".RECORDS").increment(records);
+            context.getCounter(IngestProcess.MAPPER_THREAD.name(), id + ".MILLIS").increment(millis);
+        }
+    }
+    
+    /**
+     * Collects the output of a worker and writes it to the task output in batches
+     */
+    private class BatchingRecordWriter extends RecordWriter<K2,V2> {
+        private final Mapper<K1,V1,K2,V2>.Context output;
+        private final List<K2> keys = new ArrayList<>(batchSize);
+        private final List<V2> values = new ArrayList<>(batchSize);
+        
+        private BatchingRecordWriter(Mapper<K1,V1,K2,V2>.Context output) {
+            this.output = output;
+        }
+        
+        @Override
+        public void write(K2 key, V2 value) throws IOException, InterruptedException {
+            keys.add(key);
+            values.add(value);
+            if (keys.size() >= batchSize) {
+                flush();
+            }
+        }
+        
+        private void flush() throws IOException, InterruptedException {
+            synchronized (output) {
+                for (int i = 0; i < keys.size(); i++) {
+                    output.write(keys.get(i), values.get(i));
+                }
+            }
+            keys.clear();
+            values.clear();
+        }
+        
+        @Override
+        public void close(TaskAttemptContext context) throws IOException, InterruptedException {
+            flush();
+        }
+    }
+    
+    /**
+     * Passes the counters, progress and status of a worker through to the task
+     */
+    private static class SharedStatusReporter extends StatusReporter {
+        private final TaskAttemptContext context;
+        
+        private SharedStatusReporter(TaskAttemptContext context) {
+            this.context = context;
+        }
+        
+        @Override
+        public Counter getCounter(Enum<?> name) {
+            synchronized (context) {
+                return context.getCounter(name);
+            }
+        }
+        
+        @Override
+        public Counter getCounter(String group, String name) {
+            synchronized (context) {
+                return context.getCounter(group, name);
+            }
+        }
+        
+        @Override
+        public void progress() {
+            context.progress();
+        }
+        
+        @Override
+        public float getProgress() {
+            return context.getProgress();
+        }
+        
+        @Override
+        public void setStatus(String status) {
+            context.setStatus(status);
+        }
+    }
+}
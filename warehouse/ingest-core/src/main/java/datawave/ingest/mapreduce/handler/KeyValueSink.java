@@ -0,0 +1,253 @@
+package datawave.ingest.mapreduce.handler;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.ingest.mapreduce.job.writer.ContextWriter;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A reusable collection of the keys and values produced by a handler for an event, partitioned by table, which is flushed directly to a {@link ContextWriter}.
+ * This is used in place of building a {@link Multimap} of {@link BulkIngestKey}s for each column and merging them together.
+ * <p>
+ * The entries of each table are held in pooled entry arrays that are kept from one event to the next, the keys share the table name given when they were put,
+ * and the sink lends out {@link Text} buffers for building columns that are recycled when it is flushed. As with the {@link HashMultimap} returned from
+ * {@link DataTypeHandler#processBulk}, a key and value put more than once are only written once.
+ * <p>
+ * A sink may instead put the keys and values directly into a {@link Multimap}, see {@link #into(Multimap)}, which lets the Multimap based handler methods
+ * share the implementation of their sink variants.
+ * <p>
+ * A sink is not thread safe, and is expected to be used by one handler at a time.
+ */
+public class KeyValueSink {
+    
+    private static final Comparator<Entry> ENTRY_COMPARATOR = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry o1, Entry o2) {
+            int cmp = o1.key.compareTo(o2.key);
+            if (cmp == 0) {
+                cmp = o1.value.compareTo(o2.value);
+            }
+            return cmp;
+        }
+    };
+    
+    private final List<Partition> partitions = new ArrayList<>();
+    private final List<Text> texts = new ArrayList<>();
+    private int textsInUse = 0;
+    private int size = 0;
+    // when set, the keys and values are put directly into this multimap rather than being held until the sink is flushed
+    private Multimap<BulkIngestKey,Value> target = null;
+    
+    private static class Entry {
+        private Key key;
+        private Value value;
+    }
+    
+    private static class Partition {
+        private final Text table;
+        private Entry[] entries = new Entry[16];
+        private int size = 0;
+        
+        private Partition(Text table) {
+            this.table = table;
+        }
+        
+        private void put(Key key, Value value) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            Entry entry = entries[size];
+            if (entry == null) {
+                entry = entries[size] = new Entry();
+            }
+            entry.key = key;
+            entry.value = value;
+            size++;
+        }
+        
+        /**
+         * Sort the entries and move the distinct ones to the front
+         *
+         * @return the number of distinct entries
+         */
+        private int distinct() {
+            if (size < 2) {
+                return size;
+            }
+            Arrays.sort(entries, 0, size, ENTRY_COMPARATOR);
+            int distinct = 1;
+            for (int i = 1; i < size; i++) {
+                if (ENTRY_COMPARATOR.compare(entries[distinct - 1], entries[i]) != 0) {
+                    Entry entry = entries[distinct];
+                    entries[distinct++] = entries[i];
+                    entries[i] = entry;
+                }
+            }
+            return distinct;
+        }
+        
+        private void clear() {
+            for (int i = 0; i < size; i++) {
+                entries[i].key = null;
+                entries[i].value = null;
+            }
+            size = 0;
+        }
+    }
+    
+    /**
+     * Add a key and value to the sink
+     *
+     * @param table
+     *            the table name, which is shared by the {@link BulkIngestKey}s written for the table and must not be modified afterwards
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     */
+    public void put(Text table, Key key, Value value) {
+        if (target != null) {
+            target.put(new BulkIngestKey(table, key), value);
+        } else {
+            getPartition(table).put(key, value);
+        }
+        size++;
+    }
+    
+    /**
+     * Put the keys and values directly into a multimap from now on, rather than holding them until the sink is flushed. This adapts the sink to the
+     * {@link Multimap} based handler methods. The sink is cleared first, so that the texts it lent out are recycled.
+     *
+     * @param values
+     *            the multimap to put the keys and values into, or null to hold them in the sink again
+     * @return this sink
+     */
+    public KeyValueSink into(Multimap<BulkIngestKey,Value> values) {
+        clear();
+        this.target = values;
+        return this;
+    }
+    
+    private Partition getPartition(Text table) {
+        // there are only a handful of tables, and handlers normally pass the same table name instance
+        for (Partition partition : partitions) {
+            if (partition.table == table) {
+                return partition;
+            }
+        }
+        for (Partition partition : partitions) {
+            if (partition.table.equals(table)) {
+                return partition;
+            }
+        }
+        Partition partition = new Partition(table);
+        partitions.add(partition);
+        return partition;
+    }
+    
+    /**
+     * Borrow an empty {@link Text} to build a column in. The text is only valid until the sink is flushed or cleared, so it may be used to create a
+     * {@link Key}, which copies it, but must not be held on to.
+     *
+     * @return an empty text
+     */
+    public Text text() {
+        Text text;
+        if (textsInUse < texts.size()) {
+            text = texts.get(textsInUse);
+            text.clear();
+        } else {
+            text = new Text();
+            texts.add(text);
+        }
+        textsInUse++;
+        return text;
+    }
+    
+    /**
+     * Borrow a {@link Text} set to a string, see {@link #text()}
+     *
+     * @param value
+     *            the value of the text
+     * @return the text
+     */
+    public Text text(String value) {
+        Text text = text();
+        text.set(value);
+        return text;
+    }
+    
+    /**
+     * Borrow a {@link Text} set to bytes, see {@link #text()}
+     *
+     * @param value
+     *            the value of the text
+     * @return the text
+     */
+    public Text text(byte[] value) {
+        Text text = text();
+        text.set(value);
+        return text;
+    }
+    
+    /**
+     * @return the number of keys and values put since the sink was last flushed or cleared, including duplicates and those put directly into a multimap
+     */
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Write the distinct keys and values to a context writer and clear the sink
+     *
+     * @param contextWriter
+     *            the context writer
+     * @param context
+     *            the context
+     * @return the number of keys written
+     * @throws IOException
+     *             if the context writer fails
+     * @throws InterruptedException
+     *             if the context writer is interrupted
+     */
+    public <OK,OV> long flush(ContextWriter<OK,OV> contextWriter, TaskInputOutputContext<?,?,OK,OV> context) throws IOException, InterruptedException {
+        long count = 0;
+        try {
+            for (Partition partition : partitions) {
+                int distinct = partition.distinct();
+                for (int i = 0; i < distinct; i++) {
+                    contextWriter.write(new BulkIngestKey(partition.table, partition.entries[i].key), partition.entries[i].value, context);
+                }
+                count += distinct;
+            }
+        } finally {
+            clear();
+        }
+        return count;
+    }
+    
+    /**
+     * Discard the keys and values, e.g. when an event fails, and recycle the borrowed texts
+     */
+    public void clear() {
+        for (Partition partition : partitions) {
+            partition.clear();
+        }
+        size = 0;
+        textsInUse = 0;
+    }
+}
@@ -0,0 +1,36 @@
+package datawave.ingest.mapreduce.handler;
+
+import com.google.common.collect.Multimap;
+import datawave.ingest.data.RawRecordContainer;
+import datawave.ingest.data.config.NormalizedContentInterface;
+import org.apache.hadoop.mapreduce.StatusReporter;
+
+/**
+ * A {@link DataTypeHandler} that can put the keys and values for an event into a {@link KeyValueSink}, which the EventMapper flushes directly to its
+ * ContextWriter. This avoids the Multimaps built and merged by {@link DataTypeHandler#processBulk}, which the handler still implements.
+ * <p>
+ * The EventMapper calls the sink variant rather than the Multimap variant only if {@link #usesKeyValueSink()}, so that a handler which changes its output
+ * by overriding the Multimap processBulk keeps doing so.
+ */
+public interface KeyValueSinkDataTypeHandler<KEYIN> extends DataTypeHandler<KEYIN> {
+    
+    /**
+     * This method is called by the EventMapper, in place of {@link #processBulk(Object, RawRecordContainer, Multimap, StatusReporter)}, to process the current
+     * Event for Bulk ingest.
+     *
+     * @param key
+     * @param event
+     * @param fields
+     * @param reporter
+     * @param sink
+     *            the sink to put the keys and values in
+     * @return false if error, in which case the sink is left empty
+     */
+    boolean processBulk(KEYIN key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields, StatusReporter reporter, KeyValueSink sink);
+    
+    /**
+     * @return true if the EventMapper should call the sink variant of processBulk, false if this handler overrides the Multimap variant and has to be called
+     *         through it
+     */
+    boolean usesKeyValueSink();
+}
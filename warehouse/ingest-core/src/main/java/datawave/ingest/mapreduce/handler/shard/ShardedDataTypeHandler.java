@@ -36,6 +36,8 @@ import datawave.ingest.data.config.NormalizedContentInterface;
 import datawave.ingest.data.config.ingest.IngestHelperInterface;
 import datawave.ingest.mapreduce.MemberShipTest;
 import datawave.ingest.mapreduce.handler.DataTypeHandler;
+import datawave.ingest.mapreduce.handler.KeyValueSink;
+import datawave.ingest.mapreduce.handler.KeyValueSinkDataTypeHandler;
 import datawave.ingest.mapreduce.job.BulkIngestKey;
 import datawave.ingest.mapreduce.job.statsd.StatsDEnabledDataTypeHandler;
 import datawave.ingest.metadata.RawRecordMetadata;
@@ -116,7 +118,7 @@ import datawave.webservice.common.logging.ThreadConfigurableLogger;
  * 
  * @param <KEYIN>
  */
-public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTypeHandler<KEYIN> implements DataTypeHandler<KEYIN> {
+public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTypeHandler<KEYIN> implements KeyValueSinkDataTypeHandler<KEYIN> {
     
     private static final Logger log = ThreadConfigurableLogger.getLogger(ShardedDataTypeHandler.class);
     
@@ -177,6 +179,10 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
     
     private static final long MS_PER_DAY = TimeUnit.DAYS.toMillis(1);
     
+    // the sink that the Multimap variants of processBulk and of the column methods put into, reused from one call to the next
+    private final KeyValueSink multimapSink = new KeyValueSink();
+    private boolean multimapSinkInUse = false;
+    
     private float bloomFilteringDiskThreshold;
     private String bloomFilteringDiskThresholdPath;
     private float bloomFilteringMemoryThreshold;
@@ -389,13 +395,30 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
     @Override
     public Multimap<BulkIngestKey,Value> processBulk(KEYIN key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields,
                     StatusReporter reporter) {
+        Multimap<BulkIngestKey,Value> values = HashMultimap.create();
+        KeyValueSink sink = acquireMultimapSink(values);
+        try {
+            return processBulk(key, event, eventFields, reporter, sink) ? values : null;
+        } finally {
+            releaseMultimapSink(sink);
+        }
+    }
+    
+    /**
+     * Creates the same entries as {@link #processBulk(Object, RawRecordContainer, Multimap, StatusReporter)}, putting them in the sink rather than in a
+     * Multimap, which the Multimap variant adapts. This method returns false if the Event objects fatalError() method returns true. Only the sink variants of
+     * the column methods are called, see {@link #usesKeyValueSink()}.
+     */
+    @Override
+    public boolean processBulk(KEYIN key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields, StatusReporter reporter,
+                    KeyValueSink sink) {
         if (event.fatalError()) {
-            return null;
+            return false;
         } else {
             if (isReindexEnabled) {
                 Multimap<String,NormalizedContentInterface> filteredEventFields = filterByRequestedFields(eventFields);
                 if (filteredEventFields.isEmpty()) {
-                    return HashMultimap.create(); // nothing to do (none of the reindex fields were found)
+                    return true; // nothing to do (none of the reindex fields were found)
                 }
                 eventFields = filteredEventFields;
             }
@@ -403,7 +426,49 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
             Multimap<String,NormalizedContentInterface> fields = getShardNamesAndValues(event, eventFields, (null != getShardIndexTableName()),
                             (null != getShardReverseIndexTableName()), reporter);
             
-            return createColumns(event, fields, reporter);
+            createColumns(event, fields, reporter, sink);
+            return true;
+        }
+    }
+    
+    /**
+     * The column methods are implemented once, putting their keys and values in a sink, and their Multimap variants only adapt the sink variants. A handler
+     * changes its columns by overriding the sink variants, which are used by both variants of processBulk. A handler that overrides the Multimap variant of
+     * processBulk has to return false, so that the EventMapper calls that override.
+     * 
+     * @return true if the EventMapper should call the sink variant of processBulk
+     */
+    @Override
+    public boolean usesKeyValueSink() {
+        return true;
+    }
+    
+    /**
+     * Get a sink that puts keys and values directly into a multimap, for the Multimap variants of processBulk and of the column methods. The sink of this
+     * handler is reused, unless it is already in use further up the stack. It has to be given back with {@link #releaseMultimapSink(KeyValueSink)}.
+     * 
+     * @param values
+     *            the multimap to put the keys and values into
+     * @return the sink
+     */
+    protected KeyValueSink acquireMultimapSink(Multimap<BulkIngestKey,Value> values) {
+        if (multimapSinkInUse) {
+            return new KeyValueSink().into(values);
+        }
+        multimapSinkInUse = true;
+        return multimapSink.into(values);
+    }
+    
+    /**
+     * Give back a sink from {@link #acquireMultimapSink(Multimap)}
+     * 
+     * @param sink
+     *            the sink
+     */
+    protected void releaseMultimapSink(KeyValueSink sink) {
+        sink.into(null);
+        if (sink == multimapSink) {
+            multimapSinkInUse = false;
         }
     }
     
@@ -413,9 +478,24 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
      * @param reporter
      */
     protected Multimap<BulkIngestKey,Value> createColumns(RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields, StatusReporter reporter) {
-        IngestHelperInterface helper = this.getHelper(event.getDataType());
-        
         Multimap<BulkIngestKey,Value> values = HashMultimap.create();
+        KeyValueSink sink = acquireMultimapSink(values);
+        try {
+            createColumns(event, fields, reporter, sink);
+        } finally {
+            releaseMultimapSink(sink);
+        }
+        return values;
+    }
+    
+    /**
+     * @param event
+     * @param fields
+     * @param reporter
+     * @param sink
+     */
+    protected void createColumns(RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields, StatusReporter reporter, KeyValueSink sink) {
+        IngestHelperInterface helper = this.getHelper(event.getDataType());
         
         byte[] maskedVisibility = computeMaskedVisibility(event);
         MaskedFieldHelper maskedFieldHelper = createMaskedFieldHelper(helper, event);
@@ -428,7 +508,7 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
             // Colf: DataType : UID
             // Colq: FieldName : FieldValue
             // Value: NULL
-            Text colf = new Text(event.getDataType().outputName());
+            Text colf = sink.text(event.getDataType().outputName());
             TextUtil.textAppend(colf, event.getId().toString(), helper.getReplaceMalformedUTF8());
             
             Value indexedValue = createUidArray(event.getId().toString(), helper.getDeleteMode());
@@ -438,7 +518,7 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
                     NormalizedContentInterface value = e.getValue();
                     byte[] visibility = getVisibility(event, value);
                     
-                    values.putAll(createShardEventColumn(event, colf, value, visibility, maskedVisibility, maskedFieldHelper, shardId));
+                    createShardEventColumn(event, colf, value, visibility, maskedVisibility, maskedFieldHelper, shardId, sink);
                     
                 }
             }
@@ -450,19 +530,18 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
                     log.trace("Is " + e.getKey() + " indexed? " + hasIndexTerm(e.getKey()) + " " + helper.isIndexedField(e.getKey()));
                 }
                 
-                values.putAll(createForwardIndices(helper, event, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexedValue,
-                                reporter));
+                createForwardIndices(helper, event, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexedValue, reporter, sink);
                 
                 if (getProduceStats())
-                    values.putAll(createStats(helper, event, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexedValue, reporter));
+                    createStats(helper, event, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexedValue, reporter, sink);
                 
                 if (getShardDictionaryIndexTableName() != null) {
                     final String cacheKey = value.getIndexedFieldName() + value.getIndexedFieldValue() + Arrays.toString(visibility)
                                     + Arrays.toString(maskedVisibility);
                     if (dCache.getIfPresent(cacheKey) == null) {
-                        createDictionaryColumn(event, values, value.getIndexedFieldName(), value.getIndexedFieldValue(), visibility, maskedVisibility,
+                        createDictionaryColumn(event, sink, value.getIndexedFieldName(), value.getIndexedFieldValue(), visibility, maskedVisibility,
                                         maskedFieldHelper, this.SHARD_DINDX_FLABEL, this.getShardDictionaryIndexTableName());
-                        createDictionaryColumn(event, values, value.getIndexedFieldName(), StringUtils.reverse(value.getIndexedFieldValue()), visibility,
+                        createDictionaryColumn(event, sink, value.getIndexedFieldName(), StringUtils.reverse(value.getIndexedFieldValue()), visibility,
                                         maskedVisibility, maskedFieldHelper, this.SHARD_DINDX_RLABEL, this.getShardDictionaryIndexTableName());
                     }
                     dCache.put(cacheKey, e.getValue().getIndexedFieldValue());
@@ -473,14 +552,11 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
             for (Entry<String,NormalizedContentInterface> e : getGlobalReverseIndexTerms().entries()) {
                 NormalizedContentInterface value = e.getValue();
                 byte[] visibility = getVisibility(event, value);
-                values.putAll(createReverseIndices(helper, event, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexedValue,
-                                reporter));
+                createReverseIndices(helper, event, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexedValue, reporter, sink);
                 
             }
             
         }
-        
-        return values;
     }
     
     protected MaskedFieldHelper createMaskedFieldHelper(IngestHelperInterface helper, RawRecordContainer event) {
@@ -495,17 +571,26 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
                     Multimap<String,NormalizedContentInterface> fields, NormalizedContentInterface value, byte[] visibility, byte[] maskedVisibility,
                     MaskedFieldHelper maskedFieldHelper, byte[] shardId, Value indexValue, StatusReporter reporter) {
         Multimap<BulkIngestKey,Value> values = HashMultimap.create();
-        
+        KeyValueSink sink = acquireMultimapSink(values);
+        try {
+            createStats(helper, event, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexValue, reporter, sink);
+        } finally {
+            releaseMultimapSink(sink);
+        }
+        return values;
+    }
+    
+    protected void createStats(IngestHelperInterface helper, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields,
+                    NormalizedContentInterface value, byte[] visibility, byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, byte[] shardId,
+                    Value indexValue, StatusReporter reporter, KeyValueSink sink) {
         // produce cardinality of terms
-        values.putAll(createTermIndexColumn(event, value.getIndexedFieldName(), value.getIndexedFieldValue(), visibility, maskedVisibility, maskedFieldHelper,
-                        shardId, this.getIndexStatsTableName(), indexValue));
+        createTermIndexColumn(event, value.getIndexedFieldName(), value.getIndexedFieldValue(), visibility, maskedVisibility, maskedFieldHelper, shardId,
+                        this.getIndexStatsTableName(), indexValue, sink);
         
         String reverse = new StringBuilder(value.getIndexedFieldValue()).reverse().toString();
         
-        values.putAll(createTermIndexColumn(event, value.getIndexedFieldName(), reverse, visibility, maskedVisibility, maskedFieldHelper, shardId,
-                        this.getIndexStatsTableName(), indexValue));
-        
-        return values;
+        createTermIndexColumn(event, value.getIndexedFieldName(), reverse, visibility, maskedVisibility, maskedFieldHelper, shardId,
+                        this.getIndexStatsTableName(), indexValue, sink);
     }
     
     /**
@@ -523,35 +608,51 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
     protected Multimap<BulkIngestKey,Value> createForwardIndices(IngestHelperInterface helper, RawRecordContainer event,
                     Multimap<String,NormalizedContentInterface> fields, NormalizedContentInterface value, byte[] visibility, byte[] maskedVisibility,
                     MaskedFieldHelper maskedFieldHelper, byte[] shardId, Value indexValue, StatusReporter reporter) {
-        
         Multimap<BulkIngestKey,Value> values = HashMultimap.create();
-        
+        KeyValueSink sink = acquireMultimapSink(values);
+        try {
+            createForwardIndices(helper, event, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexValue, reporter, sink);
+        } finally {
+            releaseMultimapSink(sink);
+        }
+        return values;
+    }
+    
+    protected void createForwardIndices(IngestHelperInterface helper, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields,
+                    NormalizedContentInterface value, byte[] visibility, byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, byte[] shardId,
+                    Value indexValue, StatusReporter reporter, KeyValueSink sink) {
         String fieldName = value.getIndexedFieldName();
         String fieldValue = value.getIndexedFieldValue();
         // produce field index.
-        values.putAll(createShardFieldIndexColumn(event, fieldName, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId,
-                        createBloomFilter(event, fields, reporter)));
+        createShardFieldIndexColumn(event, sink, fieldName, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId,
+                        createBloomFilter(event, fields, reporter));
         
         // produce index column
-        values.putAll(createTermIndexColumn(event, fieldName, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId,
-                        this.getShardIndexTableName(), indexValue));
-        
-        return values;
+        createTermIndexColumn(event, fieldName, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId, this.getShardIndexTableName(),
+                        indexValue, sink);
     }
     
     protected Multimap<BulkIngestKey,Value> createReverseIndices(IngestHelperInterface helper, RawRecordContainer event,
                     Multimap<String,NormalizedContentInterface> fields, NormalizedContentInterface value, byte[] visibility, byte[] maskedVisibility,
                     MaskedFieldHelper maskedFieldHelper, byte[] shardId, Value indexValue, StatusReporter reporter) {
-        
         Multimap<BulkIngestKey,Value> values = HashMultimap.create();
-        
+        KeyValueSink sink = acquireMultimapSink(values);
+        try {
+            createReverseIndices(helper, event, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexValue, reporter, sink);
+        } finally {
+            releaseMultimapSink(sink);
+        }
+        return values;
+    }
+    
+    protected void createReverseIndices(IngestHelperInterface helper, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields,
+                    NormalizedContentInterface value, byte[] visibility, byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, byte[] shardId,
+                    Value indexValue, StatusReporter reporter, KeyValueSink sink) {
         String fieldName = value.getIndexedFieldName();
         String fieldValue = value.getIndexedFieldValue();
         // produce index column
-        values.putAll(createTermIndexColumn(event, fieldName, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId,
-                        this.getShardReverseIndexTableName(), indexValue));
-        
-        return values;
+        createTermIndexColumn(event, fieldName, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId, this.getShardReverseIndexTableName(),
+                        indexValue, sink);
     }
     
     private Multimap<String,NormalizedContentInterface> filterByRequestedFields(Multimap<String,NormalizedContentInterface> eventFields) {
@@ -658,19 +759,43 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
      */
     protected Multimap<BulkIngestKey,Value> createTermIndexColumn(RawRecordContainer event, String column, String fieldValue, byte[] visibility,
                     byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, byte[] shardId, Text tableName, Value indexValue) {
+        Multimap<BulkIngestKey,Value> values = ArrayListMultimap.create();
+        KeyValueSink sink = acquireMultimapSink(values);
+        try {
+            createTermIndexColumn(event, column, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId, tableName, indexValue, sink);
+        } finally {
+            releaseMultimapSink(sink);
+        }
+        return values;
+    }
+    
+    /**
+     * Creates a global index Key and Value in the sink and does apply masking logic
+     * 
+     * @param event
+     * @param column
+     * @param fieldValue
+     * @param visibility
+     * @param maskedVisibility
+     * @param maskedFieldHelper
+     * @param shardId
+     * @param tableName
+     * @param indexValue
+     * @param sink
+     */
+    protected void createTermIndexColumn(RawRecordContainer event, String column, String fieldValue, byte[] visibility, byte[] maskedVisibility,
+                    MaskedFieldHelper maskedFieldHelper, byte[] shardId, Text tableName, Value indexValue, KeyValueSink sink) {
         // Shard Global Index Table Structure
         // Row: Field Value
         // Colf: Field Name
         // Colq: Shard Id : DataType
         // Value: UID
         
-        Multimap<BulkIngestKey,Value> values = ArrayListMultimap.create();
-        
         if (log.isTraceEnabled()) {
             log.trace("Create index column " + tableName);
         }
         if (null == tableName) {
-            return values;
+            return;
         }
         
         // hold on to the helper
@@ -681,8 +806,8 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
             // These Keys are for the index, so if they are masked, we really want to use the normalized masked values
             final String normalizedMaskedValue = helper.getNormalizedMaskedValue(column);
             
-            Text colf = new Text(column);
-            Text colq = new Text(shardId);
+            Text colf = sink.text(column);
+            Text colq = sink.text(shardId);
             TextUtil.textAppend(colq, event.getDataType().outputName(), helper.getReplaceMalformedUTF8());
             
             // Dont create index entries for empty values
@@ -690,20 +815,18 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
                 // Create a key for the masked field value with the masked visibility
                 Key k = this.createIndexKey(normalizedMaskedValue.getBytes(), colf, colq, maskedVisibility, event.getDate(), false);
                 
-                BulkIngestKey bkey = new BulkIngestKey(tableName, k);
-                values.put(bkey, indexValue);
+                sink.put(tableName, k, indexValue);
             }
             
             if (!StringUtils.isEmpty(fieldValue)) {
                 // Now create a key for the unmasked value with the original visibility
                 Key k = this.createIndexKey(fieldValue.getBytes(), colf, colq, visibility, event.getDate(), deleteMode);
-                BulkIngestKey bkey = new BulkIngestKey(tableName, k);
-                values.put(bkey, indexValue);
+                sink.put(tableName, k, indexValue);
             }
         } else if (!StringUtils.isEmpty(fieldValue)) {
             // This field is not masked. Add a key with the original field value and masked visibility
-            Text colf = new Text(column);
-            Text colq = new Text(shardId);
+            Text colf = sink.text(column);
+            Text colq = sink.text(shardId);
             TextUtil.textAppend(colq, event.getDataType().outputName(), helper.getReplaceMalformedUTF8());
             
             /**
@@ -717,12 +840,9 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
             }
             
             Key k = this.createIndexKey(fieldValue.getBytes(), colf, colq, refVisibility, event.getDate(), deleteMode);
-            BulkIngestKey bkey = new BulkIngestKey(tableName, k);
-            values.put(bkey, indexValue);
+            sink.put(tableName, k, indexValue);
             
         }
-        
-        return values;
     }
     
     /**
@@ -822,8 +942,30 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
      */
     protected Multimap<BulkIngestKey,Value> createShardEventColumn(RawRecordContainer event, Text colf, NormalizedContentInterface nFV, byte[] visibility,
                     byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, byte[] shardId) {
-        
         Multimap<BulkIngestKey,Value> values = ArrayListMultimap.create();
+        KeyValueSink sink = acquireMultimapSink(values);
+        try {
+            createShardEventColumn(event, colf, nFV, visibility, maskedVisibility, maskedFieldHelper, shardId, sink);
+        } finally {
+            releaseMultimapSink(sink);
+        }
+        return values;
+    }
+    
+    /**
+     * Creates a shard column key in the sink and does apply masking logic
+     * 
+     * @param event
+     * @param colf
+     * @param nFV
+     * @param visibility
+     * @param maskedVisibility
+     * @param maskedFieldHelper
+     * @param shardId
+     * @param sink
+     */
+    protected void createShardEventColumn(RawRecordContainer event, Text colf, NormalizedContentInterface nFV, byte[] visibility, byte[] maskedVisibility,
+                    MaskedFieldHelper maskedFieldHelper, byte[] shardId, KeyValueSink sink) {
         // hold on to the helper
         IngestHelperInterface helper = this.getHelper(event.getDataType());
         boolean replaceMalformedUTF8 = helper.getReplaceMalformedUTF8();
@@ -834,16 +976,16 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
         String indexedFieldName = nFV.getIndexedFieldName();
         
         if (helper.isIndexOnlyField(indexedFieldName) || null == fieldValue) {
-            return values;
+            return;
         }
         
         // don't put composite fields into the event table, unless it is an overloaded composite field
         if (helper.isCompositeField(indexedFieldName) && !helper.isOverloadedCompositeField(indexedFieldName)) {
-            return values;
+            return;
         }
         
         // Create unmasked colq
-        Text unmaskedColq = new Text(fieldName);
+        Text unmaskedColq = sink.text(fieldName);
         if (!StringUtils.isEmpty(fieldValue)) {
             TextUtil.textAppend(unmaskedColq, fieldValue, replaceMalformedUTF8);
         }
@@ -856,13 +998,12 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
             if (!StringUtils.isEmpty(fieldValue)) {
                 // One key with the original value and original visibility
                 Key cbKey = createKey(shardId, colf, unmaskedColq, visibility, event.getDate(), deleteMode);
-                BulkIngestKey bKey = new BulkIngestKey(this.getShardTableName(), cbKey);
                 
-                values.put(bKey, NULL_VALUE);
+                sink.put(this.getShardTableName(), cbKey, NULL_VALUE);
             }
             
             // Now generate a key for the masked field value
-            createMaskedShardEventColumn(event, colf, maskedVisibility, shardId, values, replaceMalformedUTF8, deleteMode, fieldName, maskedFieldValue);
+            createMaskedShardEventColumn(event, colf, maskedVisibility, shardId, sink, replaceMalformedUTF8, deleteMode, fieldName, maskedFieldValue);
             
         } else if (!StringUtils.isEmpty(fieldValue)) {
             
@@ -878,34 +1019,39 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
             
             // Else create one key for the field with the original value and the masked visiblity
             Key cbKey = createKey(shardId, colf, unmaskedColq, refVisibility, event.getDate(), deleteMode);
-            BulkIngestKey bKey = new BulkIngestKey(this.getShardTableName(), cbKey);
             if (log.isTraceEnabled())
-                log.trace("Creating bulk ingest Key " + bKey);
-            values.put(bKey, NULL_VALUE);
+                log.trace("Creating bulk ingest Key " + cbKey);
+            sink.put(this.getShardTableName(), cbKey, NULL_VALUE);
         }
         
-        return values;
-        
     }
     
     protected void createMaskedShardEventColumn(RawRecordContainer event, Text colf, byte[] maskedVisibility, byte[] shardId,
                     Multimap<BulkIngestKey,Value> values, boolean replaceMalformedUTF8, boolean deleteMode, String fieldName, String maskedFieldValue) {
+        KeyValueSink sink = acquireMultimapSink(values);
+        try {
+            createMaskedShardEventColumn(event, colf, maskedVisibility, shardId, sink, replaceMalformedUTF8, deleteMode, fieldName, maskedFieldValue);
+        } finally {
+            releaseMultimapSink(sink);
+        }
+    }
+    
+    protected void createMaskedShardEventColumn(RawRecordContainer event, Text colf, byte[] maskedVisibility, byte[] shardId, KeyValueSink sink,
+                    boolean replaceMalformedUTF8, boolean deleteMode, String fieldName, String maskedFieldValue) {
         if (!StringUtils.isEmpty(maskedFieldValue)) {
             // Create masked colq
-            Text maskedColq = new Text(fieldName);
+            Text maskedColq = sink.text(fieldName);
             TextUtil.textAppend(maskedColq, maskedFieldValue, replaceMalformedUTF8);
             
             // Another key with masked value and masked visibility
             Key cbKey = createKey(shardId, colf, maskedColq, maskedVisibility, event.getDate(), deleteMode);
-            BulkIngestKey bKey = new BulkIngestKey(this.getShardTableName(), cbKey);
-            values.put(bKey, NULL_VALUE);
+            sink.put(this.getShardTableName(), cbKey, NULL_VALUE);
         }
     }
     
     public void createShardFieldIndexColumn(RawRecordContainer event, Multimap<BulkIngestKey,Value> values, String fieldName, String fieldValue,
                     byte[] visibility, byte[] shardId, String uid, long eventTimestamp, Value value) {
-        values.putAll(createShardFieldIndexColumn(event, fieldName, fieldValue, visibility, visibility, null, shardId, value));
-        
+        createShardFieldIndexColumn(event, values, fieldName, fieldValue, visibility, visibility, null, shardId, value);
     }
     
     /**
@@ -922,62 +1068,8 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
      */
     protected Multimap<BulkIngestKey,Value> createShardFieldIndexColumn(RawRecordContainer event, String fieldName, String fieldValue, byte[] visibility,
                     byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, byte[] shardId, Value value) {
-        if (log.isTraceEnabled())
-            log.trace("Field value is " + fieldValue);
-        
-        // hold on to the helper
-        IngestHelperInterface helper = this.getHelper(event.getDataType());
-        boolean replaceMalformedUTF8 = helper.getReplaceMalformedUTF8();
-        boolean deleteMode = helper.getDeleteMode();
-        
         Multimap<BulkIngestKey,Value> values = HashMultimap.create();
-        
-        Text colf = new Text("fi");
-        TextUtil.textAppend(colf, fieldName, replaceMalformedUTF8);
-        Text unmaskedColq = new Text(fieldValue);
-        TextUtil.textAppend(unmaskedColq, event.getDataType().outputName(), replaceMalformedUTF8);
-        TextUtil.textAppend(unmaskedColq, event.getId().toString(), replaceMalformedUTF8);
-        
-        if (value == null) {
-            value = NULL_VALUE;
-        }
-        
-        if (null != maskedFieldHelper && maskedFieldHelper.contains(fieldName)) {
-            if (!StringUtils.isEmpty(fieldValue)) {
-                // Put unmasked colq with original visibility
-                Key k = createKey(shardId, colf, unmaskedColq, visibility, event.getDate(), deleteMode);
-                BulkIngestKey bKey = new BulkIngestKey(this.getShardTableName(), k);
-                values.put(bKey, value);
-            }
-            
-            // We need to use the normalized masked values
-            final String normalizedMaskedValue = helper.getNormalizedMaskedValue(fieldName);
-            if (!StringUtils.isEmpty(normalizedMaskedValue)) {
-                Text maskedColq = new Text(normalizedMaskedValue);
-                TextUtil.textAppend(maskedColq, event.getDataType().outputName(), replaceMalformedUTF8);
-                TextUtil.textAppend(maskedColq, event.getId().toString(), replaceMalformedUTF8);
-                
-                // Put masked colq with masked visibility
-                Key k = createKey(shardId, colf, maskedColq, maskedVisibility, event.getDate(), deleteMode);
-                BulkIngestKey bKey = new BulkIngestKey(this.getShardTableName(), k);
-                values.put(bKey, value);
-            }
-        } else if (!StringUtils.isEmpty(fieldValue)) {
-            /**
-             * For values that are not being masked, we use the "unmaskedValue" and the masked visibility e.g. release the value as it was in the event at the
-             * lower visibility
-             */
-            byte[] refVisibility = visibility;
-            
-            if (null != maskedFieldHelper) {
-                refVisibility = maskedVisibility;
-            }
-            
-            Key k = createKey(shardId, colf, unmaskedColq, refVisibility, event.getDate(), deleteMode);
-            BulkIngestKey bKey = new BulkIngestKey(this.getShardTableName(), k);
-            values.put(bKey, value);
-        }
-        
+        createShardFieldIndexColumn(event, values, fieldName, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId, value);
         return values;
     }
     
@@ -994,14 +1086,38 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
      */
     protected void createShardFieldIndexColumn(RawRecordContainer event, Multimap<BulkIngestKey,Value> values, String fieldName, String fieldValue,
                     byte[] visibility, byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, byte[] shardId, Value value) {
+        KeyValueSink sink = acquireMultimapSink(values);
+        try {
+            createShardFieldIndexColumn(event, sink, fieldName, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId, value);
+        } finally {
+            releaseMultimapSink(sink);
+        }
+    }
+    
+    /**
+     * Creates a shard field index column Key and applies masking logic
+     * 
+     * @param event
+     * @param sink
+     * @param fieldName
+     * @param fieldValue
+     * @param maskedVisibility
+     * @param maskedFieldHelper
+     * @param shardId
+     */
+    protected void createShardFieldIndexColumn(RawRecordContainer event, KeyValueSink sink, String fieldName, String fieldValue, byte[] visibility,
+                    byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, byte[] shardId, Value value) {
+        if (log.isTraceEnabled())
+            log.trace("Field value is " + fieldValue);
+        
         // hold on to the helper
         IngestHelperInterface helper = this.getHelper(event.getDataType());
         boolean replaceMalformedUTF8 = helper.getReplaceMalformedUTF8();
         boolean deleteMode = helper.getDeleteMode();
         
-        Text colf = new Text("fi");
+        Text colf = sink.text("fi");
         TextUtil.textAppend(colf, fieldName, replaceMalformedUTF8);
-        Text unmaskedColq = new Text(fieldValue);
+        Text unmaskedColq = sink.text(fieldValue);
         TextUtil.textAppend(unmaskedColq, event.getDataType().outputName(), replaceMalformedUTF8);
         TextUtil.textAppend(unmaskedColq, event.getId().toString(), replaceMalformedUTF8);
         
@@ -1013,21 +1129,19 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
             if (!StringUtils.isEmpty(fieldValue)) {
                 // Put unmasked colq with original visibility
                 Key k = createKey(shardId, colf, unmaskedColq, visibility, event.getDate(), deleteMode);
-                BulkIngestKey bKey = new BulkIngestKey(this.getShardTableName(), k);
-                values.put(bKey, value);
+                sink.put(this.getShardTableName(), k, value);
             }
             
             // We need to use the normalized masked values
             final String normalizedMaskedValue = helper.getNormalizedMaskedValue(fieldName);
             if (!StringUtils.isEmpty(normalizedMaskedValue)) {
-                Text maskedColq = new Text(normalizedMaskedValue);
+                Text maskedColq = sink.text(normalizedMaskedValue);
                 TextUtil.textAppend(maskedColq, event.getDataType().outputName(), replaceMalformedUTF8);
                 TextUtil.textAppend(maskedColq, event.getId().toString(), replaceMalformedUTF8);
                 
                 // Put masked colq with masked visibility
                 Key k = createKey(shardId, colf, maskedColq, maskedVisibility, event.getDate(), deleteMode);
-                BulkIngestKey bKey = new BulkIngestKey(this.getShardTableName(), k);
-                values.put(bKey, value);
+                sink.put(this.getShardTableName(), k, value);
             }
         } else if (!StringUtils.isEmpty(fieldValue)) {
             /**
@@ -1041,9 +1155,7 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
             }
             
             Key k = createKey(shardId, colf, unmaskedColq, refVisibility, event.getDate(), deleteMode);
-            
-            BulkIngestKey bKey = new BulkIngestKey(this.getShardTableName(), k);
-            values.put(bKey, value);
+            sink.put(this.getShardTableName(), k, value);
         }
     }
     
@@ -1213,6 +1325,28 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
      */
     protected void createDictionaryColumn(RawRecordContainer event, Multimap<BulkIngestKey,Value> values, String fieldName, String fieldValue,
                     byte[] visibility, byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, Text directionColFam, Text tableName) {
+        KeyValueSink sink = acquireMultimapSink(values);
+        try {
+            createDictionaryColumn(event, sink, fieldName, fieldValue, visibility, maskedVisibility, maskedFieldHelper, directionColFam, tableName);
+        } finally {
+            releaseMultimapSink(sink);
+        }
+    }
+    
+    /**
+     * Creates a dictionary index Key and Value in the sink and does apply masking logic
+     * 
+     * @param event
+     * @param sink
+     * @param fieldName
+     * @param fieldValue
+     * @param maskedVisibility
+     * @param maskedFieldHelper
+     * @param directionColFam
+     * @param tableName
+     */
+    protected void createDictionaryColumn(RawRecordContainer event, KeyValueSink sink, String fieldName, String fieldValue, byte[] visibility,
+                    byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, Text directionColFam, Text tableName) {
         // Shard Global Index Table Structure
         // Row: Field Value
         // Colf: Field Name
@@ -1227,8 +1361,8 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
             // These Keys are for the index, so if they are masked, we really want to use the normalized masked values
             final String normalizedMaskedValue = helper.getNormalizedMaskedValue(fieldName);
             
-            Text colf = new Text(directionColFam);
-            Text colq = new Text(fieldName);
+            Text colf = directionColFam;
+            Text colq = sink.text(fieldName);
             
             Value val = new Value("".getBytes());
             
@@ -1237,20 +1371,18 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
                 // Create a key for the masked field value with the masked visibility
                 Key k = this.createIndexKey(normalizedMaskedValue.getBytes(), colf, colq, maskedVisibility, event.getDate(), false);
                 
-                BulkIngestKey bkey = new BulkIngestKey(tableName, k);
-                values.put(bkey, val);
+                sink.put(tableName, k, val);
             }
             
             if (!StringUtils.isEmpty(fieldValue)) {
                 // Now create a key for the unmasked value with the original visibility
                 Key k = this.createIndexKey(fieldValue.getBytes(), colf, colq, visibility, event.getDate(), deleteMode);
-                BulkIngestKey bkey = new BulkIngestKey(tableName, k);
-                values.put(bkey, val);
+                sink.put(tableName, k, val);
             }
         } else if (!StringUtils.isEmpty(fieldValue)) {
             // This field is not masked. Add a key with the original field value and masked visibility
-            Text colf = new Text(directionColFam);
-            Text colq = new Text(fieldName);
+            Text colf = directionColFam;
+            Text colq = sink.text(fieldName);
             // TextUtil.textAppend(colq, event.getDataType().outputName(), helper.getReplaceMalformedUTF8());
             
             Value val = new Value("".getBytes());
@@ -1266,8 +1398,7 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
             }
             
             Key k = this.createIndexKey(fieldValue.getBytes(), colf, colq, refVisibility, event.getDate(), deleteMode);
-            BulkIngestKey bkey = new BulkIngestKey(tableName, k);
-            values.put(bkey, val);
+            sink.put(tableName, k, val);
             
         }
     }
@@ -2,11 +2,14 @@ package datawave.ingest.mapreduce.handler.tokenize;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
 import datawave.ingest.data.RawRecordContainer;
 import datawave.ingest.data.config.NormalizedContentInterface;
@@ -20,6 +23,7 @@ import datawave.ingest.data.tokenize.TokenizationHelper.HeartBeatThread;
 import datawave.ingest.data.tokenize.TokenizationHelper.TokenizerTimeoutException;
 import datawave.ingest.data.tokenize.TruncateAttribute;
 import datawave.ingest.mapreduce.handler.ExtendedDataTypeHandler;
+import datawave.ingest.mapreduce.handler.KeyValueSink;
 import datawave.ingest.mapreduce.handler.shard.AbstractColumnBasedHandler;
 import datawave.ingest.mapreduce.handler.shard.ShardedDataTypeHandler;
 import datawave.ingest.mapreduce.handler.shard.content.BoundedOffsetQueue;
@@ -107,6 +111,8 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
     
     private int termPosition = 0;
     
+    private TokenizationPool tokenizationPool = null;
+    
     @Override
     public void setup(TaskAttemptContext context) {
         super.setup(context);
@@ -135,6 +141,11 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
         
         tokenOffsetCache = new BoundedOffsetQueue<>(tokenHelper.getTokenOffsetCacheMaxSize());
         
+        if (tokenHelper.getTokenizerPoolSize() > 0) {
+            tokenizationPool = new TokenizationPool(tokenHelper);
+            log.info("Tokenizing content fields with " + tokenHelper.getTokenizerPoolSize() + " threads");
+        }
+        
         // Conditionally create an NGrams factory
         if (this.getBloomFiltersEnabled()) {
             this.bloomFilterUtil = newBloomFilterUtil(this.conf);
@@ -142,29 +153,46 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
     }
     
     @Override
-    public Multimap<BulkIngestKey,Value> processBulk(KEYIN key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields,
-                    StatusReporter reporter) {
+    public void close(TaskAttemptContext context) {
+        super.close(context);
+        if (tokenizationPool != null) {
+            tokenizationPool.shutdown();
+            tokenizationPool = null;
+        }
+    }
+    
+    @Override
+    public boolean processBulk(KEYIN key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields, StatusReporter reporter,
+                    KeyValueSink sink) {
         
         if (event.fatalError()) {
-            return null;
+            return false;
         }
         
         this.shardId = getShardId(event);
         this.eventDataTypeName = event.getDataType().outputName();
         this.eventUid = event.getId().toString();
         
-        Multimap<BulkIngestKey,Value> values = HashMultimap.create();
         // get the typical shard/index information
-        values.putAll(super.processBulk(key, event, eventFields, reporter));
+        super.processBulk(key, event, eventFields, reporter, sink);
         
-        flushTokenOffsetCache(event, values);
+        flushTokenOffsetCache(event, sink);
         
         counters.flush(reporter);
         
-        return values;
+        return true;
     }
     
     protected void flushTokenOffsetCache(RawRecordContainer event, Multimap<BulkIngestKey,Value> values) {
+        KeyValueSink sink = acquireMultimapSink(values);
+        try {
+            flushTokenOffsetCache(event, sink);
+        } finally {
+            releaseMultimapSink(sink);
+        }
+    }
+    
+    protected void flushTokenOffsetCache(RawRecordContainer event, KeyValueSink sink) {
         
         // now flush out the offset queue
         if (tokenOffsetCache != null) {
@@ -177,7 +205,7 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
                     
                     byte[] fieldVisibility = getVisibility(event, nfv);
                     
-                    createTermFrequencyIndex(event, values, this.shardId, nfv, offsets.offsets, fieldVisibility);
+                    createTermFrequencyIndex(event, sink, this.shardId, nfv, offsets.offsets, fieldVisibility);
                     termCount++;
                 }
                 
@@ -188,7 +216,7 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
                     nfav.setEventFieldValue(Long.toString(termCount));
                     tokenMap.put(nfav.getEventFieldName(), nfav);
                     byte[] fieldVisibility = getVisibility(event, nfav);
-                    createEventColumn(event, tokenMap, values, this.shardId, fieldVisibility, nfav);
+                    createEventColumn(event, tokenMap, sink, this.shardId, fieldVisibility, nfav);
                 }
             } catch (IOException ex) {
                 log.fatal("IOException", ex);
@@ -218,6 +246,16 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
      */
     protected void createEventColumn(RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields, Multimap<BulkIngestKey,Value> values,
                     byte[] shardId, byte[] fieldVisibility, NormalizedContentInterface nFV) throws IOException, InterruptedException {
+        KeyValueSink sink = acquireMultimapSink(values);
+        try {
+            createEventColumn(event, eventFields, sink, shardId, fieldVisibility, nFV);
+        } finally {
+            releaseMultimapSink(sink);
+        }
+    }
+    
+    protected void createEventColumn(RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields, KeyValueSink sink, byte[] shardId,
+                    byte[] fieldVisibility, NormalizedContentInterface nFV) throws IOException, InterruptedException {
         
         String fieldName = nFV.getEventFieldName();
         String fieldValue = nFV.getEventFieldValue();
@@ -225,14 +263,13 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
         if (StringUtils.isEmpty(fieldValue))
             return;
         
-        Text colf = new Text(event.getDataType().outputName());
+        Text colf = sink.text(event.getDataType().outputName());
         TextUtil.textAppend(colf, event.getId().toString(), helper.getReplaceMalformedUTF8());
         
-        Text colq = new Text(fieldName);
+        Text colq = sink.text(fieldName);
         TextUtil.textAppend(colq, fieldValue, helper.getReplaceMalformedUTF8());
         Key k = createKey(shardId, colf, colq, fieldVisibility, event.getDate(), helper.getDeleteMode());
-        BulkIngestKey bKey = new BulkIngestKey(new Text(this.getShardTableName()), k);
-        values.put(bKey, NULL_VALUE);
+        sink.put(this.getShardTableName(), k, NULL_VALUE);
     }
     
     @Override
@@ -247,6 +284,24 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
         
         Analyzer analyzer = tokenHelper.getAnalyzer();
         
+        // start tokenizing all of the content fields in the pool, and consume them below in the order they would have been tokenized in
+        List<TokenizationPool.TokenizedField> tokenizedFields = Collections.emptyList();
+        if (tokenizationPool != null) {
+            tokenizedFields = new ArrayList<>();
+            for (NormalizedContentInterface nci : eventFields.values()) {
+                String indexedFieldName = nci.getIndexedFieldName();
+                if (helper.isShardExcluded(indexedFieldName)) {
+                    continue;
+                }
+                boolean indexField = createGlobalIndexTerms && contentHelper.isContentIndexField(indexedFieldName);
+                boolean reverseIndexField = createGlobalReverseIndexTerms && contentHelper.isReverseContentIndexField(indexedFieldName);
+                if (indexField || reverseIndexField) {
+                    tokenizedFields.add(tokenizationPool.submit(analyzer, indexedFieldName, nci.getIndexedFieldValue()));
+                }
+            }
+        }
+        Iterator<TokenizationPool.TokenizedField> pendingFields = tokenizedFields.iterator();
+        
         try {
             String lastFieldName = "";
             
@@ -294,7 +349,11 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
                 
                 if (indexField || reverseIndexField) {
                     try {
-                        tokenizeField(analyzer, nci, indexField, reverseIndexField, reporter);
+                        if (tokenizationPool != null) {
+                            tokenizeField(pendingFields.next(), nci, indexField, reverseIndexField, reporter);
+                        } else {
+                            tokenizeField(analyzer, nci, indexField, reverseIndexField, reporter);
+                        }
                     } catch (Exception ex) {
                         throw new RuntimeException(ex);
                     }
@@ -308,6 +367,9 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
                 }
             }
         } finally {
+            while (pendingFields.hasNext()) {
+                pendingFields.next().cancel();
+            }
             analyzer.close();
         }
         
@@ -386,156 +448,234 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
                     break; // eof
                 }
                 
-                // Get the term and any synonyms for it
-                String token = termAtt.toString();
-                String type = typeAtt.type();
-                
-                // term positions aren't reset between fields of the same name, see getShardNamesAndValues.
-                termPosition += posIncrAtt.getPositionIncrement();
-                
-                if (type.startsWith("<") && type.endsWith(">")) {
-                    type = type.substring(1, type.length() - 1); // <FOO> => FOO without regex
-                }
-                
-                // Make sure the term length is greater than the minimum allowed length
-                int tlen = token.length();
-                if (tlen < tokenHelper.getTermLengthMinimum()) {
-                    log.debug("Ignoring token of length " + token.length() + " because it is too short");
-                    counters.increment(ContentIndexCounters.TOO_SHORT_COUNTER, reporter);
-                    continue;
-                }
-                
-                // skip the term if it is over the length limit unless it is a FILE, URL or HTTP_REQUEST
-                if (tlen > tokenHelper.getTermLengthLimit() && (!(type.equals("FILE") || type.equals("URL") || type.equals("HTTP_REQUEST")))) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Ignoring " + type + " token due to excessive length");
+                processToken(nci, modifiedFieldName, termAtt.toString(), typeAtt.type(), posIncrAtt.getPositionIncrement(), truncAtt.isTruncated(),
+                                indexField, reverseIndexField, reporter);
+            }
+            
+            countTokenizerTime(tokenizerBeats * HeartBeatThread.INTERVAL, reporter);
+        } finally {
+            tokenizer.close();
+        }
+    }
+    
+    /**
+     * Tokenize the specified field from the chunks the tokenization pool produced for it, in order. The field stops at a truncated chunk, and the chunks that
+     * are not consumed are cancelled. See {@link TokenizationPool}.
+     * 
+     */
+    protected void tokenizeField(final TokenizationPool.TokenizedField tokenized, final NormalizedContentInterface nci, boolean indexField,
+                    boolean reverseIndexField, StatusReporter reporter) throws IOException, InterruptedException {
+        
+        String modifiedFieldName = nci.getIndexedFieldName() + tokenFieldNameSuffix;
+        tokenizerTimeWarned = false;
+        
+        int tokenizerBeats = 0;
+        long tokenizerMsec = 0;
+        int tokens = 0;
+        int trailingPositionIncrement = 0;
+        try {
+            while (tokenized.hasNext()) {
+                TokenizationPool.Chunk chunk;
+                try {
+                    chunk = tokenized.next();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof TokenizerTimeoutException) {
+                        counters.incrementValue(ContentIndexCounters.TOKENIZER_TIME_ERRORS, 1, reporter);
+                        throw (TokenizerTimeoutException) e.getCause();
                     }
-                    
-                    counters.increment(ContentIndexCounters.EXCESSIVE_LENGTH_COUNTER, reporter);
-                    continue;
+                    throw new IOException("Tokenization of field " + modifiedFieldName + " failed", e.getCause());
                 }
                 
-                if (tlen > tokenHelper.getTermLengthWarningLimit()) {
-                    log.warn("Encountered long term: " + tlen + " characters, '" + token + "'");
-                    counters.increment(ContentIndexCounters.LENGTH_WARNING_COUNTER, reporter);
+                if (chunk.isWarned() && !tokenizerTimeWarned) {
+                    counters.incrementValue(ContentIndexCounters.TOKENIZER_TIME_WARNINGS, 1, reporter);
+                    log.warn("Tokenization of a chunk of field " + modifiedFieldName + " has exceeded warning threshold "
+                                    + tokenHelper.getTokenizerTimeWarnThresholdMsec() + "ms (" + chunk.getElapsedMsec() + "ms)");
+                    tokenizerTimeWarned = true;
                 }
                 
-                if (truncAtt.isTruncated()) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Encountered truncated term: " + tlen + " characters, '" + token + "'");
-                    }
-                    counters.increment(ContentIndexCounters.TRUNCATION_COUNTER, reporter);
-                }
-                
-                if (tokenHelper.isVerboseTermSizeCounters()) {
-                    if (tlen < 10) {
-                        counters.increment(ContentIndexCounters.TERM_SIZE_GROUP_NAME, "SIZE_00" + tlen, reporter);
-                    } else if (tlen < 100) {
-                        counters.increment(ContentIndexCounters.TERM_SIZE_GROUP_NAME, "SIZE_0" + ((tlen / 10) * 10), reporter);
-                    } else {
-                        counters.increment(ContentIndexCounters.TERM_SIZE_GROUP_NAME, "SIZE_100", reporter);
-                    }
-                    
-                    counters.increment(ContentIndexCounters.TERM_TYPE_GROUP_NAME, type + "_TERMS", reporter);
+                // the stop words at the end of the previous chunk count toward the position of the first token of this one
+                termPosition += trailingPositionIncrement;
+                for (int i = 0; i < chunk.size(); i++) {
+                    processToken(nci, modifiedFieldName, chunk.getTerm(i), chunk.getType(i), chunk.getPositionIncrement(i), chunk.isTruncated(i), indexField,
+                                    reverseIndexField, reporter);
                 }
+                trailingPositionIncrement = chunk.getTrailingPositionIncrement();
                 
-                // Track the number of tokens processed
-                counters.increment(ContentIndexCounters.ORIGINAL_PROCESSED_COUNTER, reporter);
+                tokenizerBeats += chunk.getHeartBeats();
+                tokenizerMsec += chunk.getElapsedMsec();
+                tokens += chunk.size();
+                if (reporter != null)
+                    reporter.progress();
                 
-                if (termTypeBlacklist.contains(type)) {
-                    counters.increment(ContentIndexCounters.TERM_TYPE_GROUP_NAME, "BLACKLISTED_BY_TYPE", reporter);
-                    continue;
+                // the later chunks are not consumed, so the offsets of the field do not skip the rest of this one
+                if (chunk.isTruncated()) {
+                    log.warn("Tokenization of a chunk of field " + modifiedFieldName + " has exceeded the chunk deadline "
+                                    + tokenHelper.getTokenizerChunkDeadlineMsec() + "ms, the rest of the field was not tokenized");
+                    counters.increment(ContentIndexCounters.TOKENIZER_CHUNKS_TRUNCATED, reporter);
+                    break;
                 }
+            }
+        } finally {
+            // stop the chunks that were not consumed, after a truncated or failed chunk
+            tokenized.cancel();
+        }
+        
+        countTokenizerTime(tokenizerBeats * HeartBeatThread.INTERVAL, reporter);
+        counters.incrementValue(ContentIndexCounters.TOKENIZER_POOL_TOKENS, tokens, reporter);
+        counters.incrementValue(ContentIndexCounters.TOKENIZER_POOL_TIME, (int) tokenizerMsec, reporter);
+    }
+    
+    /**
+     * Process a token of a field, adding the term and its synonyms to the index, reverse, and fields, and its position to the token offset cache
+     */
+    private void processToken(NormalizedContentInterface nci, String modifiedFieldName, String token, String rawType, int positionIncrement, boolean truncated,
+                    boolean indexField, boolean reverseIndexField, StatusReporter reporter) {
+        // Get the term and any synonyms for it
+        String type = rawType;
+        
+        // term positions aren't reset between fields of the same name, see getShardNamesAndValues.
+        termPosition += positionIncrement;
+        
+        if (type.startsWith("<") && type.endsWith(">")) {
+            type = type.substring(1, type.length() - 1); // <FOO> => FOO without regex
+        }
+        
+        // Make sure the term length is greater than the minimum allowed length
+        int tlen = token.length();
+        if (tlen < tokenHelper.getTermLengthMinimum()) {
+            log.debug("Ignoring token of length " + token.length() + " because it is too short");
+            counters.increment(ContentIndexCounters.TOO_SHORT_COUNTER, reporter);
+            return;
+        }
+        
+        // skip the term if it is over the length limit unless it is a FILE, URL or HTTP_REQUEST
+        if (tlen > tokenHelper.getTermLengthLimit() && (!(type.equals("FILE") || type.equals("URL") || type.equals("HTTP_REQUEST")))) {
+            if (log.isDebugEnabled()) {
+                log.debug("Ignoring " + type + " token due to excessive length");
+            }
+            
+            counters.increment(ContentIndexCounters.EXCESSIVE_LENGTH_COUNTER, reporter);
+            return;
+        }
+        
+        if (tlen > tokenHelper.getTermLengthWarningLimit()) {
+            log.warn("Encountered long term: " + tlen + " characters, '" + token + "'");
+            counters.increment(ContentIndexCounters.LENGTH_WARNING_COUNTER, reporter);
+        }
+        
+        if (truncated) {
+            if (log.isDebugEnabled()) {
+                log.debug("Encountered truncated term: " + tlen + " characters, '" + token + "'");
+            }
+            counters.increment(ContentIndexCounters.TRUNCATION_COUNTER, reporter);
+        }
+        
+        if (tokenHelper.isVerboseTermSizeCounters()) {
+            if (tlen < 10) {
+                counters.increment(ContentIndexCounters.TERM_SIZE_GROUP_NAME, "SIZE_00" + tlen, reporter);
+            } else if (tlen < 100) {
+                counters.increment(ContentIndexCounters.TERM_SIZE_GROUP_NAME, "SIZE_0" + ((tlen / 10) * 10), reporter);
+            } else {
+                counters.increment(ContentIndexCounters.TERM_SIZE_GROUP_NAME, "SIZE_100", reporter);
+            }
+            
+            counters.increment(ContentIndexCounters.TERM_TYPE_GROUP_NAME, type + "_TERMS", reporter);
+        }
+        
+        // Track the number of tokens processed
+        counters.increment(ContentIndexCounters.ORIGINAL_PROCESSED_COUNTER, reporter);
+        
+        if (termTypeBlacklist.contains(type)) {
+            counters.increment(ContentIndexCounters.TERM_TYPE_GROUP_NAME, "BLACKLISTED_BY_TYPE", reporter);
+            return;
+        }
+        
+        if (indexField) {
+            NormalizedContentInterface newField;
+            Collection<String> synonyms;
+            
+            if (tokenHelper.isSynonymGenerationEnabled()) {
+                // Get the list of synonyms including the term itself
+                // Zone is empty in this case.
+                synonyms = searchUtil.getSynonyms(new String[] {token, ""}, rawType, true);
+            } else {
+                synonyms = Collections.singletonList(token);
+            }
+            
+            for (String s : synonyms) {
+                newField = (NormalizedContentInterface) (nci.clone());
+                newField.setFieldName(modifiedFieldName);
+                // don't put tokens in the event.
+                newField.setEventFieldValue(null);
+                newField.setIndexedFieldValue(s);
+                index.put(modifiedFieldName, newField);
                 
-                if (indexField) {
-                    NormalizedContentInterface newField;
-                    Collection<String> synonyms;
-                    
-                    if (tokenHelper.isSynonymGenerationEnabled()) {
-                        // Get the list of synonyms including the term itself
-                        // Zone is empty in this case.
-                        synonyms = searchUtil.getSynonyms(new String[] {token, ""}, typeAtt.type(), true);
-                    } else {
-                        synonyms = Collections.singletonList(token);
-                    }
-                    
-                    for (String s : synonyms) {
-                        newField = (NormalizedContentInterface) (nci.clone());
-                        newField.setFieldName(modifiedFieldName);
-                        // don't put tokens in the event.
-                        newField.setEventFieldValue(null);
-                        newField.setIndexedFieldValue(s);
-                        index.put(modifiedFieldName, newField);
-                        
-                        // add this token to the event fields so a
-                        // local fi\x00 key gets created
-                        // NOTE: we already assigned it to the
-                        // 'indexOnly' list so it won't show up in
-                        // the event
-                        fields.put(modifiedFieldName, newField);
-                        
-                        if (tokenOffsetCache != null) {
-                            tokenOffsetCache.addOffset(new TermAndZone(s, modifiedFieldName), termPosition);
-                        }
-                    }
-                    
-                    counters.incrementValue(ContentIndexCounters.SYNONYMS_PROCESSED_COUNTER, synonyms.size() - 1, reporter);
-                    if (tokenHelper.isVerboseTermIndexCounters()) {
-                        counters.incrementValue(ContentIndexCounters.SYNONYM_TYPE_GROUP_NAME, type + ContentIndexCounters.SYNONYMS_PROCESSED_TYPE_SUFFIX,
-                                        synonyms.size() - 1, reporter);
-                    }
-                }
+                // add this token to the event fields so a
+                // local fi\x00 key gets created
+                // NOTE: we already assigned it to the
+                // 'indexOnly' list so it won't show up in
+                // the event
+                fields.put(modifiedFieldName, newField);
                 
-                if (reverseIndexField) {
-                    String rToken = StringUtils.reverse(token);
-                    NormalizedContentInterface newField;
-                    Collection<String> synonyms;
-                    
-                    if (tokenHelper.isSynonymGenerationEnabled()) {
-                        synonyms = searchUtilReverse.getSynonyms(rToken, typeAtt.type(), true);
-                    } else {
-                        synonyms = Collections.singletonList(rToken);
-                    }
-                    
-                    for (String s : synonyms) {
-                        newField = (NormalizedContentInterface) (nci.clone());
-                        newField.setFieldName(modifiedFieldName);
-                        newField.setEventFieldValue(s);
-                        newField.setIndexedFieldValue(s);
-                        reverse.put(modifiedFieldName, newField);
-                        
-                        // NOTE: We don't want fi\x00 keys for reverse
-                        // tokens
-                    }
-                    
-                    counters.incrementValue(ContentIndexCounters.SYNONYMS_PROCESSED_COUNTER, synonyms.size() - 1, reporter);
-                    if (tokenHelper.isVerboseTermIndexCounters()) {
-                        counters.incrementValue(ContentIndexCounters.SYNONYM_TYPE_GROUP_NAME, type + ContentIndexCounters.SYNONYMS_PROCESSED_TYPE_SUFFIX,
-                                        synonyms.size() - 1, reporter);
-                    }
+                if (tokenOffsetCache != null) {
+                    tokenOffsetCache.addOffset(new TermAndZone(s, modifiedFieldName), termPosition);
                 }
             }
             
-            final long tokenizerDeltaMsec = tokenizerBeats * HeartBeatThread.INTERVAL;
-            final long[] tokenizerThresholds = tokenHelper.getTokenizerTimeThresholds();
-            final String[] tokenizerThresholdNames = tokenHelper.getTokenizerTimeThresholdNames();
-            boolean counted = false;
-            for (int i = 0; i < tokenizerThresholds.length; i++) {
-                if (tokenizerDeltaMsec < tokenizerThresholds[i]) {
-                    counters.incrementValue(ContentIndexCounters.TOKENIZER_TIME_GROUP_NAME, ContentIndexCounters.TOKENIZER_TIME_PREFIX + "<"
-                                    + tokenizerThresholdNames[i], 1, reporter);
-                    counted = true;
-                    break;
-                }
+            counters.incrementValue(ContentIndexCounters.SYNONYMS_PROCESSED_COUNTER, synonyms.size() - 1, reporter);
+            if (tokenHelper.isVerboseTermIndexCounters()) {
+                counters.incrementValue(ContentIndexCounters.SYNONYM_TYPE_GROUP_NAME, type + ContentIndexCounters.SYNONYMS_PROCESSED_TYPE_SUFFIX,
+                                synonyms.size() - 1, reporter);
             }
+        }
+        
+        if (reverseIndexField) {
+            String rToken = StringUtils.reverse(token);
+            NormalizedContentInterface newField;
+            Collection<String> synonyms;
             
-            // catch times outside of the max threshold if we're counting
-            if (!counted && tokenizerThresholdNames.length > 0) {
-                counters.incrementValue(ContentIndexCounters.TOKENIZER_TIME_GROUP_NAME, ContentIndexCounters.TOKENIZER_TIME_PREFIX + ">="
-                                + tokenizerThresholdNames[tokenizerThresholdNames.length - 1], 1, reporter);
+            if (tokenHelper.isSynonymGenerationEnabled()) {
+                synonyms = searchUtilReverse.getSynonyms(rToken, rawType, true);
+            } else {
+                synonyms = Collections.singletonList(rToken);
+            }
+            
+            for (String s : synonyms) {
+                newField = (NormalizedContentInterface) (nci.clone());
+                newField.setFieldName(modifiedFieldName);
+                newField.setEventFieldValue(s);
+                newField.setIndexedFieldValue(s);
+                reverse.put(modifiedFieldName, newField);
+                
+                // NOTE: We don't want fi\x00 keys for reverse
+                // tokens
+            }
+            
+            counters.incrementValue(ContentIndexCounters.SYNONYMS_PROCESSED_COUNTER, synonyms.size() - 1, reporter);
+            if (tokenHelper.isVerboseTermIndexCounters()) {
+                counters.incrementValue(ContentIndexCounters.SYNONYM_TYPE_GROUP_NAME, type + ContentIndexCounters.SYNONYMS_PROCESSED_TYPE_SUFFIX,
+                                synonyms.size() - 1, reporter);
             }
-        } finally {
-            tokenizer.close();
+        }
+    }
+    
+    private void countTokenizerTime(long tokenizerDeltaMsec, StatusReporter reporter) {
+        final long[] tokenizerThresholds = tokenHelper.getTokenizerTimeThresholds();
+        final String[] tokenizerThresholdNames = tokenHelper.getTokenizerTimeThresholdNames();
+        boolean counted = false;
+        for (int i = 0; i < tokenizerThresholds.length; i++) {
+            if (tokenizerDeltaMsec < tokenizerThresholds[i]) {
+                counters.incrementValue(ContentIndexCounters.TOKENIZER_TIME_GROUP_NAME, ContentIndexCounters.TOKENIZER_TIME_PREFIX + "<"
+                                + tokenizerThresholdNames[i], 1, reporter);
+                counted = true;
+                break;
+            }
+        }
+        
+        // catch times outside of the max threshold if we're counting
+        if (!counted && tokenizerThresholdNames.length > 0) {
+            counters.incrementValue(ContentIndexCounters.TOKENIZER_TIME_GROUP_NAME, ContentIndexCounters.TOKENIZER_TIME_PREFIX + ">="
+                            + tokenizerThresholdNames[tokenizerThresholdNames.length - 1], 1, reporter);
         }
     }
     
@@ -553,6 +693,16 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
      */
     protected void createTermFrequencyIndex(RawRecordContainer event, Multimap<BulkIngestKey,Value> values, byte[] shardId, NormalizedFieldAndValue nfv,
                     List<Integer> offsets, byte[] visibility) throws IOException, InterruptedException {
+        KeyValueSink sink = acquireMultimapSink(values);
+        try {
+            createTermFrequencyIndex(event, sink, shardId, nfv, offsets, visibility);
+        } finally {
+            releaseMultimapSink(sink);
+        }
+    }
+    
+    protected void createTermFrequencyIndex(RawRecordContainer event, KeyValueSink sink, byte[] shardId, NormalizedFieldAndValue nfv, List<Integer> offsets,
+                    byte[] visibility) throws IOException, InterruptedException {
         
         TermWeight.Info.Builder builder = TermWeight.Info.newBuilder();
         for (Integer offset : offsets) {
@@ -565,11 +715,10 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
         colq.append(this.eventDataTypeName).append('\u0000').append(this.eventUid).append('\u0000').append(nfv.getIndexedFieldValue()).append('\u0000')
                         .append(nfv.getIndexedFieldName());
         
-        BulkIngestKey bKey = new BulkIngestKey(new Text(this.getShardTableName()), new Key(shardId,
-                        ExtendedDataTypeHandler.TERM_FREQUENCY_COLUMN_FAMILY.getBytes(), colq.toString().getBytes(), visibility, event.getDate(),
-                        helper.getDeleteMode()));
+        Key k = new Key(shardId, ExtendedDataTypeHandler.TERM_FREQUENCY_COLUMN_FAMILY.getBytes(), colq.toString().getBytes(), visibility, event.getDate(),
+                        helper.getDeleteMode());
         
-        values.put(bKey, value);
+        sink.put(this.getShardTableName(), k, value);
     }
     
     /**
@@ -25,6 +25,7 @@ import datawave.ingest.data.tokenize.TokenizationHelper;
 import datawave.ingest.mapreduce.ContextWrappedStatusReporter;
 import datawave.ingest.mapreduce.handler.DataTypeHandler;
 import datawave.ingest.mapreduce.handler.ExtendedDataTypeHandler;
+import datawave.ingest.mapreduce.handler.KeyValueSink;
 import datawave.ingest.mapreduce.handler.shard.AbstractColumnBasedHandler;
 import datawave.ingest.mapreduce.handler.shard.ShardedDataTypeHandler;
 import datawave.ingest.mapreduce.handler.shard.content.BoundedOffsetQueue;
@@ -135,6 +136,9 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
     protected String eventUid = null;
     protected byte[] shardId = null;
     
+    // reused for the standard set of keys of each event
+    protected KeyValueSink sink = new KeyValueSink();
+    
     protected boolean offlineDocProcessing = true;
     protected boolean disableDCol = false;
     protected ExecutorService docWriterService;
@@ -250,14 +254,23 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
         this.eventUid = event.getId().toString();
         
         // write the standard set of keys
-        Multimap<BulkIngestKey,Value> keys = super.processBulk(key, event, eventFields, new ContextWrappedStatusReporter(context));
-        long count = keys.size();
-        contextWriter.write(keys, context);
-        
         StatusReporter reporter = new ContextWrappedStatusReporter(context);
-        
-        // gc before we get into the tokenization piece
-        keys = null;
+        long count;
+        if (usesKeyValueSink()) {
+            sink.clear();
+            if (!super.processBulk(key, event, eventFields, reporter, sink)) {
+                sink.clear();
+                return -1;
+            }
+            count = sink.flush(contextWriter, context);
+        } else {
+            Multimap<BulkIngestKey,Value> keys = super.processBulk(key, event, eventFields, reporter);
+            if (keys == null) {
+                return -1;
+            }
+            count = keys.size();
+            contextWriter.write(keys, context);
+        }
         
         // stream the tokens to the context writer here
         count += tokenizeEvent(event, context, contextWriter, reporter);
@@ -471,7 +484,7 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
         Text colq = new Text(fieldName);
         TextUtil.textAppend(colq, fieldValue, this.ingestHelper.getReplaceMalformedUTF8());
         Key k = createKey(shardId, colf, colq, visibility, event.getDate(), this.ingestHelper.getDeleteMode());
-        BulkIngestKey bKey = new BulkIngestKey(new Text(this.getShardTableName()), k);
+        BulkIngestKey bKey = new BulkIngestKey(this.getShardTableName(), k);
         contextWriter.write(bKey, DataTypeHandler.NULL_VALUE, context);
     }
     
@@ -567,7 +580,7 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
         counters.increment(ContentIndexCounters.CONTENT_RECORDS_CREATED, reporter);
         if (!disableDCol) {
             if (offlineDocProcessing) {
-                BulkIngestKey bKey = new BulkIngestKey(new Text(this.getShardTableName()), k);
+                BulkIngestKey bKey = new BulkIngestKey(this.getShardTableName(), k);
                 contextWriter.write(bKey, value, context);
             } else {
                 DocWriter dw = new DocWriter();
@@ -699,7 +712,7 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
         }
         
         Key k = createKey(shardId, colf, colq, visibility, event.getDate(), deleteMode);
-        BulkIngestKey bKey = new BulkIngestKey(new Text(this.getShardTableName()), k);
+        BulkIngestKey bKey = new BulkIngestKey(this.getShardTableName(), k);
         contextWriter.write(bKey, value, context);
     }
     
@@ -732,7 +745,7 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
         colq.append(this.eventDataTypeName).append('\u0000').append(this.eventUid).append('\u0000').append(nfv.getIndexedFieldValue()).append('\u0000')
                         .append(nfv.getIndexedFieldName());
         
-        BulkIngestKey bKey = new BulkIngestKey(new Text(this.getShardTableName()), new Key(shardId,
+        BulkIngestKey bKey = new BulkIngestKey(this.getShardTableName(), new Key(shardId,
                         ExtendedDataTypeHandler.TERM_FREQUENCY_COLUMN_FAMILY.getBytes(), colq.toString().getBytes(), visibility, event.getDate(), deleteMode));
         
         contextWriter.write(bKey, value, context);
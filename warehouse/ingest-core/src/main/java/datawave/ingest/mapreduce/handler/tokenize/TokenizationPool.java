@@ -0,0 +1,337 @@
+package datawave.ingest.mapreduce.handler.tokenize;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import datawave.ingest.data.tokenize.TokenizationHelper;
+import datawave.ingest.data.tokenize.TokenizationHelper.HeartBeatThread;
+import datawave.ingest.data.tokenize.TokenizationHelper.TokenizerTimeoutException;
+import datawave.ingest.data.tokenize.TruncateAttribute;
+
+import org.apache.log4j.Logger;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+
+/**
+ * A bounded pool of threads that runs the analyzer over the content fields of a document in parallel, so that a very large field does not hold up the rest of
+ * the document's fields, or the documents behind it.
+ * <p>
+ * A field is split into chunks of {@link TokenizationHelper#getTokenizerChunkSize()} characters, at whitespace, and each chunk is tokenized by a separate task.
+ * The tasks only collect the tokens; the handler consumes the chunks of each field in order and adds the position increments of the tokens to its term
+ * position, along with the increments of the stop words at the end of each chunk, so the terms and offsets are the same as if the field were tokenized in one
+ * pass. Only twice the pool size of chunks of a field are submitted ahead of the chunk being consumed.
+ * <p>
+ * A task that runs past {@link TokenizationHelper#getTokenizerChunkDeadlineMsec()} keeps the tokens it has and marks its chunk truncated, and the handler stops
+ * the field there and cancels the rest of its chunks, so the offsets of a field never skip the tokens of a truncated chunk. A task that runs past the tokenizer
+ * error threshold fails the field as the handler would.
+ * <p>
+ * When the queue of the pool is full, the chunk is tokenized on the calling thread.
+ */
+public class TokenizationPool {
+    
+    private static final Logger log = Logger.getLogger(TokenizationPool.class);
+    
+    private final ThreadPoolExecutor executor;
+    private final int chunkSize;
+    private final long chunkDeadlineMsec;
+    private final long warnThresholdMsec;
+    private final long errorThresholdMsec;
+    // the number of chunks of a field that are submitted ahead of the one being consumed
+    private final int chunksAhead;
+    
+    private final AtomicLong tokens = new AtomicLong();
+    private final AtomicLong tokenizeNanos = new AtomicLong();
+    
+    /**
+     * The tokens of a chunk of a field. The terms are packed into one buffer and the attributes of the tokens into arrays, rather than kept as an object per
+     * token.
+     */
+    public static class Chunk {
+        private final StringBuilder terms = new StringBuilder();
+        private int[] termEnds = new int[16];
+        private int[] positionIncrements = new int[16];
+        private String[] types = new String[16];
+        private final BitSet truncatedTokens = new BitSet();
+        private int size = 0;
+        private int trailingPositionIncrement = 0;
+        private int heartBeats = 0;
+        private long elapsedMsec = 0;
+        private boolean warned = false;
+        private boolean truncated = false;
+        
+        private void add(CharTermAttribute term, String type, int positionIncrement, boolean truncated) {
+            if (size == termEnds.length) {
+                int capacity = size * 2;
+                termEnds = Arrays.copyOf(termEnds, capacity);
+                positionIncrements = Arrays.copyOf(positionIncrements, capacity);
+                types = Arrays.copyOf(types, capacity);
+            }
+            terms.append(term.buffer(), 0, term.length());
+            termEnds[size] = terms.length();
+            positionIncrements[size] = positionIncrement;
+            // the types are the constants of the tokenizer, so the array holds references to a handful of strings
+            types[size] = type;
+            if (truncated) {
+                truncatedTokens.set(size);
+            }
+            size++;
+        }
+        
+        /**
+         * @return the number of tokens in the chunk
+         */
+        public int size() {
+            return size;
+        }
+        
+        public String getTerm(int token) {
+            return terms.substring(token == 0 ? 0 : termEnds[token - 1], termEnds[token]);
+        }
+        
+        public String getType(int token) {
+            return types[token];
+        }
+        
+        public int getPositionIncrement(int token) {
+            return positionIncrements[token];
+        }
+        
+        public boolean isTruncated(int token) {
+            return truncatedTokens.get(token);
+        }
+        
+        /**
+         * @return the position increment of the tokens removed after the last token of the chunk, e.g. stop words
+         */
+        public int getTrailingPositionIncrement() {
+            return trailingPositionIncrement;
+        }
+        
+        /**
+         * @return the number of {@link HeartBeatThread} intervals the chunk took to tokenize
+         */
+        public int getHeartBeats() {
+            return heartBeats;
+        }
+        
+        public long getElapsedMsec() {
+            return elapsedMsec;
+        }
+        
+        /**
+         * @return true if the chunk took longer than the tokenizer warning threshold
+         */
+        public boolean isWarned() {
+            return warned;
+        }
+        
+        /**
+         * @return true if the chunk ran past the chunk deadline and the rest of it, and of the field, was not tokenized
+         */
+        public boolean isTruncated() {
+            return truncated;
+        }
+    }
+    
+    /**
+     * The chunks of a field that has been submitted to the pool, which are consumed in order. Only a window of chunks ahead of the consumer is submitted, so
+     * the tokens held for a field do not grow with the size of the field.
+     */
+    public class TokenizedField {
+        private final Analyzer analyzer;
+        private final String fieldName;
+        private final String content;
+        private final Deque<Future<Chunk>> chunks = new ArrayDeque<>();
+        private int offset = 0;
+        private volatile boolean stopped = false;
+        
+        private TokenizedField(Analyzer analyzer, String fieldName, String content) {
+            this.analyzer = analyzer;
+            this.fieldName = fieldName;
+            this.content = content;
+            submitChunks();
+        }
+        
+        private void submitChunks() {
+            while (!stopped && chunks.size() < chunksAhead && offset < content.length()) {
+                int end = chunkEnd(content, offset, chunkSize);
+                final String text = content.substring(offset, end);
+                offset = end;
+                
+                FutureTask<Chunk> task = new FutureTask<>(new Callable<Chunk>() {
+                    @Override
+                    public Chunk call() throws Exception {
+                        return tokenize(TokenizedField.this, text);
+                    }
+                });
+                chunks.add(task);
+                executor.execute(task);
+            }
+        }
+        
+        public boolean hasNext() {
+            return !stopped && !chunks.isEmpty();
+        }
+        
+        /**
+         * Wait for the next chunk of the field, and submit the chunk after the window
+         *
+         * @return the next chunk
+         * @throws InterruptedException
+         *             if interrupted while waiting
+         * @throws ExecutionException
+         *             if the chunk failed to tokenize
+         */
+        public Chunk next() throws InterruptedException, ExecutionException {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Chunk chunk = chunks.poll().get();
+            submitChunks();
+            return chunk;
+        }
+        
+        /**
+         * Stop tokenizing the chunks of a field that will not be consumed
+         */
+        public void cancel() {
+            stopped = true;
+            for (Future<Chunk> chunk : chunks) {
+                chunk.cancel(true);
+            }
+            chunks.clear();
+        }
+    }
+    
+    public TokenizationPool(TokenizationHelper tokenHelper) {
+        this.chunkSize = Math.max(1, tokenHelper.getTokenizerChunkSize());
+        this.chunkDeadlineMsec = tokenHelper.getTokenizerChunkDeadlineMsec();
+        this.warnThresholdMsec = tokenHelper.getTokenizerTimeWarnThresholdMsec();
+        this.errorThresholdMsec = tokenHelper.getTokenizerTimeErrorThresholdMsec();
+        
+        int poolSize = tokenHelper.getTokenizerPoolSize();
+        this.chunksAhead = poolSize * 2;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(poolSize * 4), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+            
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "TokenizationPool-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+    
+    /**
+     * Start tokenizing a field
+     *
+     * @param analyzer
+     *            the analyzer, which is used from the threads of the pool
+     * @param fieldName
+     *            the field name passed to the analyzer
+     * @param content
+     *            the content of the field
+     * @return the chunks of the field
+     */
+    public TokenizedField submit(final Analyzer analyzer, final String fieldName, String content) {
+        return new TokenizedField(analyzer, fieldName, content);
+    }
+    
+    /**
+     * Find the end of the chunk that starts at start: at least chunkSize characters, extended to the next whitespace so that no token spans two chunks
+     */
+    static int chunkEnd(String content, int start, int chunkSize) {
+        int end = (int) Math.min((long) start + chunkSize, content.length());
+        while (end < content.length() && !Character.isWhitespace(content.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+    
+    private Chunk tokenize(TokenizedField field, String text) throws IOException {
+        Chunk chunk = new Chunk();
+        long start = System.nanoTime();
+        String fieldName = field.fieldName;
+        TokenStream tokenizer = field.analyzer.tokenStream(fieldName, new StringReader(text));
+        tokenizer.reset();
+        try {
+            final CharTermAttribute termAtt = tokenizer.getAttribute(CharTermAttribute.class);
+            final TypeAttribute typeAtt = tokenizer.getAttribute(TypeAttribute.class);
+            final PositionIncrementAttribute posIncrAtt = tokenizer.getAttribute(PositionIncrementAttribute.class);
+            final TruncateAttribute truncAtt = tokenizer.getAttribute(TruncateAttribute.class);
+            
+            int heartBeatCount = HeartBeatThread.counter;
+            while (true) {
+                if (heartBeatCount != HeartBeatThread.counter) {
+                    chunk.heartBeats += HeartBeatThread.counter - heartBeatCount;
+                    heartBeatCount = HeartBeatThread.counter;
+                    
+                    long elapsedEstimateMsec = chunk.heartBeats * HeartBeatThread.INTERVAL;
+                    if (elapsedEstimateMsec > warnThresholdMsec) {
+                        chunk.warned = true;
+                    }
+                    if (elapsedEstimateMsec > errorThresholdMsec) {
+                        throw new TokenizerTimeoutException("Tokenization of field " + fieldName + " has exceeded error threshold " + errorThresholdMsec
+                                        + "ms (" + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms), aborting");
+                    }
+                    if (elapsedEstimateMsec > chunkDeadlineMsec) {
+                        chunk.truncated = true;
+                        break;
+                    }
+                }
+                
+                // the field was cancelled, and the chunk will not be consumed
+                if (field.stopped) {
+                    break;
+                }
+                
+                if (!tokenizer.incrementToken()) {
+                    tokenizer.end();
+                    chunk.trailingPositionIncrement = posIncrAtt.getPositionIncrement();
+                    break;
+                }
+                chunk.add(termAtt, typeAtt.type(), posIncrAtt.getPositionIncrement(), truncAtt.isTruncated());
+            }
+        } finally {
+            tokenizer.close();
+        }
+        
+        long elapsed = System.nanoTime() - start;
+        chunk.elapsedMsec = TimeUnit.NANOSECONDS.toMillis(elapsed);
+        tokens.addAndGet(chunk.size());
+        tokenizeNanos.addAndGet(elapsed);
+        return chunk;
+    }
+    
+    /**
+     * @return the tokens per second of the tasks of the pool so far
+     */
+    public double getTokensPerSecond() {
+        long nanos = tokenizeNanos.get();
+        return (nanos == 0 ? 0 : tokens.get() * (double) TimeUnit.SECONDS.toNanos(1) / nanos);
+    }
+    
+    public void shutdown() {
+        executor.shutdownNow();
+        log.info("Tokenization pool tokenized " + tokens.get() + " tokens at " + (long) getTokensPerSecond() + " tokens/sec per thread");
+    }
+}
@@ -51,21 +51,47 @@ import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A processor whose job is to watch for completed Bulk Ingest jobs and bring the map files produced by them online in accumulo. This class attempts to bring
  * multiple map files online at once if many jobs have completed, and also attempts to throttle itself to prevent queuing up too many major compactions on the
  * various tablet servers.
+ * <p>
+ * Job directories are loaded in a pipeline of three stages, each run on its own threads: preparing the job directory (copying it across file systems if
+ * needed), importing its map files, and cleaning it up (marking the sequence files as loaded). Up to {@code -pipelineDepth} jobs are in flight at once, so the
+ * preparation of one job overlaps the import of the previous one and the cleanup of the one before that. The table imports of all of the jobs being imported
+ * share one pool of {@code -numThreads} threads, which runs them in the order of the configured table priorities.
+ * <p>
+ * The {@code -majcThreshold} is checked at two points. No new job is started while the instance as a whole has that many running or queued major
+ * compactions, rechecking it (and {@code -majcDelay}) after every {@code -majcCheckInterval} jobs have been started. Because the jobs already in the pipeline
+ * may have been started before the compactions backed up, each table import is also deferred while its own table has that many major compactions. A deferred
+ * import gives its thread back to the pool and is queued again after the compaction stats are next refreshed, so that one backed up table does not hold up
+ * the imports of the others.
  */
 public final class BulkIngestMapFileLoader implements Runnable {
     private static Logger log = Logger.getLogger(BulkIngestMapFileLoader.class);
@@ -75,6 +101,8 @@ public final class BulkIngestMapFileLoader implements Runnable {
     private static int MAJC_CHECK_INTERVAL = 1;
     private static int MAJC_THRESHOLD = 3000;
     private static int MAJC_WAIT_TIMEOUT = 0;// 2 * 60 * 1000;
+    private static int MAJC_STATS_INTERVAL = 10 * 1000;
+    private static int PIPELINE_DEPTH = 3;
     private static int SHUTDOWN_PORT = 24111;
     private static boolean FIFO = true;
     private static boolean INGEST_METRICS = true;
@@ -100,6 +128,15 @@ public final class BulkIngestMapFileLoader implements Runnable {
     private StandaloneStatusReporter reporter = new StandaloneStatusReporter();
     private volatile boolean running;
     private ExecutorService executor;
+    private ExecutorService prepareStage;
+    private ExecutorService importStage;
+    private ExecutorService cleanupStage;
+    private ThreadPoolExecutor importExecutor;
+    private ScheduledExecutorService deferredImports;
+    private final AtomicLong importSequence = new AtomicLong();
+    private final ConcurrentMap<String,AtomicLong> throttleTimes = new ConcurrentHashMap<>();
+    private Map<String,Integer> majcCounts = Collections.emptyMap();
+    private long majcCountsTime = 0;
     
     public static void main(String[] args) throws AccumuloSecurityException, IOException {
         
@@ -114,7 +151,7 @@ public final class BulkIngestMapFileLoader implements Runnable {
             log.error("usage: BulkIngestMapFileLoader hdfsWorkDir jobDirPattern instanceName zooKeepers username password "
                             + "[-sleepTime sleepTime] [-majcThreshold threshold] [-majcCheckInterval count] [-majcDelay majcDelay] "
                             + " [-seqFileHdfs seqFileSystemUri] [-srcHdfs srcFileSystemURI] [-destHdfs destFileSystemURI] [-jt jobTracker] "
-                            + "[-ingestMetricsDisabled] [-shutdownPort portNum] confFile [{confFile}]");
+                            + "[-ingestMetricsDisabled] [-shutdownPort portNum] [-pipelineDepth depth] confFile [{confFile}]");
             System.exit(-1);
         }
         
@@ -159,13 +196,13 @@ public final class BulkIngestMapFileLoader implements Runnable {
                     }
                 } else if ("-majcCheckInterval".equalsIgnoreCase(args[i])) {
                     if (i + 2 > args.length) {
-                        log.error("-majcCheckInterval must be followed by the number of bulk loads to process before rechecking the majcThreshold and majcDelay");
+                        log.error("-majcCheckInterval must be followed by the number of bulk loads to start before rechecking the majcThreshold and majcDelay");
                         System.exit(-2);
                     }
                     try {
                         MAJC_CHECK_INTERVAL = Integer.parseInt(args[++i]);
                     } catch (NumberFormatException e) {
-                        log.error("-majcCheckInterval must be followed by the number of bulk loads to process before rechecking the majcThreshold and majcDelay",
+                        log.error("-majcCheckInterval must be followed by the number of bulk loads to start before rechecking the majcThreshold and majcDelay",
                                         e);
                         System.exit(-2);
                     }
@@ -180,6 +217,17 @@ public final class BulkIngestMapFileLoader implements Runnable {
                         log.error("-maxDirectories must be followed a number of directories", e);
                         System.exit(-2);
                     }
+                } else if ("-pipelineDepth".equalsIgnoreCase(args[i])) {
+                    if (i + 2 > args.length) {
+                        log.error("-pipelineDepth must be followed by the maximum number of job directories to load at once");
+                        System.exit(-2);
+                    }
+                    try {
+                        PIPELINE_DEPTH = Integer.parseInt(args[++i]);
+                    } catch (NumberFormatException e) {
+                        log.error("-pipelineDepth must be followed by the maximum number of job directories to load at once", e);
+                        System.exit(-2);
+                    }
                 } else if ("-numThreads".equalsIgnoreCase(args[i])) {
                     if (i + 2 > args.length) {
                         log.error("-numThreads must be followed by the number of bulk import threads");
@@ -296,10 +344,12 @@ public final class BulkIngestMapFileLoader implements Runnable {
         }
         
         log.info("Set sleep time to " + SLEEP_TIME + "ms");
-        log.info("Will wait to bring map files online if there are more than " + MAJC_THRESHOLD + " running or queued major compactions.");
+        log.info("Will wait to bring map files online for a table if it has more than " + MAJC_THRESHOLD + " running or queued major compactions.");
         log.info("Will not bring map files online unless at least " + MAJC_WAIT_TIMEOUT + "ms have passed since last time.");
-        log.info("Will check the majcThreshold and majcDelay every " + MAJC_CHECK_INTERVAL + " bulk loads.");
+        log.info("Will not start loading more map files if there are more than " + MAJC_THRESHOLD + " running or queued major compactions in total.");
+        log.info("Will check the majcThreshold and majcDelay every " + MAJC_CHECK_INTERVAL + " bulk loads started.");
         log.info("Processing a max of " + MAX_DIRECTORIES + " directories");
+        log.info("Loading a max of " + PIPELINE_DEPTH + " directories at once");
         log.info("Using " + numBulkThreads + " bulk load threads");
         log.info("Using " + numHdfsThreads + " HDFS operation threads");
         log.info("Using " + numBulkAssignThreads + " bulk assign threads");
@@ -336,7 +386,7 @@ public final class BulkIngestMapFileLoader implements Runnable {
         
         Credentials credentials = new Credentials(args[4], new PasswordToken(passwordStr));
         BulkIngestMapFileLoader processor = new BulkIngestMapFileLoader(workDir, jobDirPattern, instanceName, zooKeepers, credentials, seqFileHdfs, srcHdfs,
-                        destHdfs, jobtracker, tablePriorities, conf, SHUTDOWN_PORT, numHdfsThreads);
+                        destHdfs, jobtracker, tablePriorities, conf, SHUTDOWN_PORT, numHdfsThreads, numBulkThreads);
         Thread t = new Thread(processor, "map-file-watcher");
         t.start();
     }
@@ -353,6 +403,13 @@ public final class BulkIngestMapFileLoader implements Runnable {
     
     public BulkIngestMapFileLoader(String workDir, String jobDirPattern, String instanceName, String zooKeepers, Credentials credentials, URI seqFileHdfs,
                     URI srcHdfs, URI destHdfs, String jobtracker, Map<String,Integer> tablePriorities, Configuration conf, int shutdownPort, int numHdfsThreads) {
+        this(workDir, jobDirPattern, instanceName, zooKeepers, credentials, seqFileHdfs, srcHdfs, destHdfs, jobtracker, tablePriorities, conf, shutdownPort,
+                        numHdfsThreads, 8);
+    }
+    
+    public BulkIngestMapFileLoader(String workDir, String jobDirPattern, String instanceName, String zooKeepers, Credentials credentials, URI seqFileHdfs,
+                    URI srcHdfs, URI destHdfs, String jobtracker, Map<String,Integer> tablePriorities, Configuration conf, int shutdownPort, int numHdfsThreads,
+                    int numBulkThreads) {
         this.conf = conf;
         this.tablePriorities = tablePriorities;
         this.workDir = new Path(workDir);
@@ -366,6 +423,20 @@ public final class BulkIngestMapFileLoader implements Runnable {
         this.jobtracker = jobtracker;
         this.running = true;
         this.executor = Executors.newFixedThreadPool(numHdfsThreads > 0 ? numHdfsThreads : 1);
+        // the preparation and cleanup stages handle one job at a time, in order, while every job in the pipeline may be importing at once
+        int pipelineDepth = PIPELINE_DEPTH > 0 ? PIPELINE_DEPTH : 1;
+        this.prepareStage = Executors.newSingleThreadExecutor();
+        this.importStage = Executors.newFixedThreadPool(pipelineDepth);
+        this.cleanupStage = Executors.newSingleThreadExecutor();
+        // ImportRunnables are ordered by table priority, so they must be passed to execute rather than wrapped by submit
+        int bulkThreads = numBulkThreads > 0 ? numBulkThreads : 1;
+        this.importExecutor = new ThreadPoolExecutor(bulkThreads, bulkThreads, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>());
+        // imports deferred while their table is backed up with major compactions wait here rather than on the threads of the import pool
+        this.deferredImports = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "deferred-imports");
+            t.setDaemon(true);
+            return t;
+        });
         try {
             if (shutdownPort > 0) {
                 final ServerSocket serverSocket = new ServerSocket(shutdownPort);
@@ -388,14 +459,60 @@ public final class BulkIngestMapFileLoader implements Runnable {
         int fsAccessFailures = 0;
         Path[] jobDirectories = new Path[0];
         int nextJobIndex = 0;
+        boolean idle = true;
+        Deque<LoadJob> pipeline = new ArrayDeque<>();
         try {
             while (true) {
                 try {
                     if (!running)
                         break;
-                    sleep();
+                    if (idle) {
+                        // nothing was started the last time around, so wait for more job directories or for the oldest job to get through the pipeline
+                        if (pipeline.isEmpty()) {
+                            sleep();
+                        } else {
+                            pipeline.peekFirst().await(SLEEP_TIME);
+                        }
+                    } else if (pipeline.size() >= PIPELINE_DEPTH) {
+                        pipeline.peekFirst().await();
+                    }
+                    idle = true;
+                    
+                    // retire the jobs that made it through the pipeline, in the order they were started
+                    List<Path> processedDirectories = new ArrayList<>();
+                    while (!pipeline.isEmpty() && pipeline.peekFirst().isDone()) {
+                        LoadJob job = pipeline.removeFirst();
+                        processedDirectories.add(job.srcJobDirectory);
+                        job.writeStats();
+                        if (job.getFailure() == null) {
+                            // now that we actually processed something, reset the last load message time to force a message on the next round
+                            lastLoadMessageTime = 0;
+                        } else if (!job.markFailed()) {
+                            ++fsAccessFailures;
+                            if (fsAccessFailures >= 3) {
+                                log.error("Too many failures updating marker files.  Exiting...");
+                                shutdown();
+                            } else {
+                                log.warn("Failed to mark " + job.dstJobDirectory + " as failed. Sleeping in case this was a transient failure.");
+                                try {
+                                    Thread.sleep(FAILURE_SLEEP_TIME);
+                                } catch (InterruptedException ie) {
+                                    log.warn("Interrupted while sleeping.", ie);
+                                }
+                            }
+                        }
+                    }
+                    if (!processedDirectories.isEmpty()) {
+                        writeStats(processedDirectories.toArray(new Path[processedDirectories.size()]));
+                        lastOnlineTime = System.currentTimeMillis();
+                    }
                     if (!running)
                         break;
+                    
+                    if (pipeline.size() >= PIPELINE_DEPTH) {
+                        idle = false;
+                        continue;
+                    }
                     long loadMessageDelta = System.currentTimeMillis() - lastLoadMessageTime;
                     boolean logMessages = (loadMessageDelta > (5 * 60 * 1000));
                     if (logMessages) {
@@ -407,75 +524,24 @@ public final class BulkIngestMapFileLoader implements Runnable {
                         }
                         continue;
                     }
-                    List<Path> processedDirectories = new ArrayList<>();
                     if (nextJobIndex >= jobDirectories.length) {
                         jobDirectories = getJobDirectories();
                         nextJobIndex = 0;
                     }
-                    if (jobDirectories.length > 0) {
-                        while (processedDirectories.size() < MAJC_CHECK_INTERVAL && jobDirectories.length > 0) {
-                            Path srcJobDirectory = jobDirectories[nextJobIndex++];
-                            if (!running)
-                                break;
-                            // take ownership of the job directory if we can
-                            if (takeOwnershipJobDirectory(srcJobDirectory)) {
-                                processedDirectories.add(srcJobDirectory);
-                                Path mapFilesDir = new Path(srcJobDirectory, "mapFiles");
-                                reporter.getCounter("MapFileLoader.StartTimes", srcJobDirectory.getName()).increment(System.currentTimeMillis());
-                                Path dstJobDirectory = srcJobDirectory;
-                                URI workingHdfs = srcHdfs;
-                                
-                                try {
-                                    log.info("Started processing " + mapFilesDir);
-                                    long start = System.currentTimeMillis();
-                                    
-                                    // copy the data if needed
-                                    dstJobDirectory = distCpDirectory(srcJobDirectory);
-                                    workingHdfs = destHdfs;
-                                    
-                                    // recreate the map files directory reference in case it moved filesystems
-                                    mapFilesDir = new Path(dstJobDirectory, "mapFiles");
-                                    
-                                    // now if we have a destination work directory, then move then move the files
-                                    bringMapFilesOnline(mapFilesDir);
-                                    
-                                    // ensure everything got loaded
-                                    verifyNothingLeftBehind(mapFilesDir);
-                                    
-                                    cleanUpJobDirectory(mapFilesDir);
-                                    long end = System.currentTimeMillis();
-                                    log.info("Finished processing " + mapFilesDir + ", duration (sec): " + ((end - start) / 1000));
-                                    
-                                    // now that we actually processed something, reset the last load message time to force a message on the next round
-                                    lastLoadMessageTime = 0;
-                                } catch (Exception e) {
-                                    log.error("Failed to process " + mapFilesDir, e);
-                                    boolean marked = markJobDirectoryFailed(workingHdfs, dstJobDirectory);
-                                    if (!marked) {
-                                        ++fsAccessFailures;
-                                        if (fsAccessFailures >= 3) {
-                                            log.error("Too many failures updating marker files.  Exiting...");
-                                            shutdown();
-                                        } else {
-                                            log.warn("Failed to mark " + dstJobDirectory + " as failed. Sleeping in case this was a transient failure.");
-                                            try {
-                                                Thread.sleep(FAILURE_SLEEP_TIME);
-                                            } catch (InterruptedException ie) {
-                                                log.warn("Interrupted while sleeping.", ie);
-                                            }
-                                        }
-                                    }
-                                }
-                            }
-                            if (nextJobIndex >= jobDirectories.length) {
-                                jobDirectories = getJobDirectories();
-                                nextJobIndex = 0;
-                            }
-                            
+                    int startedDirectories = 0;
+                    while (startedDirectories < MAJC_CHECK_INTERVAL && pipeline.size() < PIPELINE_DEPTH && nextJobIndex < jobDirectories.length) {
+                        Path srcJobDirectory = jobDirectories[nextJobIndex++];
+                        if (!running)
+                            break;
+                        // take ownership of the job directory if we can
+                        if (takeOwnershipJobDirectory(srcJobDirectory)) {
+                            pipeline.addLast(new LoadJob(srcJobDirectory));
+                            startedDirectories++;
+                            idle = false;
                         }
-                        if (!processedDirectories.isEmpty()) {
-                            writeStats(processedDirectories.toArray(new Path[processedDirectories.size()]));
-                            lastOnlineTime = System.currentTimeMillis();
+                        if (nextJobIndex >= jobDirectories.length) {
+                            jobDirectories = getJobDirectories();
+                            nextJobIndex = 0;
                         }
                     }
                 } catch (Exception e) {
@@ -483,12 +549,152 @@ public final class BulkIngestMapFileLoader implements Runnable {
                 }
             }
         } finally {
+            // let the jobs already in the pipeline finish so that none of them are left partially loaded
+            if (!pipeline.isEmpty()) {
+                log.info("Waiting for " + pipeline.size() + " job directories to finish loading");
+                List<Path> processedDirectories = new ArrayList<>();
+                for (LoadJob job : pipeline) {
+                    job.await();
+                    processedDirectories.add(job.srcJobDirectory);
+                    job.writeStats();
+                    if (job.getFailure() != null) {
+                        job.markFailed();
+                    }
+                }
+                try {
+                    writeStats(processedDirectories.toArray(new Path[processedDirectories.size()]));
+                } catch (IOException e) {
+                    log.error("Unable to write the stats of the remaining job directories", e);
+                }
+            }
             log.info("Shutting down executor service");
+            prepareStage.shutdown();
+            importStage.shutdown();
+            cleanupStage.shutdown();
+            importExecutor.shutdown();
+            deferredImports.shutdown();
             executor.shutdown();
         }
         log.info("Bulk map file loader shutting down.");
     }
     
+    /**
+     * A job directory making its way through the preparation, import and cleanup stages. The stages of a job run one after another, and a failure in any of
+     * them skips the rest.
+     */
+    private class LoadJob {
+        private final Path srcJobDirectory;
+        private final long start;
+        private final CompletableFuture<Void> done;
+        private volatile Path dstJobDirectory;
+        private volatile URI workingHdfs;
+        private volatile Path mapFilesDir;
+        private final Map<String,Long> stageTimes = new ConcurrentHashMap<>();
+        
+        private LoadJob(Path srcJobDirectory) {
+            this.srcJobDirectory = srcJobDirectory;
+            this.dstJobDirectory = srcJobDirectory;
+            this.workingHdfs = srcHdfs;
+            this.mapFilesDir = new Path(srcJobDirectory, "mapFiles");
+            this.start = System.currentTimeMillis();
+            log.info("Started processing " + mapFilesDir);
+            this.done = CompletableFuture.runAsync(stage("MapFileLoader.PrepareTimes", this::prepare), prepareStage)
+                            .thenRunAsync(stage("MapFileLoader.ImportTimes", this::load), importStage)
+                            .thenRunAsync(stage("MapFileLoader.CleanupTimes", this::cleanUp), cleanupStage);
+        }
+        
+        private Runnable stage(String group, Stage stage) {
+            return () -> {
+                long stageStart = System.currentTimeMillis();
+                try {
+                    stage.run();
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                } finally {
+                    stageTimes.put(group, System.currentTimeMillis() - stageStart);
+                }
+            };
+        }
+        
+        private void prepare() throws Exception {
+            // copy the data if needed
+            dstJobDirectory = distCpDirectory(srcJobDirectory);
+            workingHdfs = destHdfs;
+            
+            // recreate the map files directory reference in case it moved filesystems
+            mapFilesDir = new Path(dstJobDirectory, "mapFiles");
+        }
+        
+        private void load() throws Exception {
+            // now if we have a destination work directory, then move then move the files
+            bringMapFilesOnline(mapFilesDir);
+            
+            // ensure everything got loaded
+            verifyNothingLeftBehind(mapFilesDir);
+        }
+        
+        private void cleanUp() throws Exception {
+            cleanUpJobDirectory(mapFilesDir);
+            long end = System.currentTimeMillis();
+            log.info("Finished processing " + mapFilesDir + ", duration (sec): " + ((end - start) / 1000));
+        }
+        
+        private boolean isDone() {
+            return done.isDone();
+        }
+        
+        private void await() {
+            try {
+                done.get();
+            } catch (ExecutionException | CancellationException e) {
+                // the failure is handled when the job is retired
+            } catch (InterruptedException e) {
+                log.warn("Interrupted while waiting for " + srcJobDirectory, e);
+            }
+        }
+        
+        private void await(long timeout) {
+            try {
+                done.get(timeout, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException | CancellationException e) {
+                // the failure is handled when the job is retired
+            } catch (InterruptedException e) {
+                log.warn("Interrupted while waiting for " + srcJobDirectory, e);
+            }
+        }
+        
+        private Throwable getFailure() {
+            try {
+                done.getNow(null);
+                return null;
+            } catch (CompletionException e) {
+                return e.getCause();
+            } catch (CancellationException e) {
+                return e;
+            }
+        }
+        
+        private boolean markFailed() {
+            log.error("Failed to process " + mapFilesDir, getFailure());
+            return markJobDirectoryFailed(workingHdfs, dstJobDirectory);
+        }
+        
+        /**
+         * Add the start time and stage durations of this job to the loader metrics. These are only added once the job is retired, so that they are written in
+         * the same metrics file as its end time.
+         */
+        private void writeStats() {
+            reporter.getCounter("MapFileLoader.StartTimes", srcJobDirectory.getName()).increment(start);
+            for (Map.Entry<String,Long> stageTime : stageTimes.entrySet()) {
+                reporter.getCounter(stageTime.getKey(), srcJobDirectory.getName()).increment(stageTime.getValue());
+            }
+        }
+    }
+    
+    private interface Stage {
+        void run() throws Exception;
+    }
+    
     protected void shutdown() {
         running = false;
     }
@@ -590,12 +796,13 @@ public final class BulkIngestMapFileLoader implements Runnable {
     }
     
     /**
-     * Determines whether or not it is safe to bring map files online. This asks Accumulo for its stats for major compaction (running and queued), and will
-     * return false if either "too many" compactions are running/queued.
+     * Determines whether or not it is safe to start bringing more map files online. This will return false if there are too many major compactions (running
+     * and queued) across all of the tables, or if map files were brought online too recently. The major compactions of each table are checked again as its map
+     * files are imported, see {@link ImportRunnable#run()}.
      */
     public boolean canBringMapFilesOnline(long lastOnlineTime, boolean logInfo) {
         Level level = (logInfo ? Level.INFO : Level.DEBUG);
-        int majC = getMajorCompactionCount();
+        int majC = getMajorCompactionCount(null);
         log.log(level, "There are " + majC + " compactions currently running or queued.");
         
         long delta = System.currentTimeMillis() - lastOnlineTime;
@@ -604,8 +811,29 @@ public final class BulkIngestMapFileLoader implements Runnable {
         return (delta > MAJC_WAIT_TIMEOUT) && (majC < MAJC_THRESHOLD);
     }
     
-    private int getMajorCompactionCount() {
-        int majC = 0;
+    /**
+     * Gets the number of major compactions (running and queued) for a table, or for all of the tables if the table id is null. The counts are retrieved from
+     * Accumulo at most once per interval and shared by the imports of all of the tables.
+     */
+    private synchronized int getMajorCompactionCount(String tableId) {
+        long now = System.currentTimeMillis();
+        if (now - majcCountsTime > MAJC_STATS_INTERVAL) {
+            majcCounts = getMajorCompactionCounts();
+            majcCountsTime = now;
+        }
+        if (tableId == null) {
+            int majC = 0;
+            for (Integer count : majcCounts.values()) {
+                majC += count;
+            }
+            return majC;
+        }
+        Integer majC = majcCounts.get(tableId);
+        return (majC == null ? 0 : majC);
+    }
+    
+    private Map<String,Integer> getMajorCompactionCounts() {
+        Map<String,Integer> majC = new HashMap<>();
         
         ZooKeeperInstance instance = new ZooKeeperInstance(ClientConfiguration.loadDefault().withInstance(instanceName).withZkHosts(zooKeepers));
         
@@ -616,8 +844,7 @@ public final class BulkIngestMapFileLoader implements Runnable {
             Map<String,TableInfo> tableStats = mmi.getTableMap();
             
             for (java.util.Map.Entry<String,TableInfo> e : tableStats.entrySet()) {
-                majC += e.getValue().getMajors().getQueued();
-                majC += e.getValue().getMajors().getRunning();
+                majC.put(e.getKey(), e.getValue().getMajors().getQueued() + e.getValue().getMajors().getRunning());
             }
         } catch (Exception e) {
             // Accumulo API changed, catch exception for now until we redeploy
@@ -693,7 +920,8 @@ public final class BulkIngestMapFileLoader implements Runnable {
             }
         });
         
-        // now load the tables in the prioritized order, concurrently loading those with the same priority
+        // now load the tables in the prioritized order, concurrently loading those with the same priority. The imports are queued by priority along with
+        // those of the other jobs being loaded.
         Integer priority = null;
         Stack<ImportRunnable> imports = new Stack<>();
         Map<String,Path> tableNames = new HashMap<>();
@@ -738,7 +966,7 @@ public final class BulkIngestMapFileLoader implements Runnable {
                 
                 priority = tablePriorities.get(stat.getPath().getName());
             }
-            imports.push(startImport(mapFilesDir, tableName, tableDir, tops));
+            imports.push(startImport(mapFilesDir, tableName, tableIds.get(tableName), tableDir, tops));
         }
         
         Exception e = null;
@@ -759,32 +987,50 @@ public final class BulkIngestMapFileLoader implements Runnable {
             throw new IOException(e);
     }
     
-    public ImportRunnable startImport(Path mapFilesDir, String tableName, Path tableDir, TableOperations tops) {
-        ImportRunnable runnable = new ImportRunnable(mapFilesDir, tableName, tableDir, tops);
-        Thread thread = new Thread(runnable);
-        runnable.setThread(thread);
-        thread.start();
+    public ImportRunnable startImport(Path mapFilesDir, String tableName, String tableId, Path tableDir, TableOperations tops) {
+        Integer priority = tablePriorities.get(tableName);
+        ImportRunnable runnable = new ImportRunnable(mapFilesDir, tableName, tableId, tableDir, tops, (priority == null ? Integer.MAX_VALUE : priority),
+                        importSequence.getAndIncrement());
+        importExecutor.execute(runnable);
         return runnable;
     }
     
-    public class ImportRunnable implements Runnable {
-        private boolean complete = false;
+    /**
+     * Imports the map files for a table. These are run by a pool shared by all of the jobs being loaded, in priority order and then in the order they were
+     * started. While the table has too many major compactions the import is deferred: it is queued again, keeping its place in that order, once the
+     * compaction stats have been refreshed.
+     */
+    public class ImportRunnable implements Runnable, Comparable<ImportRunnable> {
+        private volatile boolean complete = false;
         private String tableName;
+        private String tableId;
         private Path tableDir;
         private TableOperations tops;
         private Path mapFilesDir;
+        private int priority;
+        private long sequence;
         private Exception exception = null;
-        private Thread thread = null;
+        private volatile Thread thread = null;
+        private long throttleStart = 0;
+        private long lastThrottleMessageTime = 0;
         
-        private ImportRunnable(Path mapFilesDir, String tableName, Path tableDir, TableOperations tops) {
+        private ImportRunnable(Path mapFilesDir, String tableName, String tableId, Path tableDir, TableOperations tops, int priority, long sequence) {
             this.tableName = tableName;
+            this.tableId = tableId;
             this.tableDir = tableDir;
             this.tops = tops;
             this.mapFilesDir = mapFilesDir;
+            this.priority = priority;
+            this.sequence = sequence;
         }
         
-        private void setThread(Thread thread) {
-            this.thread = thread;
+        @Override
+        public int compareTo(ImportRunnable o) {
+            int cmp = Integer.compare(priority, o.priority);
+            if (cmp == 0) {
+                cmp = Long.compare(sequence, o.sequence);
+            }
+            return cmp;
         }
         
         public Exception getException() {
@@ -798,10 +1044,12 @@ public final class BulkIngestMapFileLoader implements Runnable {
         public void waitForCompletion() throws InterruptedException {
             synchronized (this) {
                 while (!complete) {
-                    if (!thread.isAlive()) {
+                    // the thread is only set once the import has been taken off of the queue
+                    Thread thread = this.thread;
+                    if (thread != null && !thread.isAlive()) {
                         throw new InterruptedException("This thread is no longer alive but yet the task is incomplete");
                     }
-                    if (thread.isInterrupted()) {
+                    if (thread != null && thread.isInterrupted()) {
                         throw new InterruptedException("This thread has been interrupted");
                     }
                     this.wait(10000);
@@ -810,7 +1058,18 @@ public final class BulkIngestMapFileLoader implements Runnable {
         }
         
         public void run() {
+            this.thread = Thread.currentThread();
+            boolean deferred = false;
             try {
+                // hold off while the table is backed up with major compactions, without holding on to a thread of the pool
+                if (running && defer()) {
+                    deferred = true;
+                    return;
+                }
+                if (throttleStart > 0) {
+                    throttleTimes.computeIfAbsent(tableName, k -> new AtomicLong()).addAndGet(System.currentTimeMillis() - throttleStart);
+                }
+                
                 // Ensure all of the files put just under tableDir....
                 collapseDirectory();
                 
@@ -833,13 +1092,57 @@ public final class BulkIngestMapFileLoader implements Runnable {
                 log.error("Error importing files into table " + tableName + " from directory " + mapFilesDir, e);
                 this.exception = e;
             } finally {
-                this.complete = true;
-                synchronized (this) {
-                    this.notifyAll();
+                if (!deferred) {
+                    complete(exception);
                 }
             }
         }
         
+        /**
+         * Queues this import again after the compaction stats are next refreshed if its table has too many major compactions.
+         *
+         * @return true if the import was deferred
+         */
+        private boolean defer() {
+            int majC = getMajorCompactionCount(tableId);
+            if (majC < MAJC_THRESHOLD) {
+                return false;
+            }
+            long now = System.currentTimeMillis();
+            if (throttleStart == 0) {
+                throttleStart = now;
+            }
+            if (now - lastThrottleMessageTime > (5 * 60 * 1000)) {
+                log.info("Waiting for the " + majC + " compactions running or queued for " + tableName + " to decrease before bringing map files online.");
+                lastThrottleMessageTime = now;
+            }
+            // the import is not running on any thread until it has been queued again
+            this.thread = null;
+            try {
+                deferredImports.schedule(this::resubmit, MAJC_STATS_INTERVAL, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                complete(e);
+            }
+            return true;
+        }
+        
+        private void resubmit() {
+            try {
+                importExecutor.execute(this);
+            } catch (RejectedExecutionException e) {
+                log.error("Unable to queue the import of " + tableName + " from directory " + mapFilesDir + " again", e);
+                complete(e);
+            }
+        }
+        
+        private void complete(Exception e) {
+            this.exception = e;
+            this.complete = true;
+            synchronized (this) {
+                this.notifyAll();
+            }
+        }
+        
         private void collapseDirectory() throws IOException {
             collapseDirectory(tableDir);
         }
@@ -1131,6 +1434,10 @@ public final class BulkIngestMapFileLoader implements Runnable {
             long now = System.currentTimeMillis();
             for (Path p : jobDirectories)
                 reporter.getCounter("MapFileLoader.EndTimes", p.getName()).increment(now);
+            for (String tableName : throttleTimes.keySet()) {
+                AtomicLong throttleTime = throttleTimes.remove(tableName);
+                reporter.getCounter("MapFileLoader.ThrottleTimes", tableName).increment(throttleTime.get());
+            }
             // Write out the metrics.
             // We are going to serialize the counters into a file in HDFS.
             // The context was set in the processKeyValues method below, and should not be null. We'll guard against NPE anyway
@@ -13,6 +13,7 @@ import org.apache.log4j.Logger;
 
 import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintStream;
@@ -23,6 +24,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -33,6 +35,11 @@ public class NonShardedSplitsFile {
     protected static final Logger log = Logger.getLogger(NonShardedSplitsFile.class);
     public static final String SPLITS_FILE_NAME_PROPERTY_KEY = "datawave.ingest.bulk.NonShardedSplitsFile.cutFile";
     private static final String SPLITS_FILE_NAME_PROPERTY_VALUE = "splits.txt";
+    /**
+     * When true, the splits are written as a {@link SplitPointIndex} that the tasks memory map rather than as text that each task parses into arrays
+     */
+    public static final String SPLITS_INDEX_PROPERTY_KEY = "datawave.ingest.bulk.NonShardedSplitsFile.index";
+    private static final String SPLITS_INDEX_NAME_PROPERTY_VALUE = "splits.idx";
     
     public static class Writer {
         private URI uri;
@@ -41,6 +48,7 @@ public class NonShardedSplitsFile {
         private final String[] tableNames;
         private final List<String> shardedTableNames;
         private final boolean isTrimmed;
+        private final boolean writeIndex;
         private final Configuration conf;
         private final FileSystem fs;
         
@@ -75,6 +83,7 @@ public class NonShardedSplitsFile {
             this.fs = fs;
             this.tableNames = tableNames;
             this.isTrimmed = isTrimmed;
+            this.writeIndex = conf.getBoolean(SPLITS_INDEX_PROPERTY_KEY, false);
             this.shardedTableNames = Arrays.asList(ConfigurationHelper.isNull(conf, ShardedDataTypeHandler.SHARDED_TNAMES, String[].class));
         }
         
@@ -90,18 +99,35 @@ public class NonShardedSplitsFile {
                     throw new Exception("Splits cache is invalid");
                 }
                 writeSplitsToFile(splits);
-                uri = new URI(workDirPath + "/" + createFileName(isTrimmed));
+                uri = new URI(workDirPath + "/" + createFileName(isTrimmed, writeIndex));
             } catch (Exception e) {
                 throw new RuntimeException("Could not create splits file for the job. See documentation for using generateSplitsFile.sh", e);
             }
         }
         
         private void writeSplitsToFile(MetadataTableSplits splits) throws IOException {
-            PrintStream out = new PrintStream(new BufferedOutputStream(fs.create(new Path(workDirPath, createFileName(isTrimmed)))));
+            if (writeIndex) {
+                writeSplitsToIndex(splits);
+                return;
+            }
+            PrintStream out = new PrintStream(new BufferedOutputStream(fs.create(new Path(workDirPath, createFileName(isTrimmed, false)))));
             outputSplitsForNonShardTables(splits, out);
             out.close();
         }
         
+        private void writeSplitsToIndex(MetadataTableSplits splits) throws IOException {
+            Map<String,Collection<Text>> splitsByTable = new LinkedHashMap<>();
+            for (String table : tableNames) {
+                if (null != shardedTableNames && shardedTableNames.contains(table)) {
+                    continue;
+                }
+                splitsByTable.put(table, getSplitsForTable(splits, table));
+            }
+            try (BufferedOutputStream out = new BufferedOutputStream(fs.create(new Path(workDirPath, createFileName(isTrimmed, true))))) {
+                SplitPointIndex.write(out, splitsByTable);
+            }
+        }
+        
         private void outputSplitsForNonShardTables(MetadataTableSplits splits, PrintStream out) throws IOException {
             for (String table : tableNames) {
                 if (null != shardedTableNames && shardedTableNames.contains(table)) {
@@ -111,13 +137,16 @@ public class NonShardedSplitsFile {
             }
         }
         
-        private void outputSplitsForTable(MetadataTableSplits splits, PrintStream out, String table) throws IOException {
-            Collection<Text> tableSplits;
+        private Collection<Text> getSplitsForTable(MetadataTableSplits splits, String table) throws IOException {
             if (isTrimmed) {
-                tableSplits = splits.getSplits(table, reduceTasks - 1);
+                return splits.getSplits(table, reduceTasks - 1);
             } else {
-                tableSplits = splits.getSplits(table);
+                return splits.getSplits(table);
             }
+        }
+        
+        private void outputSplitsForTable(MetadataTableSplits splits, PrintStream out, String table) throws IOException {
+            Collection<Text> tableSplits = getSplitsForTable(splits, table);
             for (Text split : tableSplits) {
                 out.println(table + "\t" + new String(Base64.encodeBase64(split.getBytes())));
                 if (log.isTraceEnabled()) {
@@ -131,16 +160,21 @@ public class NonShardedSplitsFile {
         }
     }
     
-    private static String createFileName(boolean isTrimmed) {
-        return (isTrimmed ? "trimmed_" : "full_") + SPLITS_FILE_NAME_PROPERTY_VALUE;
+    private static String createFileName(boolean isTrimmed, boolean isIndex) {
+        return (isTrimmed ? "trimmed_" : "full_") + (isIndex ? SPLITS_INDEX_NAME_PROPERTY_VALUE : SPLITS_FILE_NAME_PROPERTY_VALUE);
     }
     
+    /**
+     * Find the splits file among the cache files, preferring a split point index to a text file
+     */
     public static Path findSplitsFile(Configuration conf, Path[] filesToCheck, boolean isTrimmed) {
-        String fileName = createFileName(isTrimmed);
         if (filesToCheck != null) {
-            for (Path cacheFile : filesToCheck) {
-                if (matchesFileName(fileName, cacheFile)) {
-                    return cacheFile;
+            for (boolean isIndex : new boolean[] {true, false}) {
+                String fileName = createFileName(isTrimmed, isIndex);
+                for (Path cacheFile : filesToCheck) {
+                    if (matchesFileName(fileName, cacheFile)) {
+                        return cacheFile;
+                    }
                 }
             }
         }
@@ -153,6 +187,7 @@ public class NonShardedSplitsFile {
     
     public static class Reader {
         private Map<String,Text[]> splits;
+        private SplitPointIndex index;
         
         public Reader(Configuration conf, Path[] filesToCheck, boolean isTrimmed) throws IOException {
             Path cacheFile = findSplitsFile(conf, filesToCheck, isTrimmed);
@@ -160,6 +195,12 @@ public class NonShardedSplitsFile {
                 throw new RuntimeException("Could not find cut point file");
             }
             
+            if (matchesFileName(createFileName(isTrimmed, true), cacheFile)) {
+                index = SplitPointIndex.open(new File(cacheFile.toString()));
+                log.info("Mapped cut points for tables: " + index.getTableNames());
+                return;
+            }
+            
             splits = new HashMap<>();
             ArrayList<Text> cutPoints = new ArrayList<>();
             String previousTableName = null;
@@ -194,8 +235,24 @@ public class NonShardedSplitsFile {
             }
         }
         
+        /**
+         * @return the split points of each table, which are copied out of the split point index if the splits file is one
+         */
         public Map<String,Text[]> getSplitsByTable() {
+            if (splits == null) {
+                splits = new HashMap<>();
+                for (String table : index.getTableNames()) {
+                    splits.put(table, index.getSplits(table));
+                }
+            }
             return splits;
         }
+        
+        /**
+         * @return the memory mapped split point index, or null if the splits file is text
+         */
+        public SplitPointIndex getSplitPointIndex() {
+            return index;
+        }
     }
 }
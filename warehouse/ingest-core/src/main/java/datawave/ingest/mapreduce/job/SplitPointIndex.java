@@ -0,0 +1,357 @@
+package datawave.ingest.mapreduce.job;
+
+import org.apache.hadoop.io.Text;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A binary file of the sorted split points of a set of tables, which is memory mapped and searched in place rather than loaded into a {@code Text[]} per table.
+ * <p>
+ * The split points of each table are prefix compressed: every entry is written as the length of the prefix it shares with the previous split point, the length
+ * of the rest of it, and the rest of it. Every {@link #RESTART_INTERVAL} entries a split point is written in full, and the positions of these restart points
+ * follow the entries of the table. A search binary searches the restart points, comparing the row against the mapped bytes, and then scans forward through at
+ * most one run of entries, tracking how much of the row matches the current split point so that the split points are never rebuilt.
+ * <p>
+ * The file ends with a directory of the tables, followed by the position of the directory:
+ *
+ * <pre>
+ * entries*  restart positions*  (for each table)
+ * table count, (name, split count, entries position, restart count, restarts position)*
+ * directory position
+ * </pre>
+ *
+ * An index is safe to search from multiple threads.
+ */
+public class SplitPointIndex implements Closeable {
+    
+    private static final int MAGIC = 0x53504c49;
+    private static final int VERSION = 1;
+    static final int RESTART_INTERVAL = 16;
+    
+    private final RandomAccessFile file;
+    private final ByteBuffer buffer;
+    private final Map<String,Table> tables = new HashMap<>();
+    
+    private static class Table {
+        private final int splitCount;
+        private final int entries;
+        private final int restartCount;
+        private final int restarts;
+        
+        private Table(int splitCount, int entries, int restartCount, int restarts) {
+            this.splitCount = splitCount;
+            this.entries = entries;
+            this.restartCount = restartCount;
+            this.restarts = restarts;
+        }
+    }
+    
+    private SplitPointIndex(RandomAccessFile file, ByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.limit() < 12 || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a split point index");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported split point index version " + buffer.getInt(4));
+        }
+        ByteBuffer directory = buffer.duplicate();
+        directory.position(buffer.getInt(buffer.limit() - 4));
+        int tableCount = directory.getInt();
+        for (int i = 0; i < tableCount; i++) {
+            byte[] name = new byte[directory.getShort() & 0xffff];
+            directory.get(name);
+            tables.put(new String(name, StandardCharsets.UTF_8), new Table(directory.getInt(), directory.getInt(), directory.getInt(), directory.getInt()));
+        }
+    }
+    
+    /**
+     * Memory map an index
+     *
+     * @param indexFile
+     *            a local index file
+     * @return the index
+     * @throws IOException
+     *             if the file cannot be mapped or is not an index
+     */
+    public static SplitPointIndex open(File indexFile) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(indexFile, "r");
+        try {
+            MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+            return new SplitPointIndex(file, buffer);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Write an index
+     *
+     * @param out
+     *            the stream to write to, which is not closed
+     * @param splitsByTable
+     *            the split points of each table, which are sorted and deduplicated as they are written
+     * @throws IOException
+     *             if the stream cannot be written
+     */
+    public static void write(OutputStream out, Map<String,? extends Collection<Text>> splitsByTable) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        
+        List<String> tableNames = new ArrayList<>(splitsByTable.keySet());
+        Collections.sort(tableNames);
+        List<int[]> directory = new ArrayList<>();
+        for (String tableName : tableNames) {
+            TreeSet<Text> splits = new TreeSet<>(splitsByTable.get(tableName));
+            int entries = data.size();
+            List<Integer> restarts = new ArrayList<>();
+            Text previous = null;
+            int count = 0;
+            for (Text split : splits) {
+                int shared = 0;
+                if (count % RESTART_INTERVAL == 0) {
+                    restarts.add(data.size());
+                } else {
+                    shared = sharedPrefix(previous, split);
+                }
+                writeVInt(data, shared);
+                writeVInt(data, split.getLength() - shared);
+                data.write(split.getBytes(), shared, split.getLength() - shared);
+                previous = split;
+                count++;
+            }
+            int restartsPosition = data.size();
+            for (int restart : restarts) {
+                data.writeInt(restart);
+            }
+            directory.add(new int[] {count, entries, restarts.size(), restartsPosition});
+        }
+        
+        int directoryPosition = data.size();
+        data.writeInt(tableNames.size());
+        for (int i = 0; i < tableNames.size(); i++) {
+            byte[] name = tableNames.get(i).getBytes(StandardCharsets.UTF_8);
+            data.writeShort(name.length);
+            data.write(name);
+            for (int value : directory.get(i)) {
+                data.writeInt(value);
+            }
+        }
+        data.writeInt(directoryPosition);
+        data.flush();
+    }
+    
+    private static int sharedPrefix(Text a, Text b) {
+        int length = Math.min(a.getLength(), b.getLength());
+        byte[] aBytes = a.getBytes();
+        byte[] bBytes = b.getBytes();
+        int i = 0;
+        while (i < length && aBytes[i] == bBytes[i]) {
+            i++;
+        }
+        return i;
+    }
+    
+    private static void writeVInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+    
+    /**
+     * @return the names of the tables in the index
+     */
+    public Set<String> getTableNames() {
+        return Collections.unmodifiableSet(tables.keySet());
+    }
+    
+    /**
+     * @param tableName
+     *            the table name
+     * @return the number of split points for the table, or -1 if the table is not in the index
+     */
+    public int getSplitCount(String tableName) {
+        Table table = tables.get(tableName);
+        return (table == null ? -1 : table.splitCount);
+    }
+    
+    /**
+     * Search the split points of a table for a row, without copying the split points.
+     *
+     * @param tableName
+     *            the table name, which must be in the index
+     * @param row
+     *            the row bytes
+     * @param offset
+     *            the offset of the row in the bytes
+     * @param length
+     *            the length of the row
+     * @return the index of the split point equal to the row, otherwise (-(insertion point) - 1) as with {@link java.util.Arrays#binarySearch(Object[], Object)}
+     */
+    public int search(String tableName, byte[] row, int offset, int length) {
+        Table table = tables.get(tableName);
+        if (table == null) {
+            throw new IllegalArgumentException("No split points for " + tableName);
+        }
+        if (table.splitCount == 0) {
+            return -1;
+        }
+        
+        // find the last restart point that is less than or equal to the row
+        int low = 0;
+        int high = table.restartCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareInPlace(buffer.getInt(table.restarts + mid * 4), row, offset, length);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid * RESTART_INTERVAL;
+            }
+        }
+        if (high < 0) {
+            return -1;
+        }
+        
+        // scan forward from the restart point. matched is the length of the prefix the current split point shares with the row, and cmp is the comparison of
+        // the current split point to the row.
+        int index = high * RESTART_INTERVAL;
+        int end = Math.min(index + RESTART_INTERVAL, table.splitCount);
+        int position = buffer.getInt(table.restarts + high * 4);
+        int matched = 0;
+        int cmp = 0;
+        for (; index < end; index++) {
+            int shared = readVInt(position);
+            position += vIntSize(shared);
+            int suffix = readVInt(position);
+            position += vIntSize(suffix);
+            
+            if (shared < matched) {
+                // this split point differs from the previous one, and hence the row, at a byte greater than the row's
+                return -index - 1;
+            } else if (shared == matched) {
+                int i = 0;
+                while (i < suffix && matched < length && buffer.get(position + i) == row[offset + matched]) {
+                    i++;
+                    matched++;
+                }
+                if (i < suffix && matched < length) {
+                    cmp = (buffer.get(position + i) & 0xff) - (row[offset + matched] & 0xff);
+                } else {
+                    cmp = (shared + suffix) - length;
+                }
+            }
+            // when shared > matched, this split point compares to the row just as the previous one did
+            
+            if (cmp == 0) {
+                return index;
+            } else if (cmp > 0) {
+                return -index - 1;
+            }
+            position += suffix;
+        }
+        return -end - 1;
+    }
+    
+    /**
+     * Compare a split point written in full against a row
+     */
+    private int compareInPlace(int position, byte[] row, int offset, int length) {
+        // restart points have no shared prefix
+        position += vIntSize(0);
+        int splitLength = readVInt(position);
+        position += vIntSize(splitLength);
+        int common = Math.min(splitLength, length);
+        for (int i = 0; i < common; i++) {
+            int cmp = (buffer.get(position + i) & 0xff) - (row[offset + i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return splitLength - length;
+    }
+    
+    private int readVInt(int position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(position++);
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+    
+    private static int vIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7f) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+    
+    /**
+     * Copy out the split points of a table, e.g. for code that expects them as an array
+     *
+     * @param tableName
+     *            the table name
+     * @return the split points, or null if the table is not in the index
+     */
+    public Text[] getSplits(String tableName) {
+        Table table = tables.get(tableName);
+        if (table == null) {
+            return null;
+        }
+        Text[] splits = new Text[table.splitCount];
+        byte[] split = new byte[0];
+        int position = table.entries;
+        for (int i = 0; i < table.splitCount; i++) {
+            int shared = readVInt(position);
+            position += vIntSize(shared);
+            int suffix = readVInt(position);
+            position += vIntSize(suffix);
+            if (split.length < shared + suffix) {
+                byte[] grown = new byte[Math.max(shared + suffix, split.length * 2)];
+                System.arraycopy(split, 0, grown, 0, shared);
+                split = grown;
+            }
+            for (int j = 0; j < suffix; j++) {
+                split[shared + j] = buffer.get(position + j);
+            }
+            position += suffix;
+            splits[i] = new Text();
+            splits[i].set(split, 0, shared + suffix);
+        }
+        return splits;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -2,25 +2,40 @@ package datawave.ingest.mapreduce.job.writer;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import datawave.ingest.mapreduce.job.BulkIngestKey;
 import datawave.ingest.mapreduce.job.reduce.BulkIngestKeyDedupeCombiner;
 import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Value;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableUtils;
 import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+import org.apache.log4j.Logger;
 
 /**
  * This is a caching context writer that will cache the entries for a table and will only actually flush entries once that cache is full. The cache will be
  * aggregated as the entries are received. This cache will cache values across calls to commit, which means that entries are aggregated across events (see
  * EventMapper contextWriter commit calls).
- * 
+ * <p>
+ * By default the cache of each table is limited to the number of entries configured for the table. If {@link #CACHE_BYTES} is set, then the caches of all of
+ * the configured tables share a budget of that many bytes instead. When the budget is reached, the cached entries are sorted and spilled to a local file rather
+ * than being written out, and the spilled runs are merged at cleanup, combining the values of a key across runs. This keeps the combining of repeated keys,
+ * such as the global index entries of common terms, going for the whole task regardless of the size of the entries.
  */
 public class TableCachingContextWriter extends AbstractContextWriter<BulkIngestKey,Value> implements ChainedContextWriter<BulkIngestKey,Value> {
     
@@ -41,9 +56,32 @@ public class TableCachingContextWriter extends AbstractContextWriter<BulkIngestK
     // entries
     public static final String TABLES_TO_CACHE_SUFFIX = ".table.context.writer.cache";
     
+    // the property used to budget the caches of all of the tables by bytes instead of by entries per table, which enables spilling
+    public static final String CACHE_BYTES = "ingest.table.caching.context.writer.cache.bytes";
+    
+    // the local directory to spill to, which defaults to java.io.tmpdir
+    public static final String SPILL_DIR = "ingest.table.caching.context.writer.spill.dir";
+    
+    // counters to keep track of how often the cache gets spilled
+    public static final String SPILLED_BUFFER_COUNTER = "TABLE_CACHE_SPILLS";
+    public static final String SPILLED_BUFFER_TOTAL = "TABLE_CACHE_SPILLED_ENTRIES";
+    
+    // a rough estimate of the memory used by the cache for each key and value beyond their bytes
+    private static final int ENTRY_OVERHEAD = 96;
+    
+    private static final Logger log = Logger.getLogger(TableCachingContextWriter.class);
+    
     // This is the cache
     private final Map<Text,Multimap<BulkIngestKey,Value>> aggregatedCache = new HashMap<>();
     
+    // the byte budget of the cache, or 0 to limit the cache of each table by entries
+    private long maxCacheBytes = 0;
+    private long cachedBytes = 0;
+    
+    // the runs spilled to disk
+    private File spillDir;
+    private final List<File> spills = new ArrayList<>();
+    
     // This is the combiner used to aggregate values
     private CachingContextWriter combinerCache = new CachingContextWriter();
     private BulkIngestKeyDedupeCombiner<BulkIngestKey,Value> combiner = new BulkIngestKeyDedupeCombiner<BulkIngestKey,Value>() {
@@ -77,6 +115,9 @@ public class TableCachingContextWriter extends AbstractContextWriter<BulkIngestK
             }
         }
         
+        maxCacheBytes = conf.getLong(CACHE_BYTES, 0);
+        spillDir = new File(conf.get(SPILL_DIR, System.getProperty("java.io.tmpdir")));
+        
         // create and setup the chained context writer
         Class<ContextWriter<BulkIngestKey,Value>> contextWriterClass = null;
         if (Mutation.class.equals(conf.getClass(MAPRED_OUTPUT_VALUE_CLASS, null))) {
@@ -130,6 +171,13 @@ public class TableCachingContextWriter extends AbstractContextWriter<BulkIngestK
     }
     
     private void flushAll(TaskInputOutputContext<?,?,BulkIngestKey,Value> context) throws IOException, InterruptedException {
+        if (!spills.isEmpty()) {
+            // spill the rest of the cache so that it can be merged with the other runs
+            spill(context);
+            merge(context);
+            return;
+        }
+        
         // pass all of the data through the delegate and clear the cache
         for (Map.Entry<Text,Multimap<BulkIngestKey,Value>> entries : aggregatedCache.entrySet()) {
             if (!entries.getValue().isEmpty()) {
@@ -139,6 +187,7 @@ public class TableCachingContextWriter extends AbstractContextWriter<BulkIngestK
             }
         }
         aggregatedCache.clear();
+        cachedBytes = 0;
     }
     
     private void cache(BulkIngestKey key, Collection<Value> values, TaskInputOutputContext<?,?,BulkIngestKey,Value> context) throws IOException,
@@ -148,7 +197,9 @@ public class TableCachingContextWriter extends AbstractContextWriter<BulkIngestK
         
         Multimap<BulkIngestKey,Value> entries = aggregatedCache.get(key.getTableName());
         if (entries != null) {
-            valueList.addAll(entries.removeAll(key));
+            Collection<Value> cached = entries.removeAll(key);
+            cachedBytes -= sizeOf(key, cached);
+            valueList.addAll(cached);
         } else {
             entries = HashMultimap.create();
             aggregatedCache.put(key.getTableName(), entries);
@@ -160,14 +211,191 @@ public class TableCachingContextWriter extends AbstractContextWriter<BulkIngestK
         } else {
             entries.putAll(key, valueList);
         }
+        cachedBytes += sizeOf(key, entries.get(key));
         
-        // now flush this tables cache if needed
-        if (entries.size() >= tableCacheConf.get(key.getTableName())) {
+        if (maxCacheBytes > 0) {
+            // spill all of the tables once the cache is over budget
+            if (cachedBytes >= maxCacheBytes) {
+                spill(context);
+            }
+        } else if (entries.size() >= tableCacheConf.get(key.getTableName())) {
+            // now flush this tables cache if needed
             // register that we overran the cache for this table
             getCounter(context, FLUSHED_BUFFER_TOTAL, key.getTableName().toString()).increment(entries.size());
             getCounter(context, FLUSHED_BUFFER_COUNTER, key.getTableName().toString()).increment(1);
             contextWriter.write(entries, context);
             aggregatedCache.remove(key.getTableName());
+            cachedBytes -= sizeOf(entries);
+        }
+    }
+    
+    private static long sizeOf(BulkIngestKey key, Collection<Value> values) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        long size = ENTRY_OVERHEAD + key.getTableName().getLength() + key.getKey().getSize();
+        for (Value value : values) {
+            size += ENTRY_OVERHEAD + value.getSize();
+        }
+        return size;
+    }
+    
+    private static long sizeOf(Multimap<BulkIngestKey,Value> entries) {
+        long size = 0;
+        for (Map.Entry<BulkIngestKey,Collection<Value>> entry : entries.asMap().entrySet()) {
+            size += sizeOf(entry.getKey(), entry.getValue());
+        }
+        return size;
+    }
+    
+    /**
+     * Write the cached entries of all of the tables to a local file in sorted order and clear the cache
+     * 
+     * @param context
+     * @throws IOException
+     */
+    private void spill(TaskInputOutputContext<?,?,BulkIngestKey,Value> context) throws IOException {
+        List<BulkIngestKey> keys = new ArrayList<>();
+        for (Multimap<BulkIngestKey,Value> entries : aggregatedCache.values()) {
+            keys.addAll(entries.keySet());
+        }
+        Collections.sort(keys);
+        
+        if (!spillDir.exists() && !spillDir.mkdirs()) {
+            throw new IOException("Unable to create the spill directory " + spillDir);
+        }
+        // the spill files are deleted once merged at cleanup, not on exit, as a reused task JVM would keep every one of them in its delete on exit list
+        File file = File.createTempFile("tableCache", ".spill", spillDir);
+        spills.add(file);
+        
+        long spilled = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024))) {
+            out.writeInt(keys.size());
+            for (BulkIngestKey key : keys) {
+                Collection<Value> values = aggregatedCache.get(key.getTableName()).get(key);
+                key.write(out);
+                WritableUtils.writeVInt(out, values.size());
+                for (Value value : values) {
+                    value.write(out);
+                }
+                spilled += values.size();
+            }
+        }
+        
+        if (log.isDebugEnabled()) {
+            log.debug("Spilled " + spilled + " entries (" + cachedBytes + " bytes) to " + file);
+        }
+        getCounter(context, SPILLED_BUFFER_TOTAL, "ALL").increment(spilled);
+        getCounter(context, SPILLED_BUFFER_COUNTER, "ALL").increment(1);
+        aggregatedCache.clear();
+        cachedBytes = 0;
+    }
+    
+    /**
+     * Merge the spilled runs, reducing the values of the keys found in more than one run, write the entries to the chained context writer, and delete the runs
+     * 
+     * @param context
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    private void merge(TaskInputOutputContext<?,?,BulkIngestKey,Value> context) throws IOException, InterruptedException {
+        PriorityQueue<SpillReader> readers = new PriorityQueue<>(spills.size());
+        List<SpillReader> opened = new ArrayList<>(spills.size());
+        Map<Text,long[]> flushed = new HashMap<>();
+        try {
+            for (File file : spills) {
+                SpillReader reader = new SpillReader(file);
+                opened.add(reader);
+                if (reader.next()) {
+                    readers.add(reader);
+                }
+            }
+            
+            List<Value> values = new ArrayList<>();
+            while (!readers.isEmpty()) {
+                SpillReader reader = readers.poll();
+                BulkIngestKey key = reader.key;
+                values.clear();
+                values.addAll(reader.values);
+                if (reader.next()) {
+                    readers.add(reader);
+                }
+                while (!readers.isEmpty() && readers.peek().key.equals(key)) {
+                    reader = readers.poll();
+                    values.addAll(reader.values);
+                    if (reader.next()) {
+                        readers.add(reader);
+                    }
+                }
+                
+                Collection<Value> reduced = (values.size() > 1 ? reduceValues(key, values, context) : values);
+                for (Value value : reduced) {
+                    contextWriter.write(key, value, context);
+                }
+                
+                long[] count = flushed.get(key.getTableName());
+                if (count == null) {
+                    count = new long[1];
+                    flushed.put(key.getTableName(), count);
+                }
+                count[0] += reduced.size();
+            }
+        } finally {
+            for (SpillReader reader : opened) {
+                reader.close();
+            }
+            for (File file : spills) {
+                if (!file.delete()) {
+                    log.warn("Unable to delete " + file);
+                }
+            }
+            spills.clear();
+        }
+        
+        for (Map.Entry<Text,long[]> entry : flushed.entrySet()) {
+            getCounter(context, FLUSHED_BUFFER_TOTAL, entry.getKey().toString()).increment(entry.getValue()[0]);
+            getCounter(context, FLUSHED_BUFFER_COUNTER, entry.getKey().toString()).increment(1);
+        }
+    }
+    
+    /**
+     * Reads the keys and values of a spilled run in order
+     */
+    private static class SpillReader implements Comparable<SpillReader> {
+        private final DataInputStream in;
+        private int remaining;
+        private BulkIngestKey key;
+        private final List<Value> values = new ArrayList<>();
+        
+        private SpillReader(File file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+            this.remaining = in.readInt();
+        }
+        
+        private boolean next() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            key = new BulkIngestKey();
+            key.readFields(in);
+            values.clear();
+            int count = WritableUtils.readVInt(in);
+            for (int i = 0; i < count; i++) {
+                Value value = new Value();
+                value.readFields(in);
+                values.add(value);
+            }
+            return true;
+        }
+        
+        private void close() throws IOException {
+            in.close();
+        }
+        
+        @Override
+        public int compareTo(SpillReader other) {
+            return key.compareTo(other.key);
         }
     }
     
@@ -2,6 +2,8 @@ package datawave.ingest.mapreduce.partition;
 
 import datawave.ingest.mapreduce.job.BulkIngestKey;
 import datawave.ingest.mapreduce.job.NonShardedSplitsFile;
+import datawave.ingest.mapreduce.job.SplitPointIndex;
+import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.client.TableExistsException;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.data.Value;
@@ -22,7 +24,8 @@ import java.util.Arrays;
 import java.util.Map;
 
 /**
- * Range partitioner that uses a split file with the format: {@code tableName<tab>splitPoint}
+ * Range partitioner that uses a split file with the format: {@code tableName<tab>splitPoint}, or a {@link SplitPointIndex} which is memory mapped and shared by
+ * the threads of the task rather than read into arrays
  * 
  */
 public class MultiTableRangePartitioner extends Partitioner<BulkIngestKey,Value> implements DelegatePartitioner {
@@ -36,18 +39,19 @@ public class MultiTableRangePartitioner extends Partitioner<BulkIngestKey,Value>
     private volatile boolean cacheFilesRead = false;
     private Text holder = new Text();
     private ThreadLocal<Map<String,Text[]>> splitsByTable = new ThreadLocal<>();
+    private volatile SplitPointIndex splitPointIndex;
     private DecimalFormat formatter = new DecimalFormat("000");
     private Configuration conf;
     private PartitionLimiter partitionLimiter;
     private Object semaphore = new Object();
     
     private void readCacheFilesIfNecessary() {
-        if (splitsByTable.get() != null) {
+        if (splitPointIndex != null || splitsByTable.get() != null) {
             return;
         }
         
         synchronized (semaphore) {
-            if (splitsByTable.get() != null) {
+            if (splitPointIndex != null || splitsByTable.get() != null) {
                 return;
             }
             
@@ -65,8 +69,15 @@ public class MultiTableRangePartitioner extends Partitioner<BulkIngestKey,Value>
             
             try {
                 NonShardedSplitsFile.Reader reader = new NonShardedSplitsFile.Reader(context.getConfiguration(), localCacheFiles, isTrimmed());
-                splitsByTable.set(reader.getSplitsByTable());
-                if (splitsByTable.get().isEmpty()) {
+                boolean isEmpty;
+                if (reader.getSplitPointIndex() != null) {
+                    splitPointIndex = reader.getSplitPointIndex();
+                    isEmpty = splitPointIndex.getTableNames().isEmpty();
+                } else {
+                    splitsByTable.set(reader.getSplitsByTable());
+                    isEmpty = splitsByTable.get().isEmpty();
+                }
+                if (isEmpty) {
                     log.error("Non-sharded splits by table cannot be empty.  If this is a development system, please create at least one split in one of the non-sharded tables (see bin/ingest/seed_index_splits.sh).");
                     throw new IOException("splits by table cannot be empty");
                 }
@@ -84,13 +95,25 @@ public class MultiTableRangePartitioner extends Partitioner<BulkIngestKey,Value>
         readCacheFilesIfNecessary();
         
         String tableName = key.getTableName().toString();
-        Text[] cutPointArray = splitsByTable.get().get(tableName);
-        
-        if (null == cutPointArray)
-            return (tableName.hashCode() & Integer.MAX_VALUE) % numPartitions;
-        key.getKey().getRow(holder);
-        int index = Arrays.binarySearch(cutPointArray, holder);
-        index = calculateIndex(index, numPartitions, tableName, cutPointArray.length);
+        int index;
+        SplitPointIndex splitPoints = splitPointIndex;
+        if (splitPoints != null) {
+            int cutPointCount = splitPoints.getSplitCount(tableName);
+            if (cutPointCount < 0)
+                return (tableName.hashCode() & Integer.MAX_VALUE) % numPartitions;
+            // search the mapped split points with the row bytes of the key, without copying either
+            ByteSequence row = key.getKey().getRowData();
+            index = splitPoints.search(tableName, row.getBackingArray(), row.offset(), row.length());
+            index = calculateIndex(index, numPartitions, tableName, cutPointCount);
+        } else {
+            Text[] cutPointArray = splitsByTable.get().get(tableName);
+            
+            if (null == cutPointArray)
+                return (tableName.hashCode() & Integer.MAX_VALUE) % numPartitions;
+            key.getKey().getRow(holder);
+            index = Arrays.binarySearch(cutPointArray, holder);
+            index = calculateIndex(index, numPartitions, tableName, cutPointArray.length);
+        }
         
         index = partitionLimiter.limit(numPartitions, index);
         
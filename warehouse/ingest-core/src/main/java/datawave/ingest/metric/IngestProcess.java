@@ -1,5 +1,5 @@
 package datawave.ingest.metric;
 
 public enum IngestProcess {
-    START_TIME, END_TIME, OUTPUT_DIRECTORY, RUNTIME_EXCEPTION, LIVE_INGEST, METRICS_LABEL_OVERRIDE
+    START_TIME, END_TIME, OUTPUT_DIRECTORY, RUNTIME_EXCEPTION, LIVE_INGEST, METRICS_LABEL_OVERRIDE, MAPPER_THREAD, FIELD_POLICY_CACHE
 }
@@ -0,0 +1,523 @@
+package datawave.ingest.table.aggregator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.log4j.Logger;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.UnknownFieldSet;
+import com.google.protobuf.WireFormat;
+
+import datawave.ingest.protobuf.Uid;
+
+/**
+ * An implementation of the {@link GlobalIndexUidAggregator} that works directly on the serialized Uid.List bytes instead of parsing them into protobuf
+ * objects and Strings. The uids are copied into a reusable, chunked byte arena and referenced by small flyweights whose hash code, equality and ordering are
+ * consistent with the equivalent String. Strings are only materialized for uids that contain non-ASCII characters.
+ * <p>
+ * The sequence of set operations is exactly that of the {@link GlobalIndexUidAggregator}, which means that the iteration order of the sets (and hence the
+ * order of the uids in the aggregated value) is identical. The aggregated values are therefore byte for byte identical to those produced by the
+ * {@link GlobalIndexUidAggregator}, and the two may be used interchangeably on the same table.
+ */
+public class PackedGlobalIndexUidAggregator extends PropogatingCombiner {
+    private static final Logger log = Logger.getLogger(PackedGlobalIndexUidAggregator.class);
+    
+    private static final int UID_TAG = makeTag(Uid.List.UID_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int REMOVEDUID_TAG = makeTag(Uid.List.REMOVEDUID_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int QUARANTINEUID_TAG = makeTag(Uid.List.QUARANTINEUID_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int IGNORE_TAG = makeTag(Uid.List.IGNORE_FIELD_NUMBER, WireFormat.WIRETYPE_VARINT);
+    private static final int COUNT_TAG = makeTag(Uid.List.COUNT_FIELD_NUMBER, WireFormat.WIRETYPE_VARINT);
+    
+    private static int makeTag(int fieldNumber, int wireType) {
+        return (fieldNumber << 3) | wireType;
+    }
+    
+    /**
+     * Maximum number of UIDs.
+     */
+    public int maxUids = GlobalIndexUidAggregator.MAX;
+    
+    private final HashSet<UidBytes> uids = new HashSet<>();
+    private final HashSet<UidBytes> uidsToRemove = new HashSet<>();
+    private final HashSet<UidBytes> quarantinedIds = new HashSet<>();
+    private final HashSet<UidBytes> releasedUids = new HashSet<>();
+    
+    private boolean seenIgnore = false;
+    private long count = 0;
+    
+    /**
+     * The lists that would have been accumulated in the Uid.List.Builder since the last reset
+     */
+    private final List<UidBytes> builderUids = new ArrayList<>();
+    private final List<UidBytes> builderRemovedUids = new ArrayList<>();
+    private final List<UidBytes> builderQuarantinedUids = new ArrayList<>();
+    
+    private final UidArena arena = new UidArena();
+    private final UidBytes probe = new UidBytes();
+    private final ParsedList parsed = new ParsedList();
+    
+    public PackedGlobalIndexUidAggregator(int max) {
+        this.maxUids = max;
+    }
+    
+    public PackedGlobalIndexUidAggregator() {
+        this.maxUids = GlobalIndexUidAggregator.MAX;
+    }
+    
+    @Override
+    public Value aggregate() {
+        
+        boolean ignore;
+        if (seenIgnore || count > maxUids) {
+            ignore = true;
+            builderUids.clear();
+            // if we catch seenIgnore, then there is
+            // no need to propogate removals.
+            propogate = false;
+        } else {
+            ignore = false;
+            
+            uidsToRemove.removeAll(quarantinedIds);
+            uidsToRemove.removeAll(releasedUids);
+            quarantinedIds.removeAll(releasedUids);
+            
+            uids.removeAll(uidsToRemove);
+            uids.removeAll(quarantinedIds);
+            
+            if (!releasedUids.isEmpty()) {
+                if (log.isDebugEnabled())
+                    log.debug("Adding released UIDS");
+                uids.addAll(releasedUids);
+            }
+            
+            builderUids.addAll(uids);
+        }
+        
+        if (log.isDebugEnabled())
+            log.debug("Propogating: " + propogate);
+        
+        // clear all removals
+        builderRemovedUids.clear();
+        
+        if (propogate) {
+            builderRemovedUids.addAll(uidsToRemove);
+            builderQuarantinedUids.addAll(quarantinedIds);
+        }
+        if (log.isDebugEnabled())
+            log.debug("Building aggregate. Count is " + count + ", uids.size() is " + uids.size() + ". builder size is " + builderUids.size());
+        
+        return new Value(serialize(ignore), false);
+    }
+    
+    /**
+     * Write the value in the same form as Uid.List.toByteArray(), which writes the fields in field number order
+     *
+     * @param ignore
+     * @return the serialized Uid.List
+     */
+    private byte[] serialize(boolean ignore) {
+        int size = CodedOutputStream.computeBoolSize(Uid.List.IGNORE_FIELD_NUMBER, ignore)
+                        + CodedOutputStream.computeUInt64Size(Uid.List.COUNT_FIELD_NUMBER, count) + computeListSize(builderUids)
+                        + computeListSize(builderRemovedUids) + computeListSize(builderQuarantinedUids);
+        byte[] bytes = new byte[size];
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        try {
+            output.writeBool(Uid.List.IGNORE_FIELD_NUMBER, ignore);
+            output.writeUInt64(Uid.List.COUNT_FIELD_NUMBER, count);
+            writeList(output, UID_TAG, builderUids);
+            writeList(output, REMOVEDUID_TAG, builderRemovedUids);
+            writeList(output, QUARANTINEUID_TAG, builderQuarantinedUids);
+            output.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new IllegalStateException("Serializing Uid.List to a byte array threw an IOException (should never happen)", e);
+        }
+        return bytes;
+    }
+    
+    private static int computeListSize(List<UidBytes> list) {
+        int size = 0;
+        for (UidBytes uid : list) {
+            size += CodedOutputStream.computeRawVarint32Size(uid.length) + uid.length;
+        }
+        // one byte per tag as the field numbers are all less than 16
+        return size + list.size();
+    }
+    
+    private static void writeList(CodedOutputStream output, int tag, List<UidBytes> list) throws IOException {
+        for (UidBytes uid : list) {
+            output.writeRawVarint32(tag);
+            output.writeRawVarint32(uid.length);
+            output.writeRawBytes(uid.bytes, uid.offset, uid.length);
+        }
+    }
+    
+    /**
+     * See {@link GlobalIndexUidAggregator#reduce(Key, Iterator)}. The same operations are performed here, but against the raw bytes of the values.
+     */
+    @Override
+    public Value reduce(Key key, Iterator<Value> iter) {
+        if (log.isTraceEnabled())
+            log.trace("has next ? " + iter.hasNext());
+        while (iter.hasNext()) {
+            
+            Value value = iter.next();
+            
+            // parse the entire value before applying any of it, as parsing the protobuf would
+            try {
+                parsed.parse(value.get());
+            } catch (IOException e) {
+                if (key.isDeleted()) {
+                    log.warn("Value passed to aggregator for a delete key was not of type Uid.List");
+                } else {
+                    log.error("Value passed to aggregator was not of type Uid.List", e);
+                }
+                continue;
+            }
+            
+            byte[] bytes = value.get();
+            long delta = parsed.count;
+            
+            count += delta;
+            /**
+             * Fail fast approach.
+             */
+            if (parsed.ignore) {
+                seenIgnore = true;
+                if (log.isDebugEnabled())
+                    log.debug("SeenIgnore is true. Skipping collections");
+            }
+            
+            // if delta > 0, we are collecting the uid list
+            // in the protobuf into our object's uid list.
+            if (delta > 0) {
+                
+                for (int i = 0; i < parsed.quarantined.size; i++) {
+                    probe.set(bytes, parsed.quarantined.offsets[i], parsed.quarantined.lengths[i]);
+                    quarantinedIds.remove(probe);
+                    add(releasedUids, probe);
+                }
+                
+                // the sets are only consulted when a uid would be added, so we can skip the uids entirely once we are at our MAX
+                for (int i = 0; i < parsed.uids.size && uids.size() < maxUids; i++) {
+                    probe.set(bytes, parsed.uids.offsets[i], parsed.uids.lengths[i]);
+                    
+                    // check that a removal has not occurred
+                    if (!uidsToRemove.contains(probe) && !quarantinedIds.contains(probe)) {
+                        add(uids, probe);
+                    }
+                }
+                
+                if (log.isDebugEnabled())
+                    log.debug("Adding uids " + delta + " " + count);
+                
+                // if our delta is < 0, then we can remove, iff seenIgnore is false. If it is true, there is no need to proceed with removals
+            } else if (delta < 0 && !seenIgnore) {
+                
+                for (int i = 0; i < parsed.removed.size; i++) {
+                    probe.set(bytes, parsed.removed.offsets[i], parsed.removed.lengths[i]);
+                    add(uidsToRemove, probe);
+                    uids.remove(probe);
+                }
+                
+                for (int i = 0; i < parsed.quarantined.size; i++) {
+                    probe.set(bytes, parsed.quarantined.offsets[i], parsed.quarantined.lengths[i]);
+                    add(quarantinedIds, probe);
+                }
+                
+                // backwards compatability, the UID list is used to maintain removals for deltas less than 0
+                for (int i = 0; i < parsed.uids.size; i++) {
+                    probe.set(bytes, parsed.uids.offsets[i], parsed.uids.lengths[i]);
+                    add(uidsToRemove, probe);
+                    uids.remove(probe);
+                }
+            }
+        }
+        return aggregate();
+    }
+    
+    /**
+     * Add the uid referenced by the probe to a set, copying it into the arena only if the set does not already contain it. This leaves the set in the same
+     * state as adding a String would.
+     *
+     * @param set
+     * @param uid
+     */
+    private void add(HashSet<UidBytes> set, UidBytes uid) {
+        if (!set.contains(uid)) {
+            set.add(arena.copy(uid));
+        }
+    }
+    
+    @Override
+    public void reset() {
+        if (log.isDebugEnabled())
+            log.debug("Resetting PackedGlobalIndexUidAggregator");
+        count = 0;
+        seenIgnore = false;
+        builderUids.clear();
+        builderRemovedUids.clear();
+        builderQuarantinedUids.clear();
+        uids.clear();
+        uidsToRemove.clear();
+        releasedUids.clear();
+        quarantinedIds.clear();
+        arena.reset();
+    }
+    
+    /*
+     * (non-Javadoc)
+     *
+     * @see datawave.ingest.table.aggregator.PropogatingAggregator#propogateKey()
+     */
+    @Override
+    public boolean propogateKey() {
+        
+        if ((seenIgnore && count > maxUids) || !quarantinedIds.isEmpty())
+            return true;
+        
+        int remaining = 0;
+        for (UidBytes uid : uids) {
+            if (!uidsToRemove.contains(uid)) {
+                remaining++;
+            }
+        }
+        
+        if (log.isDebugEnabled()) {
+            log.debug(count + " " + uids.size() + " " + uidsToRemove.size() + " " + remaining + " removing " + (count == 0 && remaining == 0));
+        }
+        
+        // if <= 0 and uids is empty, we can safely remove
+        return !(count <= 0 && remaining == 0);
+    }
+    
+    /**
+     * A reference to a uid stored as UTF-8 bytes. The hash code, equality and ordering are consistent with those of the equivalent String so that a HashSet of
+     * these behaves exactly as a HashSet of Strings would, including the iteration order.
+     */
+    static final class UidBytes implements Comparable<UidBytes> {
+        byte[] bytes;
+        int offset;
+        int length;
+        int hash;
+        // only set for uids containing non-ASCII characters until needed
+        String string;
+        
+        UidBytes() {}
+        
+        UidBytes(byte[] bytes, int offset, int length, int hash, String string) {
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+            this.hash = hash;
+            this.string = string;
+        }
+        
+        /**
+         * Point this uid at a UTF-8 encoded string within a byte array
+         *
+         * @param source
+         * @param off
+         * @param len
+         */
+        void set(byte[] source, int off, int len) {
+            int h = 0;
+            for (int i = off; i < off + len; i++) {
+                byte b = source[i];
+                if (b < 0) {
+                    // normalize the bytes through a String exactly as protobuf would
+                    string = new String(source, off, len, StandardCharsets.UTF_8);
+                    bytes = string.getBytes(StandardCharsets.UTF_8);
+                    offset = 0;
+                    length = bytes.length;
+                    hash = string.hashCode();
+                    return;
+                }
+                h = 31 * h + b;
+            }
+            string = null;
+            bytes = source;
+            offset = off;
+            length = len;
+            hash = h;
+        }
+        
+        boolean isAscii() {
+            return string == null;
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof UidBytes)) {
+                return false;
+            }
+            UidBytes other = (UidBytes) obj;
+            if (hash != other.hash || length != other.length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (bytes[offset + i] != other.bytes[other.offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        @Override
+        public int compareTo(UidBytes other) {
+            if (isAscii() && other.isAscii()) {
+                int len = Math.min(length, other.length);
+                for (int i = 0; i < len; i++) {
+                    int diff = bytes[offset + i] - other.bytes[other.offset + i];
+                    if (diff != 0) {
+                        return diff;
+                    }
+                }
+                return length - other.length;
+            }
+            return toString().compareTo(other.toString());
+        }
+        
+        @Override
+        public String toString() {
+            if (string == null) {
+                return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+            }
+            return string;
+        }
+    }
+    
+    /**
+     * A byte arena made up of fixed size chunks. Chunks are never reallocated so that the uids referencing them remain valid until the arena is reset.
+     */
+    static final class UidArena {
+        static final int CHUNK_SIZE = 64 * 1024;
+        static final int MAX_RETAINED_CHUNKS = 4;
+        
+        private final List<byte[]> chunks = new ArrayList<>();
+        private int chunk = -1;
+        private int position = CHUNK_SIZE;
+        
+        UidBytes copy(UidBytes uid) {
+            byte[] target;
+            int off;
+            if (uid.length > CHUNK_SIZE) {
+                target = Arrays.copyOfRange(uid.bytes, uid.offset, uid.offset + uid.length);
+                off = 0;
+            } else {
+                if (position + uid.length > CHUNK_SIZE) {
+                    chunk++;
+                    if (chunk == chunks.size()) {
+                        chunks.add(new byte[CHUNK_SIZE]);
+                    }
+                    position = 0;
+                }
+                target = chunks.get(chunk);
+                off = position;
+                System.arraycopy(uid.bytes, uid.offset, target, off, uid.length);
+                position += uid.length;
+            }
+            return new UidBytes(target, off, uid.length, uid.hash, uid.string);
+        }
+        
+        void reset() {
+            while (chunks.size() > MAX_RETAINED_CHUNKS) {
+                chunks.remove(chunks.size() - 1);
+            }
+            chunk = -1;
+            position = CHUNK_SIZE;
+        }
+    }
+    
+    /**
+     * The offsets and lengths of the strings in one repeated field of a serialized Uid.List
+     */
+    static final class Offsets {
+        int[] offsets = new int[16];
+        int[] lengths = new int[16];
+        int size = 0;
+        
+        void add(int offset, int length) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            offsets[size] = offset;
+            lengths[size] = length;
+            size++;
+        }
+    }
+    
+    /**
+     * A serialized Uid.List, parsed with the same rules as Uid.List.parseFrom(byte[]) but without copying the strings
+     */
+    static final class ParsedList {
+        boolean ignore;
+        long count;
+        final Offsets uids = new Offsets();
+        final Offsets removed = new Offsets();
+        final Offsets quarantined = new Offsets();
+        
+        void parse(byte[] bytes) throws IOException {
+            ignore = false;
+            count = 0;
+            uids.size = 0;
+            removed.size = 0;
+            quarantined.size = 0;
+            boolean hasIgnore = false;
+            boolean hasCount = false;
+            
+            CodedInputStream input = CodedInputStream.newInstance(bytes);
+            boolean done = false;
+            while (!done) {
+                int tag = input.readTag();
+                if (tag == 0) {
+                    done = true;
+                } else if (tag == IGNORE_TAG) {
+                    ignore = input.readBool();
+                    hasIgnore = true;
+                } else if (tag == COUNT_TAG) {
+                    count = input.readUInt64();
+                    hasCount = true;
+                } else if (tag == UID_TAG) {
+                    readString(input, bytes, uids);
+                } else if (tag == REMOVEDUID_TAG) {
+                    readString(input, bytes, removed);
+                } else if (tag == QUARANTINEUID_TAG) {
+                    readString(input, bytes, quarantined);
+                } else if (!UnknownFieldSet.newBuilder().mergeFieldFrom(tag, input)) {
+                    done = true;
+                }
+            }
+            input.checkLastTagWas(0);
+            
+            if (!hasIgnore || !hasCount) {
+                throw new InvalidProtocolBufferException("Message missing required fields: " + (hasIgnore ? "" : "IGNORE ") + (hasCount ? "" : "COUNT"));
+            }
+        }
+        
+        private static void readString(CodedInputStream input, byte[] bytes, Offsets offsets) throws IOException {
+            int length = input.readRawVarint32();
+            int offset = input.getTotalBytesRead();
+            input.skipRawBytes(length);
+            offsets.add(offset, length);
+        }
+    }
+}
@@ -41,6 +41,10 @@ public class ShardTableConfigHelper extends AbstractTableConfigHelper {
     public static final String MARKINGS_SETUP_ITERATOR_CONFIG = "markings.setup.iterator.config";
     private String markingsSetupIteratorConfig;
     
+    public static final String INDEX_UID_AGGREGATOR_CONFIG = "shard.index.uid.aggregator.class";
+    protected static final String DEFAULT_INDEX_UID_AGGREGATOR_CLASS = "datawave.ingest.table.aggregator.GlobalIndexUidAggregator";
+    protected String indexUidAggregatorClass = DEFAULT_INDEX_UID_AGGREGATOR_CLASS;
+    
     public static final String LOCALITY_GROUPS = "shard.table.locality.groups";
     protected HashMap<String,Set<Text>> localityGroups = new HashMap<>();
     
@@ -78,6 +82,7 @@ public class ShardTableConfigHelper extends AbstractTableConfigHelper {
         }
         
         shardTableBalancerClass = conf.get(SHARD_TABLE_BALANCER_CONFIG, SHARDED_TABLET_BALANCER_CLASS);
+        indexUidAggregatorClass = conf.get(INDEX_UID_AGGREGATOR_CONFIG, DEFAULT_INDEX_UID_AGGREGATOR_CLASS);
         
         if (markingsSetupIteratorEnabled) {
             if (null == markingsSetupIteratorConfig || markingsSetupIteratorConfig.equals("")) {
@@ -193,7 +198,7 @@ public class ShardTableConfigHelper extends AbstractTableConfigHelper {
             String stem = String.format("%s%s.%s", Property.TABLE_ITERATOR_PREFIX, scope.name(), "UIDAggregator");
             setPropertyIfNecessary(tableName, stem, "19,datawave.iterators.TotalAggregatingIterator", tops, log);
             stem += ".opt.";
-            setPropertyIfNecessary(tableName, stem + "*", "datawave.ingest.table.aggregator.GlobalIndexUidAggregator", tops, log);
+            setPropertyIfNecessary(tableName, stem + "*", indexUidAggregatorClass, tops, log);
             
             if (markingsSetupIteratorEnabled) {
                 // we want the markings setup iterator init method to be called up front
@@ -216,7 +221,7 @@ public class ShardTableConfigHelper extends AbstractTableConfigHelper {
             String stem = String.format("%s%s.%s", Property.TABLE_ITERATOR_PREFIX, scope.name(), "UIDAggregator");
             setPropertyIfNecessary(tableName, stem, "19,datawave.iterators.TotalAggregatingIterator", tops, log);
             stem += ".opt.";
-            setPropertyIfNecessary(tableName, stem + "*", "datawave.ingest.table.aggregator.GlobalIndexUidAggregator", tops, log);
+            setPropertyIfNecessary(tableName, stem + "*", indexUidAggregatorClass, tops, log);
             
             if (markingsSetupIteratorEnabled) {
                 // we want the markings setup iterator init method to be called up front
@@ -1,13 +1,14 @@
 package datawave.iterators;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
-import datawave.edge.protobuf.EdgeData;
 import datawave.edge.util.EdgeKey;
 import datawave.edge.util.EdgeKeyDecoder;
 import datawave.edge.util.EdgeValue;
+import datawave.edge.util.EdgeValueDecoder;
 import datawave.edge.util.EdgeValueHelper;
 import datawave.edge.util.EdgeKey.STATS_TYPE;
 import datawave.edge.util.EdgeValue.EdgeValueBuilder;
@@ -28,12 +29,17 @@ import com.google.protobuf.InvalidProtocolBufferException;
  * Note: the {@link datawave.edge.util.EdgeValueHelper} class correctly combines old style varint array values with new style protocol buffer values. This will
  * always write protocol buffers as the value
  * 
+ * Each value is decoded into a reused {@link EdgeValueDecoder} and the STATS histograms are summed in reused long arrays, so combining allocates little more
+ * than the combined value.
  */
 public class EdgeCombiner extends Combiner {
     
     static final Logger log = Logger.getLogger(EdgeCombiner.class);
     private final Text colFam = new Text();
     private final Text colQual = new Text();
+    private final EdgeValueDecoder protoEdgeValue = new EdgeValueDecoder();
+    private final Histogram activityHistogram = new Histogram(EdgeValueHelper.ACTIVITY_HISTOGRAM_LENGTH);
+    private final Histogram durationHistogram = new Histogram(EdgeValueHelper.DURATION_HISTOGRAM_LENGTH);
     
     /**
      * Reduces a list of Values into a single Value.
@@ -76,7 +82,7 @@ public class EdgeCombiner extends Combiner {
         while (iter.hasNext()) {
             Value value = iter.next();
             try {
-                EdgeData.EdgeValue protoEdgeValue = EdgeData.EdgeValue.parseFrom(value.get());
+                protoEdgeValue.parseFrom(value.get());
                 
                 if (protoEdgeValue.hasCount()) {
                     builder.setCount(protoEdgeValue.getCount() + builder.getCount());
@@ -110,24 +116,32 @@ public class EdgeCombiner extends Combiner {
         
         EdgeValueBuilder builder = EdgeValue.newBuilder();
         
-        List<Long> combinedList = new ArrayList<>();
+        activityHistogram.clear();
+        durationHistogram.clear();
         while (iter.hasNext()) {
             Value value = iter.next();
             try {
-                EdgeData.EdgeValue protoEdgeValue = EdgeData.EdgeValue.parseFrom(value.get());
+                protoEdgeValue.parseFrom(value.get());
                 useEarliestLoadDate(key, builder, protoEdgeValue);
                 combineSourceAndSink(builder, protoEdgeValue);
                 useEarliestUuid(builder, protoEdgeValue);
                 combineBadActivityDate(builder, protoEdgeValue);
-                combineHistogram(statsType, builder, combinedList, protoEdgeValue); // already decoded the value
+                combineHistogram(statsType, protoEdgeValue); // already decoded the value
             } catch (InvalidProtocolBufferException e) {
                 // value wasn't previously a protobuf, so we don't get the source or sink
                 
                 // combine the stats hours/duration with the raw value
-                combineHistogramFromLegacyValue(statsType, builder, combinedList, value);
+                combineHistogramFromLegacyValue(statsType, value);
             }
         }
         
+        // the histograms are only boxed once, for the combined value
+        if (!activityHistogram.isEmpty()) {
+            builder.setHours(activityHistogram.toList());
+        }
+        if (!durationHistogram.isEmpty()) {
+            builder.setDuration(durationHistogram.toList());
+        }
         return builder.build().encode();
     }
     
@@ -139,7 +153,7 @@ public class EdgeCombiner extends Combiner {
      * @param protoEdgeValue
      *            the current value, decoded
      */
-    private void useEarliestLoadDate(Key key, EdgeValueBuilder builder, EdgeData.EdgeValue protoEdgeValue) {
+    private void useEarliestLoadDate(Key key, EdgeValueBuilder builder, EdgeValueDecoder protoEdgeValue) {
         String loadDate = builder.getLoadDate();
         if (protoEdgeValue.hasLoadDate()) {
             if (null == loadDate || loadDate.compareTo(protoEdgeValue.getLoadDate()) > 0) {
@@ -155,31 +169,25 @@ public class EdgeCombiner extends Combiner {
         return EdgeKeyDecoder.getYYYYMMDD(colQual);
     }
     
-    private void combineHistogram(STATS_TYPE statsType, EdgeValueBuilder builder, List<Long> combinedList, EdgeData.EdgeValue protoEdgeValue) {
+    private void combineHistogram(STATS_TYPE statsType, EdgeValueDecoder protoEdgeValue) {
         if (STATS_TYPE.ACTIVITY == statsType) {
-            List<Long> sourceList = EdgeValueHelper.decodeActivityHistogram(protoEdgeValue.getHoursList());
-            EdgeValueHelper.combineHistogram(sourceList, combinedList);
-            builder.setHours(combinedList);
+            activityHistogram.add(protoEdgeValue.getHours(), protoEdgeValue.getHoursCount());
         } else if (STATS_TYPE.DURATION == statsType) {
-            List<Long> sourceList = EdgeValueHelper.decodeDurationHistogram(protoEdgeValue.getDurationList());
-            EdgeValueHelper.combineHistogram(sourceList, combinedList);
-            builder.setDuration(combinedList);
+            durationHistogram.add(protoEdgeValue.getDuration(), protoEdgeValue.getDurationCount());
         }
     }
     
-    private void combineHistogramFromLegacyValue(STATS_TYPE statsType, EdgeValueBuilder builder, List<Long> combinedList, Value value) {
+    private void combineHistogramFromLegacyValue(STATS_TYPE statsType, Value value) {
         if (STATS_TYPE.ACTIVITY == statsType) {
-            List<Long> sourceList = EdgeValueHelper.decodeActivityHistogram(EdgeValueHelper.getVarLongList(value.get()));
-            EdgeValueHelper.combineHistogram(sourceList, combinedList);
-            builder.setHours(combinedList);
+            long[] source = EdgeValueHelper.getVarLongArray(value.get());
+            activityHistogram.add(source, source.length);
         } else if (STATS_TYPE.DURATION == statsType) {
-            List<Long> sourceList = EdgeValueHelper.decodeDurationHistogram(EdgeValueHelper.getVarLongList(value.get()));
-            EdgeValueHelper.combineHistogram(sourceList, combinedList);
-            builder.setDuration(combinedList);
+            long[] source = EdgeValueHelper.getVarLongArray(value.get());
+            durationHistogram.add(source, source.length);
         }
     }
     
-    private void combineSourceAndSink(EdgeValueBuilder builder, EdgeData.EdgeValue protoEdgeValue) {
+    private void combineSourceAndSink(EdgeValueBuilder builder, EdgeValueDecoder protoEdgeValue) {
         if (StringUtils.isBlank(builder.getSourceValue()) && protoEdgeValue.hasSourceValue()) {
             builder.setSourceValue(protoEdgeValue.getSourceValue());
         }
@@ -188,7 +196,7 @@ public class EdgeCombiner extends Combiner {
         }
     }
     
-    private void useEarliestUuid(EdgeValueBuilder builder, EdgeData.EdgeValue protoEdgeValue) {
+    private void useEarliestUuid(EdgeValueBuilder builder, EdgeValueDecoder protoEdgeValue) {
         // Keeps overriding value of 'uuid' so the last(earliest) one will always be used
         // the value corresponding to the key with the most recent timestamp will come first
         // the value corresponding to the key with the oldest timestamp will come last
@@ -203,7 +211,7 @@ public class EdgeCombiner extends Combiner {
         }
     }
     
-    private void combineBadActivityDate(EdgeValueBuilder builder, EdgeData.EdgeValue protoEdgeValue) {
+    private void combineBadActivityDate(EdgeValueBuilder builder, EdgeValueDecoder protoEdgeValue) {
         // Only set the bad activity flag if one of the edges to be combined contains the bad activity flag.
         // This should only happen with the new EVENT_ONLY date type edges
         if (protoEdgeValue.hasBadActivity()) {
@@ -216,4 +224,54 @@ public class EdgeCombiner extends Combiner {
             }
         }
     }
+    
+    /**
+     * A histogram that is summed in place. It combines like {@link EdgeValueHelper#combineHistogram(List, List)} does the histograms decoded by
+     * {@link EdgeValueHelper#decodeActivityHistogram(List)} and {@link EdgeValueHelper#decodeDurationHistogram(List)}, which are padded with zeros to the
+     * declared length.
+     */
+    private static class Histogram {
+        private final int declaredLength;
+        private long[] counts;
+        private int length = 0;
+        
+        Histogram(int declaredLength) {
+            this.declaredLength = declaredLength;
+            this.counts = new long[declaredLength];
+        }
+        
+        void clear() {
+            length = 0;
+        }
+        
+        boolean isEmpty() {
+            return length == 0;
+        }
+        
+        void add(long[] source, int sourceLength) {
+            int paddedLength = Math.max(sourceLength, declaredLength);
+            if (length == 0) {
+                if (counts.length < paddedLength) {
+                    counts = new long[paddedLength];
+                }
+                System.arraycopy(source, 0, counts, 0, sourceLength);
+                Arrays.fill(counts, sourceLength, paddedLength, 0L);
+                length = paddedLength;
+            } else if (paddedLength != length) {
+                throw new IllegalStateException("Decoded Values had differing lengths!");
+            } else {
+                for (int ii = 0; ii < sourceLength; ii++) {
+                    counts[ii] += source[ii];
+                }
+            }
+        }
+        
+        List<Long> toList() {
+            List<Long> list = new ArrayList<>(length);
+            for (int ii = 0; ii < length; ii++) {
+                list.add(counts[ii]);
+            }
+            return list;
+        }
+    }
 }
@@ -39,9 +39,12 @@ import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.text.DecimalFormat;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Observable;
 import java.util.Observer;
 import java.util.Set;
@@ -79,6 +82,9 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
     private ExecutorService executor;
     private final FlagMakerConfig fmc;
     final FlagDistributor fd;
+    // the distributor and index of pending files for each datatype when scanning incrementally
+    private final Map<String,FlagDistributor> distributors = new HashMap<>();
+    private final Map<String,PendingFileIndex> indexes = new HashMap<>();
     private volatile boolean running = true;
     private FlagSocket flagSocket;
     private final DecimalFormat df = new DecimalFormat("#0.00");
@@ -240,18 +246,42 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
         
         for (FlagDataTypeConfig fc : fmc.getFlagConfigs()) {
             String dataName = fc.getDataName();
-            fd.setup(fc);
             log.trace("Checking for files for {}", dataName);
             
-            loadFilesForDistributor(fc, fs);
+            FlagDistributor distributor;
+            PendingFileIndex index = null;
+            if (fmc.isIncrementalScan()) {
+                // the distributor keeps the pending files from the previous passes, so only the new files are added to it
+                distributor = distributors.get(dataName);
+                if (distributor == null) {
+                    distributor = fmc.getFlagDistributor();
+                    distributor.setup(fc);
+                    distributors.put(dataName, distributor);
+                    indexes.put(dataName, new PendingFileIndex(fmc.getFilePattern()));
+                }
+                index = indexes.get(dataName);
+                loadNewFilesForDistributor(fc, fs, distributor, index);
+            } else {
+                distributor = fd;
+                fd.setup(fc);
+                loadFilesForDistributor(fc, fs);
+            }
             
-            while (fd.hasNext(shouldOnlyCreateFullFlags(fc)) && running) {
-                Collection<InputFile> inFiles = fd.next(this);
+            while (distributor.hasNext(shouldOnlyCreateFullFlags(fc)) && running) {
+                Collection<InputFile> inFiles = distributor.next(this);
                 if (null == inFiles || inFiles.isEmpty()) {
-                    throw new IllegalStateException(fd.getClass().getName()
+                    throw new IllegalStateException(distributor.getClass().getName()
                                     + " has input files but returned zero candidates for flagging. Please validate configuration");
                 }
-                writeFlagFile(fc, inFiles);
+                try {
+                    writeFlagFile(fc, inFiles);
+                } finally {
+                    if (index != null) {
+                        for (InputFile inFile : inFiles) {
+                            index.remove(inFile);
+                        }
+                    }
+                }
             }
             
         }
@@ -276,25 +306,56 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
                 continue;
             }
             
-            // remove the base directory from the folder
-            if (folder.startsWith(this.fmc.getBaseHDFSDir())) {
-                folder = folder.substring(this.fmc.getBaseHDFSDir().length());
-                if (folder.startsWith(File.separator)) {
-                    folder = folder.substring(File.separator.length());
-                }
+            addInputFiles(fc, this.fd, folder, Arrays.asList(files));
+        }
+    }
+    
+    /**
+     * Adds the input files for the data type that were not seen by an earlier pass to the {@link FlagDistributor}, listing only the directories that have
+     * changed since then.
+     * 
+     * @param fc
+     *            flag datatype configuration data
+     * @param fs
+     *            hadoop filesystem
+     * @param distributor
+     *            the distributor for the data type
+     * @param index
+     *            the index of files seen for the data type
+     * @throws IOException
+     *             error condition finding files in hadoop
+     */
+    void loadNewFilesForDistributor(FlagDataTypeConfig fc, FileSystem fs, FlagDistributor distributor, PendingFileIndex index) throws IOException {
+        for (String folder : fc.getFolder()) {
+            log.trace("searching for new " + fc.getDataName() + " files in " + folder);
+            List<FileStatus> files = index.scan(fs, folder);
+            if (files.isEmpty()) {
+                continue;
             }
             
-            // add the files
-            for (FileStatus status : files) {
-                if (status.isDirectory()) {
-                    log.warn("Skipping subdirectory " + status.getPath());
-                } else {
-                    try {
-                        this.fd.addInputFile(new InputFile(folder, status, this.fmc.getBaseHDFSDir(), this.fmc.isUseFolderTimestamp()));
-                        logFileInfo(fc, status);
-                    } catch (UnusableFileException e) {
-                        log.warn("Skipping unusable file " + status.getPath(), e);
-                    }
+            addInputFiles(fc, distributor, folder, files);
+        }
+    }
+    
+    private void addInputFiles(FlagDataTypeConfig fc, FlagDistributor distributor, String folder, Collection<FileStatus> files) {
+        // remove the base directory from the folder
+        if (folder.startsWith(this.fmc.getBaseHDFSDir())) {
+            folder = folder.substring(this.fmc.getBaseHDFSDir().length());
+            if (folder.startsWith(File.separator)) {
+                folder = folder.substring(File.separator.length());
+            }
+        }
+        
+        // add the files
+        for (FileStatus status : files) {
+            if (status.isDirectory()) {
+                log.warn("Skipping subdirectory " + status.getPath());
+            } else {
+                try {
+                    distributor.addInputFile(new InputFile(folder, status, this.fmc.getBaseHDFSDir(), this.fmc.isUseFolderTimestamp()));
+                    logFileInfo(fc, status);
+                } catch (UnusableFileException e) {
+                    log.warn("Skipping unusable file " + status.getPath(), e);
                 }
             }
         }
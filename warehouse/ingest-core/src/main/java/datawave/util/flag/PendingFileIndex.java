@@ -0,0 +1,148 @@
+package datawave.util.flag;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.GlobFilter;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.PathFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps track of the input files seen for a datatype from one pass of the {@link FlagMaker} to the next, so that only the new files are added to its
+ * {@link datawave.util.flag.processor.FlagDistributor}. The directories that can hold input files are found by globbing the directory portion of the file
+ * pattern (e.g. the yyyy/mm/dd folders of the default pattern), and a directory is only listed again once its modification time changes, as it
+ * does when files are added to or moved out of it.
+ * <p>
+ * A file could be added to a directory after it was listed without changing the modification time if the file system's clock is coarse, so a directory is
+ * listed again until its modification time is the same for two passes in a row.
+ */
+class PendingFileIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(PendingFileIndex.class);
+    
+    private final String directoryPattern;
+    private final PathFilter fileFilter;
+    private final Map<String,Map<Path,Directory>> folders = new HashMap<>();
+    
+    private static class Directory {
+        private final long modificationTime;
+        private final boolean stable;
+        private final Set<Path> files;
+        
+        private Directory(long modificationTime, boolean stable, Set<Path> files) {
+            this.modificationTime = modificationTime;
+            this.stable = stable;
+            this.files = files;
+        }
+    }
+    
+    /**
+     * @param filePattern
+     *            the pattern of the input files under a folder, see {@link datawave.util.flag.config.FlagMakerConfig#getFilePattern()}
+     * @throws IOException
+     *             if the file name portion of the pattern is invalid
+     */
+    PendingFileIndex(String filePattern) throws IOException {
+        int index = filePattern.lastIndexOf('/');
+        this.directoryPattern = (index < 0 ? null : filePattern.substring(0, index));
+        this.fileFilter = new GlobFilter(filePattern.substring(index + 1));
+    }
+    
+    /**
+     * Find the files under a folder that were not found by an earlier scan. Subdirectories that match the file pattern are skipped.
+     *
+     * @param fs
+     *            the file system
+     * @param folder
+     *            the folder to search in
+     * @return the status of the new files
+     * @throws IOException
+     *             error condition finding files in hadoop
+     */
+    List<FileStatus> scan(FileSystem fs, String folder) throws IOException {
+        FileStatus[] dirs;
+        if (directoryPattern == null) {
+            FileStatus status = fs.exists(new Path(folder)) ? fs.getFileStatus(new Path(folder)) : null;
+            dirs = (status == null ? null : new FileStatus[] {status});
+        } else {
+            dirs = fs.globStatus(new Path(folder + "/" + directoryPattern));
+        }
+        
+        Map<Path,Directory> previous = folders.get(folder);
+        if (previous == null) {
+            previous = Collections.emptyMap();
+        }
+        Map<Path,Directory> current = new HashMap<>();
+        List<FileStatus> newFiles = new ArrayList<>();
+        if (dirs != null) {
+            for (FileStatus dir : dirs) {
+                if (!dir.isDirectory()) {
+                    continue;
+                }
+                Directory state = previous.get(dir.getPath());
+                if (state != null && state.stable && state.modificationTime == dir.getModificationTime()) {
+                    current.put(dir.getPath(), state);
+                    continue;
+                }
+                
+                log.trace("listing changed directory {}", dir.getPath());
+                Set<Path> files = new HashSet<>();
+                for (FileStatus file : fs.listStatus(dir.getPath(), fileFilter)) {
+                    if (file.isDirectory()) {
+                        log.warn("Skipping subdirectory " + file.getPath());
+                        continue;
+                    }
+                    files.add(file.getPath());
+                    if (state == null || !state.files.contains(file.getPath())) {
+                        newFiles.add(file);
+                    }
+                }
+                boolean stable = (state != null && state.modificationTime == dir.getModificationTime());
+                current.put(dir.getPath(), new Directory(dir.getModificationTime(), stable, files));
+            }
+        }
+        folders.put(folder, current);
+        return newFiles;
+    }
+    
+    /**
+     * Forget a file once it has been taken from the distributor, so that it is found again if it is moved back into its directory. The directory is listed
+     * again on the next scan.
+     *
+     * @param file
+     *            the input file
+     */
+    void remove(InputFile file) {
+        Path dir = file.getPath().getParent();
+        for (Map<Path,Directory> dirs : folders.values()) {
+            Directory state = dirs.remove(dir);
+            if (state != null) {
+                state.files.remove(file.getPath());
+                dirs.put(dir, new Directory(state.modificationTime, false, state.files));
+            }
+        }
+    }
+    
+    /**
+     * @return the number of files seen in the directories that have been scanned
+     */
+    int size() {
+        int size = 0;
+        for (Map<Path,Directory> dirs : folders.values()) {
+            for (Directory dir : dirs.values()) {
+                size += dir.files.size();
+            }
+        }
+        return size;
+    }
+}
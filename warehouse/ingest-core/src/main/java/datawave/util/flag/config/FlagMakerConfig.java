@@ -62,6 +62,8 @@ public class FlagMakerConfig {
     protected long directoryCacheTimeout = (2 * 60 * 60 * 1000);
     // implementation of flagmaker to run
     private String flagMakerClass = FlagMaker.class.getName();
+    // keep the pending files between passes and only list the directories that have changed, instead of globbing every file on each pass
+    private boolean incrementalScan = false;
     
     public FlagDataTypeConfig getDefaultCfg() {
         return defaultCfg;
@@ -207,6 +209,14 @@ public class FlagMakerConfig {
         this.flagMakerClass = flagMakerClass;
     }
     
+    public boolean isIncrementalScan() {
+        return incrementalScan;
+    }
+    
+    public void setIncrementalScan(boolean incrementalScan) {
+        this.incrementalScan = incrementalScan;
+    }
+    
     /**
      * Gets the list of <code>FlagConfig</code>s
      *
@@ -364,6 +374,7 @@ public class FlagMakerConfig {
         result.append("directoryCacheSize: " + this.getDirectoryCacheSize() + "\n");
         result.append("directoryCacheTimeout: " + this.getDirectoryCacheTimeout() + "\n");
         result.append("flagMakerClass: " + this.getFlagMakerClass() + "\n");
+        result.append("incrementalScan: " + this.isIncrementalScan() + "\n");
         return result.toString();
     }
     
@@ -12,6 +12,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
 
 import datawave.util.flag.InputFile;
 import datawave.util.flag.config.FlagDataTypeConfig;
@@ -25,11 +26,34 @@ public abstract class AbstractSliceDistributor<S extends Comparable<S>> implemen
     
     protected TreeMap<S,Set<InputFile>> buckets;
     protected FlagDataTypeConfig fc;
+    // the total maps of the files in the buckets, which are kept from one pass to the next when the flag maker scans incrementally
+    private int pendingMaps;
     
     @Override
     public void setup(FlagDataTypeConfig fc) {
         this.fc = fc;
         buckets = new TreeMap<>(getComparator(fc.isLifo()));
+        pendingMaps = 0;
+    }
+    
+    /**
+     * Add a file to the bucket for a slice, creating the bucket if needed
+     * 
+     * @param slice
+     * @param inputFile
+     * @return true if the file was not already in the bucket
+     */
+    protected boolean addToBucket(S slice, InputFile inputFile) {
+        Set<InputFile> bucketList = buckets.get(slice);
+        if (bucketList == null) {
+            bucketList = new TreeSet<>(fc.isLifo() ? InputFile.LIFO : InputFile.FIFO);
+            buckets.put(slice, bucketList);
+        }
+        if (bucketList.add(inputFile)) {
+            pendingMaps += inputFile.getMaps();
+            return true;
+        }
+        return false;
     }
     
     public Comparator<S> getComparator(boolean lifo) {
@@ -46,15 +70,7 @@ public abstract class AbstractSliceDistributor<S extends Comparable<S>> implemen
     @Override
     public final boolean hasNext(boolean mustHaveMax) {
         int max = mustHaveMax ? fc.getMaxFlags() : 1;
-        int total = 0;
-        for (Set<InputFile> bucket : buckets.values()) {
-            for (InputFile inputFile : bucket) {
-                total += inputFile.getMaps();
-            }
-            if (total >= max)
-                break;
-        }
-        return total >= max;
+        return pendingMaps >= max;
     }
     
     @Override
@@ -83,18 +99,25 @@ public abstract class AbstractSliceDistributor<S extends Comparable<S>> implemen
                 flagFiles.addAll(pair.getValue());
                 it.remove();
             }
+            pendingMaps = 0;
         } else {
             // get uniform distribution
             for (Map.Entry<S,Integer> stat : stats.entrySet()) {
                 double slicemaps = stat.getValue().doubleValue();
                 int maps = (int) Math.ceil(slicemaps / (double) totalMaps * (double) fc.getMaxFlags());
-                Iterator<InputFile> pendingFiles = buckets.get(stat.getKey()).iterator();
+                Set<InputFile> bucket = buckets.get(stat.getKey());
+                Iterator<InputFile> pendingFiles = bucket.iterator();
                 while (pendingFiles.hasNext() && maps > 0) {
                     InputFile flag = pendingFiles.next();
                     maps -= flag.getMaps();
+                    pendingMaps -= flag.getMaps();
                     flagFiles.add(flag);
                     pendingFiles.remove();
                 }
+                // drop the emptied buckets so they do not build up in a distributor that is kept between passes
+                if (bucket.isEmpty()) {
+                    buckets.remove(stat.getKey());
+                }
             }
         }
         return flagFiles;
@@ -4,9 +4,6 @@
  */
 package datawave.util.flag.processor;
 
-import java.util.Set;
-import java.util.TreeSet;
-
 import datawave.util.flag.InputFile;
 import datawave.util.flag.config.FlagDataTypeConfig;
 
@@ -35,12 +32,7 @@ public class DateFlagDistributor extends AbstractSliceDistributor<Long> {
     @Override
     public boolean addInputFile(InputFile inputFile) throws UnusableFileException {
         long bucket = util.getBucket(grouping, inputFile.getDirectory());
-        Set<InputFile> bucketList = buckets.get(bucket);
-        if (bucketList == null) {
-            bucketList = new TreeSet<>(fc.isLifo() ? InputFile.LIFO : InputFile.FIFO);
-            buckets.put(bucket, bucketList);
-        }
-        return bucketList.add(inputFile);
+        return addToBucket(bucket, inputFile);
     }
     
 }
@@ -5,8 +5,6 @@
 package datawave.util.flag.processor;
 
 import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
 
 import datawave.util.flag.InputFile;
 import datawave.util.flag.config.FlagDataTypeConfig;
@@ -47,12 +45,7 @@ public class DateFolderFlagDistributor extends AbstractSliceDistributor<DateFold
             }
         }
         DFKey bucket = new DFKey(slice, folder);
-        Set<InputFile> bucketList = buckets.get(bucket);
-        if (bucketList == null) {
-            bucketList = new TreeSet<>(fc.isLifo() ? InputFile.LIFO : InputFile.FIFO);
-            buckets.put(bucket, bucketList);
-        }
-        return bucketList.add(inputFile);
+        return addToBucket(bucket, inputFile);
     }
     
     protected class DFKey implements Comparable<DFKey> {
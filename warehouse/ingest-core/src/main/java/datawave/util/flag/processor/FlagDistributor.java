@@ -16,6 +16,9 @@ public interface FlagDistributor {
     /**
      * Allows for the setup/configuration of the FlagDistributor. Anything that needs to be configured for a particular data type must be contained within the
      * FlagDataTypeConfig. This call to this method should reset any saved state within this distributor.
+     * <p>
+     * When the FlagMaker scans incrementally, it keeps a distributor for each data type that is only set up once, and adds the files found on each pass to
+     * those still pending from the previous passes.
      * 
      * @param fdtc
      */
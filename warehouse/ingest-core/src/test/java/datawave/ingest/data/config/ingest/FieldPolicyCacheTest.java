@@ -0,0 +1,106 @@
+package datawave.ingest.data.config.ingest;
+
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import datawave.ingest.data.config.ingest.BaseIngestHelper.FailurePolicy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class FieldPolicyCacheTest {
+    
+    @Test
+    public void testDecisions() {
+        FieldPolicyCache cache = FieldPolicyCache.getSharedCache(ImmutableSet.of("IDX_*"), ImmutableSet.of("*_REV"), ImmutableSet.of("NORM_*"),
+                        ImmutableSet.of("*_DATE", "IDX_*"), ImmutableMap.of("*_DROP", FailurePolicy.DROP), 100);
+        
+        FieldPolicyCache.FieldPolicy policy = cache.get("IDX_DATE");
+        Assert.assertTrue(policy.isIndexed());
+        Assert.assertFalse(policy.isReverseIndexed());
+        Assert.assertFalse(policy.isNormalized());
+        Assert.assertEquals(ImmutableSet.of("*_DATE", "IDX_*"), ImmutableSet.copyOf(policy.getTypePatterns()));
+        Assert.assertNull(policy.getFailurePolicy());
+        
+        policy = cache.get("NORM_REV_DROP");
+        Assert.assertFalse(policy.isIndexed());
+        Assert.assertFalse(policy.isReverseIndexed());
+        Assert.assertTrue(policy.isNormalized());
+        Assert.assertTrue(policy.getTypePatterns().isEmpty());
+        Assert.assertEquals(FailurePolicy.DROP, policy.getFailurePolicy());
+        
+        Assert.assertTrue(cache.get("NAME_REV").isReverseIndexed());
+    }
+    
+    @Test
+    public void testShared() {
+        FieldPolicyCache cache = FieldPolicyCache.getSharedCache(Arrays.asList("A_*", "B_*"), Collections.emptySet(), Collections.emptySet(),
+                        Collections.emptySet(), Collections.emptyMap(), 100);
+        FieldPolicyCache same = FieldPolicyCache.getSharedCache(Arrays.asList("B_*", "A_*"), Collections.emptySet(), Collections.emptySet(),
+                        Collections.emptySet(), Collections.emptyMap(), 100);
+        FieldPolicyCache other = FieldPolicyCache.getSharedCache(Collections.emptySet(), Arrays.asList("A_*", "B_*"), Collections.emptySet(),
+                        Collections.emptySet(), Collections.emptyMap(), 100);
+        
+        Assert.assertSame(cache, same);
+        Assert.assertNotSame(cache, other);
+        Assert.assertTrue(cache.get("A_FIELD").isIndexed());
+        Assert.assertFalse(other.get("A_FIELD").isIndexed());
+        Assert.assertTrue(other.get("A_FIELD").isReverseIndexed());
+    }
+    
+    @Test
+    public void testBoundedAndStats() {
+        FieldPolicyCache cache = FieldPolicyCache.getSharedCache(ImmutableSet.of("BOUNDED_*"), Collections.emptySet(), Collections.emptySet(),
+                        Collections.emptySet(), Collections.emptyMap(), 2);
+        CacheStats before = FieldPolicyCache.takeStats();
+        Assert.assertNotNull(before);
+        
+        Assert.assertTrue(cache.get("BOUNDED_A").isIndexed());
+        Assert.assertTrue(cache.get("BOUNDED_A").isIndexed());
+        Assert.assertTrue(cache.get("BOUNDED_B").isIndexed());
+        Assert.assertFalse(cache.get("C").isIndexed());
+        
+        CacheStats stats = cache.getStats();
+        Assert.assertEquals(1, stats.hitCount());
+        Assert.assertEquals(3, stats.missCount());
+        Assert.assertEquals(1, stats.evictionCount());
+        
+        CacheStats taken = FieldPolicyCache.takeStats();
+        Assert.assertEquals(1, taken.hitCount());
+        Assert.assertEquals(3, taken.missCount());
+        Assert.assertEquals(1, taken.evictionCount());
+        
+        // only the lookups since the last call are reported
+        cache.get("C");
+        taken = FieldPolicyCache.takeStats();
+        Assert.assertEquals(1, taken.hitCount());
+        Assert.assertEquals(0, taken.missCount());
+    }
+    
+    @Test
+    public void testStatsOfCollectedCache() {
+        FieldPolicyCache.takeStats();
+        WeakReference<FieldPolicyCache> ref = useCollectableCache();
+        for (int i = 0; i < 10 && ref.get() != null; i++) {
+            System.gc();
+        }
+        
+        // reported whether or not the cache has been collected
+        CacheStats taken = FieldPolicyCache.takeStats();
+        Assert.assertEquals(1, taken.hitCount());
+        Assert.assertEquals(2, taken.missCount());
+        Assert.assertEquals(1, taken.evictionCount());
+    }
+    
+    private static WeakReference<FieldPolicyCache> useCollectableCache() {
+        FieldPolicyCache cache = FieldPolicyCache.getSharedCache(ImmutableSet.of("COLLECTED_*"), Collections.emptySet(), Collections.emptySet(),
+                        Collections.emptySet(), Collections.emptyMap(), 1);
+        cache.get("COLLECTED_A");
+        cache.get("COLLECTED_A");
+        cache.get("COLLECTED_B");
+        return new WeakReference<>(cache);
+    }
+}
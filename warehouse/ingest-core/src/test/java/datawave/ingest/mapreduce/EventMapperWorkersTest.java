@@ -0,0 +1,171 @@
+package datawave.ingest.mapreduce;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multimap;
+import datawave.ingest.data.RawRecordContainer;
+import datawave.ingest.data.Type;
+import datawave.ingest.data.TypeRegistry;
+import datawave.ingest.data.config.BaseNormalizedContent;
+import datawave.ingest.data.config.NormalizedContentInterface;
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.ingest.mapreduce.job.writer.BulkContextWriter;
+import datawave.ingest.mapreduce.job.writer.ContextWriter;
+import datawave.ingest.metric.IngestProcess;
+import datawave.ingest.test.StandaloneStatusReporter;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.CounterGroup;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.map.WrappedMapper;
+import org.apache.hadoop.mapreduce.task.MapContextImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class EventMapperWorkersTest {
+    
+    private static final int RECORDS = 500;
+    
+    private Configuration conf;
+    private List<SimpleRawRecord> records;
+    private List<BulkIngestKey> written;
+    private StandaloneStatusReporter reporter;
+    
+    @Before
+    public void setUp() throws Exception {
+        long eventTime = System.currentTimeMillis();
+        
+        conf = new Configuration();
+        conf.setClass(EventMapper.CONTEXT_WRITER_CLASS, BulkContextWriter.class, ContextWriter.class);
+        conf.setInt(EventMapper.EVENT_MAPPER_THREADS, 4);
+        conf.setInt(EventMapper.EVENT_MAPPER_THREADS_BATCH_SIZE, 7);
+        
+        Type type = new Type("file", null, null, new String[] {SimpleDataTypeHandler.class.getName()}, 10, null);
+        Type errorType = new Type(TypeRegistry.ERROR_PREFIX, null, null, new String[] {SimpleDataTypeHandler.class.getName()}, 20, null);
+        
+        TypeRegistry registry = TypeRegistry.getInstance(conf);
+        registry.put(type.typeName(), type);
+        registry.put(errorType.typeName(), errorType);
+        
+        Multimap<String,NormalizedContentInterface> fields = HashMultimap.create();
+        fields.put("fileExtension", new BaseNormalizedContent("fileExtension", "gz"));
+        fields.put("lastModified", new BaseNormalizedContent("lastModified", "2016-01-01"));
+        
+        SimpleDataTypeHelper.registerFields(fields);
+        
+        records = new ArrayList<>();
+        for (int i = 0; i < RECORDS; i++) {
+            SimpleRawRecord record = new SimpleRawRecord();
+            record.setRawFileTimestamp(eventTime);
+            record.setDataType(type);
+            record.setDate(eventTime);
+            record.setRawFileName("/some/filename");
+            record.setRawData(("some data " + i).getBytes());
+            record.generateId(null);
+            records.add(record);
+        }
+        
+        written = Collections.synchronizedList(new ArrayList<>());
+        reporter = new StandaloneStatusReporter();
+    }
+    
+    @Test
+    public void shouldProcessAllRecordsInThreads() throws IOException, InterruptedException {
+        EventMapper<LongWritable,RawRecordContainer,BulkIngestKey,Value> eventMapper = new EventMapper<>();
+        eventMapper.run(createContext());
+        
+        // two fields mutations + LOAD_DATE + ORIG_FILE + RAW_FILE for every record
+        assertEquals(5 * RECORDS, written.size());
+        
+        CounterGroup threads = reporter.getCounters().getGroup(IngestProcess.MAPPER_THREAD.name());
+        long records = 0;
+        for (int i = 0; i < 4; i++) {
+            assertNotNull(threads.findCounter(i + ".MILLIS", false));
+            assertNull(threads.findCounter(i + ".RECORDS_PER_SEC", false));
+            records += threads.findCounter(i + ".RECORDS").getValue();
+        }
+        assertEquals(RECORDS, records);
+    }
+    
+    @Test
+    public void shouldMatchSingleThreadedOutput() throws IOException, InterruptedException {
+        EventMapper<LongWritable,RawRecordContainer,BulkIngestKey,Value> eventMapper = new EventMapper<>();
+        eventMapper.run(createContext());
+        List<BulkIngestKey> threaded = new ArrayList<>(written);
+        
+        written.clear();
+        conf.setInt(EventMapper.EVENT_MAPPER_THREADS, 1);
+        new EventMapper<LongWritable,RawRecordContainer,BulkIngestKey,Value>().run(createContext());
+        
+        assertEquals(HashMultiset.create(written), HashMultiset.create(threaded));
+    }
+    
+    private Mapper<LongWritable,RawRecordContainer,BulkIngestKey,Value>.Context createContext() {
+        MapContextImpl<LongWritable,RawRecordContainer,BulkIngestKey,Value> context = new MapContextImpl<>(conf, new TaskAttemptID(), new ListRecordReader(
+                        records), new RecordWriter<BulkIngestKey,Value>() {
+            @Override
+            public void write(BulkIngestKey key, Value value) {
+                written.add(key);
+            }
+            
+            @Override
+            public void close(TaskAttemptContext context) {}
+        }, null, reporter, null);
+        return new WrappedMapper<LongWritable,RawRecordContainer,BulkIngestKey,Value>().getMapContext(context);
+    }
+    
+    /**
+     * Reads the records, reusing the key as a file based reader would
+     */
+    private static class ListRecordReader extends RecordReader<LongWritable,RawRecordContainer> {
+        private final List<? extends RawRecordContainer> records;
+        private final LongWritable key = new LongWritable();
+        private int index = -1;
+        
+        private ListRecordReader(List<? extends RawRecordContainer> records) {
+            this.records = records;
+        }
+        
+        @Override
+        public void initialize(InputSplit split, TaskAttemptContext context) {}
+        
+        @Override
+        public boolean nextKeyValue() {
+            key.set(++index);
+            return index < records.size();
+        }
+        
+        @Override
+        public LongWritable getCurrentKey() {
+            return key;
+        }
+        
+        @Override
+        public RawRecordContainer getCurrentValue() {
+            return records.get(index);
+        }
+        
+        @Override
+        public float getProgress() {
+            return records.isEmpty() ? 1 : (float) index / records.size();
+        }
+        
+        @Override
+        public void close() {}
+    }
+}
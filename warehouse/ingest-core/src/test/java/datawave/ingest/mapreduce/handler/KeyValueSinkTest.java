@@ -0,0 +1,133 @@
+package datawave.ingest.mapreduce.handler;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.ingest.mapreduce.job.writer.ContextWriter;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class KeyValueSinkTest {
+    
+    private static final Text SHARD = new Text("shard");
+    private static final Text INDEX = new Text("shardIndex");
+    private static final Value EMPTY = new Value(new byte[0]);
+    
+    private static class CollectingContextWriter implements ContextWriter<BulkIngestKey,Value> {
+        private final Multimap<BulkIngestKey,Value> written = ArrayListMultimap.create();
+        
+        @Override
+        public void setup(Configuration conf, boolean outputTableCounters) {}
+        
+        @Override
+        public void write(BulkIngestKey key, Value value, TaskInputOutputContext<?,?,BulkIngestKey,Value> context) {
+            written.put(key, value);
+        }
+        
+        @Override
+        public void write(Multimap<BulkIngestKey,Value> entries, TaskInputOutputContext<?,?,BulkIngestKey,Value> context) {
+            written.putAll(entries);
+        }
+        
+        @Override
+        public void commit(TaskInputOutputContext<?,?,BulkIngestKey,Value> context) {}
+        
+        @Override
+        public void rollback() {}
+        
+        @Override
+        public void cleanup(TaskInputOutputContext<?,?,BulkIngestKey,Value> context) {}
+    }
+    
+    private static Key key(KeyValueSink sink, String row, String colf, String colq) {
+        // the borrowed texts are copied into the key
+        Text cf = sink.text(colf);
+        Text cq = sink.text(colq);
+        return new Key(new Text(row), cf, cq, 1L);
+    }
+    
+    @Test
+    public void testFlushDropsDuplicates() throws Exception {
+        KeyValueSink sink = new KeyValueSink();
+        sink.put(SHARD, key(sink, "row", "cf", "b"), EMPTY);
+        sink.put(SHARD, key(sink, "row", "cf", "a"), EMPTY);
+        sink.put(SHARD, key(sink, "row", "cf", "b"), EMPTY);
+        sink.put(SHARD, key(sink, "row", "cf", "b"), new Value("other".getBytes()));
+        sink.put(new Text("shardIndex"), key(sink, "value", "FIELD", "row"), EMPTY);
+        sink.put(INDEX, key(sink, "value", "FIELD", "row"), EMPTY);
+        assertEquals(6, sink.size());
+        
+        Multimap<BulkIngestKey,Value> expected = HashMultimap.create();
+        expected.put(new BulkIngestKey(SHARD, new Key("row", "cf", "a", 1L)), EMPTY);
+        expected.put(new BulkIngestKey(SHARD, new Key("row", "cf", "b", 1L)), EMPTY);
+        expected.put(new BulkIngestKey(SHARD, new Key("row", "cf", "b", 1L)), new Value("other".getBytes()));
+        expected.put(new BulkIngestKey(INDEX, new Key("value", "FIELD", "row", 1L)), EMPTY);
+        
+        CollectingContextWriter writer = new CollectingContextWriter();
+        assertEquals(4, sink.flush(writer, null));
+        assertEquals(4, writer.written.size());
+        assertEquals(expected, HashMultimap.create(writer.written));
+        assertTrue(sink.isEmpty());
+        
+        // the keys of a table share its name
+        for (BulkIngestKey key : writer.written.keySet()) {
+            assertTrue(key.getTableName() == SHARD || key.getTableName().equals(INDEX));
+        }
+    }
+    
+    @Test
+    public void testReuse() throws Exception {
+        KeyValueSink sink = new KeyValueSink();
+        Text text = sink.text("first");
+        sink.put(SHARD, key(sink, "row", "cf", "a"), EMPTY);
+        
+        CollectingContextWriter writer = new CollectingContextWriter();
+        assertEquals(1, sink.flush(writer, null));
+        
+        // the texts are recycled after a flush
+        assertSame(text, sink.text());
+        assertEquals(0, text.getLength());
+        assertNotSame(text, sink.text());
+        
+        sink.put(SHARD, key(sink, "row", "cf", "b"), EMPTY);
+        sink.clear();
+        assertTrue(sink.isEmpty());
+        
+        sink.put(SHARD, key(sink, "row", "cf", "c"), EMPTY);
+        assertEquals(1, sink.flush(writer, null));
+        assertEquals(2, writer.written.size());
+        assertTrue(writer.written.containsKey(new BulkIngestKey(SHARD, new Key("row", "cf", "c", 1L))));
+        assertTrue(!writer.written.containsKey(new BulkIngestKey(SHARD, new Key("row", "cf", "b", 1L))));
+    }
+    
+    @Test
+    public void testInto() throws Exception {
+        KeyValueSink sink = new KeyValueSink();
+        Multimap<BulkIngestKey,Value> values = HashMultimap.create();
+        assertSame(sink, sink.into(values));
+        for (int i = 0; i < 100; i++) {
+            sink.put(SHARD, key(sink, "row", "cf", Integer.toString(i % 40)), EMPTY);
+        }
+        assertEquals(40, values.size());
+        assertEquals(100, sink.size());
+        
+        // nothing is held by the sink until it is detached from the multimap
+        CollectingContextWriter writer = new CollectingContextWriter();
+        assertEquals(0, sink.flush(writer, null));
+        sink.into(null);
+        sink.put(SHARD, key(sink, "row", "cf", "other"), EMPTY);
+        assertEquals(40, values.size());
+        assertEquals(1, sink.flush(writer, null));
+        assertEquals(1, writer.written.size());
+    }
+}
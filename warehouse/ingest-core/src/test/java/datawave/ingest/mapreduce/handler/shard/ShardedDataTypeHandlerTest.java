@@ -1,9 +1,20 @@
 package datawave.ingest.mapreduce.handler.shard;
 
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import datawave.ingest.data.RawRecordContainer;
+import datawave.ingest.data.config.NormalizedContentInterface;
+import datawave.ingest.mapreduce.handler.KeyValueSink;
+import datawave.ingest.mapreduce.handler.tokenize.ContentIndexingColumnBasedHandlerTest;
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.StatusReporter;
 import org.apache.hadoop.mapreduce.TaskAttemptID;
 import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.Assert;
 import org.junit.Test;
 
 public class ShardedDataTypeHandlerTest {
@@ -14,4 +25,49 @@ public class ShardedDataTypeHandlerTest {
         ShardedDataTypeHandler<Text> handler = new AbstractColumnBasedHandler<>();
         handler.setup(new TaskAttemptContextImpl(conf, new TaskAttemptID()));
     }
+    
+    @Test
+    public void testUsesKeyValueSink() {
+        Assert.assertTrue(new AbstractColumnBasedHandler<Text>().usesKeyValueSink());
+        Assert.assertTrue(new ContentIndexingColumnBasedHandlerTest.TestContentIndexingColumnBasedHandler().usesKeyValueSink());
+        Assert.assertFalse(new ProcessBulkHandler().usesKeyValueSink());
+    }
+    
+    @Test
+    public void testMultimapSink() {
+        AbstractColumnBasedHandler<Text> handler = new AbstractColumnBasedHandler<>();
+        Multimap<BulkIngestKey,Value> values = HashMultimap.create();
+        Multimap<BulkIngestKey,Value> nested = HashMultimap.create();
+        
+        KeyValueSink sink = handler.acquireMultimapSink(values);
+        KeyValueSink nestedSink = handler.acquireMultimapSink(nested);
+        Assert.assertNotSame(sink, nestedSink);
+        
+        sink.put(new Text("shard"), new Key("row"), new Value(new byte[0]));
+        nestedSink.put(new Text("shard"), new Key("nested"), new Value(new byte[0]));
+        Assert.assertEquals(1, values.size());
+        Assert.assertEquals(1, nested.size());
+        handler.releaseMultimapSink(nestedSink);
+        handler.releaseMultimapSink(sink);
+        
+        // the released sink is handed out again and no longer puts into the previous multimap
+        Multimap<BulkIngestKey,Value> next = HashMultimap.create();
+        Assert.assertSame(sink, handler.acquireMultimapSink(next));
+        sink.put(new Text("shard"), new Key("next"), new Value(new byte[0]));
+        Assert.assertEquals(1, values.size());
+        Assert.assertEquals(1, next.size());
+    }
+    
+    public static class ProcessBulkHandler extends AbstractColumnBasedHandler<Text> {
+        @Override
+        public Multimap<BulkIngestKey,Value> processBulk(Text key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields,
+                        StatusReporter reporter) {
+            return super.processBulk(key, event, eventFields, reporter);
+        }
+        
+        @Override
+        public boolean usesKeyValueSink() {
+            return false;
+        }
+    }
 }
@@ -13,7 +13,12 @@ import datawave.ingest.data.config.NormalizedContentInterface;
 import datawave.ingest.data.config.NormalizedFieldAndValue;
 import datawave.ingest.data.config.ingest.BaseIngestHelper;
 import datawave.ingest.data.config.ingest.ContentBaseIngestHelper;
+import datawave.ingest.data.tokenize.StandardAnalyzer;
+import datawave.ingest.data.tokenize.TokenizationHelper;
 import datawave.ingest.input.reader.EventRecordReader;
+import datawave.ingest.mapreduce.handler.MockStatusReporter;
+import datawave.ingest.mapreduce.handler.shard.content.ContentIndexCounters;
+import datawave.ingest.mapreduce.handler.shard.content.TermAndZone;
 import datawave.ingest.mapreduce.job.BulkIngestKey;
 import datawave.policy.IngestPolicyEnforcer;
 import org.apache.accumulo.core.data.Key;
@@ -28,6 +33,9 @@ import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.mapred.TaskAttemptID;
 import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Before;
@@ -38,6 +46,8 @@ import java.io.DataInput;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 public class ContentIndexingColumnBasedHandlerTest {
@@ -59,6 +69,7 @@ public class ContentIndexingColumnBasedHandlerTest {
     private static final String SHARD_ID = "SHARD1";
     private static final Text SHARD_TABLE_NAME = new Text("shard");
     private static final String TF = "tf";
+    private static final String BODY = "BODY";
     
     private static String[] tokenizeAlphanumResults = {"12", "34", "56", "78", "12.34,56.78"};
     private static String[] tokenizeAlphanumResultsWithSpace = {"12", "34", "56", "78", "12.34", "56.78"};
@@ -225,6 +236,106 @@ public class ContentIndexingColumnBasedHandlerTest {
                         tokenizedExpectedReverseWithSpace, tokenizedExpectedTfValuesWithSpace, true);
     }
     
+    @Test
+    public void testHandlerPooledTokenizedFieldWithSpace() throws Exception {
+        
+        ctx.getConfiguration().setInt("test" + TokenizationHelper.TOKENIZER_POOL_SIZE, 2);
+        ctx.getConfiguration().setInt("test" + TokenizationHelper.TOKENIZER_CHUNK_SIZE, 6);
+        
+        TypeRegistry.reset();
+        TypeRegistry.getInstance(ctx.getConfiguration());
+        
+        setupMocks();
+        
+        TestContentIndexingColumnBasedHandler handler = new TestContentIndexingColumnBasedHandler();
+        handler.setup(ctx);
+        
+        helper.setup(ctx.getConfiguration());
+        
+        // the value is tokenized in two chunks, and the terms and offsets are the same as when it is tokenized in one
+        TokenizationPool pool = new TokenizationPool(handler.tokenHelper);
+        try {
+            testProcessing(handler, ALPHANUM_LIST, LIST_VALUE_WITH_SPACE, tokenizedExpectedFieldsWithSpace, tokenizedExpectedIndexWithSpace,
+                            tokenizedExpectedReverseWithSpace, tokenizedExpectedTfValuesWithSpace, true, pool);
+        } finally {
+            pool.shutdown();
+            handler.close(ctx);
+        }
+    }
+    
+    @Test
+    public void testPooledStopWordPositionsAcrossChunks() throws Exception {
+        // chunks of six characters: "alpha the", " beta and", " gamma", " of the", and " delta", so the stop words at the end of a chunk, and a chunk of only
+        // stop words, carry over to the position of the next token
+        String content = "alpha the beta and gamma of the delta";
+        
+        for (int poolSize : new int[] {0, 2}) {
+            MockStatusReporter reporter = new MockStatusReporter();
+            TestContentIndexingColumnBasedHandler handler = tokenizeBody(content, poolSize, 6, reporter);
+            
+            Assert.assertEquals(Collections.singletonList(1), getOffsets(handler, "alpha"));
+            Assert.assertEquals(Collections.singletonList(3), getOffsets(handler, "beta"));
+            Assert.assertEquals(Collections.singletonList(5), getOffsets(handler, "gamma"));
+            Assert.assertEquals(Collections.singletonList(8), getOffsets(handler, "delta"));
+            Assert.assertNull(getOffsets(handler, "the"));
+            
+            Assert.assertEquals(poolSize == 0 ? 0 : 4, getCounter(reporter, ContentIndexCounters.TOKENIZER_POOL_TOKENS));
+            Assert.assertEquals(0, getCounter(reporter, ContentIndexCounters.TOKENIZER_CHUNKS_TRUNCATED));
+        }
+    }
+    
+    @Test
+    public void testPooledChunkDeadlineStopsField() throws Exception {
+        ctx.getConfiguration().set("test" + TokenizationHelper.ANALYZER_CLASS, SlowStandardAnalyzer.class.getName());
+        ctx.getConfiguration().setLong("test" + TokenizationHelper.TOKENIZER_CHUNK_DEADLINE_MSEC, 1000);
+        
+        // chunks of six characters: "alpha beta", " slow gamma", and " delta". The chunk with "slow" is truncated after it, and the field stops there.
+        MockStatusReporter reporter = new MockStatusReporter();
+        TestContentIndexingColumnBasedHandler handler = tokenizeBody("alpha beta slow gamma delta", 2, 6, reporter);
+        
+        Assert.assertEquals(Collections.singletonList(1), getOffsets(handler, "alpha"));
+        Assert.assertEquals(Collections.singletonList(2), getOffsets(handler, "beta"));
+        Assert.assertEquals(Collections.singletonList(3), getOffsets(handler, "slow"));
+        Assert.assertNull(getOffsets(handler, "gamma"));
+        Assert.assertNull(getOffsets(handler, "delta"));
+        
+        Assert.assertEquals(3, getCounter(reporter, ContentIndexCounters.TOKENIZER_POOL_TOKENS));
+        Assert.assertEquals(1, getCounter(reporter, ContentIndexCounters.TOKENIZER_CHUNKS_TRUNCATED));
+    }
+    
+    private TestContentIndexingColumnBasedHandler tokenizeBody(String content, int poolSize, int chunkSize, MockStatusReporter reporter) {
+        ctx.getConfiguration().set("test" + ContentBaseIngestHelper.TOKEN_INDEX_WHITELIST, BODY);
+        ctx.getConfiguration().set("test" + ContentBaseIngestHelper.TOKEN_REV_INDEX_WHITELIST, BODY);
+        ctx.getConfiguration().setInt("test" + TokenizationHelper.TOKENIZER_POOL_SIZE, poolSize);
+        ctx.getConfiguration().setInt("test" + TokenizationHelper.TOKENIZER_CHUNK_SIZE, chunkSize);
+        
+        TypeRegistry.reset();
+        TypeRegistry.getInstance(ctx.getConfiguration());
+        
+        EasyMock.reset(event);
+        setupMocks();
+        
+        TestContentIndexingColumnBasedHandler handler = new TestContentIndexingColumnBasedHandler();
+        handler.setup(ctx);
+        try {
+            Multimap<String,NormalizedContentInterface> eventFields = HashMultimap.create();
+            eventFields.put(BODY, new NormalizedFieldAndValue(BODY, content));
+            handler.getShardNamesAndValues(event, eventFields, true, true, reporter);
+            handler.counters.flush(reporter);
+        } finally {
+            handler.close(ctx);
+        }
+        return handler;
+    }
+    
+    private List<Integer> getOffsets(TestContentIndexingColumnBasedHandler handler, String term) {
+        return handler.tokenOffsetCache.getOffsets(new TermAndZone(term, BODY + TOKEN_DESIGNATOR));
+    }
+    
+    private long getCounter(MockStatusReporter reporter, String name) {
+        return reporter.getCounters().findCounter(ContentIndexCounters.COUNTER_GROUP_NAME, name).getValue();
+    }
+    
     @Test
     public void testHandlerListNormalizedNumericsNoSpace() throws Exception {
         
@@ -340,12 +451,23 @@ public class ContentIndexingColumnBasedHandlerTest {
                     Multimap<String,NormalizedContentInterface> expectedFields, Multimap<String,NormalizedContentInterface> expectedIndex,
                     Multimap<String,NormalizedContentInterface> expectedReverse, Multimap<String,Pair<String,Integer>> expectedTfValues, boolean tokenTest)
                     throws Exception {
+        testProcessing(handler, fieldname, valueList, expectedFields, expectedIndex, expectedReverse, expectedTfValues, tokenTest, null);
+    }
+    
+    private void testProcessing(TestContentIndexingColumnBasedHandler handler, String fieldname, String valueList,
+                    Multimap<String,NormalizedContentInterface> expectedFields, Multimap<String,NormalizedContentInterface> expectedIndex,
+                    Multimap<String,NormalizedContentInterface> expectedReverse, Multimap<String,Pair<String,Integer>> expectedTfValues, boolean tokenTest,
+                    TokenizationPool pool) throws Exception {
         
         NormalizedContentInterface field = new NormalizedFieldAndValue(fieldname, valueList);
         
         if (tokenTest) {
             Analyzer analyzer = handler.tokenHelper.getAnalyzer();
-            handler.tokenizeField(analyzer, field, true, true, null);
+            if (pool != null) {
+                handler.tokenizeField(pool.submit(analyzer, fieldname, field.getIndexedFieldValue()), field, true, true, null);
+            } else {
+                handler.tokenizeField(analyzer, field, true, true, null);
+            }
         } else {
             handler.indexListEntries(field, true, true, null);
         }
@@ -456,6 +578,40 @@ public class ContentIndexingColumnBasedHandlerTest {
         
     }
     
+    /**
+     * A standard analyzer that takes longer than a chunk deadline to produce the term "slow"
+     */
+    public static class SlowStandardAnalyzer extends StandardAnalyzer {
+        
+        public SlowStandardAnalyzer(CharArraySet stopWords) {
+            super(stopWords);
+        }
+        
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            TokenStreamComponents components = super.createComponents(fieldName);
+            return new TokenStreamComponents(components.getTokenizer(), new TokenFilter(components.getTokenStream()) {
+                private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+                
+                @Override
+                public boolean incrementToken() throws IOException {
+                    if (!input.incrementToken()) {
+                        return false;
+                    }
+                    if (termAtt.toString().equals("slow")) {
+                        try {
+                            // at least three heart beats
+                            Thread.sleep(1600);
+                        } catch (InterruptedException e) {
+                            throw new IOException(e);
+                        }
+                    }
+                    return true;
+                }
+            });
+        }
+    }
+    
     public static class TestContentBaseIngestHelper extends ContentBaseIngestHelper {
         @Override
         public Multimap<String,NormalizedContentInterface> getEventFields(RawRecordContainer event) {
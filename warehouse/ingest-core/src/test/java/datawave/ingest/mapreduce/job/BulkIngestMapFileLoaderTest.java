@@ -12,9 +12,14 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
 
 import datawave.common.test.integration.IntegrationTest;
 import datawave.common.test.logging.CommonTestAppender;
@@ -25,6 +30,8 @@ import datawave.ingest.data.config.ingest.BaseIngestHelper;
 import datawave.ingest.input.reader.EventRecordReader;
 import datawave.ingest.input.reader.LongLineEventRecordReader;
 
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.admin.TableOperations;
 import org.apache.accumulo.core.client.security.tokens.PasswordToken;
 import org.apache.accumulo.core.client.impl.Credentials;
 import org.apache.hadoop.conf.Configuration;
@@ -41,6 +48,7 @@ import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
+import org.easymock.EasyMock;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -48,6 +56,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.contrib.java.lang.system.ExpectedSystemExit;
 import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
 import org.powermock.api.easymock.PowerMock;
 import org.powermock.reflect.Whitebox;
 
@@ -68,6 +77,9 @@ public class BulkIngestMapFileLoaderTest {
     @Rule
     public final ExpectedSystemExit exit = ExpectedSystemExit.none();
     
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+    
     @Test
     public void testShutdownPortAlreadyInUse() throws IOException {
         exit.expectSystemExitWithStatus(-3);
@@ -2696,4 +2708,164 @@ public class BulkIngestMapFileLoaderTest {
         }
         
     }
+    
+    protected BulkIngestMapFileLoader createImportLoader(Map<String,Integer> tablePriorities) throws IOException {
+        Credentials credentials = new Credentials("user", new PasswordToken("pass"));
+        URI hdfs = temporaryFolder.getRoot().toURI();
+        BulkIngestMapFileLoader uut = new BulkIngestMapFileLoader(".", "jobs/", "localhost", "localhost", credentials, hdfs, hdfs, hdfs, "localhost",
+                        tablePriorities, new Configuration(), 0, 1, 1);
+        // use the supplied compaction counts rather than asking the master for them
+        Whitebox.setInternalState(uut, "majcCountsTime", Long.MAX_VALUE);
+        return uut;
+    }
+    
+    protected Path createTableDir(Path mapFilesDir, String tableName) throws IOException {
+        File tableDir = new File(mapFilesDir.toUri().getPath(), tableName);
+        Assert.assertTrue("Failed to create the table directory " + tableDir, tableDir.mkdirs());
+        return new Path(tableDir.toURI());
+    }
+    
+    protected TableOperations createImportRecorder(final List<String> imported, final String failedTable) throws Exception {
+        TableOperations tops = EasyMock.createMock(TableOperations.class);
+        tops.importDirectory(EasyMock.anyString(), EasyMock.anyString(), EasyMock.anyString(), EasyMock.eq(false));
+        EasyMock.expectLastCall().andAnswer(() -> {
+            String tableName = (String) EasyMock.getCurrentArguments()[0];
+            if (tableName.equals(failedTable)) {
+                throw new AccumuloException("Failed to import " + tableName);
+            }
+            imported.add(tableName);
+            return null;
+        }).anyTimes();
+        EasyMock.replay(tops);
+        return tops;
+    }
+    
+    @Test
+    public void testImportsRunInPriorityOrder() throws Exception {
+        Map<String,Integer> tablePriorities = new HashMap<>();
+        tablePriorities.put("shard", 1);
+        tablePriorities.put("shardIndex", 2);
+        tablePriorities.put("shardReverseIndex", 2);
+        tablePriorities.put("metadata", 3);
+        BulkIngestMapFileLoader uut = createImportLoader(tablePriorities);
+        ThreadPoolExecutor importExecutor = Whitebox.getInternalState(uut, "importExecutor");
+        try {
+            Path mapFilesDir = new Path(temporaryFolder.newFolder("mapFiles").toURI());
+            List<String> imported = Collections.synchronizedList(new ArrayList<>());
+            TableOperations tops = createImportRecorder(imported, null);
+            
+            // hold the only import thread so that all of the imports are queued before any of them run
+            CountDownLatch release = new CountDownLatch(1);
+            importExecutor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            
+            List<BulkIngestMapFileLoader.ImportRunnable> imports = new ArrayList<>();
+            for (String tableName : new String[] {"metadata", "shardIndex", "shard", "shardReverseIndex"}) {
+                imports.add(uut.startImport(mapFilesDir, tableName, tableName, createTableDir(mapFilesDir, tableName), tops));
+            }
+            release.countDown();
+            for (BulkIngestMapFileLoader.ImportRunnable importTask : imports) {
+                importTask.waitForCompletion();
+                Assert.assertNull(importTask.getException());
+            }
+            
+            Assert.assertEquals(Arrays.asList("shard", "shardIndex", "shardReverseIndex", "metadata"), imported);
+        } finally {
+            importExecutor.shutdownNow();
+        }
+    }
+    
+    @Test
+    public void testImportDeferredWhileTableIsCompacting() throws Exception {
+        int statsInterval = Whitebox.getInternalState(BulkIngestMapFileLoader.class, "MAJC_STATS_INTERVAL");
+        int threshold = Whitebox.getInternalState(BulkIngestMapFileLoader.class, "MAJC_THRESHOLD");
+        Whitebox.setInternalState(BulkIngestMapFileLoader.class, "MAJC_STATS_INTERVAL", 10);
+        BulkIngestMapFileLoader uut = createImportLoader(new HashMap<>());
+        ThreadPoolExecutor importExecutor = Whitebox.getInternalState(uut, "importExecutor");
+        try {
+            Path mapFilesDir = new Path(temporaryFolder.newFolder("mapFiles").toURI());
+            List<String> imported = Collections.synchronizedList(new ArrayList<>());
+            TableOperations tops = createImportRecorder(imported, null);
+            
+            Map<String,Integer> majcCounts = new HashMap<>();
+            majcCounts.put("1", threshold);
+            Whitebox.setInternalState(uut, "majcCounts", majcCounts);
+            
+            BulkIngestMapFileLoader.ImportRunnable compacting = uut.startImport(mapFilesDir, "shard", "1", createTableDir(mapFilesDir, "shard"), tops);
+            BulkIngestMapFileLoader.ImportRunnable other = uut.startImport(mapFilesDir, "shardIndex", "2", createTableDir(mapFilesDir, "shardIndex"), tops);
+            
+            // the compacting table does not hold on to the only import thread
+            other.waitForCompletion();
+            Assert.assertNull(other.getException());
+            Thread.sleep(50);
+            Assert.assertFalse(compacting.isComplete());
+            Assert.assertEquals(Collections.singletonList("shardIndex"), imported);
+            
+            Whitebox.setInternalState(uut, "majcCounts", Collections.emptyMap());
+            compacting.waitForCompletion();
+            Assert.assertNull(compacting.getException());
+            Assert.assertEquals(Arrays.asList("shardIndex", "shard"), imported);
+            
+            Map<String,AtomicLong> throttleTimes = Whitebox.getInternalState(uut, "throttleTimes");
+            Assert.assertTrue(throttleTimes.containsKey("shard"));
+            Assert.assertTrue(throttleTimes.get("shard").get() >= 50);
+            Assert.assertFalse(throttleTimes.containsKey("shardIndex"));
+        } finally {
+            importExecutor.shutdownNow();
+            Whitebox.setInternalState(BulkIngestMapFileLoader.class, "MAJC_STATS_INTERVAL", statsInterval);
+        }
+    }
+    
+    @Test
+    public void testCanBringMapFilesOnlineChecksTotalCompactions() throws Exception {
+        int threshold = Whitebox.getInternalState(BulkIngestMapFileLoader.class, "MAJC_THRESHOLD");
+        BulkIngestMapFileLoader uut = createImportLoader(new HashMap<>());
+        ThreadPoolExecutor importExecutor = Whitebox.getInternalState(uut, "importExecutor");
+        try {
+            Map<String,Integer> majcCounts = new HashMap<>();
+            majcCounts.put("1", threshold / 2);
+            Whitebox.setInternalState(uut, "majcCounts", majcCounts);
+            Assert.assertTrue(uut.canBringMapFilesOnline(0, false));
+            
+            majcCounts.put("2", threshold - (threshold / 2));
+            Assert.assertFalse(uut.canBringMapFilesOnline(0, false));
+        } finally {
+            importExecutor.shutdownNow();
+        }
+    }
+    
+    @Test
+    public void testImportFailures() throws Exception {
+        BulkIngestMapFileLoader uut = createImportLoader(new HashMap<>());
+        ThreadPoolExecutor importExecutor = Whitebox.getInternalState(uut, "importExecutor");
+        try {
+            Path mapFilesDir = new Path(temporaryFolder.newFolder("mapFiles").toURI());
+            List<String> imported = Collections.synchronizedList(new ArrayList<>());
+            TableOperations tops = createImportRecorder(imported, "shardIndex");
+            
+            // a failures directory left behind by an earlier attempt
+            Path shardDir = createTableDir(mapFilesDir, "shard");
+            Assert.assertTrue(new File(mapFilesDir.toUri().getPath(), "failures/shard").mkdirs());
+            
+            BulkIngestMapFileLoader.ImportRunnable leftBehind = uut.startImport(mapFilesDir, "shard", "1", shardDir, tops);
+            BulkIngestMapFileLoader.ImportRunnable failed = uut.startImport(mapFilesDir, "shardIndex", "2", createTableDir(mapFilesDir, "shardIndex"), tops);
+            BulkIngestMapFileLoader.ImportRunnable succeeded = uut.startImport(mapFilesDir, "metadata", "3", createTableDir(mapFilesDir, "metadata"), tops);
+            
+            leftBehind.waitForCompletion();
+            failed.waitForCompletion();
+            succeeded.waitForCompletion();
+            
+            Assert.assertTrue(leftBehind.getException() instanceof IOException);
+            Assert.assertTrue(failed.getException() instanceof AccumuloException);
+            Assert.assertNull(succeeded.getException());
+            Assert.assertEquals(Collections.singletonList("metadata"), imported);
+        } finally {
+            importExecutor.shutdownNow();
+        }
+    }
 }
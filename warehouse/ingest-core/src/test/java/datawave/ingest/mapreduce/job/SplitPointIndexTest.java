@@ -0,0 +1,77 @@
+package datawave.ingest.mapreduce.job;
+
+import org.apache.hadoop.io.Text;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SplitPointIndexTest {
+    
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    
+    private SplitPointIndex write(Map<String,List<Text>> splits) throws IOException {
+        File file = temporaryFolder.newFile();
+        try (OutputStream out = new FileOutputStream(file)) {
+            SplitPointIndex.write(out, splits);
+        }
+        return SplitPointIndex.open(file);
+    }
+    
+    private static Text randomRow(Random random) {
+        // a small alphabet and short rows give long shared prefixes, rows that are prefixes of others, and bytes above 0x7f
+        byte[] row = new byte[random.nextInt(8)];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = (byte) (random.nextBoolean() ? 'a' + random.nextInt(3) : 0xfe);
+        }
+        return new Text(row);
+    }
+    
+    @Test
+    public void testSearchMatchesBinarySearch() throws IOException {
+        Random random = new Random(42);
+        Map<String,List<Text>> splits = new HashMap<>();
+        List<Text> many = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            many.add(randomRow(random));
+        }
+        splits.put("many", many);
+        splits.put("one", Collections.singletonList(new Text("m")));
+        splits.put("none", Collections.<Text> emptyList());
+        
+        try (SplitPointIndex index = write(splits)) {
+            assertEquals(3, index.getTableNames().size());
+            assertEquals(-1, index.getSplitCount("missing"));
+            assertEquals(0, index.getSplitCount("none"));
+            for (String table : splits.keySet()) {
+                Text[] expected = new TreeSet<>(splits.get(table)).toArray(new Text[0]);
+                assertEquals(expected.length, index.getSplitCount(table));
+                assertArrayEquals(expected, index.getSplits(table));
+                
+                for (int i = 0; i < 2000; i++) {
+                    Text row = (i < expected.length ? expected[i] : randomRow(random));
+                    // search a row in the middle of a larger array
+                    byte[] bytes = new byte[row.getLength() + 4];
+                    System.arraycopy(row.getBytes(), 0, bytes, 2, row.getLength());
+                    assertEquals(table + " " + row, Arrays.binarySearch(expected, row), index.search(table, bytes, 2, row.getLength()));
+                }
+            }
+        }
+    }
+}
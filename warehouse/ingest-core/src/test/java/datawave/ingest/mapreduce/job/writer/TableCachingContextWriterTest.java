@@ -0,0 +1,91 @@
+package datawave.ingest.mapreduce.job.writer;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import datawave.ingest.mapreduce.TestContextWriter;
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.ingest.mapreduce.job.reduce.BulkIngestKeyDedupeCombiner;
+import datawave.ingest.test.StandaloneStatusReporter;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+import org.apache.hadoop.mapreduce.task.MapContextImpl;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TableCachingContextWriterTest {
+    
+    private static final Text INDEX = new Text("shardIndex");
+    private static final Text SHARD = new Text("shard");
+    
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    
+    private Configuration conf;
+    private StandaloneStatusReporter reporter;
+    private File spillDir;
+    
+    @Before
+    public void setup() throws Exception {
+        conf = new Configuration();
+        conf.setBoolean(BulkIngestKeyDedupeCombiner.USING_COMBINER, true);
+        conf.setClass(TableCachingContextWriter.CONTEXT_WRITER_CLASS, TestContextWriter.class, ContextWriter.class);
+        conf.setInt(INDEX + TableCachingContextWriter.TABLES_TO_CACHE_SUFFIX, 1000);
+        spillDir = temporaryFolder.newFolder("spill");
+        conf.set(TableCachingContextWriter.SPILL_DIR, spillDir.getPath());
+        reporter = new StandaloneStatusReporter();
+    }
+    
+    private TaskInputOutputContext<?,?,BulkIngestKey,Value> createContext() {
+        return new MapContextImpl<>(conf, new TaskAttemptID(), null, null, null, reporter, null);
+    }
+    
+    /**
+     * Write the same terms over and over, as the global index entries of a document set with heavy term repetition would be
+     */
+    private Multimap<BulkIngestKey,Value> write() throws Exception {
+        TableCachingContextWriter writer = new TableCachingContextWriter();
+        writer.setup(conf, false);
+        TaskInputOutputContext<?,?,BulkIngestKey,Value> context = createContext();
+        
+        Random random = new Random(1234);
+        for (int event = 0; event < 200; event++) {
+            for (int i = 0; i < 20; i++) {
+                String term = "term" + random.nextInt(150);
+                writer.write(new BulkIngestKey(INDEX, new Key(term, "FIELD", "20190101_1\u0000datatype", 1L)), new Value("1".getBytes()), context);
+            }
+            writer.write(new BulkIngestKey(SHARD, new Key("20190101_1", "datatype\u0000" + event, "FIELD\u0000value", 1L)), new Value(new byte[0]), context);
+            writer.commit(context);
+        }
+        writer.cleanup(context);
+        
+        return HashMultimap.create(TestContextWriter.getWritten());
+    }
+    
+    @Test
+    public void testSpillMatchesCache() throws Exception {
+        Multimap<BulkIngestKey,Value> cached = write();
+        // the entries of each term have been combined in the cache, and the shard entries are passed through
+        assertEquals(350, cached.size());
+        assertEquals(0L, reporter.getCounters().findCounter(TableCachingContextWriter.SPILLED_BUFFER_COUNTER, "ALL").getValue());
+        
+        conf.setLong(TableCachingContextWriter.CACHE_BYTES, 4096);
+        Multimap<BulkIngestKey,Value> spilled = write();
+        assertTrue(reporter.getCounters().findCounter(TableCachingContextWriter.SPILLED_BUFFER_COUNTER, "ALL").getValue() > 1);
+        assertEquals(cached, spilled);
+        
+        // the runs are removed once they have been merged
+        assertEquals(0, spillDir.list().length);
+    }
+}
@@ -1,6 +1,8 @@
 package datawave.ingest.mapreduce.partition;
 
 import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.ingest.mapreduce.job.NonShardedSplitsFile;
+import datawave.ingest.mapreduce.job.SplitPointIndex;
 import datawave.util.TableName;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Mutation;
@@ -13,17 +15,29 @@ import org.apache.hadoop.mapreduce.TaskAttemptID;
 import org.apache.hadoop.mapreduce.task.MapContextImpl;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class MultiTableRangePartitionerTest {
     private static final String TABLE_NAME = "abc";
     Configuration configuration;
     Job mockJob;
     
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    
     @Before
     public void before() throws IOException {
         mockJob = new Job();
@@ -37,6 +51,25 @@ public class MultiTableRangePartitionerTest {
         Assert.assertEquals(5, getPartition());
     }
     
+    @Test
+    public void testSplitPointIndex() throws IOException {
+        // write the same split points as the text file into an index
+        Path textFile = new Path(createUrl("trimmed_splits.txt").getPath());
+        Map<String,Text[]> splits = new NonShardedSplitsFile.Reader(configuration, new Path[] {textFile}, true).getSplitsByTable();
+        Map<String,List<Text>> splitLists = new HashMap<>();
+        for (Map.Entry<String,Text[]> entry : splits.entrySet()) {
+            splitLists.put(entry.getKey(), Arrays.asList(entry.getValue()));
+        }
+        File indexFile = new File(temporaryFolder.getRoot(), "trimmed_splits.idx");
+        try (OutputStream out = new FileOutputStream(indexFile)) {
+            SplitPointIndex.write(out, splitLists);
+        }
+        
+        // the index is preferred to the text file
+        mockContextForLocalCacheFiles(textFile, new Path(indexFile.getPath()));
+        Assert.assertEquals(5, getPartition());
+    }
+    
     @Test(expected = RuntimeException.class)
     public void testEmptySplitsThrowsException() throws IOException, URISyntaxException {
         mockContextForLocalCacheFile(createUrl("trimmed_empty_splits.txt"));
@@ -62,10 +95,14 @@ public class MultiTableRangePartitionerTest {
     }
     
     private void mockContextForLocalCacheFile(final URL url) {
+        mockContextForLocalCacheFiles(new Path(url.getPath()));
+    }
+    
+    private void mockContextForLocalCacheFiles(final Path... cacheFiles) {
         MultiTableRangePartitioner.setContext(new MapContextImpl<Key,Value,Text,Mutation>(configuration, new TaskAttemptID(), null, null, null, null, null) {
             @Override
             public Path[] getLocalCacheFiles() throws IOException {
-                return new Path[] {new Path(url.getPath())};
+                return cacheFiles;
             }
         });
     }
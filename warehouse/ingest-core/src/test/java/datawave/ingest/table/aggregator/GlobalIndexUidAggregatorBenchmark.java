@@ -0,0 +1,135 @@
+package datawave.ingest.table.aggregator;
+
+import datawave.ingest.protobuf.Uid;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link GlobalIndexUidAggregator} against the {@link PackedGlobalIndexUidAggregator} when combining the values for a set of shard index keys, as
+ * done during a compaction. The distributions are:
+ * <ul>
+ * <li>ingest: a few single uid values per key, as written by ingest for low cardinality terms</li>
+ * <li>compacted: a handful of previously compacted values per key, each with close to the maximum number of uids</li>
+ * <li>overMax: many values for high cardinality terms, pushing the count over the maximum</li>
+ * <li>removals: compacted values mixed with deletes and quarantined uids</li>
+ * </ul>
+ * Run the main method from the test classpath, this is not run as part of the unit tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GlobalIndexUidAggregatorBenchmark {
+    
+    private static final int NUM_KEYS = 1000;
+    
+    @Param({"default", "packed"})
+    public String aggregator;
+    
+    @Param({"ingest", "compacted", "overMax", "removals"})
+    public String distribution;
+    
+    private PropogatingCombiner combiner;
+    private Key key;
+    private List<List<Value>> values;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        combiner = "packed".equals(aggregator) ? new PackedGlobalIndexUidAggregator() : new GlobalIndexUidAggregator();
+        key = new Key("term", "FIELD", "20190101_1\0datatype");
+        
+        Random random = new Random(42);
+        values = new ArrayList<>(NUM_KEYS);
+        for (int i = 0; i < NUM_KEYS; i++) {
+            List<Value> keyValues = new ArrayList<>();
+            switch (distribution) {
+                case "ingest":
+                    for (int j = 1 + random.nextInt(5); j > 0; j--) {
+                        keyValues.add(value(false, 1, uids(random, 1), Collections.emptyList(), Collections.emptyList()));
+                    }
+                    break;
+                case "compacted":
+                    for (int j = 2 + random.nextInt(3); j > 0; j--) {
+                        keyValues.add(value(false, 5, uids(random, 5), Collections.emptyList(), Collections.emptyList()));
+                    }
+                    break;
+                case "overMax":
+                    keyValues.add(value(true, 1000 + random.nextInt(1000), Collections.emptyList(), Collections.emptyList(), Collections.emptyList()));
+                    for (int j = 50; j > 0; j--) {
+                        keyValues.add(value(false, 1, uids(random, 1), Collections.emptyList(), Collections.emptyList()));
+                    }
+                    break;
+                case "removals":
+                    List<String> uids = uids(random, 15);
+                    keyValues.add(value(false, uids.size(), uids, Collections.emptyList(), Collections.emptyList()));
+                    keyValues.add(value(false, -3, Collections.emptyList(), uids.subList(0, 3), Collections.emptyList()));
+                    keyValues.add(value(false, -1, Collections.emptyList(), Collections.emptyList(), uids.subList(3, 4)));
+                    keyValues.add(value(false, 4, uids(random, 4), Collections.emptyList(), Collections.emptyList()));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown distribution " + distribution);
+            }
+            values.add(keyValues);
+        }
+    }
+    
+    private static List<String> uids(Random random, int n) {
+        List<String> uids = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            // the default hash uid form, e.g. -cvy0gj.tlf59s.-duxzua
+            uids.add(Integer.toString(random.nextInt(), 36) + '.' + Integer.toString(random.nextInt(), 36) + '.' + Integer.toString(random.nextInt(), 36));
+        }
+        return uids;
+    }
+    
+    private static Value value(boolean ignore, long count, List<String> uids, List<String> removed, List<String> quarantined) {
+        Uid.List.Builder builder = Uid.List.newBuilder();
+        builder.setIGNORE(ignore);
+        builder.setCOUNT(count);
+        builder.addAllUID(uids);
+        builder.addAllREMOVEDUID(removed);
+        builder.addAllQUARANTINEUID(quarantined);
+        return new Value(builder.build().toByteArray());
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(NUM_KEYS)
+    public void reduce(Blackhole blackhole) {
+        for (List<Value> keyValues : values) {
+            combiner.reset();
+            blackhole.consume(combiner.reduce(key, keyValues.iterator()));
+            blackhole.consume(combiner.propogateKey());
+        }
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(GlobalIndexUidAggregatorBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,186 @@
+package datawave.ingest.table.aggregator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import datawave.ingest.protobuf.Uid;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.junit.Test;
+
+/**
+ * Verifies that the {@link PackedGlobalIndexUidAggregator} produces exactly the same bytes as the {@link GlobalIndexUidAggregator}
+ */
+public class PackedGlobalIndexUidAggregatorTest {
+    
+    private final Random random = new Random(8675309);
+    
+    private final GlobalIndexUidAggregator expected = new GlobalIndexUidAggregator();
+    private final PackedGlobalIndexUidAggregator actual = new PackedGlobalIndexUidAggregator();
+    
+    private static Value value(boolean ignore, long count, List<String> uids, List<String> removed, List<String> quarantined) {
+        Uid.List.Builder b = Uid.List.newBuilder();
+        b.setIGNORE(ignore);
+        b.setCOUNT(count);
+        b.addAllUID(uids);
+        b.addAllREMOVEDUID(removed);
+        b.addAllQUARANTINEUID(quarantined);
+        return new Value(b.build().toByteArray());
+    }
+    
+    private void assertSame(Key key, List<Value> values) {
+        Value expectedValue = expected.reduce(key, values.iterator());
+        Value actualValue = actual.reduce(key, values.iterator());
+        assertArrayEquals(expectedValue.get(), actualValue.get());
+        assertEquals(expected.propogateKey(), actual.propogateKey());
+    }
+    
+    private static Key key(boolean deleted) {
+        Key key = new Key("row", "cf", "cq");
+        key.setDeleted(deleted);
+        return key;
+    }
+    
+    private void reset() {
+        expected.reset();
+        actual.reset();
+    }
+    
+    private List<String> uids(List<String> pool, int max) {
+        int n = random.nextInt(max + 1);
+        List<String> uids = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            uids.add(pool.get(random.nextInt(pool.size())));
+        }
+        return uids;
+    }
+    
+    private Value randomValue(List<String> pool) {
+        long count;
+        switch (random.nextInt(4)) {
+            case 0:
+                count = -1 - random.nextInt(5);
+                break;
+            case 1:
+                count = 0;
+                break;
+            default:
+                count = 1 + random.nextInt(30);
+                break;
+        }
+        return value(random.nextInt(20) == 0, count, uids(pool, 30), uids(pool, 10), uids(pool, 3));
+    }
+    
+    private void runRandom(List<String> pool, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            // reset most of the time as the PropogatingIterator does, but also exercise accumulating state as the Combiner does
+            if (random.nextInt(4) != 0) {
+                reset();
+            }
+            List<Value> values = new ArrayList<>();
+            int n = 1 + random.nextInt(10);
+            for (int j = 0; j < n; j++) {
+                values.add(randomValue(pool));
+            }
+            assertSame(key(random.nextInt(5) == 0), values);
+        }
+    }
+    
+    @Test
+    public void testRandomUids() {
+        List<String> pool = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            pool.add(String.format("%08x.%08x.%08x", random.nextInt(), random.nextInt(), random.nextInt()));
+        }
+        runRandom(pool, 2000);
+    }
+    
+    @Test
+    public void testNonAsciiUids() {
+        List<String> pool = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            pool.add("uid." + i);
+            pool.add("\u00fcid." + i);
+            pool.add("\u4e2d\u6587." + i);
+            pool.add("\ud83d\ude00." + i);
+        }
+        runRandom(pool, 2000);
+    }
+    
+    @Test
+    public void testCollidingHashCodes() {
+        // strings made up of "Aa" and "BB" all have the same hash code, which will force the hash set bins to be treeified
+        List<String> pool = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            StringBuilder builder = new StringBuilder();
+            for (int bit = 0; bit < 8; bit++) {
+                builder.append((i & (1 << bit)) == 0 ? "Aa" : "BB");
+            }
+            pool.add(builder.toString());
+        }
+        for (int i = 0; i < 500; i++) {
+            reset();
+            List<Value> values = new ArrayList<>();
+            values.add(value(false, -pool.size(), uids(pool, 200), uids(pool, 200), uids(pool, 50)));
+            for (int j = 0; j < 5; j++) {
+                values.add(randomValue(pool));
+            }
+            assertSame(key(false), values);
+        }
+    }
+    
+    @Test
+    public void testInvalidValues() {
+        List<String> pool = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            pool.add("uid." + i);
+        }
+        byte[] valid = randomValue(pool).get();
+        List<Value> values = new ArrayList<>();
+        values.add(new Value(new byte[] {0x01, 0x02, 0x03}));
+        // missing the required fields
+        values.add(new Value(Uid.List.newBuilder().addUID("uid.1").buildPartial().toByteArray()));
+        // truncated
+        values.add(new Value(Arrays.copyOf(valid, valid.length - 1)));
+        // an unknown field
+        byte[] unknown = Arrays.copyOf(valid, valid.length + 2);
+        unknown[valid.length] = (byte) (7 << 3);
+        unknown[valid.length + 1] = 0x05;
+        values.add(new Value(unknown));
+        values.add(randomValue(pool));
+        reset();
+        assertSame(key(false), values);
+        reset();
+        assertSame(key(true), values);
+    }
+    
+    @Test
+    public void testOverMaxAndRemovals() {
+        List<String> pool = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            pool.add("uid." + i);
+        }
+        reset();
+        List<Value> values = new ArrayList<>();
+        values.add(value(false, 30, pool.subList(0, 30), new ArrayList<>(), new ArrayList<>()));
+        assertSame(key(false), values);
+        
+        reset();
+        values.clear();
+        values.add(value(false, 10, pool.subList(0, 10), new ArrayList<>(), new ArrayList<>()));
+        values.add(value(false, -2, new ArrayList<>(), pool.subList(3, 5), pool.subList(6, 7)));
+        values.add(value(false, 1, new ArrayList<>(), new ArrayList<>(), pool.subList(6, 7)));
+        assertSame(key(false), values);
+        
+        reset();
+        values.clear();
+        values.add(value(false, -3, pool.subList(0, 3), new ArrayList<>(), new ArrayList<>()));
+        assertSame(key(false), values);
+    }
+}
@@ -0,0 +1,228 @@
+package datawave.iterators;
+
+import com.google.protobuf.CodedOutputStream;
+import datawave.edge.protobuf.EdgeData;
+import datawave.edge.util.EdgeKey;
+import datawave.edge.util.EdgeKey.EDGE_FORMAT;
+import datawave.edge.util.EdgeKey.STATS_TYPE;
+import datawave.edge.util.EdgeValue;
+import datawave.edge.util.EdgeValueHelper;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.Combiner;
+import org.apache.accumulo.core.iterators.LongCombiner.VarLenEncoder;
+import org.apache.hadoop.io.Text;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The values combined by the {@link EdgeCombiner} must be byte for byte those of the {@link ProtobufEdgeCombiner} that it replaced
+ */
+public class EdgeCombinerTest {
+    
+    private static final String UUID = "a6b3e4b0-6f5e-11e8-adc0-fa7ae01bbebc";
+    
+    private final Random random = new Random(814);
+    
+    @Test
+    public void testStandard() {
+        List<Value> values = new ArrayList<>();
+        values.add(edgeValue(3l, 4, "SOURCE", null, "20180102", null, null));
+        values.add(edgeValue(5l, 11, null, "SINK", null, UUID, null));
+        values.add(new Value(new VarLenEncoder().encode(7l)));
+        values.add(edgeValue(2l, null, null, null, "20170101", null, true));
+        values.add(edgeValue(null, null, null, null, null, "not a uuid", false));
+        values.add(edgeValue(null, null, null, null, null, null, null));
+        
+        assertSameCombination(standardKey(), values);
+        for (int ii = 0; ii < 20; ii++) {
+            assertSameCombination(standardKey(), randomValues(null));
+        }
+    }
+    
+    @Test
+    public void testActivity() throws IOException {
+        List<Value> values = new ArrayList<>();
+        values.add(histogramValue(STATS_TYPE.ACTIVITY, 24));
+        values.add(new Value(EdgeValueHelper.getByteArrayForHour(5, false)));
+        values.add(histogramValue(STATS_TYPE.ACTIVITY, 0));
+        values.add(histogramValue(STATS_TYPE.ACTIVITY, 10));
+        values.add(histogramValue(STATS_TYPE.DURATION, 7));
+        values.add(unpackedHistogramValue(STATS_TYPE.ACTIVITY, 24));
+        
+        assertSameCombination(statsKey(STATS_TYPE.ACTIVITY), values);
+        for (int ii = 0; ii < 20; ii++) {
+            assertSameCombination(statsKey(STATS_TYPE.ACTIVITY), randomValues(STATS_TYPE.ACTIVITY));
+        }
+    }
+    
+    @Test
+    public void testDuration() throws IOException {
+        List<Value> values = new ArrayList<>();
+        values.add(histogramValue(STATS_TYPE.DURATION, 7));
+        values.add(new Value(EdgeValueHelper.getByteArrayForDuration(45, true)));
+        values.add(histogramValue(STATS_TYPE.DURATION, 3));
+        values.add(unpackedHistogramValue(STATS_TYPE.DURATION, 7));
+        
+        assertSameCombination(statsKey(STATS_TYPE.DURATION), values);
+        for (int ii = 0; ii < 20; ii++) {
+            assertSameCombination(statsKey(STATS_TYPE.DURATION), randomValues(STATS_TYPE.DURATION));
+        }
+    }
+    
+    @Test
+    public void testLongerHistogram() {
+        // a histogram longer than declared is kept, as long as all of them are
+        List<Value> values = Arrays.asList(histogramValue(STATS_TYPE.ACTIVITY, 30), histogramValue(STATS_TYPE.ACTIVITY, 30));
+        assertSameCombination(statsKey(STATS_TYPE.ACTIVITY), values);
+        
+        try {
+            new EdgeCombiner().reduce(statsKey(STATS_TYPE.ACTIVITY), Arrays.asList(histogramValue(STATS_TYPE.ACTIVITY, 30),
+                            histogramValue(STATS_TYPE.ACTIVITY, 24)).iterator());
+            Assert.fail("Expected histograms of differing lengths to fail");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+    
+    @Test
+    public void testIncompleteUuid() throws IOException {
+        // a uuid without its required fields is not a valid edge value, so it is read as an old varint value
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        out.writeInt64(1, 12);
+        out.writeTag(9, 2);
+        out.writeRawVarint32(2);
+        out.writeSInt64(1, 1);
+        out.flush();
+        
+        List<Value> values = Arrays.asList(new Value(bytes.toByteArray()), edgeValue(1l, null, null, null, null, null, null));
+        assertSameCombination(standardKey(), values);
+    }
+    
+    private void assertSameCombination(Key key, List<Value> values) {
+        Value expected = reduce(new ProtobufEdgeCombiner(), key, values);
+        Value actual = reduce(new EdgeCombiner(), key, values);
+        Assert.assertArrayEquals(expected.get(), actual.get());
+    }
+    
+    private static Value reduce(Combiner combiner, Key key, List<Value> values) {
+        List<Value> copies = new ArrayList<>();
+        for (Value value : values) {
+            copies.add(new Value(value));
+        }
+        return combiner.reduce(key, copies.iterator());
+    }
+    
+    private List<Value> randomValues(STATS_TYPE statsType) {
+        List<Value> values = new ArrayList<>();
+        int count = 1 + random.nextInt(50);
+        for (int ii = 0; ii < count; ii++) {
+            EdgeValue.EdgeValueBuilder builder = EdgeValue.newBuilder();
+            if (random.nextBoolean()) {
+                builder.setCount((long) random.nextInt(1000));
+            }
+            if (random.nextBoolean()) {
+                builder.setHour(random.nextInt(24));
+            }
+            if (random.nextInt(4) == 0) {
+                builder.setSourceValue("SOURCE" + random.nextInt(3));
+            }
+            if (random.nextInt(4) == 0) {
+                builder.setSinkValue("SINK" + random.nextInt(3));
+            }
+            if (random.nextBoolean()) {
+                builder.setLoadDate("2018010" + random.nextInt(10));
+            }
+            if (random.nextInt(3) == 0) {
+                builder.setUuid(new java.util.UUID(random.nextLong(), random.nextLong()).toString());
+            }
+            if (random.nextInt(3) == 0) {
+                builder.setBadActivityDate(random.nextBoolean());
+            }
+            if (STATS_TYPE.ACTIVITY == statsType) {
+                builder.setHours(randomLongs(EdgeValueHelper.ACTIVITY_HISTOGRAM_LENGTH));
+            } else if (STATS_TYPE.DURATION == statsType) {
+                builder.setDuration(randomLongs(EdgeValueHelper.DURATION_HISTOGRAM_LENGTH));
+            }
+            values.add(builder.build().encode());
+        }
+        return values;
+    }
+    
+    private List<Long> randomLongs(int length) {
+        List<Long> longs = new ArrayList<>(length);
+        for (int ii = 0; ii < length; ii++) {
+            longs.add(random.nextInt(8) == 0 ? random.nextLong() : random.nextInt(100) - 10);
+        }
+        return longs;
+    }
+    
+    private Value histogramValue(STATS_TYPE statsType, int length) {
+        EdgeValue.EdgeValueBuilder builder = EdgeValue.newBuilder();
+        builder.setLoadDate("20180101");
+        if (STATS_TYPE.ACTIVITY == statsType) {
+            builder.setHours(randomLongs(length));
+        } else {
+            builder.setDuration(randomLongs(length));
+        }
+        return builder.build().encode();
+    }
+    
+    /**
+     * A histogram written as separate fields rather than packed, which the protocol buffer parsers accept as well
+     */
+    private Value unpackedHistogramValue(STATS_TYPE statsType, int length) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        for (Long hour : randomLongs(length)) {
+            out.writeInt64(STATS_TYPE.ACTIVITY == statsType ? EdgeData.EdgeValue.HOURS_FIELD_NUMBER : EdgeData.EdgeValue.DURATION_FIELD_NUMBER, hour);
+        }
+        out.writeString(EdgeData.EdgeValue.SOURCEVALUE_FIELD_NUMBER, "SOURCE");
+        out.flush();
+        return new Value(bytes.toByteArray());
+    }
+    
+    private static Value edgeValue(Long count, Integer hour, String sourceValue, String sinkValue, String loadDate, String uuid, Boolean badActivity) {
+        EdgeValue.EdgeValueBuilder builder = EdgeValue.newBuilder();
+        if (count != null) {
+            builder.setCount(count);
+        }
+        if (hour != null) {
+            builder.setHour(hour);
+        }
+        if (sourceValue != null) {
+            builder.setSourceValue(sourceValue);
+        }
+        if (sinkValue != null) {
+            builder.setSinkValue(sinkValue);
+        }
+        if (loadDate != null) {
+            builder.setLoadDate(loadDate);
+        }
+        if (uuid != null) {
+            builder.setUuid(uuid);
+        }
+        if (badActivity != null) {
+            builder.setBadActivityDate(badActivity);
+        }
+        return builder.build().encode();
+    }
+    
+    private static Key standardKey() {
+        return EdgeKey.newBuilder(EDGE_FORMAT.STANDARD).setSourceData("SOURCE").setSinkData("SINK").setType("TYPE").setSourceRelationship("FROM")
+                        .setSinkRelationship("TO").setYyyymmdd("20180101").setColvis(new Text("ALL")).build().encode();
+    }
+    
+    private static Key statsKey(STATS_TYPE statsType) {
+        return EdgeKey.newBuilder(EDGE_FORMAT.STATS).setStatsType(statsType).setSourceData("SOURCE").setType("TYPE").setSourceRelationship("FROM")
+                        .setYyyymmdd("20180101").setColvis(new Text("ALL")).build().encode();
+    }
+}
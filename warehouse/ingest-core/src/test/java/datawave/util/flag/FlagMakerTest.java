@@ -151,6 +151,44 @@ public class FlagMakerTest extends AbstractFlagConfig {
         assertEquals(0, cleanCnt);
     }
     
+    /**
+     * Test of processFlags when scanning incrementally, where the pending files are kept between passes
+     */
+    @Test
+    public void testProcessFlagsIncremental() throws Exception {
+        log.info("-----  testProcessFlagsIncremental  -----");
+        File f = setUpFlagDir();
+        fmc.setIncrementalScan(true);
+        FlagMaker instance = new TestWrappedFlagMaker(fmc);
+        
+        // two days, 5 files each day, two folders in fmc = 20 flags
+        createTestFiles(2, 5);
+        instance.processFlags();
+        assertEquals(2, f.listFiles(pathname -> pathname.getName().endsWith(".flag")).length);
+        
+        // not enough for a full flag file, so they remain pending
+        createTestFiles(1, 2);
+        instance.processFlags();
+        instance.processFlags();
+        assertEquals(2, f.listFiles(pathname -> pathname.getName().endsWith(".flag")).length);
+        
+        // the pending files and the new ones make up another full flag file
+        createTestFiles(1, 3);
+        instance.processFlags();
+        File[] flags = f.listFiles(pathname -> pathname.getName().endsWith(".flag"));
+        assertEquals(3, flags.length);
+        
+        // every file was flagged exactly once
+        List<String> flagged = new ArrayList<>();
+        for (File file : flags) {
+            try (BufferedReader r = new BufferedReader(new FileReader(file))) {
+                flagged.addAll(Arrays.asList(r.readLine().split(" ")[1].split(",")));
+            }
+        }
+        assertEquals(30, flagged.size());
+        assertEquals(30, new HashSet<>(flagged).size());
+    }
+    
     /**
      * Test of time stamps of the flag files
      */
@@ -21,17 +21,20 @@ public class JsonDataTypeHelper extends CSVHelper {
         
         String COLUMN_VISIBILITY_FIELD = ".data.category.marking.visibility.field";
         String FLATTENER_MODE = ".data.json.flattener.mode";
+        String FLATTENER_STREAMING = ".data.json.flattener.streaming";
         
     }
     
     protected String columnVisibilityField = null;
     protected FlattenMode jsonObjectFlattenMode = FlattenMode.NORMAL;
+    protected boolean streamingFlattener = false;
     
     @Override
     public void setup(Configuration config) throws IllegalArgumentException {
         super.setup(config);
         this.setJsonObjectFlattenModeByName(config.get(this.getType().typeName() + Properties.FLATTENER_MODE, FlattenMode.NORMAL.name()));
         this.setColumnVisibilityField(config.get(this.getType().typeName() + Properties.COLUMN_VISIBILITY_FIELD));
+        this.setStreamingFlattener(config.getBoolean(this.getType().typeName() + Properties.FLATTENER_STREAMING, false));
     }
     
     public String getColumnVisibilityField() {
@@ -54,6 +57,20 @@ public class JsonDataTypeHelper extends CSVHelper {
         this.jsonObjectFlattenMode = mode;
     }
     
+    /**
+     * If true, json is flattened as it is read, see {@link JsonObjectFlattener#flatten(com.google.gson.stream.JsonReader, com.google.common.collect.Multimap)},
+     * rather than parsed into a tree first, and the fields flattened by the record reader are reused when the event is processed
+     *
+     * @return true, if the streaming flattener is enabled
+     */
+    public boolean isStreamingFlattener() {
+        return streamingFlattener;
+    }
+    
+    public void setStreamingFlattener(boolean streamingFlattener) {
+        this.streamingFlattener = streamingFlattener;
+    }
+    
     public JsonObjectFlattener newFlattener() {
         
         // Set flattener's whitelist and blacklist according to current state of the helper
@@ -3,7 +3,11 @@ package datawave.ingest.json.config.helper;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.MalformedJsonException;
 import datawave.ingest.data.RawRecordContainer;
 import datawave.ingest.data.config.NormalizedContentInterface;
 import datawave.ingest.data.config.NormalizedFieldAndValue;
@@ -13,6 +17,9 @@ import datawave.ingest.json.util.JsonObjectFlattener;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.log4j.Logger;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.Map;
 
 /**
@@ -42,6 +49,10 @@ public class JsonIngestHelper extends ContentBaseIngestHelper {
             throw new IllegalStateException("JsonObjectFlattener was not initialized. Method 'setup' must be invoked first");
         }
         
+        if (helper.isStreamingFlattener()) {
+            return normalizeMap(getGroupNormalizedMap(getStreamedFields(event)));
+        }
+        
         HashMultimap<String,String> fields = HashMultimap.create();
         String jsonString = new String(event.getRawData());
         
@@ -52,6 +63,27 @@ public class JsonIngestHelper extends ContentBaseIngestHelper {
         return normalizeMap(getGroupNormalizedMap(fields));
     }
     
+    /**
+     * Gets the fields flattened by the streaming JsonRecordReader for the event, otherwise flattens the raw data as it is read
+     */
+    @SuppressWarnings("unchecked")
+    protected HashMultimap<String,String> getStreamedFields(RawRecordContainer event) {
+        if (event.getAuxData() instanceof HashMultimap) {
+            return (HashMultimap<String,String>) event.getAuxData();
+        }
+        
+        HashMultimap<String,String> fields = HashMultimap.create();
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(event.getRawData())))) {
+            reader.setLenient(true);
+            flattener.flatten(reader, fields);
+        } catch (MalformedJsonException e) {
+            throw new JsonSyntaxException(e);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+        return fields;
+    }
+    
     protected Multimap<String,NormalizedContentInterface> getGroupNormalizedMap(HashMultimap<String,String> fields) {
         Multimap<String,NormalizedContentInterface> results = HashMultimap.create();
         for (Map.Entry<String,String> e : fields.entries()) {
@@ -0,0 +1,187 @@
+package datawave.ingest.json.mr.input;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+
+/**
+ * A {@link JsonReader} that can write the tokens it reads back out as compact json, so that the json of a record can be kept while it is streamed through a
+ * flattener, instead of parsing the record into a tree and writing out the tree. The copy is written as {@link com.google.gson.JsonElement#toString()} would
+ * write the same json.
+ * <p>
+ * Only the token methods used to walk the json are copied; {@link #skipValue()} and the typed number methods may not be used while copying.
+ */
+public class CopyingJsonReader extends JsonReader {
+    
+    private final StringWriter copy = new StringWriter();
+    private JsonWriter writer = null;
+    
+    public CopyingJsonReader(Reader in) {
+        super(in);
+    }
+    
+    /**
+     * Start copying the tokens read from here on, discarding any previous copy
+     */
+    public void startCopy() {
+        copy.getBuffer().setLength(0);
+        writer = new JsonWriter(copy);
+        writer.setLenient(true);
+    }
+    
+    /**
+     * Stop copying
+     *
+     * @return the json read since {@link #startCopy()}
+     * @throws IOException
+     *             if the json could not be written
+     */
+    public String endCopy() throws IOException {
+        writer.flush();
+        writer = null;
+        return copy.toString();
+    }
+    
+    @Override
+    public void beginArray() throws IOException {
+        super.beginArray();
+        if (writer != null) {
+            writer.beginArray();
+        }
+    }
+    
+    @Override
+    public void endArray() throws IOException {
+        super.endArray();
+        if (writer != null) {
+            writer.endArray();
+        }
+    }
+    
+    @Override
+    public void beginObject() throws IOException {
+        super.beginObject();
+        if (writer != null) {
+            writer.beginObject();
+        }
+    }
+    
+    @Override
+    public void endObject() throws IOException {
+        super.endObject();
+        if (writer != null) {
+            writer.endObject();
+        }
+    }
+    
+    @Override
+    public String nextName() throws IOException {
+        String name = super.nextName();
+        if (writer != null) {
+            writer.name(name);
+        }
+        return name;
+    }
+    
+    @Override
+    public String nextString() throws IOException {
+        if (writer == null) {
+            return super.nextString();
+        }
+        boolean number = peek() == JsonToken.NUMBER;
+        String value = super.nextString();
+        if (number) {
+            writer.value(new NumberLiteral(value));
+        } else {
+            writer.value(value);
+        }
+        return value;
+    }
+    
+    @Override
+    public boolean nextBoolean() throws IOException {
+        boolean value = super.nextBoolean();
+        if (writer != null) {
+            writer.value(value);
+        }
+        return value;
+    }
+    
+    @Override
+    public void nextNull() throws IOException {
+        super.nextNull();
+        if (writer != null) {
+            writer.nullValue();
+        }
+    }
+    
+    @Override
+    public double nextDouble() throws IOException {
+        checkNotCopying();
+        return super.nextDouble();
+    }
+    
+    @Override
+    public long nextLong() throws IOException {
+        checkNotCopying();
+        return super.nextLong();
+    }
+    
+    @Override
+    public int nextInt() throws IOException {
+        checkNotCopying();
+        return super.nextInt();
+    }
+    
+    @Override
+    public void skipValue() throws IOException {
+        checkNotCopying();
+        super.skipValue();
+    }
+    
+    private void checkNotCopying() {
+        if (writer != null) {
+            throw new IllegalStateException("Value cannot be copied, use nextString() instead");
+        }
+    }
+    
+    /**
+     * Writes a number exactly as it was read
+     */
+    private static final class NumberLiteral extends Number {
+        private final String value;
+        
+        private NumberLiteral(String value) {
+            this.value = value;
+        }
+        
+        @Override
+        public int intValue() {
+            return (int) doubleValue();
+        }
+        
+        @Override
+        public long longValue() {
+            return (long) doubleValue();
+        }
+        
+        @Override
+        public float floatValue() {
+            return (float) doubleValue();
+        }
+        
+        @Override
+        public double doubleValue() {
+            return Double.parseDouble(value);
+        }
+        
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+}
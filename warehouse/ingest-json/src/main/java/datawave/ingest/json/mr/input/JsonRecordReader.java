@@ -53,6 +53,11 @@ import org.apache.log4j.Logger;
  *
  * <p>
  * For custom parsing requirements, extend this class and override the 'parseCurrentValue' method to suit your needs.
+ *
+ * <p>
+ * If {@link JsonDataTypeHelper#isStreamingFlattener()} is enabled, each json object is flattened as it is read instead of being parsed into a tree, and its
+ * json is copied as it is read for the raw data of the event. The flattened fields are then handed on with the event, as its aux data, so that they need not
+ * be parsed again. The 'parseCurrentValue' method is not used in that case.
  */
 public class JsonRecordReader extends AbstractEventRecordReader<BytesWritable> {
     
@@ -77,6 +82,10 @@ public class JsonRecordReader extends AbstractEventRecordReader<BytesWritable> {
     protected boolean parseHeaderOnly = true;
     protected JsonDataTypeHelper jsonHelper = null;
     protected JsonObjectFlattener jsonFlattener = null;
+    protected boolean streaming = false;
+    protected CopyingJsonReader copyingReader;
+    protected String currentJson;
+    protected boolean inArray = false;
     
     @Override
     public void close() throws IOException {
@@ -92,7 +101,9 @@ public class JsonRecordReader extends AbstractEventRecordReader<BytesWritable> {
     
     @Override
     public BytesWritable getCurrentValue() {
-        if (currentJsonObj != null) {
+        if (streaming) {
+            return currentJson != null ? new BytesWritable(currentJson.getBytes()) : null;
+        } else if (currentJsonObj != null) {
             return new BytesWritable(currentJsonObj.toString().getBytes());
         } else {
             return null;
@@ -133,26 +144,30 @@ public class JsonRecordReader extends AbstractEventRecordReader<BytesWritable> {
         
         String normURI = fileURI.getScheme() + "://" + fileURI.getPath();
         
-        setupReader(is);
-        
-        if (logger.isInfoEnabled()) {
-            logger.info("Reading Json records from " + normURI + " via " + is.getClass().getName());
-        }
-        
         jsonHelper = (JsonDataTypeHelper) createHelper(context.getConfiguration());
         this.parseHeaderOnly = !jsonHelper.processExtraFields();
+        this.streaming = jsonHelper.isStreamingFlattener();
         jsonFlattener = jsonHelper.newFlattener();
         
+        setupReader(is);
+        
         if (logger.isInfoEnabled()) {
-            logger.info("Json flattener mode: " + jsonFlattener.getFlattenMode().name());
+            logger.info("Reading Json records from " + normURI + " via " + is.getClass().getName());
+            logger.info("Json flattener mode: " + jsonFlattener.getFlattenMode().name() + (streaming ? ", streaming" : ""));
         }
     }
     
     protected void setupReader(InputStream is) {
         countingInputStream = new CountingInputStream(is);
-        reader = new JsonReader(new InputStreamReader(countingInputStream));
-        reader.setLenient(true);
-        setupIterator(reader);
+        if (streaming) {
+            copyingReader = new CopyingJsonReader(new InputStreamReader(countingInputStream));
+            reader = copyingReader;
+            reader.setLenient(true);
+        } else {
+            reader = new JsonReader(new InputStreamReader(countingInputStream));
+            reader.setLenient(true);
+            setupIterator(reader);
+        }
     }
     
     protected void setupIterator(JsonReader reader) {
@@ -172,14 +187,61 @@ public class JsonRecordReader extends AbstractEventRecordReader<BytesWritable> {
         jsonFlattener.flatten(jsonObject, currentValue);
     }
     
+    /**
+     * Reads the next json object, flattening it into {@link #currentValue} and copying its json into {@link #currentJson}. The objects may be concatenated,
+     * within arrays or both, as for the tree-based parsing in {@link #nextKeyValue()}
+     *
+     * @return false, if there are no more objects
+     * @throws IOException
+     *             if the json could not be read
+     */
+    protected boolean nextStreamingValue() throws IOException {
+        while (true) {
+            if (inArray) {
+                if (reader.hasNext()) {
+                    break;
+                }
+                reader.endArray();
+                inArray = false;
+            }
+            JsonToken token = reader.peek();
+            if (token == JsonToken.END_DOCUMENT) {
+                return false;
+            } else if (token == JsonToken.BEGIN_ARRAY) {
+                // Currently positioned to read a set of objects
+                reader.beginArray();
+                inArray = true;
+            } else {
+                break;
+            }
+        }
+        
+        copyingReader.startCopy();
+        jsonFlattener.flatten(reader, currentValue);
+        currentJson = copyingReader.endCopy();
+        return true;
+    }
+    
     @Override
     public boolean nextKeyValue() throws IOException {
         
         event.clear();
         currentKey.set(pos);
-        currentValue.clear();
         counter++;
         
+        if (streaming) {
+            // the fields are handed on with the event, so each event gets its own map
+            currentValue = HashMultimap.create();
+            if (nextStreamingValue()) {
+                pos = countingInputStream.getCount();
+                return true;
+            }
+            currentJson = null;
+            return false;
+        }
+        
+        currentValue.clear();
+        
         if (!jsonIterator.hasNext()) {
             /*
              * Note that for streaming purposes we support files containing multiple distinct json objects concatenated together, where each object will
@@ -228,7 +290,13 @@ public class JsonRecordReader extends AbstractEventRecordReader<BytesWritable> {
         
         decorateEvent();
         
-        event.setRawData(currentJsonObj.toString().getBytes());
+        if (streaming) {
+            event.setRawData(currentJson.getBytes());
+            // Reused by the JsonIngestHelper, which flattens with the same configuration
+            event.setAuxData(currentValue);
+        } else {
+            event.setRawData(currentJsonObj.toString().getBytes());
+        }
         
         if (0 == event.getDate()) {
             event.setDate(System.currentTimeMillis());
@@ -2,7 +2,9 @@ package datawave.ingest.json.util;
 
 import com.google.common.collect.Multimap;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 
+import java.io.IOException;
 import java.util.Set;
 
 /**
@@ -97,6 +99,25 @@ public interface JsonObjectFlattener {
      */
     void flatten(JsonObject object, Multimap<String,String> map) throws IllegalStateException, NullPointerException;
     
+    /**
+     * Flattens the next json object from the specified reader in a single pass over its tokens, without building a {@link JsonObject}. The result is the same
+     * as {@link #flatten(JsonObject, Multimap)} for the same json, except that a property name repeated within an object keeps all of its values, rather than
+     * only the last
+     *
+     * @param reader
+     *            {@link JsonReader} positioned at the start of the json object to flatten
+     * @param map
+     *            {@link com.google.common.collect.Multimap} instance to receive the flattened keys and associated values
+     * @throws IOException
+     *             if the json could not be read
+     * @throws IllegalStateException
+     *             if the next value is not a json object, or if {@link FlattenMode#GROUPED} is used and {@link Builder#pathDelimiter} is found to exist already
+     *             within a json property name
+     * @throws NullPointerException
+     *             if map is null
+     */
+    void flatten(JsonReader reader, Multimap<String,String> map) throws IOException, IllegalStateException, NullPointerException;
+    
     /**
      * <p>
      * Allows clients to specify custom normalization behavior per their needs to affect the final presentation of flattened keys and their values to the
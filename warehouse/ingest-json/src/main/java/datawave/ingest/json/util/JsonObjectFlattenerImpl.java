@@ -7,7 +7,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -100,6 +103,20 @@ public class JsonObjectFlattenerImpl implements JsonObjectFlattener {
         addKeysToMap("", object, map, occurrenceCounts);
     }
     
+    @Override
+    public void flatten(JsonReader reader, Multimap<String,String> map) throws IOException, IllegalStateException, NullPointerException {
+        Preconditions.checkNotNull(map, "'map' argument cannot be null");
+        JsonToken token = reader.peek();
+        if (token != JsonToken.BEGIN_OBJECT) {
+            throw new IllegalStateException("Expected a json object but was " + token);
+        }
+        Map<String,Integer> occurrenceCounts = null;
+        if (this.flattenMode == FlattenMode.GROUPED || this.flattenMode == FlattenMode.GROUPED_AND_NORMAL) {
+            occurrenceCounts = new HashMap<>();
+        }
+        addKeysToMap("", reader, map, occurrenceCounts);
+    }
+    
     @Override
     public FlattenMode getFlattenMode() {
         return this.flattenMode;
@@ -160,6 +177,102 @@ public class JsonObjectFlattenerImpl implements JsonObjectFlattener {
         }
     }
     
+    /**
+     * Streaming counterpart of {@link #addKeysToMap(String, JsonElement, Multimap, Map)}, which consumes the next value from the reader
+     */
+    protected void addKeysToMap(String currentPath, JsonReader reader, Multimap<String,String> map, Map<String,Integer> occurrenceCounts) throws IOException {
+        
+        switch (reader.peek()) {
+            case NULL:
+                // Don't add nulls
+                reader.nextNull();
+                break;
+            
+            case BEGIN_OBJECT:
+                switch (this.flattenMode) {
+                    case SIMPLE:
+                        if (!currentPath.isEmpty()) {
+                            // No recursion in simple mode
+                            consumeValue(reader);
+                            return;
+                        }
+                        break;
+                    case GROUPED:
+                    case GROUPED_AND_NORMAL:
+                        if (!currentPath.isEmpty()) {
+                            // Append occurrence delimiter + ordinal suffix
+                            currentPath = currentPath + this.occurrenceDelimiter + incrementCount(currentPath, occurrenceCounts);
+                        }
+                        break;
+                }
+                
+                String pathPrefix = currentPath.isEmpty() ? currentPath : currentPath + this.pathDelimiter;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    addKeysToMap(pathPrefix + this.nameNormalizer.normalizeElementName(reader.nextName(), currentPath), reader, map, occurrenceCounts);
+                }
+                reader.endObject();
+                break;
+            
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                for (int i = 0; reader.hasNext(); i++) {
+                    JsonToken token = reader.peek();
+                    if (token == JsonToken.STRING || token == JsonToken.NUMBER || token == JsonToken.BOOLEAN) {
+                        mapPut(currentPath, nextPrimitive(reader), map, occurrenceCounts);
+                    } else if (this.addArrayIndexToFieldName) {
+                        addKeysToMap(currentPath + this.pathDelimiter + i, reader, map, occurrenceCounts);
+                    } else {
+                        addKeysToMap(currentPath, reader, map, occurrenceCounts);
+                    }
+                }
+                reader.endArray();
+                break;
+            
+            default:
+                mapPut(currentPath, nextPrimitive(reader), map, occurrenceCounts);
+        }
+    }
+    
+    /**
+     * @return the next primitive value from the reader, as {@link JsonPrimitive#getAsString()} would present it
+     */
+    private static String nextPrimitive(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.BOOLEAN) {
+            return Boolean.toString(reader.nextBoolean());
+        }
+        // numbers are returned as they appear in the json
+        return reader.nextString();
+    }
+    
+    /**
+     * Reads past the next value token by token, rather than with {@link JsonReader#skipValue()}, so that a reader that observes its tokens sees all of them
+     */
+    protected static void consumeValue(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    reader.nextName();
+                    consumeValue(reader);
+                }
+                reader.endObject();
+                break;
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    consumeValue(reader);
+                }
+                reader.endArray();
+                break;
+            case NULL:
+                reader.nextNull();
+                break;
+            default:
+                nextPrimitive(reader);
+        }
+    }
+    
     protected String defaultNormalizeJsonElementName(String name) {
         switch (this.flattenMode) {
             case GROUPED:
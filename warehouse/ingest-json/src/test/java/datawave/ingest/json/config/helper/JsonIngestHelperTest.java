@@ -177,6 +177,35 @@ public class JsonIngestHelperTest {
         reader.close();
     }
     
+    @Test
+    public void testGetEventFieldsStreaming() throws Exception {
+        for (FlattenMode mode : FlattenMode.values()) {
+            JsonIngestHelper expectedHelper = init(initConfig(mode));
+            Configuration conf = initConfig(mode);
+            conf.setBoolean("myjson.data.json.flattener.streaming", true);
+            JsonIngestHelper ingestHelper = init(conf);
+            
+            RawRecordContainer event = new RawRecordContainerImpl();
+            event.setDate((new Date()).getTime());
+            event.setRawData(testRecord);
+            event.generateId(null);
+            
+            Assert.assertEquals(mode.name(), expectedHelper.getEventFields(event), ingestHelper.getEventFields(event));
+            
+            // The streaming record reader hands its fields on with the event, which the helper reuses
+            JsonRecordReader reader = initReader(false, conf);
+            reader.setInputDate(System.currentTimeMillis());
+            while (reader.nextKeyValue()) {
+                event = reader.getEvent();
+                Assert.assertSame(reader.getCurrentFields(), event.getAuxData());
+                Multimap<String,NormalizedContentInterface> fieldMap = ingestHelper.getEventFields(event);
+                event.setAuxData(null);
+                Assert.assertEquals(mode.name(), expectedHelper.getEventFields(event), fieldMap);
+            }
+            reader.close();
+        }
+    }
+    
     protected Configuration initConfig(FlattenMode mode) {
         Configuration conf = new Configuration();
         conf.addResource(ClassLoader.getSystemResource("config/ingest/all-config.xml"));
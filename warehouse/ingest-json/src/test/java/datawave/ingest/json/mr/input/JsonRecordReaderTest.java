@@ -22,6 +22,10 @@ import org.junit.Test;
 public class JsonRecordReaderTest {
     
     protected JsonRecordReader init(boolean parseHeaderOnly, FlattenMode mode) throws Exception {
+        return init(parseHeaderOnly, mode, false);
+    }
+    
+    protected JsonRecordReader init(boolean parseHeaderOnly, FlattenMode mode, boolean streaming) throws Exception {
         
         Configuration conf = null;
         TaskAttemptContext ctx = null;
@@ -34,6 +38,7 @@ public class JsonRecordReaderTest {
         
         conf.set("myjson.data.json.flattener.mode", mode.name());
         conf.set("myjson.data.process.extra.fields", String.valueOf(!parseHeaderOnly));
+        conf.setBoolean("myjson.data.json.flattener.streaming", streaming);
         
         URL data = JsonRecordReaderTest.class.getResource("/input/my.json");
         Assert.assertNotNull(data);
@@ -116,6 +121,36 @@ public class JsonRecordReaderTest {
         reader.close();
     }
     
+    @Test
+    public void testStreamingMatchesTree() throws Exception {
+        for (FlattenMode mode : FlattenMode.values()) {
+            for (boolean parseHeaderOnly : new boolean[] {true, false}) {
+                JsonRecordReader expected = init(parseHeaderOnly, mode, false);
+                expected.setInputDate(System.currentTimeMillis());
+                JsonRecordReader reader = init(parseHeaderOnly, mode, true);
+                reader.setInputDate(System.currentTimeMillis());
+                
+                int records = 0;
+                while (expected.nextKeyValue()) {
+                    Assert.assertTrue(reader.nextKeyValue());
+                    Assert.assertEquals(expected.getCurrentValue(), reader.getCurrentValue());
+                    Assert.assertEquals(expected.getCurrentFields(), reader.getCurrentFields());
+                    
+                    RawRecordContainer event = reader.getEvent();
+                    Assert.assertArrayEquals(expected.getEvent().getRawData(), event.getRawData());
+                    // the flattened fields are handed on with the event
+                    Assert.assertSame(reader.getCurrentFields(), event.getAuxData());
+                    records++;
+                }
+                Assert.assertFalse(reader.nextKeyValue());
+                Assert.assertEquals(5, records);
+                
+                expected.close();
+                reader.close();
+            }
+        }
+    }
+    
     @Test
     public void testGetAllRecordsSIMPLE() throws Exception {
         
@@ -1,15 +1,19 @@
 package datawave.ingest.json.util;
 
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.TreeMultimap;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Files;
@@ -266,6 +270,51 @@ public class JsonObjectFlattenerImplTest {
         }
     }
     
+    @Test
+    public void testStreamingMatchesTree() throws Exception {
+        for (FlattenMode mode : FlattenMode.values()) {
+            for (boolean addArrayIndex : new boolean[] {true, false}) {
+                JsonObjectFlattener flattener = new JsonObjectFlattenerImpl.Builder().flattenMode(mode).occurrenceInGroupDelimiter("#")
+                                .addArrayIndexToFieldName(addArrayIndex).build();
+                
+                Multimap<String,String> expected = flattener.flatten(new JsonParser().parse(json).getAsJsonObject());
+                
+                Multimap<String,String> fieldMap = HashMultimap.create();
+                JsonReader reader = new JsonReader(new StringReader(json));
+                reader.setLenient(true);
+                flattener.flatten(reader, fieldMap);
+                
+                Assert.assertEquals(mode + ", addArrayIndexToFieldName=" + addArrayIndex, expected, fieldMap);
+                Assert.assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+            }
+        }
+    }
+    
+    @Test
+    public void testStreamingConcatenatedObjects() throws Exception {
+        JsonObjectFlattener flattener = new JsonObjectFlattenerImpl.Builder().mapKeyValueNormalizer(noOpNormalizer).build();
+        JsonReader reader = new JsonReader(new StringReader("{\"a\": {\"b\": [1, 2.50, null]}, \"c\": true}{\"a\": null, \"d\": \"x\"}"));
+        reader.setLenient(true);
+        
+        Multimap<String,String> fieldMap = HashMultimap.create();
+        flattener.flatten(reader, fieldMap);
+        Assert.assertEquals(3, fieldMap.size());
+        Assert.assertTrue(fieldMap.containsEntry("a.b", "2.50"));
+        Assert.assertTrue(fieldMap.containsEntry("c", "true"));
+        
+        fieldMap.clear();
+        flattener.flatten(reader, fieldMap);
+        Assert.assertEquals(1, fieldMap.size());
+        Assert.assertTrue(fieldMap.containsEntry("d", "x"));
+        Assert.assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void testStreamingGroupingContextWithBadJson() throws Exception {
+        JsonObjectFlattener flattener = new JsonObjectFlattenerImpl.Builder().flattenMode(FlattenMode.GROUPED).occurrenceInGroupDelimiter("#").build();
+        flattener.flatten(new JsonReader(new StringReader("{\"illegal.key.format\": \"value\"}")), HashMultimap.create());
+    }
+    
     private void printMap(Multimap<String,String> fieldMap) {
         TreeMultimap<String,String> sorted = TreeMultimap.create(fieldMap);
         for (String key : sorted.keySet()) {
@@ -28,6 +28,10 @@ import org.apache.accumulo.core.data.Value;
  * </pre>
  * <p>
  * 
+ * Besides the start and end times, the counters file carries the time in ms each directory spent in the MapFileLoader.PrepareTimes,
+ * MapFileLoader.ImportTimes and MapFileLoader.CleanupTimes stages, and the time each table spent waiting on major compactions in MapFileLoader.ThrottleTimes.
+ * <p>
+ * 
  * Because there is no actual tag for the data, there does not need to be a Structure convenience class that standardizes the strings used to organize data.
  * 
  */
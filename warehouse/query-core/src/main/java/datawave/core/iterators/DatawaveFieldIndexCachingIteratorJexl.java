@@ -15,6 +15,7 @@ import datawave.query.iterator.profile.QuerySpanCollector;
 import datawave.query.iterator.profile.SourceTrackingIterator;
 import datawave.query.predicate.TimeFilter;
 import datawave.query.util.TypeMetadata;
+import datawave.query.util.sortedset.ConcurrentBufferedSortedSet;
 import datawave.query.util.sortedset.FileKeySortedSet;
 import datawave.query.util.sortedset.FileSortedSet;
 import datawave.query.util.sortedset.HdfsBackedSortedSet;
@@ -1263,7 +1264,7 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
             
             this.set = new HdfsBackedSortedSet<>(null, hdfsBackedSetBufferSize, ivaratorCacheDirs, row, maxOpenFiles, numRetries, persistOptions,
                             new FileKeySortedSet.Factory());
-            this.threadSafeSet = Collections.synchronizedSortedSet(this.set);
+            this.threadSafeSet = new ConcurrentBufferedSortedSet<>(this.set);
             this.currentRow = row;
             this.setControl.takeOwnership(row, this);
             
@@ -1395,6 +1396,10 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
      * @throws IOException
      */
     protected void forcePersistence() throws IOException {
+        // move any entries still buffered by the fill threads into the set
+        if (this.set != null && this.threadSafeSet instanceof ConcurrentBufferedSortedSet) {
+            ((ConcurrentBufferedSortedSet<Key>) this.threadSafeSet).flush();
+        }
         if (this.set != null && !this.set.isPersisted()) {
             this.set.persist();
             // declare the persisted set complete
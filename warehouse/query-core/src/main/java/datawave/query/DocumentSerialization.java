@@ -10,6 +10,7 @@ import java.util.zip.DeflaterOutputStream;
 import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
 
+import datawave.query.attributes.AttributeTypeRegistry;
 import datawave.query.function.deserializer.DocumentDeserializer;
 import datawave.query.function.serializer.KryoDocumentSerializer;
 import datawave.query.exceptions.InvalidDocumentHeader;
@@ -43,6 +44,13 @@ public class DocumentSerialization {
     
     public static final int ZLIB_NUMBER = 2;
     
+    /**
+     * The compression scheme is held in the low bits of the third header byte, and the version of the {@link AttributeTypeRegistry} used to write the
+     * attribute types in the high bits. Version 0 (class names) leaves the header exactly as it was before the registry was introduced.
+     */
+    private static final int COMPRESSION_MASK = 0x0f;
+    private static final int REGISTRY_VERSION_SHIFT = 4;
+    
     /**
      * If a user-supplied ReturnType is specified, use it; otherwise, use the default ReturnType of {@link #DEFAULT_RETURN_TYPE}
      *
@@ -93,10 +101,14 @@ public class DocumentSerialization {
     }
     
     public static byte[] getHeader(int compression) {
+        return getHeader(compression, AttributeTypeRegistry.CLASS_NAMES);
+    }
+    
+    public static byte[] getHeader(int compression, int registryVersion) {
         
         return new byte[] {(byte) DOC_MAGIC, // Magic number (short)
                 (byte) (DOC_MAGIC >> 8), // Magic number (short)
-                (byte) compression};
+                (byte) ((registryVersion << REGISTRY_VERSION_SHIFT) | compression)};
     }
     
     public static byte[] writeBody(byte[] data, int compression) throws InvalidDocumentHeader {
@@ -122,6 +134,34 @@ public class DocumentSerialization {
     }
     
     public static InputStream consumeHeader(byte[] data) throws InvalidDocumentHeader {
+        int compression = readHeaderByte(data) & COMPRESSION_MASK;
+        
+        if (NONE == compression) {
+            return new ByteArrayInputStream(data, 3, data.length - 3);
+        } else if (GZIP == compression) {
+            ByteArrayInputStream bytes = new ByteArrayInputStream(data, 3, data.length - 3);
+            return new InflaterInputStream(bytes, new Inflater(), 1024);
+        } else {
+            BadRequestQueryException qe = new BadRequestQueryException(DatawaveErrorCode.UNKNOWN_COMPRESSION_SCHEME, MessageFormat.format("{0}", compression));
+            throw new InvalidDocumentHeader(qe);
+        }
+    }
+    
+    /**
+     * Get the version of the {@link AttributeTypeRegistry} that the attribute types of a serialized document were written with
+     *
+     * @param data
+     * @return the registry version
+     * @throws InvalidDocumentHeader
+     */
+    public static int getRegistryVersion(byte[] data) throws InvalidDocumentHeader {
+        return readHeaderByte(data) >>> REGISTRY_VERSION_SHIFT;
+    }
+    
+    /*
+     * Validates the magic number and returns the compression and registry version byte.
+     */
+    private static int readHeaderByte(byte[] data) throws InvalidDocumentHeader {
         if (null == data || 3 > data.length) {
             QueryException qe = new QueryException(DatawaveErrorCode.DATA_INVALID_ERROR, MessageFormat.format("Length: {0}",
                             (null != data ? data.length : null)));
@@ -136,17 +176,7 @@ public class DocumentSerialization {
             throw new InvalidDocumentHeader(qe);
         }
         
-        int compression = readUByte(bais);
-        
-        if (NONE == compression) {
-            return new ByteArrayInputStream(data, 3, data.length - 3);
-        } else if (GZIP == compression) {
-            ByteArrayInputStream bytes = new ByteArrayInputStream(data, 3, data.length - 3);
-            return new InflaterInputStream(bytes, new Inflater(), 1024);
-        } else {
-            BadRequestQueryException qe = new BadRequestQueryException(DatawaveErrorCode.UNKNOWN_COMPRESSION_SCHEME, MessageFormat.format("{0}", compression));
-            throw new InvalidDocumentHeader(qe);
-        }
+        return readUByte(bais);
     }
     
     /*
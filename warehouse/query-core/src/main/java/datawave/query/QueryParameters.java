@@ -140,6 +140,10 @@ public class QueryParameters {
     
     public static final String GROUP_FIELDS = "group.fields";
     public static final String GROUP_FIELDS_BATCH_SIZE = "group.fields.batch.size";
+    /**
+     * Used to request that partial group counts be computed per tablet on the tservers
+     */
+    public static final String GROUP_FIELDS_PUSHDOWN = "group.fields.pushdown";
     public static final String UNIQUE_FIELDS = "unique.fields";
     /**
      * Used to cause Documents to contain a list of selectors that hit;
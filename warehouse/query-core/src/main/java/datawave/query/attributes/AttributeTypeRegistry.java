@@ -0,0 +1,290 @@
+package datawave.query.attributes;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.apache.hadoop.io.WritableUtils;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Identifies the concrete type of each attribute written by {@link Document#write(DataOutput, boolean, AttributeTypeRegistry)} and
+ * {@link Attributes#write(DataOutput, boolean, AttributeTypeRegistry)}, or by their Kryo equivalents.
+ * <p>
+ * Version {@link #CLASS_NAMES} is the original format, in which the fully qualified class name of every attribute is written. Later versions write the built-in
+ * attribute types as a small varint id, falling back to the class name (preceded by an id of 0) for any other type. Reading an id does not require any
+ * reflection.
+ * <p>
+ * Ids are assigned by position in {@link #TYPES} and must never be changed. New types are appended to the end of the list along with a new version, so that a
+ * reader can always interpret the ids written with any version up to its {@link #LATEST_VERSION}. The version is carried in the document header (see
+ * {@link datawave.query.DocumentSerialization}).
+ */
+public class AttributeTypeRegistry {
+    
+    public static final int CLASS_NAMES = 0;
+    public static final int VERSION_1 = 1;
+    public static final int LATEST_VERSION = VERSION_1;
+    
+    private static final int CLASS_NAME_ID = 0;
+    
+    private static class TypeEntry {
+        private final Class<?> clazz;
+        private final Supplier<Attribute<?>> supplier;
+        
+        private TypeEntry(Class<?> clazz, Supplier<Attribute<?>> supplier) {
+            this.clazz = clazz;
+            this.supplier = supplier;
+        }
+    }
+    
+    // append only, the id of a type is its position in this array plus one
+    private static final TypeEntry[] TYPES = {new TypeEntry(Document.class, Document::new), new TypeEntry(Attributes.class, Attributes::new),
+            new TypeEntry(Content.class, Content::new), new TypeEntry(Numeric.class, Numeric::new), new TypeEntry(DateContent.class, DateContent::new),
+            new TypeEntry(TypeAttribute.class, TypeAttribute::new), new TypeEntry(Cardinality.class, Cardinality::new),
+            new TypeEntry(DiacriticContent.class, DiacriticContent::new), new TypeEntry(DocumentKey.class, DocumentKey::new),
+            new TypeEntry(GeoPoint.class, GeoPoint::new), new TypeEntry(Geometry.class, Geometry::new), new TypeEntry(IpAddress.class, IpAddress::new),
+            new TypeEntry(Latitude.class, Latitude::new), new TypeEntry(Longitude.class, Longitude::new),
+            new TypeEntry(PreNormalizedAttribute.class, PreNormalizedAttribute::new), new TypeEntry(Metadata.class, Metadata::new),
+            new TypeEntry(TimingMetadata.class, TimingMetadata::new)};
+    
+    // the number of types known to each version
+    private static final int[] NUM_TYPES = {0, 17};
+    
+    private static final AttributeTypeRegistry[] REGISTRIES = new AttributeTypeRegistry[LATEST_VERSION + 1];
+    static {
+        for (int version = CLASS_NAMES; version <= LATEST_VERSION; version++) {
+            REGISTRIES[version] = new AttributeTypeRegistry(version);
+        }
+    }
+    
+    private final int version;
+    private final Map<Class<?>,Integer> ids = new HashMap<>();
+    
+    private AttributeTypeRegistry(int version) {
+        this.version = version;
+        for (int i = 0; i < NUM_TYPES[version]; i++) {
+            ids.put(TYPES[i].clazz, i + 1);
+        }
+    }
+    
+    /**
+     * Get the registry for a version
+     *
+     * @param version
+     * @return the registry
+     * @throws IllegalArgumentException
+     *             if the version is not known
+     */
+    public static AttributeTypeRegistry getRegistry(int version) {
+        if (version < CLASS_NAMES || version > LATEST_VERSION) {
+            throw new IllegalArgumentException("Unknown attribute type registry version " + version + ", latest is " + LATEST_VERSION);
+        }
+        return REGISTRIES[version];
+    }
+    
+    /**
+     * Get the version to write given the version requested by the reader, which may be newer than this one
+     *
+     * @param requestedVersion
+     * @return the latest version supported by both
+     */
+    public static int negotiateVersion(int requestedVersion) {
+        return Math.max(CLASS_NAMES, Math.min(requestedVersion, LATEST_VERSION));
+    }
+    
+    public int getVersion() {
+        return version;
+    }
+    
+    /**
+     * Write the type of an attribute
+     *
+     * @param out
+     * @param attribute
+     * @throws IOException
+     */
+    public void writeType(DataOutput out, Attribute<?> attribute) throws IOException {
+        if (version == CLASS_NAMES) {
+            WritableUtils.writeString(out, attribute.getClass().getName());
+        } else {
+            Integer id = ids.get(attribute.getClass());
+            if (id != null) {
+                WritableUtils.writeVInt(out, id);
+            } else {
+                WritableUtils.writeVInt(out, CLASS_NAME_ID);
+                WritableUtils.writeString(out, attribute.getClass().getName());
+            }
+        }
+    }
+    
+    /**
+     * Read the type of an attribute, as written by {@link #writeType(DataOutput, Attribute)}, and create an empty instance of it
+     *
+     * @param in
+     * @return a new attribute which has not been read
+     * @throws IOException
+     */
+    public Attribute<?> readType(DataInput in) throws IOException {
+        if (version == CLASS_NAMES) {
+            return newInstance(WritableUtils.readString(in));
+        }
+        int id = WritableUtils.readVInt(in);
+        if (id == CLASS_NAME_ID) {
+            return newInstance(WritableUtils.readString(in));
+        }
+        if (id < 0 || id > NUM_TYPES[version]) {
+            throw new IOException("Unknown attribute type id " + id + " for attribute type registry version " + version);
+        }
+        return TYPES[id - 1].supplier.get();
+    }
+    
+    /**
+     * Write an attribute preceded by its type. Nested documents and attributes use this registry as well.
+     *
+     * @param out
+     * @param attribute
+     * @param reducedResponse
+     * @throws IOException
+     */
+    public void write(DataOutput out, Attribute<?> attribute, boolean reducedResponse) throws IOException {
+        writeType(out, attribute);
+        if (attribute instanceof Document) {
+            ((Document) attribute).write(out, reducedResponse, this);
+        } else if (attribute instanceof Attributes) {
+            ((Attributes) attribute).write(out, reducedResponse, this);
+        } else {
+            attribute.write(out, reducedResponse);
+        }
+    }
+    
+    /**
+     * Read an attribute written by {@link #write(DataOutput, Attribute, boolean)}
+     *
+     * @param in
+     * @return the attribute
+     * @throws IOException
+     */
+    public Attribute<?> read(DataInput in) throws IOException {
+        Attribute<?> attribute = readType(in);
+        if (attribute instanceof Document) {
+            ((Document) attribute).readFields(in, this);
+        } else if (attribute instanceof Attributes) {
+            ((Attributes) attribute).readFields(in, this);
+        } else {
+            attribute.readFields(in);
+        }
+        return attribute;
+    }
+    
+    /**
+     * Write the type of an attribute using Kryo
+     *
+     * @param output
+     * @param attribute
+     */
+    public void writeType(Output output, Attribute<?> attribute) {
+        if (version == CLASS_NAMES) {
+            output.writeString(attribute.getClass().getName());
+        } else {
+            Integer id = ids.get(attribute.getClass());
+            if (id != null) {
+                output.writeInt(id, true);
+            } else {
+                output.writeInt(CLASS_NAME_ID, true);
+                output.writeString(attribute.getClass().getName());
+            }
+        }
+    }
+    
+    /**
+     * Read the type of an attribute, as written by {@link #writeType(Output, Attribute)}, and create an empty instance of it
+     *
+     * @param input
+     * @return a new attribute which has not been read
+     */
+    public Attribute<?> readType(Input input) {
+        if (version != CLASS_NAMES) {
+            int id = input.readInt(true);
+            if (id != CLASS_NAME_ID) {
+                if (id < 0 || id > NUM_TYPES[version]) {
+                    throw new KryoException("Unknown attribute type id " + id + " for attribute type registry version " + version);
+                }
+                return TYPES[id - 1].supplier.get();
+            }
+        }
+        
+        try {
+            return newInstance(input.readString());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    /**
+     * Write an attribute preceded by its type using Kryo. Nested documents and attributes use this registry as well.
+     *
+     * @param kryo
+     * @param output
+     * @param attribute
+     * @param reducedResponse
+     */
+    public void write(Kryo kryo, Output output, Attribute<?> attribute, Boolean reducedResponse) {
+        writeType(output, attribute);
+        if (attribute instanceof Document) {
+            ((Document) attribute).write(kryo, output, reducedResponse, this);
+        } else if (attribute instanceof Attributes) {
+            ((Attributes) attribute).write(kryo, output, reducedResponse, this);
+        } else {
+            attribute.write(kryo, output, reducedResponse);
+        }
+    }
+    
+    /**
+     * Read an attribute written by {@link #write(Kryo, Output, Attribute, Boolean)}
+     *
+     * @param kryo
+     * @param input
+     * @return the attribute
+     */
+    public Attribute<?> read(Kryo kryo, Input input) {
+        Attribute<?> attribute = readType(input);
+        if (attribute instanceof Document) {
+            ((Document) attribute).read(kryo, input, this);
+        } else if (attribute instanceof Attributes) {
+            ((Attributes) attribute).read(kryo, input, this);
+        } else {
+            attribute.read(kryo, input);
+        }
+        return attribute;
+    }
+    
+    private static Attribute<?> newInstance(String attrClassName) throws IOException {
+        Class<?> clz;
+        
+        // Get the Class for the name of the class of the concrete Attribute
+        try {
+            clz = Class.forName(attrClassName);
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+        
+        // Assert that Attribute is a super class of this Class
+        if (!Attribute.class.isAssignableFrom(clz)) {
+            throw new ClassCastException("Found class that was not an instance of Attribute");
+        }
+        
+        // Get an instance of the concrete Attribute
+        try {
+            return (Attribute<?>) clz.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -115,51 +115,49 @@ public class Attributes extends AttributeBag<Attributes> implements Serializable
     
     @Override
     public void write(DataOutput out, boolean reducedResponse) throws IOException {
+        write(out, reducedResponse, AttributeTypeRegistry.getRegistry(AttributeTypeRegistry.CLASS_NAMES));
+    }
+    
+    /**
+     * Write these attributes, identifying the concrete type of each Attribute using the supplied registry
+     *
+     * @param out
+     * @param reducedResponse
+     * @param registry
+     * @throws IOException
+     */
+    public void write(DataOutput out, boolean reducedResponse, AttributeTypeRegistry registry) throws IOException {
         WritableUtils.writeVInt(out, _count);
         out.writeBoolean(trackSizes);
         // Write out the number of Attributes we're going to store
         WritableUtils.writeVInt(out, this.attributes.size());
         
         for (Attribute<? extends Comparable<?>> attr : this.attributes) {
-            // Write out the concrete Attribute class
-            WritableUtils.writeString(out, attr.getClass().getName());
-            
-            // Defer to the concrete instance to write() itself
-            attr.write(out, reducedResponse);
+            // Write out the concrete Attribute type and defer to the concrete instance to write() itself
+            registry.write(out, attr, reducedResponse);
         }
     }
     
     @Override
     public void readFields(DataInput in) throws IOException {
+        readFields(in, AttributeTypeRegistry.getRegistry(AttributeTypeRegistry.CLASS_NAMES));
+    }
+    
+    /**
+     * Read attributes written by {@link #write(DataOutput, boolean, AttributeTypeRegistry)} with the same registry version
+     *
+     * @param in
+     * @param registry
+     * @throws IOException
+     */
+    public void readFields(DataInput in, AttributeTypeRegistry registry) throws IOException {
         this._count = WritableUtils.readVInt(in);
         this.trackSizes = in.readBoolean();
         int numAttrs = WritableUtils.readVInt(in);
         this.attributes = new LinkedHashSet<>();
         for (int i = 0; i < numAttrs; i++) {
-            String attrClassName = WritableUtils.readString(in);
-            Class<?> clz;
-            
-            // Get the name of the concrete Attribute
-            try {
-                clz = Class.forName(attrClassName);
-            } catch (ClassNotFoundException e) {
-                throw new IOException(e);
-            }
-            
-            if (!Attribute.class.isAssignableFrom(clz)) {
-                throw new ClassCastException("Found class that was not an instance of Attribute");
-            }
-            
-            // Get the Class for the name of the class of the concrete Attribute
-            Attribute<?> attr;
-            try {
-                attr = (Attribute<?>) clz.newInstance();
-            } catch (InstantiationException | IllegalAccessException e) {
-                throw new IOException(e);
-            }
-            
-            // Reload the attribute
-            attr.readFields(in);
+            // Get an instance of the concrete Attribute and reload it
+            Attribute<?> attr = registry.read(in);
             
             // Add the attribute back to the Set
             this.attributes.add(attr);
@@ -288,53 +286,50 @@ public class Attributes extends AttributeBag<Attributes> implements Serializable
     
     @Override
     public void write(Kryo kryo, Output output, Boolean reducedResponse) {
+        write(kryo, output, reducedResponse, AttributeTypeRegistry.getRegistry(AttributeTypeRegistry.CLASS_NAMES));
+    }
+    
+    /**
+     * Write these attributes with Kryo, identifying the concrete type of each Attribute using the supplied registry
+     *
+     * @param kryo
+     * @param output
+     * @param reducedResponse
+     * @param registry
+     */
+    public void write(Kryo kryo, Output output, Boolean reducedResponse, AttributeTypeRegistry registry) {
         output.writeInt(this._count, true);
         output.writeBoolean(this.trackSizes);
         // Write out the number of Attributes we're going to store
         output.writeInt(this.attributes.size(), true);
         
         for (Attribute<? extends Comparable<?>> attr : this.attributes) {
-            // Write out the concrete Attribute class
-            output.writeString(attr.getClass().getName());
-            
-            // Defer to the concrete instance to write() itself
-            attr.write(kryo, output, reducedResponse);
+            // Write out the concrete Attribute type and defer to the concrete instance to write() itself
+            registry.write(kryo, output, attr, reducedResponse);
         }
     }
     
     @Override
     public void read(Kryo kryo, Input input) {
+        read(kryo, input, AttributeTypeRegistry.getRegistry(AttributeTypeRegistry.CLASS_NAMES));
+    }
+    
+    /**
+     * Read attributes written by {@link #write(Kryo, Output, Boolean, AttributeTypeRegistry)} with the same registry version
+     *
+     * @param kryo
+     * @param input
+     * @param registry
+     */
+    public void read(Kryo kryo, Input input, AttributeTypeRegistry registry) {
         this._count = input.readInt(true);
         this.trackSizes = input.readBoolean();
         int numAttrs = input.readInt(true);
         
         this.attributes = new LinkedHashSet<>();
         for (int i = 0; i < numAttrs; i++) {
-            String attrClassName = input.readString();
-            Class<?> clz;
-            
-            // Get the name of the concrete Attribute
-            try {
-                clz = Class.forName(attrClassName);
-            } catch (ClassNotFoundException e) {
-                log.error("could not find class for \"" + attrClassName + "\"");
-                throw new RuntimeException(e);
-            }
-            
-            if (!Attribute.class.isAssignableFrom(clz)) {
-                throw new ClassCastException("Found class that was not an instance of Attribute");
-            }
-            
-            // Get the Class for the name of the class of the concrete Attribute
-            Attribute<?> attr;
-            try {
-                attr = (Attribute<?>) clz.newInstance();
-            } catch (InstantiationException | IllegalAccessException e) {
-                throw new RuntimeException(e);
-            }
-            
-            // Reload the attribute
-            attr.read(kryo, input);
+            // Get an instance of the concrete Attribute and reload it
+            Attribute<?> attr = registry.read(kryo, input);
             
             // Add the attribute back to the Set
             this.attributes.add(attr);
@@ -523,6 +523,18 @@ public class Document extends AttributeBag<Document> implements Serializable {
     
     @Override
     public void write(DataOutput out, boolean reducedResponse) throws IOException {
+        write(out, reducedResponse, AttributeTypeRegistry.getRegistry(AttributeTypeRegistry.CLASS_NAMES));
+    }
+    
+    /**
+     * Write this document, identifying the concrete type of each Attribute using the supplied registry
+     *
+     * @param out
+     * @param reducedResponse
+     * @param registry
+     * @throws IOException
+     */
+    public void write(DataOutput out, boolean reducedResponse, AttributeTypeRegistry registry) throws IOException {
         WritableUtils.writeVInt(out, _count);
         out.writeBoolean(trackSizes);
         WritableUtils.writeVLong(out, _bytes);
@@ -534,11 +546,8 @@ public class Document extends AttributeBag<Document> implements Serializable {
             // Write out the field name
             WritableUtils.writeString(out, entry.getKey());
             
-            // Write out the concrete Attribute class
-            WritableUtils.writeString(out, entry.getValue().getClass().getName());
-            
-            // Defer to the concrete instance to write() itself
-            entry.getValue().write(out);
+            // Write out the concrete Attribute type and defer to the concrete instance to write() itself
+            registry.write(out, entry.getValue(), false);
         }
         
         WritableUtils.writeVLong(out, shardTimestamp);
@@ -546,6 +555,17 @@ public class Document extends AttributeBag<Document> implements Serializable {
     
     @Override
     public void readFields(DataInput in) throws IOException {
+        readFields(in, AttributeTypeRegistry.getRegistry(AttributeTypeRegistry.CLASS_NAMES));
+    }
+    
+    /**
+     * Read a document written by {@link #write(DataOutput, boolean, AttributeTypeRegistry)} with the same registry version
+     *
+     * @param in
+     * @param registry
+     * @throws IOException
+     */
+    public void readFields(DataInput in, AttributeTypeRegistry registry) throws IOException {
         this._count = WritableUtils.readVInt(in);
         this.trackSizes = in.readBoolean();
         this._bytes = WritableUtils.readVLong(in);
@@ -558,32 +578,8 @@ public class Document extends AttributeBag<Document> implements Serializable {
             // Get the fieldName
             String fieldName = WritableUtils.readString(in);
             
-            // Get the class name for the concrete Attribute
-            String attrClassName = WritableUtils.readString(in);
-            Class<?> clz;
-            
-            // Get the Class for the name of the class of the concrete Attribute
-            try {
-                clz = Class.forName(attrClassName);
-            } catch (ClassNotFoundException e) {
-                throw new IOException(e);
-            }
-            
-            // Assert that Attribute is a super class of this Class
-            if (!Attribute.class.isAssignableFrom(clz)) {
-                throw new ClassCastException("Found class that was not an instance of Attribute");
-            }
-            
-            // Get an instance of the concrete Attribute
-            Attribute<?> attr;
-            try {
-                attr = (Attribute<?>) clz.newInstance();
-            } catch (InstantiationException | IllegalAccessException e) {
-                throw new IOException(e);
-            }
-            
-            // Reload the attribute
-            attr.readFields(in);
+            // Get an instance of the concrete Attribute and reload it
+            Attribute<?> attr = registry.read(in);
             
             // Add the attribute back to the Map
             this.dict.put(fieldName, attr);
@@ -756,6 +752,18 @@ public class Document extends AttributeBag<Document> implements Serializable {
     
     @Override
     public void write(Kryo kryo, Output output, Boolean reducedResponse) {
+        write(kryo, output, reducedResponse, AttributeTypeRegistry.getRegistry(AttributeTypeRegistry.CLASS_NAMES));
+    }
+    
+    /**
+     * Write this document with Kryo, identifying the concrete type of each Attribute using the supplied registry
+     *
+     * @param kryo
+     * @param output
+     * @param reducedResponse
+     * @param registry
+     */
+    public void write(Kryo kryo, Output output, Boolean reducedResponse, AttributeTypeRegistry registry) {
         output.writeInt(this._count, true);
         output.writeBoolean(trackSizes);
         output.writeLong(this._bytes, true);
@@ -768,9 +776,8 @@ public class Document extends AttributeBag<Document> implements Serializable {
             // need to use writeString here
             output.writeString(entry.getKey());
             
-            Attribute<?> attribute = entry.getValue();
-            output.writeString(attribute.getClass().getName());
-            attribute.write(kryo, output, reducedResponse);
+            // Write out the concrete Attribute type and defer to the concrete instance to write() itself
+            registry.write(kryo, output, entry.getValue(), reducedResponse);
         }
         
         output.writeLong(this.shardTimestamp);
@@ -778,6 +785,17 @@ public class Document extends AttributeBag<Document> implements Serializable {
     
     @Override
     public void read(Kryo kryo, Input input) {
+        read(kryo, input, AttributeTypeRegistry.getRegistry(AttributeTypeRegistry.CLASS_NAMES));
+    }
+    
+    /**
+     * Read a document written by {@link #write(Kryo, Output, Boolean, AttributeTypeRegistry)} with the same registry version
+     *
+     * @param kryo
+     * @param input
+     * @param registry
+     */
+    public void read(Kryo kryo, Input input, AttributeTypeRegistry registry) {
         this._count = input.readInt(true);
         trackSizes = input.readBoolean();
         this._bytes = input.readLong(true);
@@ -790,31 +808,8 @@ public class Document extends AttributeBag<Document> implements Serializable {
             // Get the fieldName
             String fieldName = input.readString();
             
-            // Get the class name for the concrete Attribute
-            String attrClassName = input.readString();
-            Class<?> clz;
-            
-            // Get the Class for the name of the class of the concrete Attribute
-            try {
-                clz = Class.forName(attrClassName);
-            } catch (ClassNotFoundException e) {
-                throw new RuntimeException(e);
-            }
-            
-            Attribute<?> attr;
-            if (Attribute.class.isAssignableFrom(clz)) {
-                // Get an instance of the concrete Attribute
-                try {
-                    attr = (Attribute<?>) clz.newInstance();
-                } catch (InstantiationException | IllegalAccessException e) {
-                    throw new RuntimeException(e);
-                }
-                
-            } else {
-                throw new ClassCastException("Found class that was not an instance of Attribute");
-            }
-            // Reload the attribute
-            attr.read(kryo, input);
+            // Get an instance of the concrete Attribute and reload it
+            Attribute<?> attr = registry.read(kryo, input);
             
             // Add the attribute back to the Map
             this.dict.put(fieldName, attr);
@@ -15,6 +15,7 @@ import datawave.query.Constants;
 import datawave.query.DocumentSerialization;
 import datawave.query.DocumentSerialization.ReturnType;
 import datawave.query.QueryParameters;
+import datawave.query.attributes.AttributeTypeRegistry;
 import datawave.query.function.DocumentPermutation;
 import datawave.query.iterator.QueryIterator;
 import datawave.query.jexl.JexlASTHelper;
@@ -22,6 +23,8 @@ import datawave.query.model.QueryModel;
 import datawave.query.tables.ShardQueryLogic;
 import datawave.query.tld.TLDQueryIterator;
 import datawave.query.util.QueryStopwatch;
+import datawave.query.util.sortedset.FileBackedUniqueSet;
+import datawave.query.util.sortedset.FileSortedSet;
 import datawave.util.TableName;
 import datawave.util.UniversalSet;
 import datawave.webservice.query.Query;
@@ -298,6 +301,7 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
     private int ivaratorNumRetries = 2;
     private boolean ivaratorPersistVerify = true;
     private int ivaratorPersistVerifyCount = 100;
+    private FileSortedSet.PersistOptions.Format ivaratorPersistFormat = FileSortedSet.PersistOptions.Format.DEFAULT;
     private int maxIvaratorSources = 33;
     private long maxIvaratorResults = -1;
     private int maxEvaluationPipelines = 25;
@@ -313,13 +317,22 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
     private boolean shouldLimitTermExpansionToModel = false;
     private Query query = null;
     private boolean compressServerSideResults = false;
+    // the latest attribute type registry version that we can read back from writable documents
+    private int attributeTypeRegistryVersion = AttributeTypeRegistry.LATEST_VERSION;
     private boolean indexOnlyFilterFunctionsEnabled = false;
     private boolean compositeFilterFunctionsEnabled = false;
     
     private int groupFieldsBatchSize;
+    // compute partial group counts per tablet on the tservers, holding at most groupFieldsPushdownMaxGroups groups at a time
+    private boolean groupFieldsPushdown = false;
+    private int groupFieldsPushdownMaxGroups = 10000;
     private boolean accrueStats = false;
     private Set<String> groupFields = new HashSet<>(0);
     private Set<String> uniqueFields = new HashSet<>(0);
+    // when true, uniqueness is determined exactly using a set that spills to local files rather than with a bloom filter
+    private boolean exactUnique = false;
+    private long uniqueMaxMemory = FileBackedUniqueSet.DEFAULT_MAX_MEMORY;
+    private String uniqueSpillDirectory = null;
     private boolean cacheModel = false;
     /**
      * should the sizes of documents be tracked for this query
@@ -481,6 +494,7 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.setIvaratorNumRetries(other.getIvaratorNumRetries());
         this.setIvaratorPersistVerify(other.isIvaratorPersistVerify());
         this.setIvaratorPersistVerifyCount(other.getIvaratorPersistVerifyCount());
+        this.setIvaratorPersistFormat(other.getIvaratorPersistFormat());
         this.setMaxIvaratorSources(other.getMaxIvaratorSources());
         this.setMaxIvaratorResults(other.getMaxIvaratorResults());
         this.setMaxEvaluationPipelines(other.getMaxEvaluationPipelines());
@@ -492,12 +506,18 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.setLimitTermExpansionToModel(other.isExpansionLimitedToModelContents());
         this.setQuery(null == other.getQuery() ? null : other.getQuery().duplicate(other.getQuery().getQueryName()));
         this.setCompressServerSideResults(other.isCompressServerSideResults());
+        this.setAttributeTypeRegistryVersion(other.getAttributeTypeRegistryVersion());
         this.setIndexOnlyFilterFunctionsEnabled(other.isIndexOnlyFilterFunctionsEnabled());
         this.setCompositeFilterFunctionsEnabled(other.isCompositeFilterFunctionsEnabled());
         this.setGroupFieldsBatchSize(other.getGroupFieldsBatchSize());
+        this.setGroupFieldsPushdown(other.isGroupFieldsPushdown());
+        this.setGroupFieldsPushdownMaxGroups(other.getGroupFieldsPushdownMaxGroups());
         this.setAccrueStats(other.getAccrueStats());
         this.setGroupFields(null == other.getGroupFields() ? null : Sets.newHashSet(other.getGroupFields()));
         this.setUniqueFields(null == other.getUniqueFields() ? null : Sets.newHashSet(other.getUniqueFields()));
+        this.setExactUnique(other.isExactUnique());
+        this.setUniqueMaxMemory(other.getUniqueMaxMemory());
+        this.setUniqueSpillDirectory(other.getUniqueSpillDirectory());
         this.setCacheModel(other.getCacheModel());
         this.setTrackSizes(other.isTrackSizes());
         this.setContentFieldNames(null == other.getContentFieldNames() ? null : Lists.newArrayList(other.getContentFieldNames()));
@@ -1252,6 +1272,14 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.ivaratorPersistVerifyCount = ivaratorPersistVerifyCount;
     }
     
+    public FileSortedSet.PersistOptions.Format getIvaratorPersistFormat() {
+        return ivaratorPersistFormat;
+    }
+    
+    public void setIvaratorPersistFormat(FileSortedSet.PersistOptions.Format ivaratorPersistFormat) {
+        this.ivaratorPersistFormat = ivaratorPersistFormat;
+    }
+    
     public int getMaxIvaratorSources() {
         return maxIvaratorSources;
     }
@@ -1506,6 +1534,22 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         return "" + groupFieldsBatchSize;
     }
     
+    public boolean isGroupFieldsPushdown() {
+        return groupFieldsPushdown;
+    }
+    
+    public void setGroupFieldsPushdown(boolean groupFieldsPushdown) {
+        this.groupFieldsPushdown = groupFieldsPushdown;
+    }
+    
+    public int getGroupFieldsPushdownMaxGroups() {
+        return groupFieldsPushdownMaxGroups;
+    }
+    
+    public void setGroupFieldsPushdownMaxGroups(int groupFieldsPushdownMaxGroups) {
+        this.groupFieldsPushdownMaxGroups = groupFieldsPushdownMaxGroups;
+    }
+    
     public Set<String> getUniqueFields() {
         return uniqueFields;
     }
@@ -1518,6 +1562,30 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         return StringUtils.join(this.getUniqueFields(), Constants.PARAM_VALUE_SEP);
     }
     
+    public boolean isExactUnique() {
+        return exactUnique;
+    }
+    
+    public void setExactUnique(boolean exactUnique) {
+        this.exactUnique = exactUnique;
+    }
+    
+    public long getUniqueMaxMemory() {
+        return uniqueMaxMemory;
+    }
+    
+    public void setUniqueMaxMemory(long uniqueMaxMemory) {
+        this.uniqueMaxMemory = uniqueMaxMemory;
+    }
+    
+    public String getUniqueSpillDirectory() {
+        return uniqueSpillDirectory;
+    }
+    
+    public void setUniqueSpillDirectory(String uniqueSpillDirectory) {
+        this.uniqueSpillDirectory = uniqueSpillDirectory;
+    }
+    
     public boolean isHitList() {
         return this.hitList;
     }
@@ -1758,6 +1826,14 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.compressServerSideResults = compressServerSideResults;
     }
     
+    public int getAttributeTypeRegistryVersion() {
+        return attributeTypeRegistryVersion;
+    }
+    
+    public void setAttributeTypeRegistryVersion(int attributeTypeRegistryVersion) {
+        this.attributeTypeRegistryVersion = attributeTypeRegistryVersion;
+    }
+    
     /**
      * Returns a value indicating whether index-only filter functions (e.g., #INCLUDE, #EXCLUDE) should be enabled. If true, the use of such filters can
      * potentially consume a LOT of memory.
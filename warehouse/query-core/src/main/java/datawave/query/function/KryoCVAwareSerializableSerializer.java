@@ -1,14 +1,17 @@
 package datawave.query.function;
 
+import datawave.query.attributes.AttributeTypeRegistry;
 import datawave.query.attributes.Document;
 
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.KryoSerializable;
+import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import com.esotericsoftware.kryo.serializers.DefaultSerializers.KryoSerializableSerializer;
 
 public class KryoCVAwareSerializableSerializer extends KryoSerializableSerializer {
     private Boolean reducedResponse = true;
+    private AttributeTypeRegistry registry = AttributeTypeRegistry.getRegistry(AttributeTypeRegistry.CLASS_NAMES);
     
     public KryoCVAwareSerializableSerializer(Boolean reducedResponse) {
         setReducedResponse(reducedResponse);
@@ -22,13 +25,38 @@ public class KryoCVAwareSerializableSerializer extends KryoSerializableSerialize
         this.reducedResponse = reducedResponse;
     }
     
+    public AttributeTypeRegistry getRegistry() {
+        return registry;
+    }
+    
+    /**
+     * Set the registry used to identify the attribute types within a {@link Document}
+     *
+     * @param registry
+     */
+    public void setRegistry(AttributeTypeRegistry registry) {
+        this.registry = registry;
+    }
+    
     @Override
     public void write(Kryo kryo, Output output, KryoSerializable object) {
         if (object instanceof Document) {
-            ((Document) object).write(kryo, output, getReducedResponse());
+            ((Document) object).write(kryo, output, getReducedResponse(), registry);
         } else {
             object.write(kryo, output);
         }
     }
     
+    @Override
+    public KryoSerializable read(Kryo kryo, Input input, Class<KryoSerializable> type) {
+        KryoSerializable object = kryo.newInstance(type);
+        kryo.reference(object);
+        if (object instanceof Document) {
+            ((Document) object).read(kryo, input, registry);
+        } else {
+            object.read(kryo, input);
+        }
+        return object;
+    }
+    
 }
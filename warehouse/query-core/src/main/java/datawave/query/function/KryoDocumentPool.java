@@ -0,0 +1,102 @@
+package datawave.query.function;
+
+import java.io.InputStream;
+
+import datawave.query.attributes.Attribute;
+import datawave.query.attributes.AttributeTypeRegistry;
+import datawave.query.attributes.Document;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * A Kryo instance and the buffers used to serialize and deserialize documents. Creating a Kryo instance sets up all of its default serializers, which costs
+ * far more than serializing a typical document, so a pool is owned by something that outlives the individual serializers, such as a query iterator which
+ * creates a new serializer for every seek, and is released with its owner. Nothing is held by the threads that use it.
+ * <p>
+ * A pool serializes one document at a time. When it is already in use, by another thread or further up the stack, a temporary Kryo instance is used instead.
+ */
+public class KryoDocumentPool {
+    
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+    
+    // an output buffer that has grown past this size is released after use instead of being held by the pool
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+    
+    private final Kryo kryo = new Kryo();
+    private final KryoCVAwareSerializableSerializer serializer = new KryoCVAwareSerializableSerializer(false);
+    private final Input input = new Input(INITIAL_BUFFER_SIZE);
+    private Output output = new Output(INITIAL_BUFFER_SIZE, -1);
+    private boolean inUse = false;
+    
+    public KryoDocumentPool() {
+        kryo.addDefaultSerializer(Attribute.class, serializer);
+    }
+    
+    private KryoDocumentPool acquire() {
+        synchronized (this) {
+            if (!inUse) {
+                inUse = true;
+                return this;
+            }
+        }
+        KryoDocumentPool pool = new KryoDocumentPool();
+        pool.inUse = true;
+        return pool;
+    }
+    
+    private void release() {
+        if (output.getBuffer().length > MAX_RETAINED_BUFFER_SIZE) {
+            output = new Output(INITIAL_BUFFER_SIZE, -1);
+        }
+        input.setInputStream(null);
+        synchronized (this) {
+            inUse = false;
+        }
+    }
+    
+    /**
+     * Serialize a document
+     *
+     * @param doc
+     * @param reducedResponse
+     * @param registry
+     *            the registry used to identify the attribute types
+     * @return the serialized document
+     */
+    public byte[] serialize(Document doc, boolean reducedResponse, AttributeTypeRegistry registry) {
+        KryoDocumentPool pool = acquire();
+        try {
+            pool.serializer.setReducedResponse(reducedResponse);
+            pool.serializer.setRegistry(registry);
+            pool.output.clear();
+            pool.kryo.writeObject(pool.output, doc);
+            return pool.output.toBytes();
+        } finally {
+            pool.release();
+        }
+    }
+    
+    /**
+     * Deserialize a document
+     *
+     * @param data
+     * @param registry
+     *            the registry that the document was serialized with
+     * @return the document, or null if a null document was serialized
+     */
+    public Document deserialize(InputStream data, AttributeTypeRegistry registry) {
+        KryoDocumentPool pool = acquire();
+        try {
+            pool.serializer.setReducedResponse(true);
+            pool.serializer.setRegistry(registry);
+            pool.input.setInputStream(data);
+            Document document = pool.kryo.readObject(pool.input, Document.class);
+            pool.input.close();
+            return document;
+        } finally {
+            pool.release();
+        }
+    }
+}
@@ -16,13 +16,26 @@ public abstract class DocumentDeserializer implements Function<Entry<Key,Value>,
     
     @Override
     public Entry<Key,Document> apply(Entry<Key,Value> from) {
-        InputStream is = DocumentSerialization.consumeHeader(from.getValue().get());
+        byte[] data = from.getValue().get();
+        InputStream is = DocumentSerialization.consumeHeader(data);
         
-        Document document = deserialize(is);
+        Document document = deserialize(is, DocumentSerialization.getRegistryVersion(data));
         
         return Maps.immutableEntry(from.getKey(), document);
     }
     
     public abstract Document deserialize(InputStream data);
     
+    /**
+     * Deserialize a document whose attribute types were written using the specified {@link datawave.query.attributes.AttributeTypeRegistry} version, as
+     * recorded in the document header. Only the Writable form makes use of the registry.
+     *
+     * @param data
+     * @param registryVersion
+     * @return the document
+     */
+    public Document deserialize(InputStream data, int registryVersion) {
+        return deserialize(data);
+    }
+    
 }
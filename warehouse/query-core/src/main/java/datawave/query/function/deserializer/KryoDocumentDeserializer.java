@@ -3,39 +3,37 @@ package datawave.query.function.deserializer;
 import java.io.InputStream;
 import java.io.Serializable;
 
-import datawave.query.attributes.Attribute;
+import datawave.query.attributes.AttributeTypeRegistry;
 import datawave.query.attributes.Document;
-import datawave.query.function.KryoCVAwareSerializableSerializer;
-
-import com.esotericsoftware.kryo.Kryo;
-import com.esotericsoftware.kryo.io.Input;
+import datawave.query.function.KryoDocumentPool;
 
 /**
  * Transform Kryo-serialized bytes back into a Document. Ordering of Attributes is <b>not</b> guaranteed across serialization.
- *
- * 
+ * <p>
+ * The Kryo instance and input buffer are reused from a {@link KryoDocumentPool} held by this deserializer.
  *
  */
 public class KryoDocumentDeserializer extends DocumentDeserializer implements Serializable {
     private static final long serialVersionUID = 1L;
     
-    final transient Kryo kryo = new Kryo();
+    private transient KryoDocumentPool pool;
     
-    public KryoDocumentDeserializer() {
-        kryo.addDefaultSerializer(Attribute.class, new KryoCVAwareSerializableSerializer(true));
+    @Override
+    public Document deserialize(InputStream data) {
+        return deserialize(data, AttributeTypeRegistry.CLASS_NAMES);
     }
     
     @Override
-    public Document deserialize(InputStream data) {
-        Input input = new Input(data);
-        Document document = kryo.readObject(input, Document.class);
+    public Document deserialize(InputStream data, int registryVersion) {
+        if (pool == null) {
+            pool = new KryoDocumentPool();
+        }
+        Document document = pool.deserialize(data, AttributeTypeRegistry.getRegistry(registryVersion));
         
         if (null == document) {
             throw new RuntimeException("Deserialized null Document");
         }
         
-        input.close();
-        
         return document;
     }
     
@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 
+import datawave.query.attributes.AttributeTypeRegistry;
 import datawave.query.attributes.Document;
 
 /**
@@ -19,11 +20,16 @@ public class WritableDocumentDeserializer extends DocumentDeserializer implement
     
     @Override
     public Document deserialize(InputStream data) {
+        return deserialize(data, AttributeTypeRegistry.CLASS_NAMES);
+    }
+    
+    @Override
+    public Document deserialize(InputStream data, int registryVersion) {
         DataInputStream dis = new DataInputStream(data);
         Document d = new Document();
         
         try {
-            d.readFields(dis);
+            d.readFields(dis, AttributeTypeRegistry.getRegistry(registryVersion));
         } catch (IOException e) {
             throw new RuntimeException("Could not convert Document through write().", e);
         }
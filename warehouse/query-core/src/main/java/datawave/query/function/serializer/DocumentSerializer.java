@@ -4,6 +4,7 @@ import java.nio.ByteBuffer;
 import java.util.Map.Entry;
 
 import datawave.query.DocumentSerialization;
+import datawave.query.attributes.AttributeTypeRegistry;
 import datawave.query.attributes.Document;
 
 import org.apache.accumulo.core.trace.Span;
@@ -19,6 +20,7 @@ public abstract class DocumentSerializer implements Function<Entry<Key,Document>
     protected final int compression;
     protected final int minCompressionSize;
     protected final String concreteName;
+    protected int registryVersion = AttributeTypeRegistry.CLASS_NAMES;
     
     public static final int DEFAULT_MIN_COMPRESS_SIZE = 1024 * 10;
     
@@ -70,11 +72,11 @@ public abstract class DocumentSerializer implements Function<Entry<Key,Document>
         
         // Only compress the data if it's greater than minCompressionSize in size (bytes)
         if (DocumentSerialization.NONE != this.compression && document.length > minCompressionSize) {
-            header = DocumentSerialization.getHeader(compression);
+            header = DocumentSerialization.getHeader(compression, registryVersion);
             dataToWrite = DocumentSerialization.writeBody(document, this.compression);
             span.data("Compressed size", Integer.toString(dataToWrite.length));
         } else {
-            header = DocumentSerialization.getHeader();
+            header = DocumentSerialization.getHeader(DocumentSerialization.NONE, registryVersion);
             dataToWrite = document;
         }
         
@@ -1,26 +1,23 @@
 package datawave.query.function.serializer;
 
-import java.io.ByteArrayOutputStream;
-
-import datawave.query.attributes.Attribute;
+import datawave.query.attributes.AttributeTypeRegistry;
 import datawave.query.attributes.Document;
-import datawave.query.function.KryoCVAwareSerializableSerializer;
+import datawave.query.function.KryoDocumentPool;
 
 import org.apache.log4j.Logger;
 
-import com.esotericsoftware.kryo.Kryo;
-import com.esotericsoftware.kryo.io.Output;
-
 /**
  * Transform the Document into a Kryo-serialized version. Ordering of Attributes is <b>not</b> guaranteed across serialization.
- *
- * 
+ * <p>
+ * The Kryo instance and output buffer are reused from a {@link KryoDocumentPool}, which is supplied by the iterator so that it is shared by the serializers
+ * created for each seek, or else created for this serializer. When a registry version other than
+ * {@link AttributeTypeRegistry#CLASS_NAMES} is negotiated, the attribute types are written as registered ids instead of class names.
  *
  */
 public class KryoDocumentSerializer extends DocumentSerializer {
     private static final Logger log = Logger.getLogger(KryoDocumentSerializer.class);
-    final Kryo kryo = new Kryo();
-    final ByteArrayOutputStream baos = new ByteArrayOutputStream(4096);
+    final AttributeTypeRegistry registry;
+    private KryoDocumentPool pool;
     
     public KryoDocumentSerializer() {
         this(false, false);
@@ -31,21 +28,40 @@ public class KryoDocumentSerializer extends DocumentSerializer {
     }
     
     public KryoDocumentSerializer(boolean reducedResponse, boolean compress) {
+        this(reducedResponse, compress, AttributeTypeRegistry.CLASS_NAMES);
+    }
+    
+    /**
+     * @param reducedResponse
+     * @param compress
+     * @param registryVersion
+     *            the latest attribute type registry version that the reader supports
+     */
+    public KryoDocumentSerializer(boolean reducedResponse, boolean compress, int registryVersion) {
+        this(reducedResponse, compress, registryVersion, null);
+    }
+    
+    /**
+     * @param reducedResponse
+     * @param compress
+     * @param registryVersion
+     *            the latest attribute type registry version that the reader supports
+     * @param pool
+     *            the pool to serialize with, or null to create one when the first document is serialized
+     */
+    public KryoDocumentSerializer(boolean reducedResponse, boolean compress, int registryVersion, KryoDocumentPool pool) {
         super(reducedResponse, compress);
-        kryo.addDefaultSerializer(Attribute.class, new KryoCVAwareSerializableSerializer(reducedResponse));
+        this.registryVersion = AttributeTypeRegistry.negotiateVersion(registryVersion);
+        this.registry = AttributeTypeRegistry.getRegistry(this.registryVersion);
+        this.pool = pool;
     }
     
     @Override
     public byte[] serialize(Document doc) {
-        baos.reset();
-        
-        Output output = new Output(baos);
-        
-        kryo.writeObject(output, doc);
-        
-        output.close();
-        
-        return baos.toByteArray();
+        if (pool == null) {
+            pool = new KryoDocumentPool();
+        }
+        return pool.serialize(doc, reducedResponse, registry);
     }
     
 }
@@ -4,6 +4,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 
+import datawave.query.attributes.AttributeTypeRegistry;
 import datawave.query.attributes.Document;
 
 /**
@@ -14,9 +15,21 @@ import datawave.query.attributes.Document;
  */
 public class WritableDocumentSerializer extends DocumentSerializer {
     final ByteArrayOutputStream baos = new ByteArrayOutputStream(4096);
+    final AttributeTypeRegistry registry;
     
     public WritableDocumentSerializer(boolean reducedResponse) {
+        this(reducedResponse, AttributeTypeRegistry.CLASS_NAMES);
+    }
+    
+    /**
+     * @param reducedResponse
+     * @param registryVersion
+     *            the latest {@link AttributeTypeRegistry} version understood by the reader, the version written is recorded in the document header
+     */
+    public WritableDocumentSerializer(boolean reducedResponse, int registryVersion) {
         super(reducedResponse, false);
+        this.registryVersion = AttributeTypeRegistry.negotiateVersion(registryVersion);
+        this.registry = AttributeTypeRegistry.getRegistry(this.registryVersion);
     }
     
     @Override
@@ -26,7 +39,7 @@ public class WritableDocumentSerializer extends DocumentSerializer {
         DataOutputStream dos = new DataOutputStream(baos);
         
         try {
-            doc.write(dos, reducedResponse);
+            doc.write(dos, reducedResponse, registry);
         } catch (IOException e) {
             throw new RuntimeException("Could not convert Document through write().", e);
         }
@@ -80,12 +80,12 @@ public class EntryParser implements Function<Entry<Key,Value>,Tuple2<String,Inde
             }
         }
         
-        if (!skipNodeDelay && Union.isDay(date) && info.uids().isEmpty()) {
+        if (!skipNodeDelay && Union.isDay(date) && info.uidCount() == 0) {
             
             if (isDelayedPredicate(currNode)) {
                 if (log.isTraceEnabled()) {
                     log.trace("not delaying " + currNode + " because it is already delayed" + currNode.jjtGetParent() + "<- parent "
-                                    + JexlStringBuildingVisitor.buildQuery(currNode) + " " + date + " " + info.uids.size());
+                                    + JexlStringBuildingVisitor.buildQuery(currNode) + " " + date + " " + info.uidCount());
                 }
                 info.applyNode(currNode);
             } else if (null != indexOnlyFields && indexOnlyFields.contains(fieldName)) {
@@ -96,13 +96,13 @@ public class EntryParser implements Function<Entry<Key,Value>,Tuple2<String,Inde
             } else {
                 if (log.isTraceEnabled()) {
                     log.trace("delaying " + currNode + " because it is already delayed" + currNode.jjtGetParent() + "<- parent "
-                                    + JexlStringBuildingVisitor.buildQuery(currNode) + " " + date + " " + info.uids.size());
+                                    + JexlStringBuildingVisitor.buildQuery(currNode) + " " + date + " " + info.uidCount());
                 }
                 info.applyNode(ASTDelayedPredicate.create(JexlNodeFactory.buildEQNode(fieldName, literal)));
             }
         } else {
             if (log.isTraceEnabled()) {
-                log.trace(date + " Size is " + info.uids.size() + " count is " + info.count);
+                log.trace(date + " Size is " + info.uidCount() + " count is " + info.count);
             }
             info.applyNode(currNode);
         }
@@ -4,8 +4,10 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
+import java.util.SortedSet;
 
 import datawave.query.language.parser.jexl.JexlNodeSet;
 import org.apache.commons.jexl2.parser.ASTDelayedPredicate;
@@ -23,6 +25,7 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
 
 import datawave.query.jexl.JexlNodeFactory;
@@ -47,6 +50,10 @@ public class IndexInfo implements Writable, UidIntersector {
     protected long count;
     protected ImmutableSortedSet<IndexMatch> uids;
     
+    // the uids as read from the index, and the nodes applied to every one of them, until the IndexMatch objects are needed
+    protected PackedUids packedUids = null;
+    protected List<JexlNode> packedNodes = null;
+    
     public IndexInfo() {
         this.count = 0;
         this.uids = ImmutableSortedSet.of();
@@ -70,7 +77,14 @@ public class IndexInfo implements Writable, UidIntersector {
     }
     
     public boolean onlyEvents() {
-        return count == uids.size();
+        return count == uidCount();
+    }
+    
+    /**
+     * @return the number of uids, without creating the {@link IndexMatch} set of packed uids
+     */
+    public int uidCount() {
+        return packedUids != null ? packedUids.size() : uids.size();
     }
     
     public long count() {
@@ -78,23 +92,46 @@ public class IndexInfo implements Writable, UidIntersector {
     }
     
     public ImmutableSortedSet<IndexMatch> uids() {
+        if (packedUids != null) {
+            ImmutableSortedSet.Builder<IndexMatch> setBuilder = ImmutableSortedSet.naturalOrder();
+            for (int i = 0; i < packedUids.size(); i++) {
+                IndexMatch match = new IndexMatch(packedUids.get(i));
+                for (JexlNode node : packedNodes) {
+                    match.add(node);
+                }
+                setBuilder.add(match);
+            }
+            uids = setBuilder.build();
+            packedUids = null;
+            packedNodes = null;
+        }
         return uids;
     }
     
     @Override
     public void write(DataOutput out) throws IOException {
         new VLongWritable(count).write(out);
-        new VIntWritable(uids.size()).write(out);
-        for (IndexMatch uid : uids)
-            uid.write(out);
+        new VIntWritable(uidCount()).write(out);
+        if (packedUids != null) {
+            for (int i = 0; i < packedUids.size(); i++) {
+                out.writeUTF(packedUids.get(i));
+            }
+        } else {
+            for (IndexMatch uid : uids)
+                uid.write(out);
+        }
     }
     
     public void applyNode(JexlNode node) {
         JexlNode copy = RebuildingVisitor.copy(node);
         copy.jjtSetParent(null);
         myNode = copy;
-        for (IndexMatch match : uids) {
-            match.add(node);
+        if (packedUids != null) {
+            packedNodes.add(node);
+        } else {
+            for (IndexMatch match : uids) {
+                match.add(node);
+            }
         }
     }
     
@@ -112,14 +149,10 @@ public class IndexInfo implements Writable, UidIntersector {
         nUidsReader.readFields(in);
         final int nUids = nUidsReader.get();
         
-        ImmutableSortedSet.Builder<IndexMatch> setBuilder = ImmutableSortedSet.naturalOrder();
-        
-        for (int i = 0; i < nUids; ++i) {
-            IndexMatch index = new IndexMatch();
-            index.readFields(in);
-            setBuilder.add(index);
-        }
-        this.uids = setBuilder.build();
+        // the IndexMatch objects are only created if they are needed, see uids()
+        this.uids = ImmutableSortedSet.of();
+        this.packedUids = PackedUids.read(in, nUids);
+        this.packedNodes = new ArrayList<>(1);
     }
     
     public IndexInfo union(IndexInfo o) {
@@ -271,7 +304,7 @@ public class IndexInfo implements Writable, UidIntersector {
             /*
              * Concatenate all UIDs and merge the individual nodes
              */
-            for (IndexMatch match : Iterables.concat(uids, o.uids)) {
+            for (IndexMatch match : Iterables.concat(uids(), o.uids())) {
                 
                 JexlNode newNode = match.getNode();
                 if (null != newNode)
@@ -321,7 +354,7 @@ public class IndexInfo implements Writable, UidIntersector {
         if (!onlyEvents() || isInfinite()) {
             return false;
         }
-        for (IndexMatch match : uids) {
+        for (IndexMatch match : uids()) {
             JexlNode newNode = match.getNode();
             if (null == newNode)
                 continue;
@@ -468,7 +501,7 @@ public class IndexInfo implements Writable, UidIntersector {
              * B) We are intersecting small and unknown.
              */
             if (onlyEvents())
-                return intersect(Math.max(count, o.count), uids, getNode(), Lists.newArrayList(o.getNode()), delayedNodes);
+                return intersect(Math.max(count, o.count), uids(), getNode(), Lists.newArrayList(o.getNode()), delayedNodes);
         }
         
         IndexInfo merged = new IndexInfo();
@@ -476,7 +509,15 @@ public class IndexInfo implements Writable, UidIntersector {
             /*
              * C) Both are small, so we have an easy case where we can prune much of this sub query. Must propagate delayed nodes, though.
              */
-            merged.uids = ImmutableSortedSet.copyOf(uidIntersector.intersect(uids, o.uids, delayedNodes));
+            ImmutableSortedSet<IndexMatch> packedMatches = null;
+            if (uidIntersector instanceof IndexInfo) {
+                packedMatches = ((IndexInfo) uidIntersector).intersectPacked(this, o, delayedNodes);
+            }
+            if (packedMatches != null) {
+                merged.uids = packedMatches;
+            } else {
+                merged.uids = ImmutableSortedSet.copyOf(uidIntersector.intersect(uids(), o.uids(), delayedNodes));
+            }
             merged.count = merged.uids.size();
             
         } else {
@@ -495,7 +536,7 @@ public class IndexInfo implements Writable, UidIntersector {
                     merged.count = count;
                     
                     HashMultimap<String,JexlNode> ids = HashMultimap.create();
-                    for (IndexMatch match : uids) {
+                    for (IndexMatch match : uids()) {
                         JexlNode newNode = match.getNode();
                         if (null != newNode)
                             ids.put(match.uid, newNode);
@@ -516,7 +557,7 @@ public class IndexInfo implements Writable, UidIntersector {
                      * E) We have LARGE AND SMALL
                      */
                     HashMultimap<String,JexlNode> ids = HashMultimap.create();
-                    for (IndexMatch match : o.uids) {
+                    for (IndexMatch match : o.uids()) {
                         JexlNode newNode = match.getNode();
                         if (null != newNode)
                             ids.put(match.uid, newNode);
@@ -548,8 +589,44 @@ public class IndexInfo implements Writable, UidIntersector {
         return merged;
     }
     
+    /**
+     * Intersect the uids of two index infos as read from the global index, without creating an {@link IndexMatch} for the uids that are not in both. This is
+     * possible when the same single node has been applied to every uid on each side, which is the case for the terms of a query.
+     * 
+     * @param first
+     * @param second
+     * @param delayedNodes
+     * @return the intersected matches, or null if the uids of either index info are no longer packed
+     */
+    protected ImmutableSortedSet<IndexMatch> intersectPacked(IndexInfo first, IndexInfo second, List<JexlNode> delayedNodes) {
+        if (first.packedUids == null || second.packedUids == null || first.packedNodes.size() > 1 || second.packedNodes.size() > 1) {
+            return null;
+        }
+        
+        // as in intersect(Set,Set,List), a uid is only kept when it has a distinct node from each side
+        if (first.packedNodes.isEmpty() || second.packedNodes.isEmpty() || first.packedNodes.get(0) == second.packedNodes.get(0)) {
+            return ImmutableSortedSet.of();
+        }
+        
+        JexlNodeSet nodeSet = new JexlNodeSet();
+        nodeSet.add(first.packedNodes.get(0));
+        nodeSet.add(second.packedNodes.get(0));
+        nodeSet.addAll(delayedNodes);
+        Set<JexlNode> nodes = Sets.newHashSet(nodeSet.getNodes());
+        
+        ImmutableSortedSet.Builder<IndexMatch> setBuilder = ImmutableSortedSet.naturalOrder();
+        for (int index : first.packedUids.intersect(second.packedUids)) {
+            setBuilder.add(new IndexMatch(nodes, first.packedUids.get(index), IndexMatchType.AND));
+        }
+        return setBuilder.build();
+    }
+    
     @Override
     public Set<IndexMatch> intersect(Set<IndexMatch> uids1, Set<IndexMatch> uids2, List<JexlNode> delayedNodes) {
+        if (isSortedByUid(uids1) && isSortedByUid(uids2)) {
+            return intersectSorted(uids1.toArray(new IndexMatch[0]), uids2.toArray(new IndexMatch[0]), delayedNodes);
+        }
+        
         HashMultimap<String,JexlNode> ids = HashMultimap.create();
         for (IndexMatch match : Iterables.concat(uids1, uids2)) {
             JexlNode newNode = match.getNode();
@@ -561,6 +638,72 @@ public class IndexInfo implements Writable, UidIntersector {
         return buildNodeList(ids, IndexMatchType.AND, false, delayedNodes);
     }
     
+    private static boolean isSortedByUid(Set<IndexMatch> uids) {
+        if (uids instanceof SortedSet) {
+            Comparator<?> comparator = ((SortedSet<IndexMatch>) uids).comparator();
+            return comparator == null || comparator.equals(Ordering.natural());
+        }
+        return false;
+    }
+    
+    /**
+     * The equivalent of {@link #intersect(Set, Set, List)} for two arrays of matches sorted by uid, each uid appearing once. Only the uids in both arrays are
+     * looked at, found by galloping through each array to the current uid of the other.
+     */
+    private Set<IndexMatch> intersectSorted(IndexMatch[] uids1, IndexMatch[] uids2, List<JexlNode> delayedNodes) {
+        Set<IndexMatch> matches = Sets.newHashSet();
+        int i = 0;
+        int j = 0;
+        while (i < uids1.length && j < uids2.length) {
+            int cmp = uids1[i].compareTo(uids2[j]);
+            if (cmp < 0) {
+                i = gallop(uids1, i, uids2[j]);
+            } else if (cmp > 0) {
+                j = gallop(uids2, j, uids1[i]);
+            } else {
+                String uid = uids1[i].uid;
+                Set<JexlNode> nodes = Sets.newHashSet();
+                JexlNode node1 = uids1[i++].getNode();
+                JexlNode node2 = uids2[j++].getNode();
+                if (null != node1)
+                    nodes.add(node1);
+                if (null != node2)
+                    nodes.add(node2);
+                if (nodes.size() > 1) {
+                    JexlNodeSet nodeSet = new JexlNodeSet();
+                    nodeSet.addAll(nodes);
+                    nodeSet.addAll(delayedNodes);
+                    matches.add(new IndexMatch(Sets.newHashSet(nodeSet.getNodes()), uid, IndexMatchType.AND));
+                }
+            }
+        }
+        return matches;
+    }
+    
+    /**
+     * @return the index of the first match at or after from that does not sort before the key
+     */
+    private static int gallop(IndexMatch[] matches, int from, IndexMatch key) {
+        int lo = from;
+        int step = 1;
+        int hi = from + step;
+        while (hi < matches.length && matches[hi].compareTo(key) < 0) {
+            lo = hi;
+            step <<= 1;
+            hi = from + step;
+        }
+        hi = Math.min(hi, matches.length);
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if (matches[mid].compareTo(key) < 0) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return hi;
+    }
+    
     protected Set<IndexMatch> buildNodeList(HashMultimap<String,JexlNode> ids, IndexMatchType type, boolean allowsDelayed, List<JexlNode> delayedNodes) {
         Set<IndexMatch> matches = Sets.newHashSet();
         for (String uid : ids.keySet()) {
@@ -596,7 +739,7 @@ public class IndexInfo implements Writable, UidIntersector {
     }
     
     public String toString() {
-        return "{ \"count\": " + count() + " - " + uids.size() + " }";
+        return "{ \"count\": " + count() + " - " + uidCount() + " }";
     }
     
     private boolean isInfinite() {
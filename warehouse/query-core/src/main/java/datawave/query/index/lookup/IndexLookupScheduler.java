@@ -0,0 +1,455 @@
+package datawave.query.index.lookup;
+
+import java.lang.Thread.UncaughtExceptionHandler;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ObjectName;
+
+import datawave.webservice.query.Query;
+import org.apache.log4j.Logger;
+
+/**
+ * A server wide pool of threads for global index lookups, shared by the {@link RangeStream}, the
+ * {@link datawave.query.jexl.visitors.ParallelIndexExpansion} and the {@link ConcurrentScannerInitializer}s of every query.
+ * <p>
+ * Each query submits its lookups through its own {@link QueryExecutor}, which limits the number of lookups the query has running to the smaller of its own
+ * limit and a fair share of the threads, the number of threads divided by the number of queries with lookups queued or running. Lookups beyond that wait in the
+ * query's own queue, so a query with many terms cannot hold every thread while other queries wait. Shutting down a query's executor only affects the
+ * lookups of that query.
+ * <p>
+ * Lookups that block on other lookups must not share a scheduler with them, otherwise every thread could be waiting. For that reason the range stream
+ * scanners, which the index streams wait on, run in the separate {@link #scans()} scheduler.
+ * <p>
+ * The number of threads of each shared scheduler is a server setting, read from the {@value #MAX_THREADS_PROPERTY} system property when the scheduler is
+ * created, and may be changed at runtime through JMX.
+ * <p>
+ * The queue depth, the number of active lookups and the time each query has waited for a thread are available through JMX as
+ * {@link IndexLookupSchedulerMXBean}.
+ */
+public class IndexLookupScheduler implements IndexLookupSchedulerMXBean {
+    
+    private static final Logger log = Logger.getLogger(IndexLookupScheduler.class);
+    
+    public static final String MAX_THREADS_PROPERTY = "dw.query.index.lookup.scheduler.threads";
+    public static final int DEFAULT_MAX_THREADS = 100;
+    
+    private static final Map<String,IndexLookupScheduler> schedulers = new HashMap<>();
+    
+    private final String name;
+    private final ThreadPoolExecutor pool;
+    private volatile int maxThreads;
+    
+    private final Set<QueryExecutor> executors = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger busyQueries = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong totalWaitTime = new AtomicLong();
+    
+    /**
+     * @return the scheduler for the index lookups and the initialization of the index streams
+     */
+    public static IndexLookupScheduler lookups() {
+        return getInstance("lookups");
+    }
+    
+    /**
+     * @return the scheduler for the range stream scanners
+     */
+    public static IndexLookupScheduler scans() {
+        return getInstance("scans");
+    }
+    
+    private static synchronized IndexLookupScheduler getInstance(String name) {
+        IndexLookupScheduler scheduler = schedulers.get(name);
+        if (scheduler == null) {
+            scheduler = new IndexLookupScheduler(name, Integer.getInteger(MAX_THREADS_PROPERTY, DEFAULT_MAX_THREADS));
+            scheduler.register();
+            schedulers.put(name, scheduler);
+        }
+        return scheduler;
+    }
+    
+    /**
+     * Create a scheduler. Normally the shared instances from {@link #lookups()} and {@link #scans()} are used instead.
+     *
+     * @param name
+     * @param maxThreads
+     */
+    public IndexLookupScheduler(String name, int maxThreads) {
+        this.name = name;
+        this.maxThreads = Math.max(1, maxThreads);
+        this.pool = new ThreadPoolExecutor(this.maxThreads, this.maxThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new LookupThreadFactory(name));
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+    
+    private void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("datawave.query:type=IndexLookupScheduler,name=" + name));
+        } catch (Exception e) {
+            log.warn("Unable to register the " + name + " index lookup scheduler with JMX", e);
+        }
+    }
+    
+    @Override
+    public synchronized void setMaxThreads(int maxThreads) {
+        maxThreads = Math.max(1, maxThreads);
+        if (maxThreads != this.maxThreads) {
+            if (maxThreads > this.maxThreads) {
+                pool.setMaximumPoolSize(maxThreads);
+                pool.setCorePoolSize(maxThreads);
+            } else {
+                pool.setCorePoolSize(maxThreads);
+                pool.setMaximumPoolSize(maxThreads);
+            }
+            this.maxThreads = maxThreads;
+        }
+    }
+    
+    /**
+     * Create an executor for the lookups of a query
+     *
+     * @param query
+     *            the query, whose id is used for the wait time metrics
+     * @param maxConcurrent
+     *            the most lookups of the query to run at once
+     * @return the executor, which must be shut down when the query is done with it
+     */
+    public QueryExecutor newQueryExecutor(Query query, int maxConcurrent) {
+        return newQueryExecutor(query, maxConcurrent, null);
+    }
+    
+    /**
+     * Create an executor for the lookups of a query, whose lookups run in threads named for the query and report failures to the uncaught exception handler
+     * of the query
+     *
+     * @param query
+     *            the query, whose id is used for the thread names and the wait time metrics
+     * @param maxConcurrent
+     *            the most lookups of the query to run at once
+     * @param threadName
+     *            the name of the threads while they run lookups of the query, or null to leave the threads named for the scheduler
+     * @return the executor, which must be shut down when the query is done with it
+     */
+    public QueryExecutor newQueryExecutor(Query query, int maxConcurrent, String threadName) {
+        String queryId = (query == null || query.getId() == null) ? null : query.getId().toString();
+        UncaughtExceptionHandler handler = (query == null) ? null : query.getUncaughtExceptionHandler();
+        return newQueryExecutor(queryId, maxConcurrent, threadName, handler);
+    }
+    
+    /**
+     * Create an executor for the lookups of a query
+     *
+     * @param queryId
+     *            the id of the query, used for the wait time metrics
+     * @param maxConcurrent
+     *            the most lookups of the query to run at once
+     * @return the executor, which must be shut down when the query is done with it
+     */
+    public QueryExecutor newQueryExecutor(String queryId, int maxConcurrent) {
+        return newQueryExecutor(queryId, maxConcurrent, null, null);
+    }
+    
+    /**
+     * Create an executor for the lookups of a query
+     *
+     * @param queryId
+     *            the id of the query, used for the thread names and the wait time metrics
+     * @param maxConcurrent
+     *            the most lookups of the query to run at once
+     * @param threadName
+     *            the name of the threads while they run lookups of the query, or null to leave the threads named for the scheduler
+     * @param handler
+     *            the handler for the failures of lookups submitted with execute, or null to let them propagate to the thread
+     * @return the executor, which must be shut down when the query is done with it
+     */
+    public QueryExecutor newQueryExecutor(String queryId, int maxConcurrent, String threadName, UncaughtExceptionHandler handler) {
+        return new QueryExecutor(queryId == null ? "(unknown)" : queryId, maxConcurrent, threadName, handler);
+    }
+    
+    /**
+     * Let the busy queries use the share of the threads given up by a query that has become idle
+     */
+    private void rebalance() {
+        for (QueryExecutor executor : executors) {
+            executor.dispatch();
+        }
+    }
+    
+    /**
+     * @return the number of lookups each query may run at once, before its own limit is applied
+     */
+    int getFairShare() {
+        return Math.max(1, maxThreads / Math.max(1, busyQueries.get()));
+    }
+    
+    @Override
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+    
+    @Override
+    public int getQueueDepth() {
+        return queued.get() + pool.getQueue().size();
+    }
+    
+    @Override
+    public int getActiveLookups() {
+        return pool.getActiveCount();
+    }
+    
+    @Override
+    public int getActiveQueries() {
+        return busyQueries.get();
+    }
+    
+    @Override
+    public long getCompletedLookups() {
+        return completed.get();
+    }
+    
+    @Override
+    public long getTotalWaitTime() {
+        return totalWaitTime.get();
+    }
+    
+    @Override
+    public Map<String,Long> getQueryWaitTimes() {
+        Map<String,Long> waitTimes = new HashMap<>();
+        for (QueryExecutor executor : executors) {
+            waitTimes.merge(executor.queryId, executor.getWaitTime(), Long::sum);
+        }
+        return waitTimes;
+    }
+    
+    /**
+     * The executor for the lookups of a single query. Lookups are run in the order they are submitted.
+     */
+    public class QueryExecutor extends AbstractExecutorService {
+        
+        private final String queryId;
+        private final int maxConcurrent;
+        private final String threadName;
+        private final UncaughtExceptionHandler handler;
+        private final AtomicInteger lookupNum = new AtomicInteger(1);
+        
+        private final Deque<Lookup> pending = new ArrayDeque<>();
+        private final Set<Lookup> running = new HashSet<>();
+        private boolean shutdown = false;
+        private boolean busy = false;
+        
+        private final AtomicLong waitTime = new AtomicLong();
+        
+        private QueryExecutor(String queryId, int maxConcurrent, String threadName, UncaughtExceptionHandler handler) {
+            this.queryId = queryId;
+            this.maxConcurrent = Math.max(1, maxConcurrent);
+            this.threadName = threadName;
+            this.handler = handler;
+        }
+        
+        /**
+         * A lookup that has been submitted by the query
+         */
+        private class Lookup implements Runnable {
+            private final Runnable task;
+            private final long submitted = System.currentTimeMillis();
+            private Thread thread;
+            
+            private Lookup(Runnable task) {
+                this.task = task;
+            }
+            
+            @Override
+            public void run() {
+                long wait = System.currentTimeMillis() - submitted;
+                waitTime.addAndGet(wait);
+                totalWaitTime.addAndGet(wait);
+                Thread current = Thread.currentThread();
+                String poolThreadName = current.getName();
+                if (threadName != null) {
+                    current.setName(threadName + " Session " + queryId + " -" + lookupNum.getAndIncrement());
+                }
+                synchronized (QueryExecutor.this) {
+                    thread = current;
+                }
+                try {
+                    task.run();
+                } catch (RuntimeException | Error e) {
+                    // the pool thread is shared, so the failure is handed to the handler of the query rather than to the thread
+                    if (handler == null) {
+                        throw e;
+                    }
+                    handler.uncaughtException(current, e);
+                } finally {
+                    current.setName(poolThreadName);
+                    completed.incrementAndGet();
+                    boolean idle;
+                    synchronized (QueryExecutor.this) {
+                        thread = null;
+                        running.remove(this);
+                        dispatch();
+                        idle = updateBusy();
+                        QueryExecutor.this.notifyAll();
+                    }
+                    // outside of the lock on this executor, as the other executors are locked in turn
+                    if (idle) {
+                        rebalance();
+                    }
+                }
+            }
+        }
+        
+        @Override
+        public void execute(Runnable command) {
+            synchronized (this) {
+                if (shutdown) {
+                    throw new RejectedExecutionException("The index lookup executor for query " + queryId + " has been shut down");
+                }
+                pending.add(new Lookup(command));
+                queued.incrementAndGet();
+                updateBusy();
+                dispatch();
+            }
+        }
+        
+        /**
+         * Track whether this query has lookups queued or running, which determines the fair share of every query
+         *
+         * @return true if the query has become idle
+         */
+        private synchronized boolean updateBusy() {
+            boolean nowBusy = !pending.isEmpty() || !running.isEmpty();
+            if (nowBusy != busy) {
+                busy = nowBusy;
+                // only track busy executors so that executors which are never shut down are not held on to
+                if (busy) {
+                    executors.add(this);
+                    busyQueries.incrementAndGet();
+                } else {
+                    executors.remove(this);
+                    busyQueries.decrementAndGet();
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        /**
+         * Hand pending lookups to the shared pool while the query is within its share of the threads
+         */
+        private synchronized void dispatch() {
+            int limit = Math.min(maxConcurrent, getFairShare());
+            while (running.size() < limit && !pending.isEmpty()) {
+                Lookup lookup = pending.poll();
+                queued.decrementAndGet();
+                running.add(lookup);
+                try {
+                    pool.execute(lookup);
+                } catch (RejectedExecutionException e) {
+                    running.remove(lookup);
+                    throw e;
+                }
+            }
+        }
+        
+        /**
+         * @return the total time (ms) that the lookups of this query have waited for a thread
+         */
+        public long getWaitTime() {
+            return waitTime.get();
+        }
+        
+        @Override
+        public synchronized void shutdown() {
+            if (!shutdown) {
+                shutdown = true;
+                if (log.isDebugEnabled()) {
+                    log.debug("Index lookups for query " + queryId + " waited " + waitTime.get() + "ms for " + name + " threads");
+                }
+            }
+        }
+        
+        @Override
+        public List<Runnable> shutdownNow() {
+            List<Runnable> drained;
+            boolean idle;
+            synchronized (this) {
+                shutdown();
+                drained = new ArrayList<>(pending.size());
+                for (Lookup lookup : pending) {
+                    drained.add(lookup.task);
+                }
+                queued.addAndGet(-pending.size());
+                pending.clear();
+                idle = updateBusy();
+                for (Lookup lookup : running) {
+                    if (lookup.thread != null) {
+                        lookup.thread.interrupt();
+                    }
+                }
+            }
+            if (idle) {
+                rebalance();
+            }
+            return drained;
+        }
+        
+        @Override
+        public synchronized boolean isShutdown() {
+            return shutdown;
+        }
+        
+        @Override
+        public synchronized boolean isTerminated() {
+            return shutdown && pending.isEmpty() && running.isEmpty();
+        }
+        
+        @Override
+        public synchronized boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (!isTerminated()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            return true;
+        }
+    }
+    
+    private static class LookupThreadFactory implements ThreadFactory {
+        private final ThreadFactory dtf = Executors.defaultThreadFactory();
+        private final AtomicInteger threadNum = new AtomicInteger(1);
+        private final String name;
+        
+        private LookupThreadFactory(String name) {
+            this.name = name;
+        }
+        
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = dtf.newThread(r);
+            thread.setName("Datawave Index Lookup Scheduler (" + name + ") -" + threadNum.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
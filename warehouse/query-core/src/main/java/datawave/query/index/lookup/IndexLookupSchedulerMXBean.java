@@ -0,0 +1,50 @@
+package datawave.query.index.lookup;
+
+import java.util.Map;
+
+/**
+ * JMX view of an {@link IndexLookupScheduler}
+ */
+public interface IndexLookupSchedulerMXBean {
+    
+    /**
+     * @return the number of threads shared by all queries
+     */
+    int getMaxThreads();
+    
+    /**
+     * @param maxThreads
+     *            the number of threads to share among all queries
+     */
+    void setMaxThreads(int maxThreads);
+    
+    /**
+     * @return the number of lookups that are waiting for a thread
+     */
+    int getQueueDepth();
+    
+    /**
+     * @return the number of lookups that are running
+     */
+    int getActiveLookups();
+    
+    /**
+     * @return the number of queries with lookups queued or running
+     */
+    int getActiveQueries();
+    
+    /**
+     * @return the number of lookups that have been run
+     */
+    long getCompletedLookups();
+    
+    /**
+     * @return the total time (ms) that lookups have waited for a thread
+     */
+    long getTotalWaitTime();
+    
+    /**
+     * @return the total time (ms) that the lookups of each active query have waited for a thread, by query id
+     */
+    Map<String,Long> getQueryWaitTimes();
+}
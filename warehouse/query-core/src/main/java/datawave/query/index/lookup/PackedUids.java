@@ -0,0 +1,215 @@
+package datawave.query.index.lookup;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+/**
+ * A sorted, immutable list of uids packed into a single character array, with the start of each uid held in an offset array. This is used in place of a set of
+ * {@link IndexMatch} objects by an {@link IndexInfo} read from the global index, where every uid shares the same query nodes, so that uids are only turned into
+ * objects when they survive an intersection.
+ * <p>
+ * Uids are compared by their characters, which is the order of {@link String#compareTo(String)} and so the order of {@link IndexMatch}.
+ */
+public class PackedUids {
+    
+    public static final PackedUids EMPTY = new PackedUids(new char[0], new int[] {0}, 0);
+    
+    private final char[] chars;
+    private final int[] offsets;
+    private final int size;
+    
+    private PackedUids(char[] chars, int[] offsets, int size) {
+        this.chars = chars;
+        this.offsets = offsets;
+        this.size = size;
+    }
+    
+    /**
+     * Read a number of uids written with {@link java.io.DataOutput#writeUTF(String)}
+     *
+     * @param in
+     *            the input
+     * @param count
+     *            the number of uids to read
+     * @return the uids
+     * @throws IOException
+     *             if the uids could not be read
+     */
+    public static PackedUids read(DataInput in, int count) throws IOException {
+        if (count == 0) {
+            return EMPTY;
+        }
+        Builder builder = new Builder(count);
+        for (int i = 0; i < count; i++) {
+            builder.add(in.readUTF());
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Builds packed uids. Uids are normally added in ascending order, as they are stored, otherwise they are sorted and deduplicated when built.
+     */
+    public static class Builder {
+        private char[] chars;
+        private int[] offsets;
+        private int size = 0;
+        private boolean sorted = true;
+        
+        public Builder(int expectedSize) {
+            this.offsets = new int[Math.max(1, expectedSize) + 1];
+            // uids are typically a data type and a hash of around 30 characters
+            this.chars = new char[Math.max(1, expectedSize) * 32];
+        }
+        
+        public Builder add(String uid) {
+            int start = offsets[size];
+            int end = start + uid.length();
+            if (end > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(end, chars.length * 2));
+            }
+            if (size + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            uid.getChars(0, uid.length(), chars, start);
+            offsets[++size] = end;
+            sorted &= size == 1 || compare(chars, offsets, size - 2, chars, offsets, size - 1) < 0;
+            return this;
+        }
+        
+        public PackedUids build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            PackedUids uids = new PackedUids(chars, offsets, size);
+            if (!sorted) {
+                TreeSet<String> ordered = new TreeSet<>();
+                for (int i = 0; i < size; i++) {
+                    ordered.add(uids.get(i));
+                }
+                Builder builder = new Builder(ordered.size());
+                for (String uid : ordered) {
+                    builder.add(uid);
+                }
+                uids = builder.build();
+            }
+            return uids;
+        }
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * @param index
+     *            the index of a uid
+     * @return the uid
+     */
+    public String get(int index) {
+        return new String(chars, offsets[index], offsets[index + 1] - offsets[index]);
+    }
+    
+    /**
+     * Compare a uid in this list with a uid in another list
+     */
+    public int compare(int index, PackedUids other, int otherIndex) {
+        return compare(chars, offsets, index, other.chars, other.offsets, otherIndex);
+    }
+    
+    private static int compare(char[] chars1, int[] offsets1, int index1, char[] chars2, int[] offsets2, int index2) {
+        int i = offsets1[index1];
+        int end1 = offsets1[index1 + 1];
+        int j = offsets2[index2];
+        int end2 = offsets2[index2 + 1];
+        while (i < end1 && j < end2) {
+            char c1 = chars1[i++];
+            char c2 = chars2[j++];
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+        return (end1 - offsets1[index1]) - (end2 - offsets2[index2]);
+    }
+    
+    /**
+     * Find the first uid in this list, at or after an index, that does not sort before a uid in another list. The search probes 1, 2, 4, ... uids ahead and
+     * then binary searches the last step, so it is logarithmic in the distance moved rather than in the size of the list.
+     *
+     * @param from
+     *            the index to start at
+     * @param other
+     *            the list holding the uid to find
+     * @param otherIndex
+     *            the index of the uid to find
+     * @return the index of the first uid that is not less than the uid to find, or the size of this list if there is none
+     */
+    public int gallop(int from, PackedUids other, int otherIndex) {
+        if (from >= size || compare(from, other, otherIndex) >= 0) {
+            return from;
+        }
+        // invariant: the uid at lo sorts before the uid to find, and the uid at hi (if any) does not
+        int lo = from;
+        int step = 1;
+        int hi = from + step;
+        while (hi < size && compare(hi, other, otherIndex) < 0) {
+            lo = hi;
+            step <<= 1;
+            hi = from + step;
+        }
+        hi = Math.min(hi, size);
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(mid, other, otherIndex) < 0) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return hi;
+    }
+    
+    /**
+     * Intersect two lists of uids, alternately galloping each list up to the current uid of the other. Skewed lists, such as a rare term and a common term,
+     * cost time proportional to the smaller list and the log of the larger.
+     *
+     * @param other
+     *            the other list
+     * @return the indices of the uids in this list that are also in the other
+     */
+    public int[] intersect(PackedUids other) {
+        int[] matches = new int[Math.min(size, other.size)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            int cmp = compare(i, other, j);
+            if (cmp == 0) {
+                matches[count++] = i++;
+                j++;
+            } else if (cmp < 0) {
+                i = gallop(i, other, j);
+            } else {
+                j = other.gallop(j, this, i);
+            }
+        }
+        return count == matches.length ? matches : Arrays.copyOf(matches, count);
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(get(i));
+        }
+        return builder.append(']').toString();
+    }
+}
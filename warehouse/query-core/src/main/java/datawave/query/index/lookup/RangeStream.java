@@ -85,12 +85,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 import static com.google.common.collect.Iterators.concat;
 import static com.google.common.collect.Iterators.filter;
@@ -116,8 +111,6 @@ public class RangeStream extends BaseVisitor implements CloseableIterable<QueryP
     protected Class<? extends SortedKeyValueIterator<Key,Value>> createUidsIteratorClass = CreateUidsIterator.class;
     protected Multimap<String,Type<?>> fieldDataTypes;
     
-    protected BlockingQueue<Runnable> runnables;
-    
     protected JexlNode tree = null;
     
     protected UidIntersector uidIntersector = new IndexInfo();
@@ -142,10 +135,9 @@ public class RangeStream extends BaseVisitor implements CloseableIterable<QueryP
         this.scanners = scanners;
         this.metadataHelper = metadataHelper;
         int maxLookup = (int) Math.max(config.getNumIndexLookupThreads(), 1);
-        executor = Executors.newFixedThreadPool(maxLookup);
-        runnables = new LinkedBlockingDeque<>();
-        int executeLookupMin = (int) Math.max(maxLookup / 2, 1);
-        streamExecutor = new ThreadPoolExecutor(executeLookupMin, maxLookup, 100, TimeUnit.MILLISECONDS, runnables);
+        // the lookups and the range stream scanners share server wide threads with the other queries, see IndexLookupScheduler
+        executor = IndexLookupScheduler.lookups().newQueryExecutor(config.getQuery(), maxLookup);
+        streamExecutor = IndexLookupScheduler.scans().newQueryExecutor(config.getQuery(), maxLookup);
         fieldDataTypes = config.getQueryFieldsDatatypes();
         collapseUids = config.getCollapseUids();
         try {
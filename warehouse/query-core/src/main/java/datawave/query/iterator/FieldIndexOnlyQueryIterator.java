@@ -356,10 +356,12 @@ public class FieldIndexOnlyQueryIterator extends QueryIterator {
         
         if (this.getReturnType() == ReturnType.kryo) {
             // Serialize the Document using Kryo
-            this.serializedDocuments = Iterators.transform(fieldIndexDocuments, new KryoDocumentSerializer(isReducedResponse(), isCompressResults()));
+            this.serializedDocuments = Iterators.transform(fieldIndexDocuments,
+                            new KryoDocumentSerializer(isReducedResponse(), isCompressResults(), getAttributeTypeRegistryVersion(), getKryoDocumentPool()));
         } else if (this.getReturnType() == ReturnType.writable) {
             // Use the Writable interface to serialize the Document
-            this.serializedDocuments = Iterators.transform(fieldIndexDocuments, new WritableDocumentSerializer(isReducedResponse()));
+            this.serializedDocuments = Iterators.transform(fieldIndexDocuments,
+                            new WritableDocumentSerializer(isReducedResponse(), getAttributeTypeRegistryVersion()));
         } else if (this.getReturnType() == ReturnType.tostring) {
             // Just return a toString() representation of the document
             this.serializedDocuments = Iterators.transform(fieldIndexDocuments, new ToStringDocumentSerializer(isReducedResponse()));
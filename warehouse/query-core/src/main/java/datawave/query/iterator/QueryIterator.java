@@ -29,6 +29,7 @@ import datawave.query.function.IndexOnlyContextCreatorBuilder;
 import datawave.query.function.JexlContextCreator;
 import datawave.query.function.JexlEvaluation;
 import datawave.query.function.KeyToDocumentData;
+import datawave.query.function.KryoDocumentPool;
 import datawave.query.function.LimitFields;
 import datawave.query.function.MaskedValueFilterFactory;
 import datawave.query.function.MaskedValueFilterInterface;
@@ -65,6 +66,7 @@ import datawave.query.predicate.EmptyDocumentFilter;
 import datawave.query.statsd.QueryStatsDClient;
 import datawave.query.tracking.ActiveQuery;
 import datawave.query.tracking.ActiveQueryLog;
+import datawave.query.iterator.groupby.PartialGroupingIterator;
 import datawave.query.transformer.GroupingTransform;
 import datawave.query.transformer.UniqueTransform;
 import datawave.query.util.EmptyContext;
@@ -181,6 +183,9 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
     
     protected UniqueTransform uniqueTransform = null;
     
+    // shared by the kryo serializers created for each seek, and released with this iterator
+    protected KryoDocumentPool kryoDocumentPool = null;
+    
     protected GroupingTransform groupingTransform;
     
     protected boolean groupingContextAddedByMe = false;
@@ -420,12 +425,16 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
                 pipelineDocuments = Iterators.filter(pipelineDocuments, uniquify.getUniquePredicate());
             }
             
-            // apply the grouping transform if requested and if the batch size is greater than zero
-            // if the batch size is 0, then grouping is computed only on the web server
+            // apply the grouping transform if requested, either per tablet when pushed down or if the batch size is greater than zero
+            // otherwise grouping is computed only on the web server
             GroupingTransform groupify = getGroupingTransform();
-            if (groupify != null && this.groupFieldsBatchSize > 0) {
+            if (groupify != null && (this.groupFieldsPushdown || this.groupFieldsBatchSize > 0)) {
                 
-                pipelineDocuments = groupingTransform.getGroupingIterator(pipelineDocuments, this.groupFieldsBatchSize, this.yield);
+                if (this.groupFieldsPushdown) {
+                    pipelineDocuments = new PartialGroupingIterator(pipelineDocuments, groupingTransform, this.groupFieldsPushdownMaxGroups, this.yield);
+                } else {
+                    pipelineDocuments = groupingTransform.getGroupingIterator(pipelineDocuments, this.groupFieldsBatchSize, this.yield);
+                }
                 
                 if (log.isTraceEnabled()) {
                     pipelineDocuments = Iterators.filter(pipelineDocuments, keyDocumentEntry -> {
@@ -447,10 +456,12 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
             
             if (this.getReturnType() == ReturnType.kryo) {
                 // Serialize the Document using Kryo
-                this.serializedDocuments = Iterators.transform(pipelineDocuments, new KryoDocumentSerializer(isReducedResponse(), isCompressResults()));
+                this.serializedDocuments = Iterators.transform(pipelineDocuments, new KryoDocumentSerializer(isReducedResponse(), isCompressResults(),
+                                getAttributeTypeRegistryVersion(), getKryoDocumentPool()));
             } else if (this.getReturnType() == ReturnType.writable) {
                 // Use the Writable interface to serialize the Document
-                this.serializedDocuments = Iterators.transform(pipelineDocuments, new WritableDocumentSerializer(isReducedResponse()));
+                this.serializedDocuments = Iterators.transform(pipelineDocuments,
+                                new WritableDocumentSerializer(isReducedResponse(), getAttributeTypeRegistryVersion()));
             } else if (this.getReturnType() == ReturnType.tostring) {
                 // Just return a toString() representation of the document
                 this.serializedDocuments = Iterators.transform(pipelineDocuments, new ToStringDocumentSerializer(isReducedResponse()));
@@ -480,7 +491,7 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
                 // if there is no document to return, then add an empty document
                 // to store the timing metadata
                 this.serializedDocuments = new FinalDocumentTrackingIterator(querySpanCollector, trackingSpan, originalRange, this.serializedDocuments,
-                                this.getReturnType(), this.isReducedResponse(), this.isCompressResults(), this.yield);
+                                this.getReturnType(), this.isReducedResponse(), this.isCompressResults(), this.getAttributeTypeRegistryVersion(), this.yield);
             }
             if (log.isTraceEnabled()) {
                 KryoDocumentDeserializer dser = new KryoDocumentDeserializer();
@@ -1499,6 +1510,13 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
         return new ValueComparator(from.second().getMetadata());
     }
     
+    protected KryoDocumentPool getKryoDocumentPool() {
+        if (kryoDocumentPool == null) {
+            kryoDocumentPool = new KryoDocumentPool();
+        }
+        return kryoDocumentPool;
+    }
+    
     protected UniqueTransform getUniqueTransform() {
         if (uniqueTransform == null && getUniqueFields() != null && !getUniqueFields().isEmpty()) {
             synchronized (getUniqueFields()) {
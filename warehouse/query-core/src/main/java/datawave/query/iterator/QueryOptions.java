@@ -23,6 +23,7 @@ import datawave.data.type.Type;
 import datawave.ingest.data.config.ingest.CompositeIngest;
 import datawave.query.Constants;
 import datawave.query.DocumentSerialization;
+import datawave.query.attributes.AttributeTypeRegistry;
 import datawave.query.attributes.Document;
 import datawave.query.composite.CompositeMetadata;
 import datawave.query.function.ConfiguredFunction;
@@ -134,6 +135,8 @@ public class QueryOptions implements OptionDescriber {
     public static final String LIMIT_FIELDS_FIELD = "limit.fields.field";
     public static final String GROUP_FIELDS = "group.fields";
     public static final String GROUP_FIELDS_BATCH_SIZE = "group.fields.batch.size";
+    public static final String GROUP_FIELDS_PUSHDOWN = "group.fields.pushdown";
+    public static final String GROUP_FIELDS_PUSHDOWN_MAX_GROUPS = "group.fields.pushdown.max.groups";
     public static final String UNIQUE_FIELDS = "unique.fields";
     public static final String TYPE_METADATA_IN_HDFS = "type.metadata.in.hdfs";
     public static final String HITS_ONLY = "hits.only";
@@ -215,12 +218,16 @@ public class QueryOptions implements OptionDescriber {
     
     public static final String IVARATOR_PERSIST_VERIFY_COUNT = "ivarator.persist.verify.count";
     
+    public static final String IVARATOR_PERSIST_FORMAT = "ivarator.persist.format";
+    
     public static final String MAX_IVARATOR_SOURCES = "max.ivarator.sources";
     
     public static final String MAX_IVARATOR_RESULTS = "max.ivarator.results";
     
     public static final String COMPRESS_SERVER_SIDE_RESULTS = "compress.server.side.results";
     
+    public static final String ATTRIBUTE_TYPE_REGISTRY_VERSION = "attribute.type.registry.version";
+    
     public static final String MAX_EVALUATION_PIPELINES = "max.evaluation.pipelines";
     
     public static final String SERIAL_EVALUATION_PIPELINE = "serial.evaluation.pipeline";
@@ -268,6 +275,8 @@ public class QueryOptions implements OptionDescriber {
     
     protected Set<String> groupFields = Sets.newHashSet();
     protected int groupFieldsBatchSize = Integer.MAX_VALUE;
+    protected boolean groupFieldsPushdown = false;
+    protected int groupFieldsPushdownMaxGroups = 10000;
     protected Set<String> uniqueFields = Sets.newHashSet();
     
     protected Set<String> hitsOnlySet = new HashSet<>();
@@ -346,6 +355,8 @@ public class QueryOptions implements OptionDescriber {
     
     protected boolean compressResults = false;
     
+    protected int attributeTypeRegistryVersion = AttributeTypeRegistry.CLASS_NAMES;
+    
     protected Boolean compressedMappings = false;
     protected boolean limitOverride = false;
     
@@ -453,11 +464,14 @@ public class QueryOptions implements OptionDescriber {
         this.yieldThresholdMs = other.yieldThresholdMs;
         
         this.compressResults = other.compressResults;
+        this.attributeTypeRegistryVersion = other.attributeTypeRegistryVersion;
         this.limitFieldsMap = other.limitFieldsMap;
         this.limitFieldsPreQueryEvaluation = other.limitFieldsPreQueryEvaluation;
         this.limitFieldsField = other.limitFieldsField;
         this.groupFields = other.groupFields;
         this.groupFieldsBatchSize = other.groupFieldsBatchSize;
+        this.groupFieldsPushdown = other.groupFieldsPushdown;
+        this.groupFieldsPushdownMaxGroups = other.groupFieldsPushdownMaxGroups;
         this.hitsOnlySet = other.hitsOnlySet;
         
         this.compressedMappings = other.compressedMappings;
@@ -919,6 +933,14 @@ public class QueryOptions implements OptionDescriber {
         this.compressResults = compressResults;
     }
     
+    public int getAttributeTypeRegistryVersion() {
+        return attributeTypeRegistryVersion;
+    }
+    
+    public void setAttributeTypeRegistryVersion(int attributeTypeRegistryVersion) {
+        this.attributeTypeRegistryVersion = attributeTypeRegistryVersion;
+    }
+    
     public Map<String,Integer> getLimitFieldsMap() {
         return limitFieldsMap;
     }
@@ -959,6 +981,22 @@ public class QueryOptions implements OptionDescriber {
         this.groupFieldsBatchSize = groupFieldsBatchSize;
     }
     
+    public boolean isGroupFieldsPushdown() {
+        return groupFieldsPushdown;
+    }
+    
+    public void setGroupFieldsPushdown(boolean groupFieldsPushdown) {
+        this.groupFieldsPushdown = groupFieldsPushdown;
+    }
+    
+    public int getGroupFieldsPushdownMaxGroups() {
+        return groupFieldsPushdownMaxGroups;
+    }
+    
+    public void setGroupFieldsPushdownMaxGroups(int groupFieldsPushdownMaxGroups) {
+        this.groupFieldsPushdownMaxGroups = groupFieldsPushdownMaxGroups;
+    }
+    
     public Set<String> getUniqueFields() {
         return uniqueFields;
     }
@@ -1042,6 +1080,8 @@ public class QueryOptions implements OptionDescriber {
         options.put(LIMIT_FIELDS, "limit fields");
         options.put(GROUP_FIELDS, "group fields");
         options.put(GROUP_FIELDS_BATCH_SIZE, "group fields.batch.size");
+        options.put(GROUP_FIELDS_PUSHDOWN, "Compute partial group counts per tablet rather than per batch of documents");
+        options.put(GROUP_FIELDS_PUSHDOWN_MAX_GROUPS, "The number of distinct groups at which the partial group counts are returned");
         options.put(UNIQUE_FIELDS, "unique fields");
         options.put(HIT_LIST, "hit list");
         options.put(NON_INDEXED_DATATYPES, "Normalizers to apply only at aggregation time");
@@ -1071,6 +1111,8 @@ public class QueryOptions implements OptionDescriber {
         options.put(YIELD_THRESHOLD_MS,
                         "The threshold in milliseconds that the query iterator will evaluate consecutive documents to false before yielding the scan.");
         options.put(COMPRESS_SERVER_SIDE_RESULTS, "GZIP compress the serialized Documents before returning to the webserver");
+        options.put(ATTRIBUTE_TYPE_REGISTRY_VERSION,
+                        "The latest attribute type registry version the webserver can read, used to write attribute types as ids when returning writable Documents");
         options.put(MAX_EVALUATION_PIPELINES, "The max number of evaluation pipelines");
         options.put(SERIAL_EVALUATION_PIPELINE, "Forces us to use the serial pipeline. Allows us to still have a single thread for evaluation");
         options.put(MAX_PIPELINE_CACHED_RESULTS, "The max number of non-null evaluated results to cache beyond the evaluation pipelines in queue");
@@ -1354,6 +1396,14 @@ public class QueryOptions implements OptionDescriber {
             this.setGroupFieldsBatchSize(batchSize);
         }
         
+        if (options.containsKey(GROUP_FIELDS_PUSHDOWN)) {
+            this.setGroupFieldsPushdown(Boolean.parseBoolean(options.get(GROUP_FIELDS_PUSHDOWN)));
+        }
+        
+        if (options.containsKey(GROUP_FIELDS_PUSHDOWN_MAX_GROUPS)) {
+            this.setGroupFieldsPushdownMaxGroups(Integer.parseInt(options.get(GROUP_FIELDS_PUSHDOWN_MAX_GROUPS)));
+        }
+        
         if (options.containsKey(UNIQUE_FIELDS)) {
             String uniqueFields = options.get(UNIQUE_FIELDS);
             for (String param : Splitter.on(',').omitEmptyStrings().trimResults().split(uniqueFields)) {
@@ -1457,13 +1507,22 @@ public class QueryOptions implements OptionDescriber {
         if (options.containsKey(IVARATOR_PERSIST_VERIFY)) {
             boolean verify = Boolean.parseBoolean(options.get(IVARATOR_PERSIST_VERIFY));
             FileSortedSet.PersistOptions persistOptions = getIvaratorPersistOptions();
-            this.setIvaratorPersistOptions(new FileSortedSet.PersistOptions(verify, verify, persistOptions.getNumElementsToVerify()));
+            this.setIvaratorPersistOptions(new FileSortedSet.PersistOptions(verify, verify, persistOptions.getNumElementsToVerify(), persistOptions.getFormat(),
+                            persistOptions.getBlockSize()));
         }
         
         if (options.containsKey(IVARATOR_PERSIST_VERIFY_COUNT)) {
             int numElements = Integer.parseInt(options.get(IVARATOR_PERSIST_VERIFY_COUNT));
             FileSortedSet.PersistOptions persistOptions = getIvaratorPersistOptions();
-            this.setIvaratorPersistOptions(new FileSortedSet.PersistOptions(persistOptions.isVerifySize(), persistOptions.isVerifyElements(), numElements));
+            this.setIvaratorPersistOptions(new FileSortedSet.PersistOptions(persistOptions.isVerifySize(), persistOptions.isVerifyElements(), numElements,
+                            persistOptions.getFormat(), persistOptions.getBlockSize()));
+        }
+        
+        if (options.containsKey(IVARATOR_PERSIST_FORMAT)) {
+            FileSortedSet.PersistOptions.Format format = FileSortedSet.PersistOptions.Format.valueOf(options.get(IVARATOR_PERSIST_FORMAT));
+            FileSortedSet.PersistOptions persistOptions = getIvaratorPersistOptions();
+            this.setIvaratorPersistOptions(new FileSortedSet.PersistOptions(persistOptions.isVerifySize(), persistOptions.isVerifyElements(), persistOptions
+                            .getNumElementsToVerify(), format, persistOptions.getBlockSize()));
         }
         
         if (options.containsKey(MAX_IVARATOR_SOURCES)) {
@@ -1482,6 +1541,10 @@ public class QueryOptions implements OptionDescriber {
             this.setCompressResults(Boolean.parseBoolean(options.get(COMPRESS_SERVER_SIDE_RESULTS)));
         }
         
+        if (options.containsKey(ATTRIBUTE_TYPE_REGISTRY_VERSION)) {
+            this.setAttributeTypeRegistryVersion(Integer.parseInt(options.get(ATTRIBUTE_TYPE_REGISTRY_VERSION)));
+        }
+        
         if (options.containsKey(MAX_EVALUATION_PIPELINES)) {
             this.setMaxEvaluationPipelines(Integer.parseInt(options.get(MAX_EVALUATION_PIPELINES)));
         }
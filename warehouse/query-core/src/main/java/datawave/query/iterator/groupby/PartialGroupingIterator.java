@@ -0,0 +1,84 @@
+package datawave.query.iterator.groupby;
+
+import datawave.query.attributes.Document;
+import datawave.query.transformer.GroupingTransform;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.iterators.YieldCallback;
+import org.apache.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+/**
+ * Computes partial group by counts on the tserver. Every document returned by the evaluation pipelines is counted by a {@link GroupingTransform} until the
+ * pipelines are exhausted, the scan yields, or the number of distinct groups reaches a maximum, at which point the counts are returned as a single flattened
+ * document and counting starts over. The web server merges the partial counts from every tablet into the final groups.
+ * <p>
+ * Unlike the batched grouping of {@link GroupingTransform#getGroupingIterator(Iterator, int, YieldCallback)}, which returns the counts for every fixed number
+ * of documents, the number of documents returned for a tablet here depends only on the number of distinct groups found in it. The key of the returned document
+ * is the key of the last document counted, or the yield position, so that a rebuilt iterator continues after the documents already counted.
+ */
+public class PartialGroupingIterator implements Iterator<Entry<Key,Document>> {
+    
+    private static final Logger log = Logger.getLogger(PartialGroupingIterator.class);
+    
+    private final Iterator<Entry<Key,Document>> source;
+    private final GroupingTransform groupingTransform;
+    private final int maxGroups;
+    private final YieldCallback<Key> yieldCallback;
+    
+    private Entry<Key,Document> next = null;
+    
+    /**
+     * @param source
+     *            the documents to count
+     * @param groupingTransform
+     *            a flattening grouping transform
+     * @param maxGroups
+     *            the number of distinct groups at which the counts are returned
+     * @param yieldCallback
+     *            the yield callback of the scan, may be null
+     */
+    public PartialGroupingIterator(Iterator<Entry<Key,Document>> source, GroupingTransform groupingTransform, int maxGroups, YieldCallback<Key> yieldCallback) {
+        this.source = source;
+        this.groupingTransform = groupingTransform;
+        this.maxGroups = Math.max(1, maxGroups);
+        this.yieldCallback = yieldCallback;
+    }
+    
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            int documents = 0;
+            while (source.hasNext()) {
+                groupingTransform.apply(source.next());
+                documents++;
+                if (groupingTransform.getGroupCount() >= maxGroups) {
+                    break;
+                }
+            }
+            
+            if (yieldCallback != null && yieldCallback.hasYielded() && groupingTransform.getGroupCount() > 0) {
+                // return the counts so far instead of yielding, using the yield position as the key so that the next scan starts there
+                groupingTransform.addKey(yieldCallback.getPositionAndReset());
+            }
+            
+            next = groupingTransform.flush();
+            if (log.isDebugEnabled() && next != null) {
+                log.debug("Returning partial group counts for " + documents + " documents at " + next.getKey());
+            }
+        }
+        return next != null;
+    }
+    
+    @Override
+    public Entry<Key,Document> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Entry<Key,Document> result = next;
+        next = null;
+        return result;
+    }
+}
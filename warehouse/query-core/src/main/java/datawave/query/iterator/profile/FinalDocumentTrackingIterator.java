@@ -2,6 +2,7 @@ package datawave.query.iterator.profile;
 
 import com.google.common.collect.Iterators;
 import datawave.query.DocumentSerialization;
+import datawave.query.attributes.AttributeTypeRegistry;
 import datawave.query.attributes.Document;
 import datawave.query.function.LogTiming;
 import datawave.query.function.serializer.KryoDocumentSerializer;
@@ -37,17 +38,20 @@ public class FinalDocumentTrackingIterator implements Iterator<Map.Entry<Key,Val
     private DocumentSerialization.ReturnType returnType = null;
     private boolean isReducedResponse = false;
     private boolean isCompressResults = false;
+    private int attributeTypeRegistryVersion = AttributeTypeRegistry.CLASS_NAMES;
     private QuerySpanCollector querySpanCollector = null;
     private QuerySpan querySpan = null;
     private YieldCallback yield = null;
     
     public FinalDocumentTrackingIterator(QuerySpanCollector querySpanCollector, QuerySpan querySpan, Range seekRange, Iterator<Map.Entry<Key,Value>> itr,
-                    DocumentSerialization.ReturnType returnType, boolean isReducedResponse, boolean isCompressResults, YieldCallback<Key> yield) {
+                    DocumentSerialization.ReturnType returnType, boolean isReducedResponse, boolean isCompressResults, int attributeTypeRegistryVersion,
+                    YieldCallback<Key> yield) {
         this.itr = itr;
         this.seekRange = seekRange;
         this.returnType = returnType;
         this.isReducedResponse = isReducedResponse;
         this.isCompressResults = isCompressResults;
+        this.attributeTypeRegistryVersion = attributeTypeRegistryVersion;
         this.querySpanCollector = querySpanCollector;
         this.querySpan = querySpan;
         this.yield = yield;
@@ -95,10 +99,11 @@ public class FinalDocumentTrackingIterator implements Iterator<Map.Entry<Key,Val
         
         if (returnType == DocumentSerialization.ReturnType.kryo) {
             // Serialize the Document using Kryo
-            serializedDocuments = Iterators.transform(emptyDocumentIterator, new KryoDocumentSerializer(isReducedResponse, isCompressResults));
+            serializedDocuments = Iterators.transform(emptyDocumentIterator, new KryoDocumentSerializer(isReducedResponse, isCompressResults,
+                            attributeTypeRegistryVersion));
         } else if (returnType == DocumentSerialization.ReturnType.writable) {
             // Use the Writable interface to serialize the Document
-            serializedDocuments = Iterators.transform(emptyDocumentIterator, new WritableDocumentSerializer(isReducedResponse));
+            serializedDocuments = Iterators.transform(emptyDocumentIterator, new WritableDocumentSerializer(isReducedResponse, attributeTypeRegistryVersion));
         } else if (returnType == DocumentSerialization.ReturnType.tostring) {
             // Just return a toString() representation of the document
             serializedDocuments = Iterators.transform(emptyDocumentIterator, new ToStringDocumentSerializer(isReducedResponse));
@@ -84,6 +84,10 @@ public class ContentQueryMetricsIngestHelper extends CSVIngestHelper implements
         return normalize(delegate.getEventFieldsToWrite(updatedQueryMetric));
     }
     
+    public Multimap<String,NormalizedContentInterface> getEventFieldsToAppend(BaseQueryMetric updatedQueryMetric, BaseQueryMetric storedQueryMetric) {
+        return normalize(delegate.getEventFieldsToAppend(updatedQueryMetric, storedQueryMetric));
+    }
+    
     @Override
     public boolean isTermFrequencyField(String field) {
         return contentIndexFields.contains(field);
@@ -235,6 +239,10 @@ public class ContentQueryMetricsIngestHelper extends CSVIngestHelper implements
             fields.put("YIELD_COUNT", Long.toString(updatedQueryMetric.getYieldCount()));
             fields.put("DOC_RANGES", Long.toString(updatedQueryMetric.getDocRanges()));
             fields.put("FI_RANGES", Long.toString(updatedQueryMetric.getFiRanges()));
+            fields.put("PREFETCH_DEPTH", Long.toString(updatedQueryMetric.getPrefetchDepth()));
+            fields.put("PREFETCH_WAIT_TIME", Long.toString(updatedQueryMetric.getPrefetchWaitTime()));
+            fields.put("UNIQUE_MEMORY_USED", Long.toString(updatedQueryMetric.getUniqueMemoryUsed()));
+            fields.put("UNIQUE_SPILL_COUNT", Long.toString(updatedQueryMetric.getUniqueSpillCount()));
             Set<Prediction> predictions = updatedQueryMetric.getPredictions();
             if (predictions != null && !predictions.isEmpty()) {
                 for (Prediction prediction : predictions) {
@@ -251,6 +259,37 @@ public class ContentQueryMetricsIngestHelper extends CSVIngestHelper implements
             
         }
         
+        /**
+         * The fields to write when updates are appended instead of replacing the stored values: all of the fields to write, except for the page metrics that
+         * have not changed since the stored metric was written
+         *
+         * @param updatedQueryMetric
+         *            the updated metric
+         * @param storedQueryMetric
+         *            the metric written by the previous update, or null
+         * @return the fields to write
+         */
+        public Multimap<String,String> getEventFieldsToAppend(T updatedQueryMetric, T storedQueryMetric) {
+            
+            Multimap<String,String> fields = getEventFieldsToWrite(updatedQueryMetric);
+            
+            List<PageMetric> storedPageMetrics = storedQueryMetric == null ? null : storedQueryMetric.getPageTimes();
+            List<PageMetric> updatedPageMetrics = updatedQueryMetric.getPageTimes();
+            if (storedPageMetrics != null && updatedPageMetrics != null) {
+                Map<Long,PageMetric> storedPageMetricMap = new HashMap<>();
+                for (PageMetric p : storedPageMetrics) {
+                    storedPageMetricMap.put(p.getPageNumber(), p);
+                }
+                for (PageMetric p : updatedPageMetrics) {
+                    if (p.equals(storedPageMetricMap.get(p.getPageNumber()))) {
+                        fields.removeAll("PAGE_METRICS." + p.getPageNumber());
+                    }
+                }
+            }
+            
+            return fields;
+        }
+        
         public Multimap<String,String> getEventFieldsToDelete(T updatedQueryMetric, T storedQueryMetric) {
             
             HashMultimap<String,String> fields = HashMultimap.create();
@@ -338,6 +377,18 @@ public class ContentQueryMetricsIngestHelper extends CSVIngestHelper implements
             if (updatedQueryMetric.getFiRanges() != storedQueryMetric.getFiRanges()) {
                 fields.put("FI_RANGES", Long.toString(storedQueryMetric.getFiRanges()));
             }
+            if (updatedQueryMetric.getPrefetchDepth() != storedQueryMetric.getPrefetchDepth()) {
+                fields.put("PREFETCH_DEPTH", Long.toString(storedQueryMetric.getPrefetchDepth()));
+            }
+            if (updatedQueryMetric.getPrefetchWaitTime() != storedQueryMetric.getPrefetchWaitTime()) {
+                fields.put("PREFETCH_WAIT_TIME", Long.toString(storedQueryMetric.getPrefetchWaitTime()));
+            }
+            if (updatedQueryMetric.getUniqueMemoryUsed() != storedQueryMetric.getUniqueMemoryUsed()) {
+                fields.put("UNIQUE_MEMORY_USED", Long.toString(storedQueryMetric.getUniqueMemoryUsed()));
+            }
+            if (updatedQueryMetric.getUniqueSpillCount() != storedQueryMetric.getUniqueSpillCount()) {
+                fields.put("UNIQUE_SPILL_COUNT", Long.toString(storedQueryMetric.getUniqueSpillCount()));
+            }
             
             putExtendedFieldsToDelete(updatedQueryMetric, fields);
             
@@ -0,0 +1,195 @@
+package datawave.query.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.OptionDescriber;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.WrappingIterator;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Keeps only the latest value of each query metric field that changes while a query runs. When the {@link ShardTableQueryMetricHandler} appends updates
+ * instead of replacing the stored values, each update writes the new values of these fields next to the old ones with a newer timestamp, and this iterator
+ * hides the old values at scan time and drops them at compaction time. The other fields of the event, the other datatypes, the field index and the delete keys
+ * are passed through.
+ * <p>
+ * The values of a field are sorted by value rather than by time, so the latest is found by reading all of them. When a seek lands inside the values of a field,
+ * it is moved back to the first value of the field.
+ */
+public class QueryMetricCombiningIterator extends WrappingIterator implements OptionDescriber {
+    
+    public static final String DATATYPE = "datatype";
+    public static final String UPDATED_FIELDS = "updated.fields";
+    
+    public static final String DEFAULT_DATATYPE = "querymetrics";
+    public static final Set<String> DEFAULT_UPDATED_FIELDS = ImmutableSet.of("CREATE_CALL_TIME", "DOC_RANGES", "ELAPSED_TIME", "FI_RANGES", "LAST_UPDATED",
+                    "LIFECYCLE", "LOGIN_TIME", "NEXT_COUNT", "NUM_PAGES", "NUM_RESULTS", "NUM_UPDATES", "PAGE_METRICS", "PREFETCH_DEPTH", "PREFETCH_WAIT_TIME",
+                    "SEEK_COUNT", "SETUP_TIME", "SOURCE_COUNT", "UNIQUE_MEMORY_USED", "UNIQUE_SPILL_COUNT", "YIELD_COUNT");
+    
+    private byte[] eventColumnFamilyPrefix = (DEFAULT_DATATYPE + '\0').getBytes(StandardCharsets.UTF_8);
+    private Set<String> updatedFields = DEFAULT_UPDATED_FIELDS;
+    
+    private Key topKey = null;
+    private Value topValue = null;
+    
+    public QueryMetricCombiningIterator() {}
+    
+    private QueryMetricCombiningIterator(QueryMetricCombiningIterator other, IteratorEnvironment env) {
+        setSource(other.getSource().deepCopy(env));
+        this.eventColumnFamilyPrefix = other.eventColumnFamilyPrefix;
+        this.updatedFields = other.updatedFields;
+    }
+    
+    /**
+     * @return true if the field name, without its grouping context, is one of the updated fields
+     */
+    public static boolean isUpdatedField(String fieldName) {
+        int index = fieldName.indexOf('.');
+        return DEFAULT_UPDATED_FIELDS.contains(index < 0 ? fieldName : fieldName.substring(0, index));
+    }
+    
+    @Override
+    public void init(SortedKeyValueIterator<Key,Value> source, Map<String,String> options, IteratorEnvironment env) throws IOException {
+        super.init(source, options, env);
+        if (options.containsKey(DATATYPE)) {
+            this.eventColumnFamilyPrefix = (options.get(DATATYPE) + '\0').getBytes(StandardCharsets.UTF_8);
+        }
+        if (options.containsKey(UPDATED_FIELDS)) {
+            this.updatedFields = ImmutableSet.copyOf(Splitter.on(',').omitEmptyStrings().trimResults().split(options.get(UPDATED_FIELDS)));
+        }
+    }
+    
+    @Override
+    public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+        return new QueryMetricCombiningIterator(this, env);
+    }
+    
+    @Override
+    public boolean hasTop() {
+        return topKey != null;
+    }
+    
+    @Override
+    public Key getTopKey() {
+        return topKey;
+    }
+    
+    @Override
+    public Value getTopValue() {
+        return topValue;
+    }
+    
+    @Override
+    public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
+        Range seekRange = range;
+        Key start = range.getStartKey();
+        if (start != null) {
+            String field = getUpdatedField(start);
+            if (field != null) {
+                Key fieldStart = new Key(start.getRow(), start.getColumnFamily(), new Text(field + '\0'));
+                seekRange = new Range(fieldStart, true, range.getEndKey(), range.isEndKeyInclusive());
+            }
+        }
+        super.seek(seekRange, columnFamilies, inclusive);
+        
+        findTop();
+        // the values that were only read to find the latest value of a field
+        while (topKey != null && range.beforeStartKey(topKey)) {
+            findTop();
+        }
+    }
+    
+    @Override
+    public void next() throws IOException {
+        findTop();
+    }
+    
+    private void findTop() throws IOException {
+        topKey = null;
+        topValue = null;
+        SortedKeyValueIterator<Key,Value> source = getSource();
+        if (!source.hasTop()) {
+            return;
+        }
+        
+        topKey = new Key(source.getTopKey());
+        topValue = new Value(source.getTopValue());
+        String field = getUpdatedField(topKey);
+        source.next();
+        if (field == null) {
+            return;
+        }
+        
+        byte[] fieldPrefix = (field + '\0').getBytes(StandardCharsets.UTF_8);
+        while (source.hasTop()) {
+            Key key = source.getTopKey();
+            if (key.isDeleted() || !key.getRowData().equals(topKey.getRowData()) || !key.getColumnFamilyData().equals(topKey.getColumnFamilyData())
+                            || !startsWith(key.getColumnQualifierData(), fieldPrefix)) {
+                break;
+            }
+            if (key.getTimestamp() >= topKey.getTimestamp()) {
+                topKey = new Key(key);
+                topValue = new Value(source.getTopValue());
+            }
+            source.next();
+        }
+    }
+    
+    /**
+     * @return the field name of an event key of one of the updated fields, with its grouping context, or null
+     */
+    private String getUpdatedField(Key key) {
+        if (key.isDeleted() || !startsWith(key.getColumnFamilyData(), eventColumnFamilyPrefix)) {
+            return null;
+        }
+        ByteSequence cq = key.getColumnQualifierData();
+        int end = 0;
+        while (end < cq.length() && cq.byteAt(end) != 0) {
+            end++;
+        }
+        if (end == cq.length()) {
+            return null;
+        }
+        String field = new String(cq.subSequence(0, end).toArray(), StandardCharsets.UTF_8);
+        int index = field.indexOf('.');
+        return updatedFields.contains(index < 0 ? field : field.substring(0, index)) ? field : null;
+    }
+    
+    private static boolean startsWith(ByteSequence bytes, byte[] prefix) {
+        if (bytes.length() < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes.byteAt(i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public IteratorOptions describeOptions() {
+        return new IteratorOptions("queryMetricCombiner", "Keeps only the latest value of the query metric fields that are updated while a query runs",
+                        ImmutableMap.of(DATATYPE, "the datatype of the query metric events, " + DEFAULT_DATATYPE + " by default", UPDATED_FIELDS,
+                                        "comma separated names of the updated fields, " + String.join(",", DEFAULT_UPDATED_FIELDS) + " by default"),
+                        null);
+    }
+    
+    @Override
+    public boolean validateOptions(Map<String,String> options) {
+        return !options.containsKey(DATATYPE) || !options.get(DATATYPE).isEmpty();
+    }
+}
@@ -0,0 +1,283 @@
+package datawave.query.metrics;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import datawave.webservice.query.metric.BaseQueryMetric;
+import datawave.webservice.query.metric.BaseQueryMetric.Lifecycle;
+import datawave.webservice.query.metric.BaseQueryMetric.PageMetric;
+import datawave.webservice.query.metric.QueryMetricSummary;
+import datawave.webservice.query.metric.QueryMetricsSummaryResponse;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.commons.lang.time.DateUtils;
+import org.apache.hadoop.io.Text;
+
+/**
+ * The format of the hourly query metric rollups, which summarize the queries created in an hour per user and query logic so that a summary over a time range
+ * reads a few keys per hour instead of every query metric in the range.
+ * <p>
+ * The row is the hour that the queries were created in, yyyyMMddHH in UTC, the column family is the statistic and the column qualifier is the user and the
+ * query logic separated by a null byte. The values are longs encoded as strings, as in the metrics summary tables, and a rollup table combines the values that
+ * are written for each metric update: the counts and totals are summed, and the minimums and maximums are kept by a MinCombiner and a MaxCombiner. The
+ * histogram of the page response times has a column qualifier per bucket, with the upper bound of the bucket in ms appended to the user and query logic.
+ */
+public class QueryMetricRollup {
+    
+    public static final String QUERIES = "QUERIES";
+    public static final String PAGES = "PAGES";
+    public static final String PAGE_RESULTS = "PAGE_RESULTS";
+    public static final String PAGE_RESPONSE_TIME = "PAGE_RESPONSE_TIME";
+    public static final String PAGE_RESPONSE_TIME_HISTOGRAM = "PAGE_RESPONSE_TIME_HISTOGRAM";
+    public static final String MIN_PAGE_RESULTS = "MIN_PAGE_RESULTS";
+    public static final String MAX_PAGE_RESULTS = "MAX_PAGE_RESULTS";
+    public static final String MIN_PAGE_RESPONSE_TIME = "MIN_PAGE_RESPONSE_TIME";
+    public static final String MAX_PAGE_RESPONSE_TIME = "MAX_PAGE_RESPONSE_TIME";
+    
+    public static final String SUMMED_COLUMNS = String.join(",", QUERIES, PAGES, PAGE_RESULTS, PAGE_RESPONSE_TIME, PAGE_RESPONSE_TIME_HISTOGRAM);
+    public static final String MIN_COLUMNS = String.join(",", MIN_PAGE_RESULTS, MIN_PAGE_RESPONSE_TIME);
+    public static final String MAX_COLUMNS = String.join(",", MAX_PAGE_RESULTS, MAX_PAGE_RESPONSE_TIME);
+    
+    /**
+     * The upper bounds in ms of the buckets of the page response time histogram, the last bucket has no upper bound
+     */
+    public static final long[] HISTOGRAM_BUCKETS = {10, 100, 1000, 10000, 60000, 300000};
+    public static final String HISTOGRAM_OVERFLOW = "MAX";
+    
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHH").withZone(ZoneOffset.UTC);
+    
+    private QueryMetricRollup() {}
+    
+    /**
+     * @param date
+     *            a date
+     * @return the row of the hour of the date
+     */
+    public static String getRow(Date date) {
+        return HOUR_FORMAT.format(date.toInstant());
+    }
+    
+    /**
+     * @param row
+     *            a row
+     * @return the start of the hour of the row
+     */
+    public static Date getHour(String row) {
+        return Date.from(LocalDateTime.parse(row + "0000", DateTimeFormatter.ofPattern("yyyyMMddHHmmss")).toInstant(ZoneOffset.UTC));
+    }
+    
+    /**
+     * Whether an update is the first one of a query, by the same reasoning as the {@link ShardTableQueryMetricHandler} uses to decide whether a metric should
+     * have been stored already
+     *
+     * @param queryMetric
+     *            the updated metric
+     * @return true if no update of the query can have been written before this one
+     */
+    public static boolean isNewQuery(BaseQueryMetric queryMetric) {
+        return queryMetric.getNumPages() == 0 && queryMetric.getLifecycle().compareTo(Lifecycle.DEFINED) <= 0;
+    }
+    
+    /**
+     * Get the rollup of the difference between an update and the metric written by the previous update: the query when there is no previous update, and the
+     * pages that the previous update did not have
+     *
+     * @param updatedQueryMetric
+     *            the updated metric
+     * @param storedQueryMetric
+     *            the metric written by the previous update, or null if this is the first update of the query
+     * @param visibility
+     *            the visibility of the rollup
+     * @return the mutation, or null if there is nothing to roll up
+     */
+    public static Mutation getMutation(BaseQueryMetric updatedQueryMetric, BaseQueryMetric storedQueryMetric, ColumnVisibility visibility) {
+        Mutation m = new Mutation(getRow(updatedQueryMetric.getCreateDate()));
+        String column = updatedQueryMetric.getUser() + '\0' + updatedQueryMetric.getQueryLogic();
+        
+        if (storedQueryMetric == null) {
+            put(m, QUERIES, column, visibility, 1);
+        }
+        
+        Set<Long> storedPages = new HashSet<>();
+        List<PageMetric> storedPageMetrics = storedQueryMetric == null ? null : storedQueryMetric.getPageTimes();
+        if (storedPageMetrics != null) {
+            for (PageMetric p : storedPageMetrics) {
+                storedPages.add(p.getPageNumber());
+            }
+        }
+        
+        List<PageMetric> updatedPageMetrics = updatedQueryMetric.getPageTimes();
+        if (updatedPageMetrics != null) {
+            for (PageMetric p : updatedPageMetrics) {
+                if (storedPages.contains(p.getPageNumber())) {
+                    continue;
+                }
+                put(m, PAGES, column, visibility, 1);
+                put(m, PAGE_RESULTS, column, visibility, p.getPagesize());
+                put(m, MIN_PAGE_RESULTS, column, visibility, p.getPagesize());
+                put(m, MAX_PAGE_RESULTS, column, visibility, p.getPagesize());
+                put(m, PAGE_RESPONSE_TIME, column, visibility, p.getReturnTime());
+                put(m, MIN_PAGE_RESPONSE_TIME, column, visibility, p.getReturnTime());
+                put(m, MAX_PAGE_RESPONSE_TIME, column, visibility, p.getReturnTime());
+                put(m, PAGE_RESPONSE_TIME_HISTOGRAM, column + '\0' + getHistogramBucket(p.getReturnTime()), visibility, 1);
+            }
+        }
+        
+        return m.size() == 0 ? null : m;
+    }
+    
+    private static void put(Mutation m, String statistic, String column, ColumnVisibility visibility, long value) {
+        m.put(new Text(statistic), new Text(column), visibility, new Value(Long.toString(value).getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    /**
+     * @param responseTime
+     *            a page response time in ms
+     * @return the label of the histogram bucket of the response time
+     */
+    public static String getHistogramBucket(long responseTime) {
+        for (long bucket : HISTOGRAM_BUCKETS) {
+            if (responseTime <= bucket) {
+                return Long.toString(bucket);
+            }
+        }
+        return HISTOGRAM_OVERFLOW;
+    }
+    
+    /**
+     * Summarize the rollups of a range of hours into the time windows of a summary response, relative to now. An hour is in a window if its start is, so the
+     * windows are only accurate to the hour.
+     *
+     * @param entries
+     *            the rollup entries, sorted by row
+     * @param response
+     *            the response to fill in
+     * @param now
+     *            the end of the windows
+     * @param <T>
+     *            the response type
+     * @return the response
+     */
+    public static <T extends QueryMetricsSummaryResponse> T summarize(Iterator<Entry<Key,Value>> entries, T response, Date now) {
+        Date[] windowStarts = {DateUtils.addHours(now, -1), DateUtils.addHours(now, -6), DateUtils.addHours(now, -12), DateUtils.addDays(now, -1),
+                DateUtils.addDays(now, -7), DateUtils.addDays(now, -30), DateUtils.addDays(now, -60), DateUtils.addDays(now, -90), new Date(Long.MIN_VALUE)};
+        QueryMetricSummary[] buckets = {response.getHour1(), response.getHour6(), response.getHour12(), response.getDay1(), response.getDay7(),
+                response.getDay30(), response.getDay60(), response.getDay90(), response.getAll()};
+        Summary[] windows = new Summary[buckets.length];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = new Summary();
+        }
+        
+        Text row = new Text();
+        Text cf = new Text();
+        String hourRow = null;
+        Summary hour = new Summary();
+        while (entries.hasNext()) {
+            Entry<Key,Value> entry = entries.next();
+            entry.getKey().getRow(row);
+            if (!row.toString().equals(hourRow)) {
+                if (hourRow != null) {
+                    addToWindows(hour, getHour(hourRow), windowStarts, windows);
+                }
+                hourRow = row.toString();
+                hour = new Summary();
+            }
+            entry.getKey().getColumnFamily(cf);
+            hour.add(cf.toString(), Long.parseLong(entry.getValue().toString()));
+        }
+        if (hourRow != null) {
+            addToWindows(hour, getHour(hourRow), windowStarts, windows);
+        }
+        
+        for (int i = 0; i < buckets.length; i++) {
+            windows[i].fill(buckets[i]);
+        }
+        return response;
+    }
+    
+    private static void addToWindows(Summary hour, Date start, Date[] windowStarts, Summary[] windows) {
+        for (int i = 0; i < windows.length; i++) {
+            if (!start.before(windowStarts[i])) {
+                windows[i].add(hour);
+            }
+        }
+    }
+    
+    /**
+     * The statistics of the rollups of an hour or a time window
+     */
+    private static class Summary {
+        private long queries = 0;
+        private long pages = 0;
+        private long pageResults = 0;
+        private long pageResponseTime = 0;
+        private long minPageResults = Long.MAX_VALUE;
+        private long maxPageResults = 0;
+        private long minPageResponseTime = Long.MAX_VALUE;
+        private long maxPageResponseTime = 0;
+        
+        private void add(String statistic, long value) {
+            switch (statistic) {
+                case QUERIES:
+                    queries += value;
+                    break;
+                case PAGES:
+                    pages += value;
+                    break;
+                case PAGE_RESULTS:
+                    pageResults += value;
+                    break;
+                case PAGE_RESPONSE_TIME:
+                    pageResponseTime += value;
+                    break;
+                case MIN_PAGE_RESULTS:
+                    minPageResults = Math.min(minPageResults, value);
+                    break;
+                case MAX_PAGE_RESULTS:
+                    maxPageResults = Math.max(maxPageResults, value);
+                    break;
+                case MIN_PAGE_RESPONSE_TIME:
+                    minPageResponseTime = Math.min(minPageResponseTime, value);
+                    break;
+                case MAX_PAGE_RESPONSE_TIME:
+                    maxPageResponseTime = Math.max(maxPageResponseTime, value);
+                    break;
+                default:
+                    // the histogram is not part of the summary response
+            }
+        }
+        
+        private void add(Summary other) {
+            queries += other.queries;
+            pages += other.pages;
+            pageResults += other.pageResults;
+            pageResponseTime += other.pageResponseTime;
+            minPageResults = Math.min(minPageResults, other.minPageResults);
+            maxPageResults = Math.max(maxPageResults, other.maxPageResults);
+            minPageResponseTime = Math.min(minPageResponseTime, other.minPageResponseTime);
+            maxPageResponseTime = Math.max(maxPageResponseTime, other.maxPageResponseTime);
+        }
+        
+        private void fill(QueryMetricSummary summary) {
+            summary.setQueryCount(queries);
+            summary.setTotalPages(pages);
+            summary.setTotalPageResultSize(pageResults);
+            summary.setTotalPageResponseTime(pageResponseTime);
+            summary.setMinPageResultSize(pages == 0 ? 0 : minPageResults);
+            summary.setMaxPageResultSize(maxPageResults);
+            summary.setMinPageResponseTime(pages == 0 ? 0 : minPageResponseTime);
+            summary.setMaxPageResponseTime(maxPageResponseTime);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package datawave.query.metrics;
+
+import datawave.ingest.table.config.AbstractTableConfigHelper;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.client.admin.TableOperations;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.apache.accumulo.core.iterators.user.MaxCombiner;
+import org.apache.accumulo.core.iterators.user.MinCombiner;
+import org.apache.accumulo.core.iterators.user.SummingCombiner;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.log4j.Logger;
+
+/**
+ * Configures the table of the {@link QueryMetricRollup}s with the combiners of its statistics, before the versioning iterator so that the values written for
+ * each metric update are combined rather than replaced.
+ */
+public class QueryMetricRollupTableConfigHelper extends AbstractTableConfigHelper {
+    
+    protected Logger log;
+    protected String tableName;
+    
+    @Override
+    public void setup(String tableName, Configuration config, Logger log) throws IllegalArgumentException {
+        this.log = log;
+        this.tableName = tableName;
+    }
+    
+    @Override
+    public void configure(TableOperations tops) throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
+        for (IteratorScope scope : IteratorScope.values()) {
+            setCombiner(tops, scope, "sum", "16," + SummingCombiner.class.getName(), QueryMetricRollup.SUMMED_COLUMNS);
+            setCombiner(tops, scope, "min", "17," + MinCombiner.class.getName(), QueryMetricRollup.MIN_COLUMNS);
+            setCombiner(tops, scope, "max", "18," + MaxCombiner.class.getName(), QueryMetricRollup.MAX_COLUMNS);
+        }
+    }
+    
+    private void setCombiner(TableOperations tops, IteratorScope scope, String name, String config, String columns) throws AccumuloException,
+                    AccumuloSecurityException, TableNotFoundException {
+        String stem = String.format("%s%s.%s", Property.TABLE_ITERATOR_PREFIX, scope.name(), name);
+        setPropertyIfNecessary(tableName, stem, config, tops, log);
+        setPropertyIfNecessary(tableName, stem + ".opt.columns", columns, tops, log);
+        setPropertyIfNecessary(tableName, stem + ".opt.lossy", "FALSE", tops, log);
+        setPropertyIfNecessary(tableName, stem + ".opt.type", "STRING", tops, log);
+    }
+}
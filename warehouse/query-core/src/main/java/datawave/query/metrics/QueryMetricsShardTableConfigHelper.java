@@ -0,0 +1,29 @@
+package datawave.query.metrics;
+
+import datawave.ingest.table.config.ShardTableConfigHelper;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.client.admin.TableOperations;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+
+/**
+ * Configures the query metrics shard table like any other shard table, with the {@link QueryMetricCombiningIterator} after the versioning iterator so that
+ * only the latest value of each updated field is seen when the updates are appended.
+ */
+public class QueryMetricsShardTableConfigHelper extends ShardTableConfigHelper {
+    
+    protected static final String QUERY_METRIC_COMBINER_CONFIG = "25," + QueryMetricCombiningIterator.class.getName();
+    
+    @Override
+    protected void configureShardTable(TableOperations tops) throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
+        super.configureShardTable(tops);
+        
+        for (IteratorScope scope : IteratorScope.values()) {
+            String stem = String.format("%s%s.%s", Property.TABLE_ITERATOR_PREFIX, scope.name(), "QueryMetricCombiner");
+            setPropertyIfNecessary(tableName, stem, QUERY_METRIC_COMBINER_CONFIG, tops, log);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -17,16 +18,22 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ObjectArrays;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.Striped;
 
 import datawave.configuration.DatawaveEmbeddedProjectStageHolder;
 import datawave.data.hash.UID;
@@ -40,6 +47,7 @@ import datawave.ingest.mapreduce.handler.shard.AbstractColumnBasedHandler;
 import datawave.ingest.mapreduce.job.BulkIngestKey;
 import datawave.ingest.mapreduce.job.writer.LiveContextWriter;
 import datawave.ingest.table.config.TableConfigHelper;
+import datawave.query.Constants;
 import datawave.query.iterator.QueryOptions;
 import datawave.query.map.SimpleQueryGeometryHandler;
 import datawave.security.authorization.DatawavePrincipal;
@@ -78,12 +86,17 @@ import datawave.webservice.result.EventQueryResponseBase;
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
 import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.Scanner;
 import org.apache.accumulo.core.client.TableExistsException;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.client.admin.TableOperations;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.user.RegExFilter;
+import org.apache.accumulo.core.security.Authorizations;
 import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.collections4.map.LRUMap;
@@ -130,6 +143,14 @@ public class ShardTableQueryMetricHandler extends BaseQueryMetricHandler<QueryMe
     @ConfigProperty(name = "dw.query.metrics.visibility")
     protected String visibilityString;
     
+    @Inject
+    @ConfigProperty(name = "dw.query.metrics.appendOnly", defaultValue = "false")
+    protected boolean appendOnly;
+    
+    @Inject
+    @ConfigProperty(name = "dw.query.metrics.rollups", defaultValue = "false")
+    protected boolean rollups;
+    
     @Inject
     private QueryMetricFactory metricFactory;
     
@@ -141,10 +162,13 @@ public class ShardTableQueryMetricHandler extends BaseQueryMetricHandler<QueryMe
     @SuppressWarnings("FieldCanBeLocal")
     private static final String NULL_BYTE = "\0";
     public static final String CONTEXT_WRITER_MAX_CACHE_SIZE = "context.writer.max.cache.size";
+    public static final String ROLLUP_TABLE_NAME = "querymetrics.rollup.table.name";
     
     // static to share the cache across instances of this class held by QueryExecutorBean, CachedResultsBean, QueryMetricsEnrichmentInterceptor, etc
     @SuppressWarnings("unchecked")
     private static Map metricsCache = Collections.synchronizedMap(new LRUMap(5000));
+    // the updates of a query are made one at a time, the updates of different queries concurrently
+    private static final Striped<Lock> metricLocks = Striped.lock(256);
     
     private final Configuration conf = new Configuration();
     private final StatusReporter reporter = new MockStatusReporter();
@@ -206,7 +230,11 @@ public class ShardTableQueryMetricHandler extends BaseQueryMetricHandler<QueryMe
         try {
             connector = this.connectionFactory.getConnection(Priority.ADMIN, new HashMap<>());
             AbstractColumnBasedHandler<Key> handler = new ContentQueryMetricsHandler<>();
-            createAndConfigureTablesIfNecessary(handler.getTableNames(conf), connector.tableOperations(), conf);
+            String[] tableNames = handler.getTableNames(conf);
+            if (rollups) {
+                tableNames = ObjectArrays.concat(tableNames, conf.get(ROLLUP_TABLE_NAME));
+            }
+            createAndConfigureTablesIfNecessary(tableNames, connector.tableOperations(), conf);
         } catch (Exception e) {
             log.error("Error verifying table configuration", e);
         } finally {
@@ -221,6 +249,14 @@ public class ShardTableQueryMetricHandler extends BaseQueryMetricHandler<QueryMe
     }
     
     private void writeMetrics(QueryMetric updatedQueryMetric, List<QueryMetric> storedQueryMetrics, Date lastUpdated, boolean delete) throws Exception {
+        List<Function<AbstractColumnBasedHandler<Key>,Multimap<BulkIngestKey,Value>>> events = new ArrayList<>();
+        for (QueryMetric storedQueryMetric : storedQueryMetrics) {
+            events.add(handler -> getEntries(handler, updatedQueryMetric, storedQueryMetric, lastUpdated, delete));
+        }
+        writeEntries(events);
+    }
+    
+    private void writeEntries(List<Function<AbstractColumnBasedHandler<Key>,Multimap<BulkIngestKey,Value>>> events) throws Exception {
         LiveContextWriter contextWriter = null;
         
         MapContext<Text,RawRecordContainer,Text,Mutation> context = null;
@@ -232,11 +268,11 @@ public class ShardTableQueryMetricHandler extends BaseQueryMetricHandler<QueryMe
             TaskAttemptID taskId = new TaskAttemptID(new TaskID(new JobID(JOB_ID, 1), TaskType.MAP, 1), 1);
             context = new MapContextImpl<>(conf, taskId, null, recordWriter, null, reporter, null);
             
-            for (QueryMetric storedQueryMetric : storedQueryMetrics) {
+            for (Function<AbstractColumnBasedHandler<Key>,Multimap<BulkIngestKey,Value>> event : events) {
                 AbstractColumnBasedHandler<Key> handler = new ContentQueryMetricsHandler<>();
                 handler.setup(context);
                 
-                Multimap<BulkIngestKey,Value> r = getEntries(handler, updatedQueryMetric, storedQueryMetric, lastUpdated, delete);
+                Multimap<BulkIngestKey,Value> r = event.apply(handler);
                 
                 try {
                     if (r != null) {
@@ -271,11 +307,29 @@ public class ShardTableQueryMetricHandler extends BaseQueryMetricHandler<QueryMe
     
     private Multimap<BulkIngestKey,Value> getEntries(AbstractColumnBasedHandler<Key> handler, QueryMetric updatedQueryMetric, QueryMetric storedQueryMetric,
                     Date lastUpdated, boolean delete) {
-        Type type = TypeRegistry.getType("querymetrics");
         ContentQueryMetricsIngestHelper ingestHelper = new ContentQueryMetricsIngestHelper(delete);
         
         ingestHelper.setup(conf);
         
+        final Multimap<String,NormalizedContentInterface> fields;
+        final long timestamp;
+        
+        if (delete) {
+            fields = ingestHelper.getEventFieldsToDelete(updatedQueryMetric, storedQueryMetric);
+            timestamp = lastUpdated.getTime();
+        } else {
+            fields = ingestHelper.getEventFieldsToWrite(updatedQueryMetric);
+            // this will ensure that the QueryMetrics can be found within second precision in most cases
+            timestamp = storedQueryMetric.getCreateDate().getTime() + storedQueryMetric.getNumUpdates();
+        }
+        
+        return getEntries(handler, ingestHelper, storedQueryMetric, fields, timestamp, delete);
+    }
+    
+    private Multimap<BulkIngestKey,Value> getEntries(AbstractColumnBasedHandler<Key> handler, ContentQueryMetricsIngestHelper ingestHelper,
+                    QueryMetric storedQueryMetric, Multimap<String,NormalizedContentInterface> fields, long timestamp, boolean delete) {
+        Type type = TypeRegistry.getType("querymetrics");
+        
         RawRecordContainerImpl event = new RawRecordContainerImpl();
         event.setConf(this.conf);
         event.setDataType(type);
@@ -292,14 +346,6 @@ public class ShardTableQueryMetricHandler extends BaseQueryMetricHandler<QueryMe
         
         event.setId(uidBuilder.newId(storedQueryMetric.getQueryId().getBytes(), (Date) null));
         
-        final Multimap<String,NormalizedContentInterface> fields;
-        
-        if (delete) {
-            fields = ingestHelper.getEventFieldsToDelete(updatedQueryMetric, storedQueryMetric);
-        } else {
-            fields = ingestHelper.getEventFieldsToWrite(updatedQueryMetric);
-        }
-        
         Key key = new Key();
         
         if (handler.getMetadata() != null) {
@@ -339,12 +385,7 @@ public class ShardTableQueryMetricHandler extends BaseQueryMetricHandler<QueryMe
         }
         
         for (Entry<BulkIngestKey,Collection<Value>> entry : r.asMap().entrySet()) {
-            if (delete) {
-                entry.getKey().getKey().setTimestamp(lastUpdated.getTime());
-            } else {
-                // this will ensure that the QueryMetrics can be found within second precision in most cases
-                entry.getKey().getKey().setTimestamp(storedQueryMetric.getCreateDate().getTime() + storedQueryMetric.getNumUpdates());
-            }
+            entry.getKey().getKey().setTimestamp(timestamp);
             entry.getKey().getKey().setDeleted(delete);
         }
         
@@ -356,66 +397,24 @@ public class ShardTableQueryMetricHandler extends BaseQueryMetricHandler<QueryMe
     public void updateMetric(QueryMetric updatedQueryMetric, DatawavePrincipal datawavePrincipal) throws Exception {
         Date lastUpdated = updatedQueryMetric.getLastUpdated();
         
+        Lock lock = metricLocks.get(updatedQueryMetric.getQueryId());
+        lock.lock();
         try {
             enableLogs(false);
-            String sid = updatedQueryMetric.getUser();
-            if (sid == null) {
-                sid = datawavePrincipal.getShortName();
+            if (appendOnly) {
+                appendMetric(updatedQueryMetric, datawavePrincipal);
+                return;
             }
             
             // find and remove previous entries
-            BaseQueryMetricListResponse response = new QueryMetricListResponse();
-            Date end = new Date();
-            Date begin = DateUtils.setYears(end, 2000);
+            QueryMetric cachedQueryMetric = (QueryMetric) metricsCache.get(updatedQueryMetric.getQueryId());
+            QueryMetric newCachedQueryMetric = newCachedQueryMetric(updatedQueryMetric, cachedQueryMetric);
+            metricsCache.put(updatedQueryMetric.getQueryId(), newCachedQueryMetric);
             
-            // user's DatawavePrincipal must have the Administrator role to use the Metrics query logic
-            QueryMetric cachedQueryMetric;
-            QueryMetric newCachedQueryMetric;
-            synchronized (ShardTableQueryMetricHandler.class) {
-                cachedQueryMetric = (QueryMetric) metricsCache.get(updatedQueryMetric.getQueryId());
-                // duplicate updatedQueryMetric because we're counting on the cache to be a snapshot of the QueryMetric
-                // so that we can retrieve it next update call to create the delete Mutations for the values written to Accumulo
-                Map<Long,PageMetric> storedPageMetricMap = new TreeMap<>();
-                if (cachedQueryMetric != null) {
-                    List<PageMetric> cachedPageMetrics = cachedQueryMetric.getPageTimes();
-                    if (cachedPageMetrics != null) {
-                        for (PageMetric p : cachedPageMetrics) {
-                            storedPageMetricMap.put(p.getPageNumber(), p);
-                        }
-                    }
-                }
-                // combine all of the page metrics from the cached metric and the updated metric
-                for (PageMetric p : updatedQueryMetric.getPageTimes()) {
-                    storedPageMetricMap.put(p.getPageNumber(), p);
-                }
-                newCachedQueryMetric = (QueryMetric) updatedQueryMetric.duplicate();
-                ArrayList<PageMetric> newPageMetrics = new ArrayList<>();
-                newPageMetrics.addAll(storedPageMetricMap.values());
-                newCachedQueryMetric.setPageTimes(newPageMetrics);
-                metricsCache.put(updatedQueryMetric.getQueryId(), newCachedQueryMetric);
-            }
-            
-            List<QueryMetric> queryMetrics = new ArrayList<>();
+            List<QueryMetric> queryMetrics;
             
             if (cachedQueryMetric == null) {
-                // if numPages > 0 or Lifecycle > DEFINED, then we should have a metric cached already
-                // if we don't, then query for the current stored metric
-                if (updatedQueryMetric.getNumPages() > 0 || updatedQueryMetric.getLifecycle().compareTo(Lifecycle.DEFINED) > 0) {
-                    QueryImpl query = new QueryImpl();
-                    query.setBeginDate(begin);
-                    query.setEndDate(end);
-                    query.setQueryLogicName(QUERY_METRICS_LOGIC_NAME);
-                    query.setQuery("QUERY_ID == '" + updatedQueryMetric.getQueryId() + "'");
-                    query.setQueryName(QUERY_METRICS_LOGIC_NAME);
-                    query.setColumnVisibility(visibilityString);
-                    query.setQueryAuthorizations(connectorAuthorizations);
-                    query.setUserDN(sid);
-                    query.setExpirationDate(DateUtils.addDays(new Date(), 1));
-                    query.setPagesize(1000);
-                    query.setId(UUID.randomUUID());
-                    query.setParameters(ImmutableMap.of(QueryOptions.INCLUDE_GROUPING_CONTEXT, "true"));
-                    queryMetrics = getQueryMetrics(response, query, callerPrincipal);
-                }
+                queryMetrics = getStoredQueryMetrics(updatedQueryMetric, datawavePrincipal);
             } else {
                 queryMetrics = Collections.singletonList(cachedQueryMetric);
             }
@@ -424,26 +423,238 @@ public class ShardTableQueryMetricHandler extends BaseQueryMetricHandler<QueryMe
                 writeMetrics(updatedQueryMetric, queryMetrics, lastUpdated, true);
             }
             
-            long nextUpdateNumber = 0;
-            
-            for (BaseQueryMetric m : queryMetrics) {
-                if ((m.getNumUpdates() + 1) > nextUpdateNumber) {
-                    nextUpdateNumber = m.getNumUpdates() + 1;
-                }
-            }
+            long nextUpdateNumber = getNextUpdateNumber(queryMetrics);
             
             updatedQueryMetric.setNumUpdates(nextUpdateNumber);
-            
-            synchronized (ShardTableQueryMetricHandler.class) {
-                newCachedQueryMetric.setNumUpdates(nextUpdateNumber);
-                metricsCache.put(updatedQueryMetric.getQueryId(), newCachedQueryMetric);
-            }
+            newCachedQueryMetric.setNumUpdates(nextUpdateNumber);
+            metricsCache.put(updatedQueryMetric.getQueryId(), newCachedQueryMetric);
             
             // write new entry
             writeMetrics(updatedQueryMetric, Collections.singletonList(updatedQueryMetric), lastUpdated, false);
+            
+            // the rollup is the difference from the cached metric, or else the latest stored one
+            QueryMetric previousQueryMetric = cachedQueryMetric;
+            for (QueryMetric m : queryMetrics) {
+                if (previousQueryMetric == null || m.getNumUpdates() > previousQueryMetric.getNumUpdates()) {
+                    previousQueryMetric = m;
+                }
+            }
+            // without a previous update, only the first update is known not to have been rolled up
+            if (previousQueryMetric != null || QueryMetricRollup.isNewQuery(updatedQueryMetric)) {
+                writeRollup(updatedQueryMetric, previousQueryMetric);
+            }
         } finally {
             enableLogs(true);
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Query for the stored metric of a query whose metric is not cached. Nothing has been stored yet for a query without pages that is still DEFINED, so that
+     * case is not queried for.
+     */
+    protected List<QueryMetric> getStoredQueryMetrics(QueryMetric updatedQueryMetric, DatawavePrincipal datawavePrincipal) {
+        if (updatedQueryMetric.getNumPages() == 0 && updatedQueryMetric.getLifecycle().compareTo(Lifecycle.DEFINED) <= 0) {
+            return new ArrayList<>();
+        }
+        
+        String sid = updatedQueryMetric.getUser();
+        if (sid == null) {
+            sid = datawavePrincipal.getShortName();
         }
+        
+        BaseQueryMetricListResponse response = new QueryMetricListResponse();
+        Date end = new Date();
+        Date begin = DateUtils.setYears(end, 2000);
+        
+        // user's DatawavePrincipal must have the Administrator role to use the Metrics query logic
+        QueryImpl query = new QueryImpl();
+        query.setBeginDate(begin);
+        query.setEndDate(end);
+        query.setQueryLogicName(QUERY_METRICS_LOGIC_NAME);
+        query.setQuery("QUERY_ID == '" + updatedQueryMetric.getQueryId() + "'");
+        query.setQueryName(QUERY_METRICS_LOGIC_NAME);
+        query.setColumnVisibility(visibilityString);
+        query.setQueryAuthorizations(connectorAuthorizations);
+        query.setUserDN(sid);
+        query.setExpirationDate(DateUtils.addDays(new Date(), 1));
+        query.setPagesize(1000);
+        query.setId(UUID.randomUUID());
+        query.setParameters(ImmutableMap.of(QueryOptions.INCLUDE_GROUPING_CONTEXT, "true"));
+        return getQueryMetrics(response, query, callerPrincipal);
+    }
+    
+    private long getNextUpdateNumber(List<QueryMetric> storedQueryMetrics) {
+        long nextUpdateNumber = 0;
+        
+        for (BaseQueryMetric m : storedQueryMetrics) {
+            if ((m.getNumUpdates() + 1) > nextUpdateNumber) {
+                nextUpdateNumber = m.getNumUpdates() + 1;
+            }
+        }
+        return nextUpdateNumber;
+    }
+    
+    /**
+     * Append an update without deleting the stored metric. The fields that change while a query runs get a new value with a newer timestamp, and the
+     * {@link QueryMetricCombiningIterator} on the shard table keeps only the latest one. Page metrics that have not changed since the previous update are not
+     * written again. The field index entries of the replaced values are deleted, but the stale values in the global indexes are not removed.
+     * <p>
+     * The previous update is taken from the cache, or queried for like {@link #updateMetric} does if it has been evicted or the server restarted, so that the
+     * update numbers, and with them the timestamps, keep increasing.
+     */
+    private void appendMetric(QueryMetric updatedQueryMetric, DatawavePrincipal datawavePrincipal) throws Exception {
+        String queryId = updatedQueryMetric.getQueryId();
+        QueryMetric storedQueryMetric = (QueryMetric) metricsCache.get(queryId);
+        if (storedQueryMetric == null) {
+            List<QueryMetric> queryMetrics = getStoredQueryMetrics(updatedQueryMetric, datawavePrincipal);
+            for (QueryMetric m : queryMetrics) {
+                if (storedQueryMetric == null || m.getNumUpdates() > storedQueryMetric.getNumUpdates()) {
+                    storedQueryMetric = m;
+                }
+            }
+        }
+        QueryMetric newCachedQueryMetric = newCachedQueryMetric(updatedQueryMetric, storedQueryMetric);
+        
+        long nextUpdateNumber = storedQueryMetric == null ? 0 : storedQueryMetric.getNumUpdates() + 1;
+        updatedQueryMetric.setNumUpdates(nextUpdateNumber);
+        newCachedQueryMetric.setNumUpdates(nextUpdateNumber);
+        
+        final QueryMetric previousQueryMetric = storedQueryMetric;
+        List<Function<AbstractColumnBasedHandler<Key>,Multimap<BulkIngestKey,Value>>> events = new ArrayList<>();
+        events.add(handler -> getAppendedEntries(handler, updatedQueryMetric, previousQueryMetric));
+        if (previousQueryMetric != null) {
+            events.add(handler -> getReplacedFieldIndexEntries(handler, updatedQueryMetric, previousQueryMetric));
+        }
+        writeEntries(events);
+        
+        metricsCache.put(queryId, newCachedQueryMetric);
+        
+        // without a previous update, only the first update is known not to have been rolled up
+        if (storedQueryMetric != null || QueryMetricRollup.isNewQuery(updatedQueryMetric)) {
+            writeRollup(updatedQueryMetric, storedQueryMetric);
+        }
+    }
+    
+    /**
+     * The entries of the fields written by an appended update. Like the entries written by {@link #updateMetric}, these are timestamped with the create date
+     * plus the update number, which keeps them within the date range of a query for the metric while still making each update newer than the last.
+     */
+    Multimap<BulkIngestKey,Value> getAppendedEntries(AbstractColumnBasedHandler<Key> handler, QueryMetric updatedQueryMetric, QueryMetric storedQueryMetric) {
+        ContentQueryMetricsIngestHelper ingestHelper = new ContentQueryMetricsIngestHelper(false);
+        ingestHelper.setup(conf);
+        Multimap<String,NormalizedContentInterface> fields = ingestHelper.getEventFieldsToAppend(updatedQueryMetric, storedQueryMetric);
+        long timestamp = updatedQueryMetric.getCreateDate().getTime() + updatedQueryMetric.getNumUpdates();
+        return getEntries(handler, ingestHelper, updatedQueryMetric, fields, timestamp, false);
+    }
+    
+    /**
+     * The deletes of the shard field index entries of the values replaced by an appended update. These are timestamped like the entries of the previous
+     * update, so they delete those entries (and the older ones of the same values) without hiding any written by this update.
+     */
+    Multimap<BulkIngestKey,Value> getReplacedFieldIndexEntries(AbstractColumnBasedHandler<Key> handler, QueryMetric updatedQueryMetric,
+                    QueryMetric storedQueryMetric) {
+        ContentQueryMetricsIngestHelper ingestHelper = new ContentQueryMetricsIngestHelper(true);
+        ingestHelper.setup(conf);
+        Multimap<String,NormalizedContentInterface> fields = ingestHelper.getEventFieldsToDelete(updatedQueryMetric, storedQueryMetric);
+        long timestamp = storedQueryMetric.getCreateDate().getTime() + storedQueryMetric.getNumUpdates();
+        Multimap<BulkIngestKey,Value> entries = getEntries(handler, ingestHelper, storedQueryMetric, fields, timestamp, true);
+        
+        String eventTable = handler.getShardTableName().toString();
+        Multimap<BulkIngestKey,Value> fieldIndexEntries = HashMultimap.create();
+        for (Entry<BulkIngestKey,Value> entry : entries.entries()) {
+            if (entry.getKey().getTableName().toString().equals(eventTable)
+                            && entry.getKey().getKey().getColumnFamily().toString().startsWith(Constants.FIELD_INDEX_PREFIX)) {
+                fieldIndexEntries.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return fieldIndexEntries;
+    }
+    
+    /**
+     * Add the difference between an update and the metric written by the previous update to the hourly rollups
+     */
+    private void writeRollup(QueryMetric updatedQueryMetric, QueryMetric storedQueryMetric) throws IOException {
+        if (rollups) {
+            ColumnVisibility visibility = new ColumnVisibility(visibilityString != null ? visibilityString : DEFAULT_SECURITY_MARKING);
+            Mutation m = QueryMetricRollup.getMutation(updatedQueryMetric, storedQueryMetric, visibility);
+            if (m != null) {
+                recordWriter.write(new Text(conf.get(ROLLUP_TABLE_NAME)), m);
+            }
+        }
+    }
+    
+    /**
+     * Summarize the hourly rollups of the queries created between begin and end, optionally only those of a user
+     */
+    private <T extends QueryMetricsSummaryResponse> T getRollupSummary(T response, Date begin, Date end, String user, DatawavePrincipal datawavePrincipal) {
+        Connector connector = null;
+        try {
+            // the rollups of all of the queries are combined, so only read those that every entity in the call chain can see
+            Set<String> auths = null;
+            for (Authorizations a : AuthorizationsUtil.getDowngradedAuthorizations(connectorAuthorizations, datawavePrincipal)) {
+                Set<String> entityAuths = new HashSet<>();
+                for (byte[] auth : a) {
+                    entityAuths.add(new String(auth));
+                }
+                if (auths == null) {
+                    auths = entityAuths;
+                } else {
+                    auths.retainAll(entityAuths);
+                }
+            }
+            if (auths == null) {
+                log.warn("No authorizations to read the query metric rollups with for " + datawavePrincipal.getName());
+                return QueryMetricRollup.summarize(Collections.emptyIterator(), response, new Date());
+            }
+            
+            Map<String,String> trackingMap = this.connectionFactory.getTrackingMap(Thread.currentThread().getStackTrace());
+            connector = this.connectionFactory.getConnection(Priority.ADMIN, trackingMap);
+            Scanner scanner = connector.createScanner(conf.get(ROLLUP_TABLE_NAME), new Authorizations(auths.toArray(new String[0])));
+            scanner.setRange(new Range(QueryMetricRollup.getRow(begin), true, QueryMetricRollup.getRow(end), true));
+            if (user != null) {
+                IteratorSetting setting = new IteratorSetting(50, "user", RegExFilter.class);
+                RegExFilter.setRegexs(setting, null, null, Pattern.quote(user) + "\\x00.*", null, false);
+                scanner.addScanIterator(setting);
+            }
+            QueryMetricRollup.summarize(scanner.iterator(), response, new Date());
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+        } finally {
+            if (connector != null) {
+                try {
+                    this.connectionFactory.returnConnection(connector);
+                } catch (Exception e) {
+                    log.error("Error returning connection to connection factory", e);
+                }
+            }
+        }
+        return response;
+    }
+    
+    /**
+     * Duplicate the updated metric because we're counting on the cache to be a snapshot of the QueryMetric so that we can retrieve it next update call to
+     * create the delete Mutations for the values written to Accumulo
+     */
+    private QueryMetric newCachedQueryMetric(QueryMetric updatedQueryMetric, QueryMetric cachedQueryMetric) {
+        Map<Long,PageMetric> storedPageMetricMap = new TreeMap<>();
+        if (cachedQueryMetric != null) {
+            List<PageMetric> cachedPageMetrics = cachedQueryMetric.getPageTimes();
+            if (cachedPageMetrics != null) {
+                for (PageMetric p : cachedPageMetrics) {
+                    storedPageMetricMap.put(p.getPageNumber(), p);
+                }
+            }
+        }
+        // combine all of the page metrics from the cached metric and the updated metric
+        for (PageMetric p : updatedQueryMetric.getPageTimes()) {
+            storedPageMetricMap.put(p.getPageNumber(), p);
+        }
+        QueryMetric newCachedQueryMetric = (QueryMetric) updatedQueryMetric.duplicate();
+        ArrayList<PageMetric> newPageMetrics = new ArrayList<>();
+        newPageMetrics.addAll(storedPageMetricMap.values());
+        newCachedQueryMetric.setPageTimes(newPageMetrics);
+        return newCachedQueryMetric;
     }
     
     private List<QueryMetric> getQueryMetrics(BaseResponse response, Query query, DatawavePrincipal datawavePrincipal) {
@@ -571,6 +782,10 @@ public class ShardTableQueryMetricHandler extends BaseQueryMetricHandler<QueryMe
             // this method is open to any user
             datawavePrincipal = callerPrincipal;
             
+            if (rollups) {
+                return getRollupSummary(response, begin, end, null, datawavePrincipal);
+            }
+            
             Collection<? extends Collection<String>> authorizations = datawavePrincipal.getAuthorizations();
             QueryImpl query = new QueryImpl();
             query.setBeginDate(begin);
@@ -607,6 +822,10 @@ public class ShardTableQueryMetricHandler extends BaseQueryMetricHandler<QueryMe
             // this method is open to any user
             datawavePrincipal = callerPrincipal;
             
+            if (rollups) {
+                return getRollupSummary(response, begin, end, user, datawavePrincipal);
+            }
+            
             Collection<? extends Collection<String>> authorizations = datawavePrincipal.getAuthorizations();
             QueryImpl query = new QueryImpl();
             query.setBeginDate(begin);
@@ -642,11 +861,21 @@ public class ShardTableQueryMetricHandler extends BaseQueryMetricHandler<QueryMe
             List<FieldBase> field = event.getFields();
             
             TreeMap<Long,PageMetric> pageMetrics = Maps.newTreeMap();
+            Map<String,Long> updatedFieldTimestamps = new HashMap<>();
             
             for (FieldBase f : field) {
                 String fieldName = f.getName();
                 String fieldValue = f.getValueString();
                 
+                // appended updates can leave more than one value of an updated field if the table is not combining them, so use the latest
+                if (f.getTimestamp() != null && QueryMetricCombiningIterator.isUpdatedField(fieldName)) {
+                    Long latest = updatedFieldTimestamps.get(fieldName);
+                    if (latest != null && latest > f.getTimestamp()) {
+                        continue;
+                    }
+                    updatedFieldTimestamps.put(fieldName, f.getTimestamp());
+                }
+                
                 if (fieldName.equals("USER")) {
                     m.setUser(fieldValue);
                 } else if (fieldName.equals("USER_DN")) {
@@ -789,6 +1018,22 @@ public class ShardTableQueryMetricHandler extends BaseQueryMetricHandler<QueryMe
                 
                 else if (fieldName.equals("FI_RANGES")) {
                     m.setFiRanges(Long.parseLong(fieldValue));
+                }
+                
+                else if (fieldName.equals("PREFETCH_DEPTH")) {
+                    m.setPrefetchDepth(Long.parseLong(fieldValue));
+                }
+                
+                else if (fieldName.equals("PREFETCH_WAIT_TIME")) {
+                    m.setPrefetchWaitTime(Long.parseLong(fieldValue));
+                }
+                
+                else if (fieldName.equals("UNIQUE_MEMORY_USED")) {
+                    m.setUniqueMemoryUsed(Long.parseLong(fieldValue));
+                }
+                
+                else if (fieldName.equals("UNIQUE_SPILL_COUNT")) {
+                    m.setUniqueSpillCount(Long.parseLong(fieldValue));
                 } else {
                     log.error("encountered unanticipated field name: " + fieldName);
                 }
@@ -911,6 +1156,10 @@ public class ShardTableQueryMetricHandler extends BaseQueryMetricHandler<QueryMe
             // this method is open to any user
             datawavePrincipal = callerPrincipal;
             
+            if (rollups) {
+                return getRollupSummary(response, begin, end, null, datawavePrincipal);
+            }
+            
             Collection<? extends Collection<String>> authorizations = datawavePrincipal.getAuthorizations();
             QueryImpl query = new QueryImpl();
             query.setBeginDate(begin);
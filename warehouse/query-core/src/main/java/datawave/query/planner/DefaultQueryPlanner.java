@@ -493,6 +493,10 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
         addOption(cfg, QueryOptions.LIMIT_FIELDS, config.getLimitFieldsAsString(), true);
         addOption(cfg, QueryOptions.GROUP_FIELDS, config.getGroupFieldsAsString(), true);
         addOption(cfg, QueryOptions.GROUP_FIELDS_BATCH_SIZE, config.getGroupFieldsBatchSizeAsString(), true);
+        if (config.isGroupFieldsPushdown()) {
+            addOption(cfg, QueryOptions.GROUP_FIELDS_PUSHDOWN, Boolean.toString(true), false);
+            addOption(cfg, QueryOptions.GROUP_FIELDS_PUSHDOWN_MAX_GROUPS, Integer.toString(config.getGroupFieldsPushdownMaxGroups()), false);
+        }
         addOption(cfg, QueryOptions.UNIQUE_FIELDS, config.getUniqueFieldsAsString(), true);
         addOption(cfg, QueryOptions.HIT_LIST, Boolean.toString(config.isHitList()), false);
         addOption(cfg, QueryOptions.TYPE_METADATA_IN_HDFS, Boolean.toString(config.isTypeMetadataInHdfs()), true);
@@ -753,6 +757,10 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
             if (BoundedRangeDetectionVisitor.mustExpandBoundedRange(config, metadataHelper, queryTree))
                 disableBoundedLookup = false;
         }
+        if (config.isGroupFieldsPushdown() && !canPushdownGrouping(config, indexOnlyFields)) {
+            config.setGroupFieldsPushdown(false);
+        }
+        
         if (!indexOnlyFields.isEmpty()) {
             // rebuild the query tree
             queryTree = RegexFunctionVisitor.expandRegex(config, metadataHelper, indexOnlyFields, queryTree);
@@ -1312,6 +1320,26 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
         }
     }
     
+    /**
+     * Determine whether partial group counts can be computed on the tservers. Unique fields have to be applied to the individual documents on the web server
+     * before they are counted, and the values of index-only fields are not stored with the event, so grouping on either stays on the web server.
+     *
+     * @param config
+     * @param indexOnlyFields
+     * @return true if the grouping can be pushed down
+     */
+    protected boolean canPushdownGrouping(ShardQueryConfiguration config, Set<String> indexOnlyFields) {
+        if (config.getUniqueFields() != null && !config.getUniqueFields().isEmpty()) {
+            log.debug("Not pushing down grouping because unique fields were requested");
+            return false;
+        }
+        if (config.getGroupFields() != null && !Collections.disjoint(config.getGroupFields(), indexOnlyFields)) {
+            log.debug("Not pushing down grouping because the group fields include index-only fields");
+            return false;
+        }
+        return true;
+    }
+    
     // Overwrite projection and blacklist properties if the query model is
     // being used
     protected ASTJexlScript applyQueryModel(MetadataHelper metadataHelper, ShardQueryConfiguration config, TraceStopwatch stopwatch, ASTJexlScript queryTree,
@@ -1686,6 +1714,7 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
                         addOption(cfg, QueryOptions.IVARATOR_NUM_RETRIES, Integer.toString(config.getIvaratorNumRetries()), false);
                         addOption(cfg, QueryOptions.IVARATOR_PERSIST_VERIFY, Boolean.toString(config.isIvaratorPersistVerify()), false);
                         addOption(cfg, QueryOptions.IVARATOR_PERSIST_VERIFY_COUNT, Integer.toString(config.getIvaratorPersistVerifyCount()), false);
+                        addOption(cfg, QueryOptions.IVARATOR_PERSIST_FORMAT, config.getIvaratorPersistFormat().name(), false);
                         addOption(cfg, QueryOptions.MAX_EVALUATION_PIPELINES, Integer.toString(config.getMaxEvaluationPipelines()), false);
                         addOption(cfg, QueryOptions.MAX_PIPELINE_CACHED_RESULTS, Integer.toString(config.getMaxPipelineCachedResults()), false);
                         addOption(cfg, QueryOptions.MAX_IVARATOR_SOURCES, Integer.toString(config.getMaxIvaratorSources()), false);
@@ -1955,6 +1984,7 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
         addOption(cfg, QueryOptions.ALLOW_FIELD_INDEX_EVALUATION, Boolean.toString(config.isAllowFieldIndexEvaluation()), false);
         addOption(cfg, QueryOptions.ALLOW_TERM_FREQUENCY_LOOKUP, Boolean.toString(config.isAllowTermFrequencyLookup()), false);
         addOption(cfg, QueryOptions.COMPRESS_SERVER_SIDE_RESULTS, Boolean.toString(config.isCompressServerSideResults()), false);
+        addOption(cfg, QueryOptions.ATTRIBUTE_TYPE_REGISTRY_VERSION, Integer.toString(config.getAttributeTypeRegistryVersion()), false);
     }
     
     /**
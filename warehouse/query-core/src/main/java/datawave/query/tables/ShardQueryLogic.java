@@ -46,6 +46,7 @@ import datawave.query.util.DateIndexHelperFactory;
 import datawave.query.util.MetadataHelper;
 import datawave.query.util.MetadataHelperFactory;
 import datawave.query.util.QueryStopwatch;
+import datawave.query.util.sortedset.FileSortedSet;
 import datawave.util.StringUtils;
 import datawave.util.time.TraceStopwatch;
 import datawave.webservice.common.connection.AccumuloConnectionFactory;
@@ -168,6 +169,8 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> {
     protected QueryModel queryModel = null;
     protected ScannerFactory scannerFactory = null;
     protected Scheduler scheduler = null;
+    // every unique transform created by getTransformer, which may be called again (e.g. to create a response) while an earlier transformer is in use
+    protected final List<UniqueTransform> uniqueTransforms = new ArrayList<>();
     protected EventQueryDataDecoratorTransformer eventQueryDataDecoratorTransformer = null;
     private ShardQueryConfiguration config;
     protected MetadataHelperFactory metadataHelperFactory = null;
@@ -588,7 +591,11 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> {
             transformer.setProjectFields(getConfig().getProjectFields());
             transformer.setBlacklistedFields(getConfig().getBlacklistedFields());
             if (getConfig().getUniqueFields() != null && !getConfig().getUniqueFields().isEmpty()) {
-                transformer.addTransform(new UniqueTransform(this, getConfig().getUniqueFields()));
+                UniqueTransform uniqueTransform = new UniqueTransform(this, getConfig().getUniqueFields());
+                synchronized (uniqueTransforms) {
+                    uniqueTransforms.add(uniqueTransform);
+                }
+                transformer.addTransform(uniqueTransform);
             }
             if (getConfig().getGroupFields() != null && !getConfig().getGroupFields().isEmpty()) {
                 transformer.addTransform(new GroupingTransform(this, getConfig().getGroupFields()));
@@ -742,6 +749,11 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> {
             config.setGroupFieldsBatchSize(groupFieldsBatchSize);
         }
         
+        String groupFieldsPushdownString = settings.findParameter(QueryParameters.GROUP_FIELDS_PUSHDOWN).getParameterValue().trim();
+        if (org.apache.commons.lang.StringUtils.isNotBlank(groupFieldsPushdownString)) {
+            config.setGroupFieldsPushdown(Boolean.parseBoolean(groupFieldsPushdownString));
+        }
+        
         // Get the UNIQUE_FIELDS parameter if given
         String uniqueFields = settings.findParameter(QueryParameters.UNIQUE_FIELDS).getParameterValue().trim();
         if (org.apache.commons.lang.StringUtils.isNotBlank(uniqueFields)) {
@@ -1077,6 +1089,13 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> {
             }
         }
         
+        synchronized (this.uniqueTransforms) {
+            for (UniqueTransform uniqueTransform : this.uniqueTransforms) {
+                uniqueTransform.close();
+            }
+            this.uniqueTransforms.clear();
+        }
+        
         if (null != this.scheduler) {
             try {
                 log.debug("Closing ShardQueryLogic scheduler: " + System.identityHashCode(this));
@@ -1209,6 +1228,22 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> {
         return getConfig().getGroupFieldsBatchSize();
     }
     
+    public boolean isGroupFieldsPushdown() {
+        return getConfig().isGroupFieldsPushdown();
+    }
+    
+    public void setGroupFieldsPushdown(boolean groupFieldsPushdown) {
+        getConfig().setGroupFieldsPushdown(groupFieldsPushdown);
+    }
+    
+    public int getGroupFieldsPushdownMaxGroups() {
+        return getConfig().getGroupFieldsPushdownMaxGroups();
+    }
+    
+    public void setGroupFieldsPushdownMaxGroups(int groupFieldsPushdownMaxGroups) {
+        getConfig().setGroupFieldsPushdownMaxGroups(groupFieldsPushdownMaxGroups);
+    }
+    
     public Set<String> getUniqueFields() {
         return getConfig().getUniqueFields();
     }
@@ -1217,6 +1252,30 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> {
         getConfig().setUniqueFields(uniqueFields);
     }
     
+    public boolean isExactUnique() {
+        return getConfig().isExactUnique();
+    }
+    
+    public void setExactUnique(boolean exactUnique) {
+        getConfig().setExactUnique(exactUnique);
+    }
+    
+    public long getUniqueMaxMemory() {
+        return getConfig().getUniqueMaxMemory();
+    }
+    
+    public void setUniqueMaxMemory(long uniqueMaxMemory) {
+        getConfig().setUniqueMaxMemory(uniqueMaxMemory);
+    }
+    
+    public String getUniqueSpillDirectory() {
+        return getConfig().getUniqueSpillDirectory();
+    }
+    
+    public void setUniqueSpillDirectory(String uniqueSpillDirectory) {
+        getConfig().setUniqueSpillDirectory(uniqueSpillDirectory);
+    }
+    
     public String getBlacklistedFieldsString() {
         return getConfig().getBlacklistedFieldsAsString();
     }
@@ -1682,6 +1741,14 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> {
         getConfig().setIvaratorPersistVerifyCount(ivaratorPersistVerifyCount);
     }
     
+    public FileSortedSet.PersistOptions.Format getIvaratorPersistFormat() {
+        return getConfig().getIvaratorPersistFormat();
+    }
+    
+    public void setIvaratorPersistFormat(FileSortedSet.PersistOptions.Format ivaratorPersistFormat) {
+        getConfig().setIvaratorPersistFormat(ivaratorPersistFormat);
+    }
+    
     public int getMaxIvaratorSources() {
         return getConfig().getMaxIvaratorSources();
     }
@@ -1837,6 +1904,14 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> {
         getConfig().setCompressServerSideResults(compressServerSideResults);
     }
     
+    public int getAttributeTypeRegistryVersion() {
+        return getConfig().getAttributeTypeRegistryVersion();
+    }
+    
+    public void setAttributeTypeRegistryVersion(int attributeTypeRegistryVersion) {
+        getConfig().setAttributeTypeRegistryVersion(attributeTypeRegistryVersion);
+    }
+    
     /**
      * Returns a value indicating whether index-only filter functions (e.g., #INCLUDE, #EXCLUDE) should be enabled. If true, the use of such filters can
      * potentially consume a LOT of memory.
@@ -260,6 +260,12 @@ public abstract class DocumentTransformerSupport<I,O> extends EventQueryTransfor
             metric.setDocRanges(docRanges);
             metric.setFiRanges(fiRanges);
         }
+        
+        for (DocumentTransform transform : transforms) {
+            if (transform instanceof WritesQueryMetrics) {
+                ((WritesQueryMetrics) transform).writeQueryMetrics(metric);
+            }
+        }
     }
     
     protected List<String> getFieldValues(Document document, String field, boolean shortCircuit) {
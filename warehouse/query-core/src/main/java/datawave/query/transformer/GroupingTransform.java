@@ -1,5 +1,6 @@
 package datawave.query.transformer;
 
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
@@ -39,7 +40,6 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -148,6 +148,22 @@ public class GroupingTransform extends DocumentTransform.DefaultDocumentTransfor
         return null;
     }
     
+    /**
+     * Record a key to use for the flushed document, such as the position that a scan yielded at
+     *
+     * @param key
+     */
+    public void addKey(Key key) {
+        keys.add(key);
+    }
+    
+    /**
+     * @return the number of distinct groups that have been counted since the last flush
+     */
+    public int getGroupCount() {
+        return countingMap == null ? 0 : countingMap.size();
+    }
+    
     private String getFieldName(Attribute<?> attr) {
         return attr.getMetadata().getRow().toString();
     }
@@ -256,6 +272,11 @@ public class GroupingTransform extends DocumentTransform.DefaultDocumentTransfor
             Entry<Key,Document> entry = Maps.immutableEntry(key, d);
             log.trace("flushing out {}", entry);
             countingMap.clear();
+            fieldVisibilities.clear();
+            // only the most recent key is needed to know where to start, so do not hold on to the keys of every document seen
+            if (keys.size() > 1) {
+                keys.subList(0, keys.size() - 1).clear();
+            }
             return entry;
         }
         return null;
@@ -443,7 +464,7 @@ public class GroupingTransform extends DocumentTransform.DefaultDocumentTransfor
                     count = 1;
                 // see above comment about the COUNT field
                 log.trace("{} adding {} of {} to counting map", flatten ? "tserver" : "webserver", count, fieldCollection);
-                IntStream.range(0, count).forEach(j -> countingMap.add(fieldCollection));
+                countingMap.add(fieldCollection, count);
                 fieldVisibilities.put(fieldCollection, getColumnVisibility(entry));
                 log.trace("put {} to {} into fieldVisibilities {}", fieldCollection, getColumnVisibility(entry), fieldVisibilities);
             } else {
@@ -478,31 +499,56 @@ public class GroupingTransform extends DocumentTransform.DefaultDocumentTransfor
         
         private MarkingFunctions markingFunctions;
         
+        /**
+         * the attributes of the existing map keys, by the string form of their value, so that the keys holding a value can be found without scanning them all
+         */
+        private Multimap<String,GroupingTypeAttribute<?>> attributesByValue = ArrayListMultimap.create();
+        
         public GroupCountingHashMap(MarkingFunctions markingFunctions) {
             this.markingFunctions = markingFunctions;
         }
         
         public int add(Collection<GroupingTypeAttribute<?>> in) {
+            return add(in, 1);
+        }
+        
+        /**
+         * Add a number of occurrences of a group, such as a partial count computed on a tserver
+         *
+         * @param in
+         *            the group
+         * @param occurrences
+         *            the number of times the group occurred
+         * @return the count for the group
+         */
+        public int add(Collection<GroupingTypeAttribute<?>> in, int occurrences) {
             int count = 0;
             if (super.containsKey(in)) {
                 count = super.get(in);
                 // aggregate the visibilities
-                combine(this.keySet(), in);
+                combine(in);
+            } else {
+                in.forEach(attribute -> attributesByValue.put(attribute.getType().getDelegateAsString(), attribute));
             }
-            count++;
+            count += occurrences;
             super.put(in, count);
             return count;
         }
         
-        private void combine(Set<Collection<GroupingTypeAttribute<?>>> existingMapKeys, Collection<? extends Attribute<?>> incomingAttributes) {
+        @Override
+        public void clear() {
+            super.clear();
+            attributesByValue.clear();
+        }
+        
+        private void combine(Collection<? extends GroupingTypeAttribute<?>> incomingAttributes) {
             
-            // for each Attribute in the incomingAttributes, find the existing map key attribute that matches its data.
+            // for each Attribute in the incomingAttributes, find the existing map key attributes that match its data.
             // combine the column visibilities of the incoming attribute and the existing one, and set
             // the column visibility of the EXISTING map key to the new value.
             // Note that the hashCode and equals methods for the GroupingTypeAttribute will ignore the metadata (which contains the column visibility)
             incomingAttributes.forEach(incomingAttribute -> {
-                existingMapKeys.stream()
-                                .flatMap(Collection::stream)
+                attributesByValue.get(incomingAttribute.getType().getDelegateAsString()).stream()
                                 // if the existing and incoming attributes are equal (other than the metadata), the incoming attribute's visibility will be
                                 // considered for merging into the existing attribute unless the column visibilities are already equal
                                 .filter(existingAttribute -> existingAttribute.getData().equals(incomingAttribute.getData())
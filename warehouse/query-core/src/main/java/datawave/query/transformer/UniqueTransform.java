@@ -13,8 +13,11 @@ import datawave.query.attributes.Document;
 import datawave.query.jexl.JexlASTHelper;
 import datawave.query.model.QueryModel;
 import datawave.query.tables.ShardQueryLogic;
+import datawave.query.util.sortedset.FileBackedUniqueSet;
 import datawave.util.StringUtils;
 import datawave.webservice.query.logic.BaseQueryLogic;
+import datawave.webservice.query.logic.WritesQueryMetrics;
+import datawave.webservice.query.metric.BaseQueryMetric;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.log4j.Logger;
@@ -22,6 +25,7 @@ import org.apache.log4j.Logger;
 import javax.annotation.Nullable;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -40,12 +44,17 @@ import java.util.stream.Collectors;
 /**
  * This iterator will filter documents based on uniqueness across a set of configured fields. Only the first instance of an event with a unique set of those
  * fields will be returned. This transform is thread safe.
+ * <p>
+ * By default the field sets that have been seen are tracked with a bloom filter, which may on rare occasions drop a document that is in fact unique. When the
+ * query logic is configured for exact uniqueness, the field sets are instead tracked in a {@link FileBackedUniqueSet} which holds a bounded amount of them in
+ * memory and spills the rest to local files. That set must be released with {@link #close()}.
  */
-public class UniqueTransform extends DocumentTransform.DefaultDocumentTransform {
+public class UniqueTransform extends DocumentTransform.DefaultDocumentTransform implements WritesQueryMetrics {
     
     private static final Logger log = Logger.getLogger(GroupingTransform.class);
     
     private BloomFilter<byte[]> bloom = null;
+    private FileBackedUniqueSet uniqueSet = null;
     private Set<String> fields;
     private Multimap<String,String> modelMapping;
     
@@ -67,8 +76,24 @@ public class UniqueTransform extends DocumentTransform.DefaultDocumentTransform
      * @param fields
      */
     public UniqueTransform(BaseQueryLogic<Entry<Key,Value>> logic, Set<String> fields) {
-        this(fields);
-        QueryModel model = ((ShardQueryLogic) logic).getQueryModel();
+        ShardQueryLogic shardQueryLogic = (ShardQueryLogic) logic;
+        this.fields = deconstruct(fields);
+        if (shardQueryLogic.isExactUnique()) {
+            File directory = null;
+            if (shardQueryLogic.getUniqueSpillDirectory() != null) {
+                directory = new File(shardQueryLogic.getUniqueSpillDirectory());
+                if (!directory.isDirectory() && !directory.mkdirs()) {
+                    log.warn("Unable to create unique spill directory " + directory + ", using the default temporary directory");
+                    directory = null;
+                }
+            }
+            this.uniqueSet = new FileBackedUniqueSet(shardQueryLogic.getUniqueMaxMemory(), directory);
+        } else {
+            this.bloom = BloomFilter.create(new ByteFunnel(), 500000, 1e-15);
+        }
+        if (log.isTraceEnabled())
+            log.trace("unique fields: " + this.fields + (uniqueSet != null ? " (exact)" : ""));
+        QueryModel model = shardQueryLogic.getQueryModel();
         if (model != null) {
             modelMapping = HashMultimap.create();
             // reverse the reverse query mapping which will give us a mapping from the final field name to the original field name(s)
@@ -102,7 +127,7 @@ public class UniqueTransform extends DocumentTransform.DefaultDocumentTransform
                     keyDocumentEntry = null;
                 }
             } catch (IOException ioe) {
-                log.error("Failed to convert document to bytes.  Returning document as unique.", ioe);
+                log.error("Failed to determine the uniqueness of the document.  Returning document as unique.", ioe);
             }
         }
         return keyDocumentEntry;
@@ -117,6 +142,11 @@ public class UniqueTransform extends DocumentTransform.DefaultDocumentTransform
      */
     private boolean isDuplicate(Document document) throws IOException {
         byte[] bytes = getBytes(document);
+        if (uniqueSet != null) {
+            synchronized (uniqueSet) {
+                return !uniqueSet.add(bytes);
+            }
+        }
         synchronized (bloom) {
             if (bloom.mightContain(bytes)) {
                 return true;
@@ -126,6 +156,32 @@ public class UniqueTransform extends DocumentTransform.DefaultDocumentTransform
         return false;
     }
     
+    /**
+     * Record the memory used and the number of spills when tracking the field sets exactly
+     *
+     * @param metric
+     */
+    @Override
+    public void writeQueryMetrics(BaseQueryMetric metric) {
+        if (uniqueSet != null) {
+            synchronized (uniqueSet) {
+                metric.setUniqueMemoryUsed(uniqueSet.getMaxMemoryUsed());
+                metric.setUniqueSpillCount(uniqueSet.getSpillCount());
+            }
+        }
+    }
+    
+    /**
+     * Delete any files that the field sets were spilled to
+     */
+    public void close() {
+        if (uniqueSet != null) {
+            synchronized (uniqueSet) {
+                uniqueSet.close();
+            }
+        }
+    }
+    
     /**
      * Get a sequence of bytes that uniquely identifies this document using the configured unique fields.
      * 
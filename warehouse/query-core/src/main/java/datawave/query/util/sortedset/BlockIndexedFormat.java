@@ -0,0 +1,266 @@
+package datawave.query.util.sortedset;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.hadoop.fs.Seekable;
+import org.apache.hadoop.io.WritableUtils;
+
+/**
+ * Utilities for the block indexed sorted set file format. The file consists of:
+ * <ul>
+ * <li>a sequence of deflate compressed blocks, each containing a run of encoded elements</li>
+ * <li>a sparse index with the offset, compressed length, uncompressed length, element count and first element of each block</li>
+ * <li>a fixed length trailer with the offset of the index, the number of elements, and a magic number identifying the format</li>
+ * </ul>
+ * The magic number at the end of the file is used to distinguish this format from the original formats so that previously persisted files remain readable.
+ *
+ * @see BlockIndexedOutputStream
+ * @see BlockIndexedInputStream
+ */
+public class BlockIndexedFormat {
+    public static final long MAGIC = 0x4457424c4b494458L; // DWBLKIDX
+    // index offset (long), size (int), magic (long)
+    public static final int TRAILER_LENGTH = 8 + 4 + 8;
+    
+    private BlockIndexedFormat() {}
+    
+    /**
+     * Encodes and decodes the elements of a set
+     *
+     * @param <E>
+     */
+    public interface Codec<E> {
+        void write(DataOutput out, E element) throws IOException;
+        
+        E read(DataInput in) throws IOException;
+    }
+    
+    /**
+     * A codec for keys using their writable form
+     */
+    public static class KeyCodec implements Codec<Key> {
+        @Override
+        public void write(DataOutput out, Key element) throws IOException {
+            element.write(out);
+        }
+        
+        @Override
+        public Key read(DataInput in) throws IOException {
+            Key key = new Key();
+            key.readFields(in);
+            return key;
+        }
+    }
+    
+    /**
+     * A codec for serializable objects. Byte arrays and strings, the elements of the unique sets and most other spilled sets, are written as a length and
+     * their bytes. Any other object falls back to java serialization, which writes a stream header and class descriptor along with every element.
+     *
+     * @param <E>
+     */
+    public static class SerializableCodec<E extends Serializable> implements Codec<E> {
+        private static final byte BYTES = 0;
+        private static final byte STRING = 1;
+        private static final byte SERIALIZED = 2;
+        
+        @Override
+        public void write(DataOutput out, E element) throws IOException {
+            if (element instanceof byte[]) {
+                out.writeByte(BYTES);
+                writeBytes(out, (byte[]) element);
+            } else if (element instanceof String) {
+                out.writeByte(STRING);
+                writeBytes(out, ((String) element).getBytes(StandardCharsets.UTF_8));
+            } else {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                try (ObjectOutputStream stream = new ObjectOutputStream(buffer)) {
+                    stream.writeObject(element);
+                }
+                out.writeByte(SERIALIZED);
+                writeBytes(out, buffer.toByteArray());
+            }
+        }
+        
+        @Override
+        @SuppressWarnings("unchecked")
+        public E read(DataInput in) throws IOException {
+            byte type = in.readByte();
+            switch (type) {
+                case BYTES:
+                    return (E) readBytes(in);
+                case STRING:
+                    return (E) new String(readBytes(in), StandardCharsets.UTF_8);
+                case SERIALIZED:
+                    try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)))) {
+                        return (E) stream.readObject();
+                    } catch (ClassNotFoundException cnfe) {
+                        throw new IOException("Unable to deserialize element", cnfe);
+                    }
+                default:
+                    throw new IOException("Unknown element type " + type);
+            }
+        }
+        
+        private static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+            WritableUtils.writeVInt(out, bytes.length);
+            out.write(bytes);
+        }
+        
+        private static byte[] readBytes(DataInput in) throws IOException {
+            byte[] bytes = new byte[WritableUtils.readVInt(in)];
+            in.readFully(bytes);
+            return bytes;
+        }
+    }
+    
+    /**
+     * The sparse index of a file. The index does not change once the file has been written, so it is read once per file and shared by the streams opened on
+     * it rather than being read again every time a stream is opened or seeked.
+     *
+     * @param <E>
+     */
+    public static class Index<E> {
+        private final int size;
+        final long[] offsets;
+        final int[] compressedLengths;
+        final int[] rawLengths;
+        final int[] counts;
+        private final List<E> firstElements;
+        
+        private Index(int size, int numBlocks) {
+            this.size = size;
+            this.offsets = new long[numBlocks];
+            this.compressedLengths = new int[numBlocks];
+            this.rawLengths = new int[numBlocks];
+            this.counts = new int[numBlocks];
+            this.firstElements = new ArrayList<>(numBlocks);
+        }
+        
+        static <E> Index<E> read(DataInput in, Codec<E> codec, int size) throws IOException {
+            int numBlocks = WritableUtils.readVInt(in);
+            Index<E> index = new Index<>(size, numBlocks);
+            for (int i = 0; i < numBlocks; i++) {
+                index.offsets[i] = WritableUtils.readVLong(in);
+                index.compressedLengths[i] = WritableUtils.readVInt(in);
+                index.rawLengths[i] = WritableUtils.readVInt(in);
+                index.counts[i] = WritableUtils.readVInt(in);
+                index.firstElements.add(codec.read(in));
+            }
+            return index;
+        }
+        
+        /**
+         * @return the number of elements in the file
+         */
+        public int getSize() {
+            return size;
+        }
+        
+        public int getNumBlocks() {
+            return offsets.length;
+        }
+        
+        /**
+         * Find the last block whose first element is less than or equal to an element
+         *
+         * @param element
+         * @param comparator
+         * @return the block that may contain the element, or 0 if the element precedes all blocks
+         */
+        public int findBlock(E element, Comparator<? super E> comparator) {
+            int low = 0;
+            int high = firstElements.size() - 1;
+            int found = 0;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (comparator.compare(firstElements.get(mid), element) <= 0) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found;
+        }
+    }
+    
+    /**
+     * Read the index of the file behind a handler
+     *
+     * @param handler
+     * @param codec
+     * @param <E>
+     * @return the index
+     * @throws IOException
+     *             if the file could not be read or was not written in the block indexed format
+     */
+    public static <E> Index<E> readIndex(FileSortedSet.SortedSetFileHandler handler, Codec<E> codec) throws IOException {
+        try (BlockIndexedInputStream<E> stream = new BlockIndexedInputStream<>(handler, codec)) {
+            return stream.getIndex();
+        }
+    }
+    
+    /**
+     * Determine whether the file behind a handler was written in the block indexed format
+     *
+     * @param handler
+     * @return true if the file ends with the block indexed trailer
+     * @throws IOException
+     */
+    public static boolean isBlockIndexed(FileSortedSet.SortedSetFileHandler handler) throws IOException {
+        long length = handler.getSize();
+        if (length < TRAILER_LENGTH) {
+            return false;
+        }
+        try (InputStream stream = handler.getInputStream()) {
+            seek(stream, 0, length - 8);
+            return new DataInputStream(stream).readLong() == MAGIC;
+        }
+    }
+    
+    /**
+     * Move a stream forward from its current position to the specified position
+     *
+     * @param stream
+     * @param current
+     *            the current position of the stream
+     * @param position
+     *            the desired position
+     * @throws IOException
+     */
+    static void seek(InputStream stream, long current, long position) throws IOException {
+        if (stream instanceof Seekable) {
+            ((Seekable) stream).seek(position);
+            return;
+        }
+        if (position < current) {
+            throw new IOException("Cannot move a non-seekable stream backwards");
+        }
+        long remaining = position - current;
+        while (remaining > 0) {
+            long skipped = stream.skip(remaining);
+            if (skipped <= 0) {
+                if (stream.read() < 0) {
+                    throw new EOFException("Unexpected end of stream while seeking to " + position);
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package datawave.query.util.sortedset;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Comparator;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.apache.hadoop.fs.Seekable;
+import org.apache.log4j.Logger;
+
+/**
+ * Reads a sorted set written in the block indexed format (see {@link BlockIndexedFormat}). When bounded with a start element, the sparse index is used to
+ * jump directly to the block that may contain it instead of reading the file from the beginning. The index may be supplied by the file handler, which reads
+ * it once for the file instead of once for every stream that is opened on it.
+ * <p>
+ * Unlike other sorted set input streams, this stream may be seeked again after elements have been read. The index and the last block read are kept, and the
+ * file is left open until the stream is closed, so a stream can be held open to look up a series of elements without reading the index or inflating the same
+ * block for each of them.
+ *
+ * @param <E>
+ */
+public class BlockIndexedInputStream<E> implements FileSortedSet.SeekableSortedSetInputStream<E> {
+    private static final Logger log = Logger.getLogger(BlockIndexedInputStream.class);
+    
+    private final FileSortedSet.SortedSetFileHandler handler;
+    private final BlockIndexedFormat.Codec<E> codec;
+    private final long length;
+    
+    private InputStream stream = null;
+    private long position = 0;
+    
+    // the trailer and the index
+    private long indexOffset = -1;
+    private int size = -1;
+    private BlockIndexedFormat.Index<E> index;
+    
+    // the bounds
+    private E from = null;
+    private E to = null;
+    private Comparator<? super E> comparator = null;
+    
+    // the current block
+    private int nextBlock = -1;
+    private int currentBlock = -1;
+    private byte[] currentRaw = null;
+    private DataInputStream block = null;
+    private int remainingInBlock = 0;
+    private boolean done = false;
+    
+    public BlockIndexedInputStream(FileSortedSet.SortedSetFileHandler handler, BlockIndexedFormat.Codec<E> codec) {
+        this(handler, codec, null);
+    }
+    
+    /**
+     * @param handler
+     * @param codec
+     * @param index
+     *            the index of the file, or null to read it when the first element is read
+     */
+    public BlockIndexedInputStream(FileSortedSet.SortedSetFileHandler handler, BlockIndexedFormat.Codec<E> codec, BlockIndexedFormat.Index<E> index) {
+        this.handler = handler;
+        this.codec = codec;
+        this.length = handler.getSize();
+        this.index = index;
+    }
+    
+    @Override
+    public void seek(E from, E to, Comparator<? super E> comparator) throws IOException {
+        this.from = from;
+        this.to = to;
+        this.comparator = comparator;
+        this.done = false;
+        if (nextBlock >= 0) {
+            int startBlock = findStartBlock();
+            if (startBlock == currentBlock && currentRaw != null) {
+                // the block that was last read, so there is no need to read and inflate it again
+                block = new DataInputStream(new ByteArrayInputStream(currentRaw));
+                remainingInBlock = index.counts[startBlock];
+                nextBlock = startBlock + 1;
+            } else {
+                block = null;
+                remainingInBlock = 0;
+                nextBlock = startBlock;
+            }
+        }
+    }
+    
+    private void position(long newPosition) throws IOException {
+        if (stream == null || (newPosition < position && !(stream instanceof Seekable))) {
+            closeStream();
+            stream = handler.getInputStream();
+            position = 0;
+        }
+        BlockIndexedFormat.seek(stream, position, newPosition);
+        position = newPosition;
+    }
+    
+    private byte[] read(long offset, int len) throws IOException {
+        position(offset);
+        byte[] bytes = new byte[len];
+        new DataInputStream(stream).readFully(bytes);
+        position += len;
+        return bytes;
+    }
+    
+    private void readTrailer() throws IOException {
+        if (indexOffset < 0) {
+            DataInputStream trailer = new DataInputStream(new ByteArrayInputStream(read(length - BlockIndexedFormat.TRAILER_LENGTH,
+                            BlockIndexedFormat.TRAILER_LENGTH)));
+            indexOffset = trailer.readLong();
+            size = trailer.readInt();
+            if (trailer.readLong() != BlockIndexedFormat.MAGIC) {
+                throw new IOException("Not a block indexed sorted set file: " + handler);
+            }
+        }
+    }
+    
+    private void readIndex() throws IOException {
+        if (index != null) {
+            return;
+        }
+        readTrailer();
+        index = BlockIndexedFormat.Index.read(new DataInputStream(new ByteArrayInputStream(read(indexOffset,
+                        (int) (length - BlockIndexedFormat.TRAILER_LENGTH - indexOffset)))), codec, size);
+    }
+    
+    /**
+     * Read the index of the file, which may then be shared by other streams opened on the same file
+     *
+     * @return the index
+     * @throws IOException
+     */
+    BlockIndexedFormat.Index<E> getIndex() throws IOException {
+        readIndex();
+        return index;
+    }
+    
+    /**
+     * Find the last block whose first element is less than or equal to the start element
+     *
+     * @return the index of the block to start reading from
+     */
+    private int findStartBlock() {
+        if (from == null) {
+            return 0;
+        }
+        int found = index.findBlock(from, comparator);
+        if (log.isTraceEnabled()) {
+            log.trace("Seeking to block " + found + " of " + index.getNumBlocks() + " in " + handler);
+        }
+        return found;
+    }
+    
+    private void readBlock(int i) throws IOException {
+        byte[] compressed = read(index.offsets[i], index.compressedLengths[i]);
+        byte[] raw = new byte[index.rawLengths[i]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int len = 0;
+            while (len < raw.length && !inflater.finished()) {
+                len += inflater.inflate(raw, len, raw.length - len);
+            }
+            if (len != raw.length) {
+                throw new IOException("Block " + i + " of " + handler + " is truncated");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Block " + i + " of " + handler + " is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+        currentBlock = i;
+        currentRaw = raw;
+        block = new DataInputStream(new ByteArrayInputStream(raw));
+        remainingInBlock = index.counts[i];
+    }
+    
+    @Override
+    public E readObject() throws IOException {
+        if (done) {
+            return null;
+        }
+        if (nextBlock < 0) {
+            readIndex();
+            nextBlock = findStartBlock();
+        }
+        while (true) {
+            while (remainingInBlock == 0) {
+                if (nextBlock >= index.getNumBlocks()) {
+                    done = true;
+                    return null;
+                }
+                readBlock(nextBlock++);
+            }
+            E element = codec.read(block);
+            remainingInBlock--;
+            if (from != null && comparator.compare(element, from) < 0) {
+                continue;
+            }
+            if (to != null && comparator.compare(element, to) >= 0) {
+                done = true;
+                return null;
+            }
+            return element;
+        }
+    }
+    
+    @Override
+    public int readSize() throws IOException {
+        if (index != null) {
+            return index.getSize();
+        }
+        readTrailer();
+        return size;
+    }
+    
+    private void closeStream() {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                log.error("Failed to close input stream", e);
+            }
+            stream = null;
+        }
+    }
+    
+    @Override
+    public void close() {
+        closeStream();
+        block = null;
+        currentRaw = null;
+    }
+}
@@ -0,0 +1,99 @@
+package datawave.query.util.sortedset;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+
+import org.apache.hadoop.io.WritableUtils;
+
+/**
+ * Writes a sorted set in the block indexed format (see {@link BlockIndexedFormat}). Elements are buffered until the uncompressed block reaches the configured
+ * block size, at which point the block is compressed and written out, and an entry for it is added to the index written when the stream is closed.
+ *
+ * @param <E>
+ */
+public class BlockIndexedOutputStream<E> implements FileSortedSet.SortedSetOutputStream<E> {
+    private final DataOutputStream out;
+    private final BlockIndexedFormat.Codec<E> codec;
+    private final int blockSize;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream();
+    private final DataOutputStream blockOut = new DataOutputStream(block);
+    private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+    private final DataOutputStream indexOut = new DataOutputStream(index);
+    private final byte[] buffer = new byte[8192];
+    
+    private E firstInBlock = null;
+    private int countInBlock = 0;
+    private int numBlocks = 0;
+    private long offset = 0;
+    private int size = -1;
+    
+    public BlockIndexedOutputStream(OutputStream stream, BlockIndexedFormat.Codec<E> codec, int blockSize) {
+        this.out = new DataOutputStream(stream);
+        this.codec = codec;
+        this.blockSize = blockSize;
+    }
+    
+    @Override
+    public void writeObject(E obj) throws IOException {
+        if (countInBlock == 0) {
+            firstInBlock = obj;
+        }
+        codec.write(blockOut, obj);
+        countInBlock++;
+        if (block.size() >= blockSize) {
+            writeBlock();
+        }
+    }
+    
+    private void writeBlock() throws IOException {
+        byte[] raw = block.toByteArray();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        long start = offset;
+        while (!deflater.finished()) {
+            int len = deflater.deflate(buffer);
+            out.write(buffer, 0, len);
+            offset += len;
+        }
+        
+        WritableUtils.writeVLong(indexOut, start);
+        WritableUtils.writeVInt(indexOut, (int) (offset - start));
+        WritableUtils.writeVInt(indexOut, raw.length);
+        WritableUtils.writeVInt(indexOut, countInBlock);
+        codec.write(indexOut, firstInBlock);
+        numBlocks++;
+        
+        block.reset();
+        firstInBlock = null;
+        countInBlock = 0;
+    }
+    
+    @Override
+    public void writeSize(int size) throws IOException {
+        this.size = size;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        try {
+            if (countInBlock > 0) {
+                writeBlock();
+            }
+            long indexOffset = offset;
+            WritableUtils.writeVInt(out, numBlocks);
+            index.writeTo(out);
+            out.writeLong(indexOffset);
+            out.writeInt(size);
+            out.writeLong(BlockIndexedFormat.MAGIC);
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+}
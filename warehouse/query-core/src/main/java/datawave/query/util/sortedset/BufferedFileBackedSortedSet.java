@@ -148,6 +148,24 @@ public class BufferedFileBackedSortedSet<E> implements SortedSet<E> {
         }
     }
     
+    /**
+     * Persist an already sorted run of entries directly to a new file, bypassing the in-memory buffer. Any current buffer is persisted first so that the buffer
+     * is always the only unpersisted set.
+     * 
+     * @param run
+     *            a sorted set using the same comparator as this set
+     * @throws IOException
+     */
+    public void persist(SortedSet<E> run) throws IOException {
+        if (run.isEmpty()) {
+            return;
+        }
+        persist();
+        set.addSet(compact(run));
+        sizeModified = true;
+        compact(maxOpenFiles);
+    }
+    
     protected List<FileSortedSet<E>> getSets() {
         List<FileSortedSet<E>> sets = new ArrayList<>();
         for (SortedSet<E> subSet : set.getSets()) {
@@ -294,7 +312,7 @@ public class BufferedFileBackedSortedSet<E> implements SortedSet<E> {
         }
     }
     
-    private FileSortedSet<E> compact(MultiSetBackedSortedSet<E> setToCompact) throws IOException {
+    private FileSortedSet<E> compact(SortedSet<E> setToCompact) throws IOException {
         FileSortedSet<E> compactedSet = null;
         
         // go through the handler factories and try to persist the sorted set
@@ -0,0 +1,338 @@
+package datawave.query.util.sortedset;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+/**
+ * A sorted set that buffers concurrent additions in front of a {@link BufferedFileBackedSortedSet}. Each adding thread is mapped to one of a number of
+ * independently locked sorted runs (stripes), so threads only contend with other threads mapped to the same stripe instead of all contending on one monitor.
+ * Once the total number of buffered entries reaches the buffer persist threshold of the underlying set, the runs are swapped out and merged (see
+ * {@link MergeSortIterator}) directly into a new persisted file. Every other operation first moves the buffered runs into the underlying set, and then
+ * delegates to it.
+ * <p>
+ * Note that an entry added by two threads may be buffered in two runs at once, in which case add will return true for both. The duplicate is dropped when the
+ * runs are merged.
+ *
+ * @param <E>
+ */
+public class ConcurrentBufferedSortedSet<E> implements SortedSet<E> {
+    private static final Logger log = Logger.getLogger(ConcurrentBufferedSortedSet.class);
+    public static final int DEFAULT_NUM_STRIPES = Runtime.getRuntime().availableProcessors() * 2;
+    
+    protected final BufferedFileBackedSortedSet<E> delegate;
+    protected final Stripe<E>[] stripes;
+    protected final int stripeMask;
+    protected final AtomicInteger bufferSize = new AtomicInteger(0);
+    
+    /**
+     * A sorted run and the lock guarding it. The buffer size is only changed under that lock, together with the run, so it never counts an entry that has
+     * already been swapped out or cleared.
+     *
+     * @param <E>
+     */
+    protected static class Stripe<E> {
+        private final Comparator<? super E> comparator;
+        private final AtomicInteger bufferSize;
+        private SortedSet<E> run;
+        
+        Stripe(Comparator<? super E> comparator, AtomicInteger bufferSize) {
+            this.comparator = comparator;
+            this.bufferSize = bufferSize;
+            this.run = new TreeSet<>(comparator);
+        }
+        
+        synchronized boolean add(E e) {
+            if (run.add(e)) {
+                bufferSize.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+        
+        synchronized SortedSet<E> swap() {
+            SortedSet<E> current = run;
+            run = new TreeSet<>(comparator);
+            bufferSize.addAndGet(-current.size());
+            return current;
+        }
+        
+        synchronized void clear() {
+            bufferSize.addAndGet(-run.size());
+            run.clear();
+        }
+    }
+    
+    public ConcurrentBufferedSortedSet(BufferedFileBackedSortedSet<E> delegate) {
+        this(delegate, DEFAULT_NUM_STRIPES);
+    }
+    
+    /**
+     * @param delegate
+     *            the underlying set
+     * @param numStripes
+     *            the number of sorted runs to spread additions over, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentBufferedSortedSet(BufferedFileBackedSortedSet<E> delegate, int numStripes) {
+        if (numStripes <= 0) {
+            throw new IllegalArgumentException("The number of stripes must be positive: " + numStripes);
+        }
+        int size = (numStripes == 1 ? 1 : Integer.highestOneBit(numStripes - 1) << 1);
+        this.delegate = delegate;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new Stripe<>(delegate.comparator(), bufferSize);
+        }
+        this.stripeMask = size - 1;
+    }
+    
+    public BufferedFileBackedSortedSet<E> getDelegate() {
+        return delegate;
+    }
+    
+    public int getNumStripes() {
+        return stripes.length;
+    }
+    
+    /**
+     * @return the number of entries buffered in the sorted runs, including any duplicates across runs
+     */
+    public int getBufferSize() {
+        return bufferSize.get();
+    }
+    
+    private Stripe<E> stripe() {
+        return stripes[(int) (Thread.currentThread().getId() & stripeMask)];
+    }
+    
+    /**
+     * Swap out all of the sorted runs
+     *
+     * @return the runs merged into one sorted set
+     */
+    private MultiSetBackedSortedSet<E> swapRuns() {
+        MultiSetBackedSortedSet<E> merged = new MultiSetBackedSortedSet<>();
+        for (Stripe<E> stripe : stripes) {
+            SortedSet<E> run = stripe.swap();
+            if (!run.isEmpty()) {
+                merged.addSet(run);
+            }
+        }
+        return merged;
+    }
+    
+    /**
+     * Move the buffered runs into the underlying set. Unlike the persistence triggered by the buffer threshold, this will not force a new file to be created.
+     */
+    public void flush() {
+        synchronized (delegate) {
+            if (bufferSize.get() > 0) {
+                MultiSetBackedSortedSet<E> merged = swapRuns();
+                if (!merged.isEmpty()) {
+                    delegate.addAll(merged);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Flush the buffered runs and persist the underlying set
+     *
+     * @throws IOException
+     */
+    public void persist() throws IOException {
+        synchronized (delegate) {
+            flush();
+            delegate.persist();
+        }
+    }
+    
+    /**
+     * Persist the buffered runs into a new file once the buffer persist threshold has been reached
+     */
+    private void persistRuns() {
+        synchronized (delegate) {
+            // another thread may have persisted the runs while we were waiting
+            if (bufferSize.get() >= delegate.getBufferPersistThreshold()) {
+                long start = System.currentTimeMillis();
+                MultiSetBackedSortedSet<E> merged = swapRuns();
+                try {
+                    delegate.persist(merged);
+                } catch (IOException ioe) {
+                    throw new IllegalStateException("Unable to persist or compact FileSortedSet", ioe);
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug("Persisted " + merged.getSets().size() + " sorted runs in " + (System.currentTimeMillis() - start) + "ms");
+                }
+            }
+        }
+    }
+    
+    public boolean isPersisted() {
+        return bufferSize.get() == 0 && delegate.isPersisted();
+    }
+    
+    @Override
+    public boolean add(E e) {
+        if (stripe().add(e)) {
+            if (bufferSize.get() >= delegate.getBufferPersistThreshold()) {
+                persistRuns();
+            }
+            return true;
+        }
+        return false;
+    }
+    
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        boolean modified = false;
+        for (E e : c) {
+            if (add(e)) {
+                modified = true;
+            }
+        }
+        return modified;
+    }
+    
+    @Override
+    public int size() {
+        synchronized (delegate) {
+            flush();
+            return delegate.size();
+        }
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        synchronized (delegate) {
+            flush();
+            return delegate.isEmpty();
+        }
+    }
+    
+    @Override
+    public boolean contains(Object o) {
+        synchronized (delegate) {
+            flush();
+            return delegate.contains(o);
+        }
+    }
+    
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        synchronized (delegate) {
+            flush();
+            return delegate.containsAll(c);
+        }
+    }
+    
+    @Override
+    public Iterator<E> iterator() {
+        synchronized (delegate) {
+            flush();
+            return delegate.iterator();
+        }
+    }
+    
+    @Override
+    public Object[] toArray() {
+        synchronized (delegate) {
+            flush();
+            return delegate.toArray();
+        }
+    }
+    
+    @Override
+    public <T> T[] toArray(T[] a) {
+        synchronized (delegate) {
+            flush();
+            return delegate.toArray(a);
+        }
+    }
+    
+    @Override
+    public boolean remove(Object o) {
+        synchronized (delegate) {
+            flush();
+            return delegate.remove(o);
+        }
+    }
+    
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        synchronized (delegate) {
+            flush();
+            return delegate.retainAll(c);
+        }
+    }
+    
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        synchronized (delegate) {
+            flush();
+            return delegate.removeAll(c);
+        }
+    }
+    
+    @Override
+    public void clear() {
+        synchronized (delegate) {
+            for (Stripe<E> stripe : stripes) {
+                stripe.clear();
+            }
+            delegate.clear();
+        }
+    }
+    
+    @Override
+    public Comparator<? super E> comparator() {
+        return delegate.comparator();
+    }
+    
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        synchronized (delegate) {
+            flush();
+            return delegate.subSet(fromElement, toElement);
+        }
+    }
+    
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        synchronized (delegate) {
+            flush();
+            return delegate.headSet(toElement);
+        }
+    }
+    
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        synchronized (delegate) {
+            flush();
+            return delegate.tailSet(fromElement);
+        }
+    }
+    
+    @Override
+    public E first() {
+        synchronized (delegate) {
+            flush();
+            return delegate.first();
+        }
+    }
+    
+    @Override
+    public E last() {
+        synchronized (delegate) {
+            flush();
+            return delegate.last();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package datawave.query.util.sortedset;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.log4j.Logger;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+/**
+ * An exact set of byte arrays, used to determine whether a value has been seen before, that holds a bounded amount of data in memory. Values are buffered in
+ * memory until the buffer reaches its share of the memory budget, at which point the buffer is persisted as a sorted run in a local file using the block
+ * indexed format of the {@link FileSortedSet}. Each run keeps a bloom filter sized to the number of values in that run, so a file is only read when the filter
+ * reports a possible match, and then only the block that could hold the value is read. Each run keeps its file open with the block index and the last block
+ * read in memory, so consecutive lookups do not read the index or inflate the same block again. When the number of runs exceeds the maximum, the smallest
+ * runs are merged into one.
+ * <p>
+ * The filters take roughly 10 bits for each persisted value at the default false positive probability, so the memory used is dominated by the in-memory buffer.
+ * This class is not thread safe.
+ */
+public class FileBackedUniqueSet implements Closeable {
+    private static final Logger log = Logger.getLogger(FileBackedUniqueSet.class);
+    
+    public static final long DEFAULT_MAX_MEMORY = 64L * 1024 * 1024;
+    public static final int DEFAULT_MAX_RUNS = 10;
+    public static final double DEFAULT_FALSE_POSITIVE_PROBABILITY = 0.01;
+    public static final int DEFAULT_BLOCK_SIZE = 16 * 1024;
+    
+    // approximate heap used by each buffered value in addition to the bytes themselves (tree map entry and array header)
+    private static final int ENTRY_OVERHEAD = 64;
+    
+    private static final Comparator<byte[]> COMPARATOR = new ByteArrayComparator();
+    private static final FileSerializableSortedSet.Factory<byte[]> FACTORY = new FileSerializableSortedSet.Factory<>();
+    // the codec the persisted sets are written with
+    private static final BlockIndexedFormat.SerializableCodec<byte[]> CODEC = new BlockIndexedFormat.SerializableCodec<>();
+    
+    private final long maxMemory;
+    private final int maxRuns;
+    private final double falsePositiveProbability;
+    private final File directory;
+    private final FileSortedSet.PersistOptions persistOptions;
+    
+    private TreeSet<byte[]> buffer = new TreeSet<>(COMPARATOR);
+    private long bufferMemory = 0;
+    private final List<Run> runs = new ArrayList<>();
+    private long runMemory = 0;
+    
+    private long size = 0;
+    private long maxMemoryUsed = 0;
+    private int spillCount = 0;
+    
+    /**
+     * A persisted run of values and the filter over them
+     */
+    private class Run {
+        private final FileSortedSet<byte[]> set;
+        private final BloomFilter<byte[]> filter;
+        private final long count;
+        // held open for the lookups of values that pass the filter
+        private final BlockIndexedInputStream<byte[]> reader;
+        
+        private Run(FileSortedSet<byte[]> set, BloomFilter<byte[]> filter, long count, FileSortedSet.SortedSetFileHandler handler) {
+            this.set = set;
+            this.filter = filter;
+            this.count = count;
+            this.reader = new BlockIndexedInputStream<>(handler, CODEC);
+        }
+        
+        private boolean contains(byte[] value) throws IOException {
+            if (!filter.mightContain(value)) {
+                return false;
+            }
+            reader.seek(value, null, COMPARATOR);
+            byte[] ceiling = reader.readObject();
+            return ceiling != null && COMPARATOR.compare(ceiling, value) == 0;
+        }
+        
+        private long getMemory() {
+            return filterMemory(count, falsePositiveProbability);
+        }
+        
+        private void delete() {
+            reader.close();
+            set.clear();
+        }
+    }
+    
+    public FileBackedUniqueSet() {
+        this(DEFAULT_MAX_MEMORY, null);
+    }
+    
+    /**
+     * @param maxMemory
+     *            the approximate number of bytes of heap to use
+     * @param directory
+     *            the directory in which to persist runs, or null for the default temporary directory
+     */
+    public FileBackedUniqueSet(long maxMemory, File directory) {
+        this(maxMemory, directory, DEFAULT_MAX_RUNS, DEFAULT_FALSE_POSITIVE_PROBABILITY, DEFAULT_BLOCK_SIZE);
+    }
+    
+    /**
+     * @param maxMemory
+     *            the approximate number of bytes of heap to use
+     * @param directory
+     *            the directory in which to persist runs, or null for the default temporary directory
+     * @param maxRuns
+     *            the number of runs after which the smallest runs are merged
+     * @param falsePositiveProbability
+     *            the false positive probability of the filter over each run
+     * @param blockSize
+     *            the size of the blocks in the persisted runs, which is the amount of data read to check a value that passed the filter
+     */
+    public FileBackedUniqueSet(long maxMemory, File directory, int maxRuns, double falsePositiveProbability, int blockSize) {
+        this.maxMemory = maxMemory;
+        this.directory = directory;
+        this.maxRuns = Math.max(2, maxRuns);
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.persistOptions = new FileSortedSet.PersistOptions(true, true, 100, FileSortedSet.PersistOptions.Format.BLOCK_INDEXED, blockSize);
+    }
+    
+    /**
+     * Add a value to the set
+     *
+     * @param value
+     * @return true if the value was not already in the set
+     * @throws IOException
+     *             if the buffer could not be persisted
+     */
+    public boolean add(byte[] value) throws IOException {
+        if (buffer.contains(value)) {
+            return false;
+        }
+        for (Run run : runs) {
+            if (run.contains(value)) {
+                return false;
+            }
+        }
+        
+        buffer.add(value);
+        bufferMemory += value.length + ENTRY_OVERHEAD;
+        size++;
+        maxMemoryUsed = Math.max(maxMemoryUsed, getMemoryUsed());
+        
+        // always leave some room for the buffer, otherwise a large number of filters would force a run for every value
+        if (bufferMemory >= Math.max(maxMemory - runMemory, maxMemory / 4)) {
+            spill();
+        }
+        return true;
+    }
+    
+    private void spill() throws IOException {
+        if (log.isDebugEnabled()) {
+            log.debug("Persisting " + buffer.size() + " values using approximately " + bufferMemory + " bytes");
+        }
+        addRun(buffer, buffer.size());
+        buffer = new TreeSet<>(COMPARATOR);
+        bufferMemory = 0;
+        spillCount++;
+        
+        if (runs.size() > maxRuns) {
+            mergeRuns();
+        }
+    }
+    
+    /**
+     * Merge the smallest runs to bring the number of runs down to half of the maximum
+     */
+    private void mergeRuns() throws IOException {
+        runs.sort(Comparator.comparingLong(run -> run.count));
+        List<Run> toMerge = new ArrayList<>(runs.subList(0, runs.size() - maxRuns / 2 + 1));
+        
+        MultiSetBackedSortedSet<byte[]> merged = new MultiSetBackedSortedSet<>();
+        long count = 0;
+        for (Run run : toMerge) {
+            merged.addSet(run.set);
+            count += run.count;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Merging " + toMerge.size() + " runs with " + count + " values");
+        }
+        
+        // the runs are disjoint as a value is only added when it is not found in any run
+        addRun(merged, count);
+        
+        for (Run run : toMerge) {
+            runs.remove(run);
+            runMemory -= run.getMemory();
+            run.delete();
+        }
+    }
+    
+    private void addRun(SortedSet<byte[]> values, long count) throws IOException {
+        BloomFilter<byte[]> filter = BloomFilter.create(Funnels.byteArrayFunnel(), (int) Math.min(Math.max(count, 1), Integer.MAX_VALUE),
+                        falsePositiveProbability);
+        SortedSetTempFileHandler handler = new SortedSetTempFileHandler(directory, persistOptions);
+        FileSortedSet<byte[]> set = FACTORY.newInstance(values, handler, true);
+        for (byte[] value : values) {
+            filter.put(value);
+        }
+        Run run = new Run(set, filter, count, handler);
+        runs.add(run);
+        runMemory += run.getMemory();
+    }
+    
+    /**
+     * The approximate size in bytes of a bloom filter with the optimal number of bits for the expected insertions and false positive probability
+     */
+    private static long filterMemory(long expectedInsertions, double falsePositiveProbability) {
+        return (long) (-Math.max(expectedInsertions, 1) * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)) / 8);
+    }
+    
+    /**
+     * @return the number of values in the set
+     */
+    public long size() {
+        return size;
+    }
+    
+    /**
+     * @return the approximate number of bytes of heap currently used by the buffer and the filters
+     */
+    public long getMemoryUsed() {
+        return bufferMemory + runMemory;
+    }
+    
+    /**
+     * @return the largest value of {@link #getMemoryUsed()} over the life of this set
+     */
+    public long getMaxMemoryUsed() {
+        return maxMemoryUsed;
+    }
+    
+    /**
+     * @return the number of times the buffer has been persisted to a file
+     */
+    public int getSpillCount() {
+        return spillCount;
+    }
+    
+    /**
+     * @return the number of persisted runs
+     */
+    public int getNumRuns() {
+        return runs.size();
+    }
+    
+    /**
+     * Delete any persisted runs and release the buffer
+     */
+    @Override
+    public void close() {
+        for (Run run : runs) {
+            run.delete();
+        }
+        runs.clear();
+        runMemory = 0;
+        buffer = new TreeSet<>(COMPARATOR);
+        bufferMemory = 0;
+    }
+}
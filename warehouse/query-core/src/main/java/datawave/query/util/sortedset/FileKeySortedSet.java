@@ -103,24 +103,58 @@ public class FileKeySortedSet extends FileSortedSet<Key> {
      * A sortedsetfilehandler that can bound the input stream
      */
     public static class KeyFileHandler implements BoundedTypedSortedSetFileHandler<Key> {
+        private static final BlockIndexedFormat.KeyCodec CODEC = new BlockIndexedFormat.KeyCodec();
+        
         SortedSetFileHandler delegate;
+        // whether the file was written in the block indexed format, determined when first read
+        private Boolean blockIndexed = null;
+        // the index of a block indexed file, shared by every stream opened on it
+        private BlockIndexedFormat.Index<Key> index = null;
         
         public KeyFileHandler(SortedSetFileHandler handler) {
             this.delegate = handler;
         }
         
+        private boolean isBlockIndexed() throws IOException {
+            if (blockIndexed == null) {
+                blockIndexed = BlockIndexedFormat.isBlockIndexed(delegate);
+            }
+            return blockIndexed;
+        }
+        
+        private synchronized BlockIndexedFormat.Index<Key> getIndex() throws IOException {
+            if (index == null) {
+                index = BlockIndexedFormat.readIndex(delegate, CODEC);
+            }
+            return index;
+        }
+        
         @Override
         public SortedSetInputStream<Key> getInputStream() throws IOException {
+            if (isBlockIndexed()) {
+                return new BlockIndexedInputStream<>(delegate, CODEC, getIndex());
+            }
             return new RFileKeyInputStream(delegate.getInputStream(), delegate.getSize());
         }
         
         @Override
         public SortedSetInputStream<Key> getInputStream(Key start, Key end) throws IOException {
+            if (isBlockIndexed()) {
+                BlockIndexedInputStream<Key> stream = new BlockIndexedInputStream<>(delegate, CODEC, getIndex());
+                stream.seek(start, end, Comparator.naturalOrder());
+                return stream;
+            }
             return new RFileKeyInputStream(delegate.getInputStream(), delegate.getSize(), start, end);
         }
         
         @Override
         public SortedSetOutputStream getOutputStream() throws IOException {
+            PersistOptions options = delegate.getPersistOptions();
+            blockIndexed = (options != null && options.getFormat() == PersistOptions.Format.BLOCK_INDEXED);
+            index = null;
+            if (blockIndexed) {
+                return new BlockIndexedOutputStream<>(delegate.getOutputStream(), CODEC, options.getBlockSize());
+            }
             return new RFileKeyOutputStream(delegate.getOutputStream());
         }
         
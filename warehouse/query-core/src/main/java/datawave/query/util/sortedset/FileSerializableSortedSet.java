@@ -103,7 +103,13 @@ public class FileSerializableSortedSet<E extends Serializable> extends FileSorte
      * A sortedsetfilehandler that can handler serializable objects
      */
     public static class SerializableFileHandler<E> implements TypedSortedSetFileHandler<Key> {
+        private static final BlockIndexedFormat.SerializableCodec CODEC = new BlockIndexedFormat.SerializableCodec();
+        
         SortedSetFileHandler delegate;
+        // whether the file was written in the block indexed format, determined when first read
+        private Boolean blockIndexed = null;
+        // the index of a block indexed file, shared by every stream opened on it
+        private BlockIndexedFormat.Index index = null;
         
         public SerializableFileHandler(SortedSetFileHandler handler) {
             this.delegate = handler;
@@ -111,11 +117,30 @@ public class FileSerializableSortedSet<E extends Serializable> extends FileSorte
         
         @Override
         public SortedSetInputStream<Key> getInputStream() throws IOException {
+            if (blockIndexed == null) {
+                blockIndexed = BlockIndexedFormat.isBlockIndexed(delegate);
+            }
+            if (blockIndexed) {
+                return new BlockIndexedInputStream(delegate, CODEC, getIndex());
+            }
             return new SerializableInputStream(delegate.getInputStream(), delegate.getSize());
         }
         
+        private synchronized BlockIndexedFormat.Index getIndex() throws IOException {
+            if (index == null) {
+                index = BlockIndexedFormat.readIndex(delegate, CODEC);
+            }
+            return index;
+        }
+        
         @Override
         public SortedSetOutputStream getOutputStream() throws IOException {
+            PersistOptions options = delegate.getPersistOptions();
+            blockIndexed = (options != null && options.getFormat() == PersistOptions.Format.BLOCK_INDEXED);
+            index = null;
+            if (blockIndexed) {
+                return new BlockIndexedOutputStream(delegate.getOutputStream(), CODEC, options.getBlockSize());
+            }
             return new SerializableOutputStream(delegate.getOutputStream());
         }
         
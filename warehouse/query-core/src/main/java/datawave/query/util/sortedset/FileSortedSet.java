@@ -809,6 +809,26 @@ public abstract class FileSortedSet<E> implements SortedSet<E>, Cloneable {
         void close();
     }
     
+    /**
+     * A sorted set input stream that can position itself at the first element within a range without reading all of the preceding elements.
+     * 
+     * @param <E>
+     */
+    public interface SeekableSortedSetInputStream<E> extends SortedSetInputStream<E> {
+        /**
+         * Restrict this stream to the elements in the range [from, to). This must be called before the first element is read.
+         * 
+         * @param from
+         *            the inclusive start of the range, or null for the beginning of the stream
+         * @param to
+         *            the exclusive end of the range, or null for the end of the stream
+         * @param comparator
+         *            the comparator used to sort the persisted elements
+         * @throws IOException
+         */
+        void seek(E from, E to, Comparator<? super E> comparator) throws IOException;
+    }
+    
     /**
      * A sorted set output stream
      * 
@@ -914,7 +934,12 @@ public abstract class FileSortedSet<E> implements SortedSet<E>, Cloneable {
             if (handler instanceof FileSortedSet.BoundedTypedSortedSetFileHandler) {
                 return ((BoundedTypedSortedSetFileHandler) handler).getInputStream(start, end);
             } else {
-                return new BoundedInputStream(handler.getInputStream(), start, end);
+                SortedSetInputStream<E> stream = handler.getInputStream();
+                if (stream instanceof SeekableSortedSetInputStream) {
+                    ((SeekableSortedSetInputStream<E>) stream).seek(start, end, FileSortedSet.this::compare);
+                    return stream;
+                }
+                return new BoundedInputStream(stream, start, end);
             }
         }
         
@@ -983,9 +1008,23 @@ public abstract class FileSortedSet<E> implements SortedSet<E>, Cloneable {
     }
     
     public static class PersistOptions {
+        /**
+         * The on-disk format used when persisting a set. Files are always read back in the format they were written with, regardless of these options.
+         */
+        public enum Format {
+            /** The original format of the set type: an RFile for keys, a java serialization stream otherwise */
+            DEFAULT,
+            /** Compressed blocks of elements followed by a sparse index of the first element in each block (see {@link BlockIndexedFormat}) */
+            BLOCK_INDEXED
+        }
+        
+        public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+        
         private boolean verifySize = true;
         private boolean verifyElements = true;
         private int numElementsToVerify = 100;
+        private Format format = Format.DEFAULT;
+        private int blockSize = DEFAULT_BLOCK_SIZE;
         
         public PersistOptions() {}
         
@@ -1003,6 +1042,12 @@ public abstract class FileSortedSet<E> implements SortedSet<E>, Cloneable {
             this.numElementsToVerify = numElementsToVerify;
         }
         
+        public PersistOptions(boolean verifySize, boolean verifyElements, int numElementsToVerify, Format format, int blockSize) {
+            this(verifySize, verifyElements, numElementsToVerify);
+            this.format = format;
+            this.blockSize = blockSize;
+        }
+        
         public boolean isVerifySize() {
             return verifySize;
         }
@@ -1014,5 +1059,16 @@ public abstract class FileSortedSet<E> implements SortedSet<E>, Cloneable {
         public int getNumElementsToVerify() {
             return numElementsToVerify;
         }
+        
+        public Format getFormat() {
+            return format;
+        }
+        
+        /**
+         * @return the target size in bytes of a block before compression when using the block indexed format
+         */
+        public int getBlockSize() {
+            return blockSize;
+        }
     }
 }
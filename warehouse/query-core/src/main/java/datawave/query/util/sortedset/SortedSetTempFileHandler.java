@@ -18,13 +18,25 @@ public class SortedSetTempFileHandler implements FileSortedSet.SortedSetFileHand
     private final FileSystem fs;
     private final File file;
     private final Path path;
+    private final FileSortedSet.PersistOptions persistOptions;
     
     public SortedSetTempFileHandler() throws IOException {
-        this.file = File.createTempFile("SortedSet", ".bin");
+        this(null, new FileSortedSet.PersistOptions());
+    }
+    
+    /**
+     * @param directory
+     *            the directory in which to create the file, or null for the default temporary directory
+     * @param persistOptions
+     * @throws IOException
+     */
+    public SortedSetTempFileHandler(File directory, FileSortedSet.PersistOptions persistOptions) throws IOException {
+        this.file = File.createTempFile("SortedSet", ".bin", directory);
         this.file.deleteOnExit();
         this.path = new Path(file.toURI());
         Configuration conf = new Configuration();
         this.fs = path.getFileSystem(conf);
+        this.persistOptions = persistOptions;
     }
     
     public File getFile() {
@@ -42,7 +54,7 @@ public class SortedSetTempFileHandler implements FileSortedSet.SortedSetFileHand
     
     @Override
     public FileSortedSet.PersistOptions getPersistOptions() {
-        return new FileSortedSet.PersistOptions();
+        return persistOptions;
     }
     
     @Override
@@ -52,6 +64,14 @@ public class SortedSetTempFileHandler implements FileSortedSet.SortedSetFileHand
     
     @Override
     public void deleteFile() {
+        // delete through the file system so that the checksum file written alongside the local file is removed as well
+        try {
+            if (fs.delete(path, false)) {
+                return;
+            }
+        } catch (IOException e) {
+            // fall back to deleting the file directly
+        }
         this.file.delete();
     }
     
@@ -0,0 +1,140 @@
+package datawave.query.attributes;
+
+import datawave.query.DocumentSerialization;
+import datawave.query.function.deserializer.KryoDocumentDeserializer;
+import datawave.query.function.deserializer.WritableDocumentDeserializer;
+import datawave.query.function.serializer.KryoDocumentSerializer;
+import datawave.query.function.serializer.WritableDocumentSerializer;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+
+public class AttributeTypeRegistryTest {
+    
+    private final Key docKey = new Key("20190101_1", "datatype\0uid");
+    
+    /**
+     * An attribute type that is not in the registry
+     */
+    public static class CustomContent extends Content {
+        public CustomContent() {
+            super();
+        }
+        
+        public CustomContent(String content, Key docKey, boolean toKeep) {
+            super(content, docKey, toKeep);
+        }
+    }
+    
+    private Document createDocument() {
+        Document d = new Document(docKey, true);
+        d.put("FIELD1", new Content("value1", docKey, true));
+        d.put("FIELD2", new Numeric("12", docKey, true));
+        d.put("FIELD3", new Content("value3a", docKey, true));
+        d.put("FIELD3", new Content("value3b", docKey, true));
+        d.put("FIELD4", new DateContent(new Date(1546344000000L), docKey, true));
+        d.put("FIELD5", new CustomContent("custom", docKey, true));
+        return d;
+    }
+    
+    private static Document deserialize(Value value) {
+        return new WritableDocumentDeserializer().apply(Maps.immutableEntry(new Key(), value)).getValue();
+    }
+    
+    private static void assertDocumentsEqual(Document expected, Document actual) {
+        Assert.assertEquals(expected.getDictionary().keySet(), actual.getDictionary().keySet());
+        for (Map.Entry<String,Attribute<? extends Comparable<?>>> entry : expected.getDictionary().entrySet()) {
+            Attribute<?> actualAttribute = actual.get(entry.getKey());
+            Assert.assertEquals(entry.getValue().getClass(), actualAttribute.getClass());
+            Assert.assertEquals(entry.getValue(), actualAttribute);
+        }
+    }
+    
+    @Test
+    public void testIdsAreStable() throws IOException {
+        // these ids are part of the serialized form and must never change
+        AttributeTypeRegistry registry = AttributeTypeRegistry.getRegistry(AttributeTypeRegistry.VERSION_1);
+        Attribute<?>[] attributes = {new Document(), new Attributes(true), new Content(), new Numeric(), new DateContent(), new TypeAttribute<>(),
+                new Cardinality(), new DiacriticContent(), new DocumentKey(), new GeoPoint(), new Geometry(), new IpAddress(), new Latitude(), new Longitude(),
+                new PreNormalizedAttribute(), new Metadata(), new TimingMetadata()};
+        for (int i = 0; i < attributes.length; i++) {
+            DataOutputBuffer out = new DataOutputBuffer();
+            registry.writeType(out, attributes[i]);
+            Assert.assertEquals(1, out.getLength());
+            Assert.assertEquals(i + 1, out.getData()[0]);
+            
+            DataInputBuffer in = new DataInputBuffer();
+            in.reset(out.getData(), out.getLength());
+            Assert.assertEquals(attributes[i].getClass(), registry.readType(in).getClass());
+        }
+    }
+    
+    @Test
+    public void testClassNamesRoundTrip() {
+        Document d = createDocument();
+        Value value = new WritableDocumentSerializer(false).apply(Maps.immutableEntry(docKey, d)).getValue();
+        Assert.assertEquals(AttributeTypeRegistry.CLASS_NAMES, DocumentSerialization.getRegistryVersion(value.get()));
+        Assert.assertTrue(new String(value.get(), StandardCharsets.ISO_8859_1).contains(Content.class.getName()));
+        assertDocumentsEqual(d, deserialize(value));
+    }
+    
+    @Test
+    public void testRegistryRoundTrip() {
+        Document d = createDocument();
+        Value legacy = new WritableDocumentSerializer(false).apply(Maps.immutableEntry(docKey, d)).getValue();
+        Value value = new WritableDocumentSerializer(false, AttributeTypeRegistry.LATEST_VERSION).apply(Maps.immutableEntry(docKey, d)).getValue();
+        Assert.assertEquals(AttributeTypeRegistry.LATEST_VERSION, DocumentSerialization.getRegistryVersion(value.get()));
+        Assert.assertTrue(value.getSize() < legacy.getSize());
+        
+        String serialized = new String(value.get(), StandardCharsets.ISO_8859_1);
+        Assert.assertFalse(serialized.contains(Content.class.getName()));
+        // types not in the registry fall back to the class name
+        Assert.assertTrue(serialized.contains(CustomContent.class.getName()));
+        
+        assertDocumentsEqual(d, deserialize(value));
+    }
+    
+    @Test
+    public void testKryoRoundTrip() {
+        Document d = createDocument();
+        Value legacy = new KryoDocumentSerializer(false, false).apply(Maps.immutableEntry(docKey, d)).getValue();
+        Value value = new KryoDocumentSerializer(false, false, AttributeTypeRegistry.LATEST_VERSION).apply(Maps.immutableEntry(docKey, d)).getValue();
+        Assert.assertEquals(AttributeTypeRegistry.CLASS_NAMES, DocumentSerialization.getRegistryVersion(legacy.get()));
+        Assert.assertEquals(AttributeTypeRegistry.LATEST_VERSION, DocumentSerialization.getRegistryVersion(value.get()));
+        Assert.assertTrue(value.getSize() < legacy.getSize());
+        
+        String serialized = new String(value.get(), StandardCharsets.ISO_8859_1);
+        Assert.assertFalse(serialized.contains(Content.class.getName()));
+        Assert.assertTrue(serialized.contains(CustomContent.class.getName()));
+        
+        KryoDocumentDeserializer deserializer = new KryoDocumentDeserializer();
+        assertDocumentsEqual(d, deserializer.apply(Maps.immutableEntry(new Key(), legacy)).getValue());
+        assertDocumentsEqual(d, deserializer.apply(Maps.immutableEntry(new Key(), value)).getValue());
+    }
+    
+    @Test
+    public void testNegotiateVersion() {
+        Assert.assertEquals(AttributeTypeRegistry.CLASS_NAMES, AttributeTypeRegistry.negotiateVersion(AttributeTypeRegistry.CLASS_NAMES));
+        Assert.assertEquals(AttributeTypeRegistry.LATEST_VERSION, AttributeTypeRegistry.negotiateVersion(AttributeTypeRegistry.LATEST_VERSION + 1));
+        
+        // a reader that is newer than this writer gets the latest version we know
+        Value value = new WritableDocumentSerializer(false, AttributeTypeRegistry.LATEST_VERSION + 1).apply(Maps.immutableEntry(docKey, createDocument()))
+                        .getValue();
+        Assert.assertEquals(AttributeTypeRegistry.LATEST_VERSION, DocumentSerialization.getRegistryVersion(value.get()));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownVersion() {
+        AttributeTypeRegistry.getRegistry(AttributeTypeRegistry.LATEST_VERSION + 1);
+    }
+}
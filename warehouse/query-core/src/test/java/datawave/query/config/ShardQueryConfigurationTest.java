@@ -15,9 +15,12 @@ import datawave.data.type.NoOpType;
 import datawave.data.type.StringType;
 import datawave.data.type.Type;
 import datawave.query.DocumentSerialization;
+import datawave.query.attributes.AttributeTypeRegistry;
 import datawave.query.function.DocumentPermutation;
 import datawave.query.function.DocumentProjection;
 import datawave.query.model.QueryModel;
+import datawave.query.util.sortedset.FileBackedUniqueSet;
+import datawave.query.util.sortedset.FileSortedSet;
 import datawave.util.TableName;
 import datawave.webservice.query.QueryImpl;
 import org.junit.Assert;
@@ -168,6 +171,7 @@ public class ShardQueryConfigurationTest {
         Assert.assertEquals(2, config.getIvaratorNumRetries());
         Assert.assertEquals(100, config.getIvaratorPersistVerifyCount());
         Assert.assertEquals(true, config.isIvaratorPersistVerify());
+        Assert.assertEquals(FileSortedSet.PersistOptions.Format.DEFAULT, config.getIvaratorPersistFormat());
         Assert.assertNull(config.getIvaratorFstHdfsBaseURIs());
         Assert.assertEquals(10000, config.getIvaratorCacheBufferSize());
         Assert.assertEquals(100000, config.getIvaratorCacheScanPersistThreshold());
@@ -184,12 +188,18 @@ public class ShardQueryConfigurationTest {
         Assert.assertFalse(config.isExpansionLimitedToModelContents());
         Assert.assertEquals(new QueryImpl(), config.getQuery());
         Assert.assertFalse(config.isCompressServerSideResults());
+        Assert.assertEquals(AttributeTypeRegistry.LATEST_VERSION, config.getAttributeTypeRegistryVersion());
         Assert.assertFalse(config.isIndexOnlyFilterFunctionsEnabled());
         Assert.assertFalse(config.isCompositeFilterFunctionsEnabled());
         Assert.assertEquals(0, config.getGroupFieldsBatchSize());
+        Assert.assertFalse(config.isGroupFieldsPushdown());
+        Assert.assertEquals(10000, config.getGroupFieldsPushdownMaxGroups());
         Assert.assertFalse(config.getAccrueStats());
         Assert.assertEquals(Sets.newHashSet(), config.getGroupFields());
         Assert.assertEquals(Sets.newHashSet(), config.getUniqueFields());
+        Assert.assertFalse(config.isExactUnique());
+        Assert.assertEquals(FileBackedUniqueSet.DEFAULT_MAX_MEMORY, config.getUniqueMaxMemory());
+        Assert.assertNull(config.getUniqueSpillDirectory());
         Assert.assertFalse(config.getCacheModel());
         Assert.assertTrue(config.isTrackSizes());
         Assert.assertEquals(Lists.newArrayList(), config.getContentFieldNames());
@@ -437,7 +447,7 @@ public class ShardQueryConfigurationTest {
      */
     @Test
     public void testCheckForNewAdditions() throws IOException {
-        int expectedObjectCount = 175;
+        int expectedObjectCount = 182;
         ShardQueryConfiguration config = ShardQueryConfiguration.create();
         ObjectMapper mapper = new ObjectMapper();
         JsonNode root = mapper.readTree(mapper.writeValueAsString(config));
@@ -0,0 +1,143 @@
+package datawave.query.function;
+
+import datawave.query.attributes.AttributeTypeRegistry;
+import datawave.query.attributes.Content;
+import datawave.query.attributes.DateContent;
+import datawave.query.attributes.Document;
+import datawave.query.attributes.Numeric;
+import datawave.query.function.deserializer.DocumentDeserializer;
+import datawave.query.function.deserializer.KryoDocumentDeserializer;
+import datawave.query.function.deserializer.WritableDocumentDeserializer;
+import datawave.query.function.serializer.DocumentSerializer;
+import datawave.query.function.serializer.KryoDocumentSerializer;
+import datawave.query.function.serializer.WritableDocumentSerializer;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Compares the document serialization formats returned by the query iterators, both for serializing a document on the tablet server and for deserializing it
+ * in the web tier. The formats are:
+ * <ul>
+ * <li>writable: {@link WritableDocumentSerializer} with attribute class names</li>
+ * <li>kryo: {@link KryoDocumentSerializer} with attribute class names</li>
+ * <li>kryoRegistered: {@link KryoDocumentSerializer} with the attribute type ids of the latest {@link AttributeTypeRegistry}</li>
+ * </ul>
+ * The small document resembles a typical event, the large one an event with many multi-valued fields. Run the main method from the test classpath, this is not
+ * run as part of the unit tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DocumentSerializationBenchmark {
+    
+    @Param({"writable", "kryo", "kryoRegistered"})
+    public String format;
+    
+    @Param({"small", "large"})
+    public String document;
+    
+    private DocumentSerializer serializer;
+    private DocumentDeserializer deserializer;
+    private Map.Entry<Key,Document> documentEntry;
+    private Map.Entry<Key,Value> valueEntry;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        switch (format) {
+            case "writable":
+                serializer = new WritableDocumentSerializer(false);
+                deserializer = new WritableDocumentDeserializer();
+                break;
+            case "kryo":
+                serializer = new KryoDocumentSerializer(false, false);
+                deserializer = new KryoDocumentDeserializer();
+                break;
+            case "kryoRegistered":
+                serializer = new KryoDocumentSerializer(false, false, AttributeTypeRegistry.LATEST_VERSION);
+                deserializer = new KryoDocumentDeserializer();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown format " + format);
+        }
+        
+        Key docKey = new Key("20190101_12", "datatype\0-cvy0gj.tlf59s.-duxzua");
+        Document d;
+        switch (document) {
+            case "small":
+                d = createDocument(docKey, 25, 1);
+                break;
+            case "large":
+                d = createDocument(docKey, 200, 4);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown document " + document);
+        }
+        
+        documentEntry = Maps.immutableEntry(docKey, d);
+        valueEntry = serializer.apply(documentEntry);
+    }
+    
+    private static Document createDocument(Key docKey, int numFields, int maxValues) {
+        Random random = new Random(42);
+        Document d = new Document(docKey, true);
+        for (int i = 0; i < numFields; i++) {
+            String field = "FIELD_" + i;
+            int numValues = 1 + random.nextInt(maxValues);
+            for (int j = 0; j < numValues; j++) {
+                switch (i % 4) {
+                    case 0:
+                        d.put(field, new Numeric(Integer.toString(random.nextInt(100000)), docKey, true));
+                        break;
+                    case 1:
+                        d.put(field, new DateContent(new Date(1546344000000L + random.nextInt()), docKey, true));
+                        break;
+                    default:
+                        d.put(field, new Content("value " + Integer.toString(random.nextInt(), 36), docKey, true));
+                        break;
+                }
+            }
+        }
+        return d;
+    }
+    
+    @Benchmark
+    public Map.Entry<Key,Value> serialize() {
+        return serializer.apply(documentEntry);
+    }
+    
+    @Benchmark
+    public Map.Entry<Key,Document> deserialize() {
+        return deserializer.apply(valueEntry);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(DocumentSerializationBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+}
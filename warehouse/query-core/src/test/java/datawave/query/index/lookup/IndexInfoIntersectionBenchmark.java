@@ -0,0 +1,122 @@
+package datawave.query.index.lookup;
+
+import datawave.query.jexl.JexlNodeFactory;
+import org.apache.commons.jexl2.parser.JexlNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the planning cost of intersecting the uids of two query terms in a shard, as read from the global index, for a rare and a common term. Each
+ * operation reads both index infos, applies their nodes and intersects them, which is the work done for every shard of an AND by the {@link Intersection}.
+ * <p>
+ * The modes compare the previous approach of building an {@link IndexMatch} for every uid and merging them in a multimap, building the matches and merging the
+ * sorted sets, and intersecting the packed uids so that only the matches in both terms are built. Run the main method from the test classpath, which includes
+ * the GC profiler to report the allocation of each; this is not run as part of the unit tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IndexInfoIntersectionBenchmark {
+    
+    @Param({"10", "1000"})
+    public int rareUids;
+    
+    @Param({"1000", "20000"})
+    public int commonUids;
+    
+    @Param({"multimap", "sorted", "packed"})
+    public String mode;
+    
+    private byte[] rare;
+    private byte[] common;
+    private final JexlNode rareNode = JexlNodeFactory.buildEQNode("RARE", "value");
+    private final JexlNode commonNode = JexlNodeFactory.buildEQNode("COMMON", "value");
+    private final List<JexlNode> delayedNodes = Collections.emptyList();
+    private UidIntersector intersector;
+    
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+        // uids drawn from the documents of a shard, so that roughly half of the rare uids are also in the common term
+        Random random = new Random(1234);
+        int documents = commonUids * 2;
+        rare = write(uids(random, rareUids, documents));
+        common = write(uids(random, commonUids, documents));
+        
+        IndexInfo base = new IndexInfo();
+        if ("multimap".equals(mode)) {
+            // unsorted sets take the multimap path of IndexInfo.intersect(Set, Set, List)
+            intersector = (uids1, uids2, delayed) -> base.intersect(new HashSet<>(uids1), new HashSet<>(uids2), delayed);
+        } else {
+            intersector = base;
+        }
+    }
+    
+    private static List<String> uids(Random random, int count, int documents) {
+        TreeSet<String> uids = new TreeSet<>();
+        while (uids.size() < count) {
+            int document = random.nextInt(documents);
+            uids.add("datatype\u0000" + Integer.toHexString(document * 0x9E3779B1) + "." + Integer.toHexString(document) + ".-" + (document % 97));
+        }
+        return new ArrayList<>(uids);
+    }
+    
+    private static byte[] write(List<String> uids) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new IndexInfo(uids).write(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+    
+    private IndexInfo read(byte[] bytes, JexlNode node) throws IOException {
+        IndexInfo info = new IndexInfo();
+        info.readFields(new DataInputStream(new ByteArrayInputStream(bytes)));
+        info.applyNode(node);
+        if (!"packed".equals(mode)) {
+            // build the matches up front, as every index info did before the uids were packed
+            info.uids();
+        }
+        return info;
+    }
+    
+    @Benchmark
+    public IndexInfo intersect() throws IOException {
+        IndexInfo left = read(rare, rareNode);
+        IndexInfo right = read(common, commonNode);
+        return left.intersect(right, delayedNodes, intersector);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(IndexInfoIntersectionBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+}
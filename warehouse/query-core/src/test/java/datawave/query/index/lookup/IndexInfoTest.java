@@ -1,6 +1,7 @@
 package datawave.query.index.lookup;
 
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Lists;
 import datawave.query.jexl.JexlNodeFactory;
 import datawave.query.jexl.visitors.JexlStringBuildingVisitor;
 import datawave.query.jexl.visitors.TreeEqualityVisitor;
@@ -8,6 +9,11 @@ import org.apache.commons.jexl2.parser.ASTDelayedPredicate;
 import org.apache.commons.jexl2.parser.JexlNode;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -329,4 +335,66 @@ public class IndexInfoTest {
         assertEquals(expectedMerged, left.union(right));
         assertEquals(expectedMerged, right.union(left));
     }
+    
+    // Helper method to read an index info as it is read from the global index
+    private IndexInfo readIndexInfo(String... docIds) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new IndexInfo(Arrays.asList(docIds)).write(new DataOutputStream(bytes));
+        IndexInfo info = new IndexInfo();
+        info.readFields(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        return info;
+    }
+    
+    /**
+     * Intersection of query terms read from the global index, whose uids are only turned into matches when they are in both terms.
+     */
+    @Test
+    public void testIntersection_ReadFromIndex() throws IOException {
+        JexlNode leftNode = JexlNodeFactory.buildEQNode("FIELD1", "VALUE1");
+        JexlNode rightNode = JexlNodeFactory.buildEQNode("FIELD2", "VALUE2");
+        List<JexlNode> delayedNodes = Lists.newArrayList(JexlNodeFactory.buildEQNode("FIELD3", "VALUE3"));
+        
+        IndexInfo left = readIndexInfo("doc1", "doc2", "doc3", "doc5", "doc8");
+        left.applyNode(leftNode);
+        IndexInfo right = readIndexInfo("doc3", "doc4", "doc5", "doc6", "doc7", "doc8", "doc9");
+        right.applyNode(rightNode);
+        IndexInfo merged = left.intersect(right, delayedNodes, left);
+        
+        // the same intersection, with the matches created up front
+        IndexInfo expectedLeft = readIndexInfo("doc1", "doc2", "doc3", "doc5", "doc8");
+        expectedLeft.applyNode(leftNode);
+        expectedLeft.uids();
+        IndexInfo expectedRight = readIndexInfo("doc3", "doc4", "doc5", "doc6", "doc7", "doc8", "doc9");
+        expectedRight.applyNode(rightNode);
+        expectedRight.uids();
+        IndexInfo expected = expectedLeft.intersect(expectedRight, delayedNodes, expectedLeft);
+        
+        assertEquals(3, merged.uids().size());
+        assertEquals(expected.uids(), merged.uids());
+        assertEquals(expected, merged);
+        assertEquals(JexlStringBuildingVisitor.buildQuery(expected.getNode()), JexlStringBuildingVisitor.buildQuery(merged.getNode()));
+        for (IndexMatch match : merged.uids()) {
+            assertEquals(IndexMatchType.AND, match.type);
+            assertEquals(3, match.nodeSet.size());
+        }
+        
+        // a term intersected with itself has no uids with a distinct node from each side
+        assertTrue(left.intersect(left, new ArrayList<>(), left).uids().isEmpty());
+    }
+    
+    /**
+     * An index info read from the global index is written as it was read
+     */
+    @Test
+    public void testReadFromIndexRoundTrip() throws IOException {
+        IndexInfo info = readIndexInfo("doc3", "doc1", "doc2");
+        assertTrue(info.onlyEvents());
+        assertEquals(3, info.count());
+        
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        info.write(new DataOutputStream(bytes));
+        IndexInfo copy = new IndexInfo();
+        copy.readFields(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(new IndexInfo(Arrays.asList("doc1", "doc2", "doc3")), copy);
+    }
 }
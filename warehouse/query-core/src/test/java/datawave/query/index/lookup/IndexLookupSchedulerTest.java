@@ -0,0 +1,163 @@
+package datawave.query.index.lookup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IndexLookupSchedulerTest {
+    
+    /**
+     * Submit lookups that block until released, recording the most that ran at once
+     */
+    private static List<Future<?>> submit(ExecutorService executor, int count, CountDownLatch release, AtomicInteger running, AtomicInteger maxRunning) {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(executor.submit(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+            }));
+        }
+        return futures;
+    }
+    
+    @Test
+    public void testQueryLimit() throws Exception {
+        IndexLookupScheduler scheduler = new IndexLookupScheduler("testQueryLimit", 10);
+        ExecutorService executor = scheduler.newQueryExecutor("query1", 3);
+        
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Future<?>> futures = submit(executor, 8, release, running, maxRunning);
+        
+        waitFor(() -> running.get() == 3);
+        assertEquals(1, scheduler.getActiveQueries());
+        assertEquals(5, scheduler.getQueueDepth());
+        
+        release.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(3, maxRunning.get());
+        
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(8, scheduler.getCompletedLookups());
+        waitFor(() -> scheduler.getActiveQueries() == 0);
+        assertEquals(0, scheduler.getQueueDepth());
+    }
+    
+    @Test
+    public void testFairShare() throws Exception {
+        IndexLookupScheduler scheduler = new IndexLookupScheduler("testFairShare", 4);
+        ExecutorService first = scheduler.newQueryExecutor("query1", 10);
+        ExecutorService second = scheduler.newQueryExecutor("query2", 10);
+        
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        AtomicInteger firstRunning = new AtomicInteger();
+        AtomicInteger firstMax = new AtomicInteger();
+        List<Future<?>> firstFutures = submit(first, 20, releaseFirst, firstRunning, firstMax);
+        waitFor(() -> firstRunning.get() == 4);
+        
+        // the second query gets its share of the threads as the lookups of the first query complete, rather than after all of them
+        CountDownLatch releaseSecond = new CountDownLatch(1);
+        AtomicInteger secondRunning = new AtomicInteger();
+        AtomicInteger secondMax = new AtomicInteger();
+        List<Future<?>> secondFutures = submit(second, 20, releaseSecond, secondRunning, secondMax);
+        assertEquals(2, scheduler.getActiveQueries());
+        
+        releaseFirst.countDown();
+        waitFor(() -> secondRunning.get() == 4);
+        for (Future<?> future : firstFutures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        releaseSecond.countDown();
+        for (Future<?> future : secondFutures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        
+        assertTrue(scheduler.getTotalWaitTime() >= 0);
+        first.shutdown();
+        second.shutdown();
+        assertTrue(first.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(second.awaitTermination(10, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    public void testShutdownNow() throws Exception {
+        IndexLookupScheduler scheduler = new IndexLookupScheduler("testShutdownNow", 2);
+        ExecutorService executor = scheduler.newQueryExecutor("query1", 2);
+        
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        submit(executor, 5, release, running, maxRunning);
+        waitFor(() -> running.get() == 2);
+        assertTrue(scheduler.getQueryWaitTimes().containsKey("query1"));
+        
+        // the queued lookups are returned and the running lookups are interrupted
+        assertEquals(3, executor.shutdownNow().size());
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, running.get());
+        assertEquals(0, scheduler.getQueueDepth());
+        assertEquals(0, scheduler.getActiveQueries());
+        assertTrue(scheduler.getQueryWaitTimes().isEmpty());
+    }
+    
+    @Test
+    public void testThreadNameAndUncaughtExceptionHandler() throws Exception {
+        IndexLookupScheduler scheduler = new IndexLookupScheduler("testThreadName", 2);
+        List<Throwable> failures = new ArrayList<>();
+        ExecutorService executor = scheduler.newQueryExecutor("query1", 2, "Datawave Fielded Regex", (t, e) -> {
+            synchronized (failures) {
+                failures.add(e);
+            }
+        });
+        
+        // the thread is named for the query while it runs the lookup, and for the scheduler afterwards
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        String threadName = executor.submit(() -> {
+            thread.set(Thread.currentThread());
+            return Thread.currentThread().getName();
+        }).get(10, TimeUnit.SECONDS);
+        assertEquals("Datawave Fielded Regex Session query1 -1", threadName);
+        waitFor(() -> thread.get().getName().startsWith("Datawave Index Lookup Scheduler (testThreadName) -"));
+        
+        // a failed lookup is reported to the handler of the query
+        executor.execute(() -> {
+            throw new IllegalStateException("lookup failed");
+        });
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1, failures.size());
+        assertEquals("lookup failed", failures.get(0).getMessage());
+    }
+    
+    private static void waitFor(Condition condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.met()) {
+            assertTrue("Timed out waiting for lookups", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+    
+    private interface Condition {
+        boolean met();
+    }
+}
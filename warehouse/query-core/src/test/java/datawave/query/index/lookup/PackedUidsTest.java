@@ -0,0 +1,109 @@
+package datawave.query.index.lookup;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PackedUidsTest {
+    
+    private static PackedUids pack(Iterable<String> uids) {
+        PackedUids.Builder builder = new PackedUids.Builder(16);
+        for (String uid : uids) {
+            builder.add(uid);
+        }
+        return builder.build();
+    }
+    
+    private static List<String> unpack(PackedUids uids) {
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < uids.size(); i++) {
+            list.add(uids.get(i));
+        }
+        return list;
+    }
+    
+    @Test
+    public void testRead() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        String[] uids = {"datatype\u0000a.b.c", "datatype\u0000a.b.c.1", "datatype\u0001a", "\u00e9t\u00e9"};
+        for (String uid : uids) {
+            out.writeUTF(uid);
+        }
+        
+        PackedUids packed = PackedUids.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), uids.length);
+        assertEquals(uids.length, packed.size());
+        for (int i = 0; i < uids.length; i++) {
+            assertEquals(uids[i], packed.get(i));
+        }
+        assertTrue(PackedUids.read(new DataInputStream(new ByteArrayInputStream(new byte[0])), 0).isEmpty());
+    }
+    
+    @Test
+    public void testUnsorted() {
+        List<String> uids = new ArrayList<>();
+        uids.add("doc3");
+        uids.add("doc1");
+        uids.add("doc2");
+        uids.add("doc1");
+        assertEquals(new ArrayList<>(new TreeSet<>(uids)), unpack(pack(uids)));
+    }
+    
+    @Test
+    public void testCompareMatchesStringOrder() {
+        // a null separator sorts before every other character, unlike in modified UTF-8
+        PackedUids uids = pack(new TreeSet<>(Arrays.asList("a\u0000b", "a\u0001", "ab", "a")));
+        for (int i = 0; i < uids.size(); i++) {
+            for (int j = 0; j < uids.size(); j++) {
+                assertEquals(Integer.signum(uids.get(i).compareTo(uids.get(j))), Integer.signum(uids.compare(i, uids, j)));
+            }
+        }
+    }
+    
+    @Test
+    public void testIntersect() {
+        Random random = new Random(42);
+        for (int trial = 0; trial < 200; trial++) {
+            TreeSet<String> left = new TreeSet<>();
+            TreeSet<String> right = new TreeSet<>();
+            // skew the sizes so that both the linear and the galloping steps are exercised
+            int leftSize = random.nextInt(10);
+            int rightSize = random.nextInt(2000);
+            for (int i = 0; i < leftSize; i++) {
+                left.add("uid." + random.nextInt(3000));
+            }
+            for (int i = 0; i < rightSize; i++) {
+                right.add("uid." + random.nextInt(3000));
+            }
+            
+            TreeSet<String> expected = new TreeSet<>(left);
+            expected.retainAll(right);
+            
+            PackedUids leftUids = pack(left);
+            PackedUids rightUids = pack(right);
+            List<String> actual = new ArrayList<>();
+            for (int index : leftUids.intersect(rightUids)) {
+                actual.add(leftUids.get(index));
+            }
+            assertEquals(new ArrayList<>(expected), actual);
+            
+            actual.clear();
+            for (int index : rightUids.intersect(leftUids)) {
+                actual.add(rightUids.get(index));
+            }
+            assertEquals(new ArrayList<>(expected), actual);
+        }
+    }
+}
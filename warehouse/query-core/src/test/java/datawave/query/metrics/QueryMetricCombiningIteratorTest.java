@@ -0,0 +1,130 @@
+package datawave.query.metrics;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+
+public class QueryMetricCombiningIteratorTest {
+    
+    private static final String ROW = "20190101_0";
+    private static final String EVENT = "querymetrics\0-abc.def.ghi";
+    
+    private TreeMap<Key,Value> data;
+    
+    @Before
+    public void setup() {
+        data = new TreeMap<>();
+        // the values of three updates
+        put(EVENT, "LIFECYCLE\0CLOSED", 300);
+        put(EVENT, "LIFECYCLE\0DEFINED", 100);
+        put(EVENT, "LIFECYCLE\0INITIALIZED", 200);
+        put(EVENT, "NUM_PAGES\u00000", 100);
+        put(EVENT, "NUM_PAGES\u00001", 200);
+        put(EVENT, "NUM_PAGES\u00002", 300);
+        put(EVENT, "PAGE_METRICS.1\u000010/20", 200);
+        put(EVENT, "PAGE_METRICS.1\u000010/25", 300);
+        put(EVENT, "PAGE_METRICS.2\u00005/10", 300);
+        // written once, or with multiple values
+        put(EVENT, "POSITIVE_SELECTORS\0bar", 100);
+        put(EVENT, "POSITIVE_SELECTORS\0foo", 100);
+        put(EVENT, "QUERY_ID\0abc", 100);
+        put("fi\0LIFECYCLE", "CLOSED\0querymetrics\0-abc.def.ghi", 300);
+        put("fi\0LIFECYCLE", "DEFINED\0querymetrics\0-abc.def.ghi", 100);
+        put("other\0-abc.def.ghi", "LIFECYCLE\0CLOSED", 300);
+        put("other\0-abc.def.ghi", "LIFECYCLE\0DEFINED", 100);
+    }
+    
+    private void put(String cf, String cq, long timestamp) {
+        data.put(new Key(ROW, cf, cq, timestamp), new Value(new byte[0]));
+    }
+    
+    private List<Key> scan(SortedKeyValueIterator<Key,Value> iterator, Range range) throws IOException {
+        iterator.seek(range, Collections.emptyList(), false);
+        List<Key> keys = new ArrayList<>();
+        while (iterator.hasTop()) {
+            keys.add(iterator.getTopKey());
+            iterator.next();
+        }
+        return keys;
+    }
+    
+    private SortedKeyValueIterator<Key,Value> iterator() throws IOException {
+        QueryMetricCombiningIterator iterator = new QueryMetricCombiningIterator();
+        iterator.init(new SortedMapIterator(data), Collections.emptyMap(), null);
+        return iterator;
+    }
+    
+    @Test
+    public void testLatestValues() throws IOException {
+        List<Key> keys = scan(iterator(), new Range());
+        
+        List<Key> expected = new ArrayList<>();
+        expected.add(new Key(ROW, "fi\0LIFECYCLE", "CLOSED\0querymetrics\0-abc.def.ghi", 300));
+        expected.add(new Key(ROW, "fi\0LIFECYCLE", "DEFINED\0querymetrics\0-abc.def.ghi", 100));
+        expected.add(new Key(ROW, "other\0-abc.def.ghi", "LIFECYCLE\0CLOSED", 300));
+        expected.add(new Key(ROW, "other\0-abc.def.ghi", "LIFECYCLE\0DEFINED", 100));
+        expected.add(new Key(ROW, EVENT, "LIFECYCLE\0CLOSED", 300));
+        expected.add(new Key(ROW, EVENT, "NUM_PAGES\u00002", 300));
+        expected.add(new Key(ROW, EVENT, "PAGE_METRICS.1\u000010/25", 300));
+        expected.add(new Key(ROW, EVENT, "PAGE_METRICS.2\u00005/10", 300));
+        expected.add(new Key(ROW, EVENT, "POSITIVE_SELECTORS\0bar", 100));
+        expected.add(new Key(ROW, EVENT, "POSITIVE_SELECTORS\0foo", 100));
+        expected.add(new Key(ROW, EVENT, "QUERY_ID\0abc", 100));
+        assertEquals(expected, keys);
+    }
+    
+    @Test
+    public void testSeekWithinField() throws IOException {
+        // a range starting after the latest value of NUM_PAGES does not return an older one
+        Range range = new Range(new Key(ROW, EVENT, "NUM_PAGES\u00002", 0), null);
+        List<Key> keys = scan(iterator(), range);
+        assertEquals(new Key(ROW, EVENT, "PAGE_METRICS.1\u000010/25", 300), keys.get(0));
+        
+        // a range starting before the latest value finds it
+        range = new Range(new Key(ROW, EVENT, "NUM_PAGES\u00001", 200), null);
+        keys = scan(iterator(), range);
+        assertEquals(new Key(ROW, EVENT, "NUM_PAGES\u00002", 300), keys.get(0));
+        
+        // a range starting after the latest value, within the values of the field
+        range = new Range(new Key(ROW, EVENT, "LIFECYCLE\0DEFINED", 100), null);
+        keys = scan(iterator(), range);
+        assertEquals(new Key(ROW, EVENT, "NUM_PAGES\u00002", 300), keys.get(0));
+    }
+    
+    @Test
+    public void testDeletesPassedThrough() throws IOException {
+        Key delete = new Key(ROW, EVENT, "NUM_PAGES\u00001", 400);
+        delete.setDeleted(true);
+        data.put(delete, new Value(new byte[0]));
+        
+        List<Key> keys = scan(iterator(), new Range(new Key(ROW, EVENT, "NUM_PAGES"), true, new Key(ROW, EVENT, "NUM_PAGES\u0001"), false));
+        
+        List<Key> expected = new ArrayList<>();
+        expected.add(new Key(ROW, EVENT, "NUM_PAGES\u00000", 100));
+        expected.add(delete);
+        expected.add(new Key(ROW, EVENT, "NUM_PAGES\u00002", 300));
+        assertEquals(expected, keys);
+    }
+    
+    @Test
+    public void testUpdatedFieldsOption() throws IOException {
+        QueryMetricCombiningIterator iterator = new QueryMetricCombiningIterator();
+        iterator.init(new SortedMapIterator(data), Collections.singletonMap(QueryMetricCombiningIterator.UPDATED_FIELDS, "NUM_PAGES"), null);
+        
+        List<Key> keys = scan(iterator, new Range(new Key(ROW, EVENT), true, new Key(ROW, EVENT + '\0'), false));
+        assertEquals(10, keys.size());
+        assertEquals(new Key(ROW, EVENT, "NUM_PAGES\u00002", 300), keys.get(3));
+    }
+}
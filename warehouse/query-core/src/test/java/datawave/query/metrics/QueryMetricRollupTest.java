@@ -0,0 +1,141 @@
+package datawave.query.metrics;
+
+import datawave.webservice.query.metric.BaseQueryMetric.Lifecycle;
+import datawave.webservice.query.metric.QueryMetric;
+import datawave.webservice.query.metric.QueryMetricSummary;
+import datawave.webservice.query.metric.QueryMetricsSummaryResponse;
+import org.apache.accumulo.core.data.ColumnUpdate;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.commons.lang.time.DateUtils;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class QueryMetricRollupTest {
+    
+    private static final ColumnVisibility VISIBILITY = new ColumnVisibility("PUBLIC");
+    
+    private QueryMetric metric(Date createDate) {
+        QueryMetric metric = new QueryMetric();
+        metric.setUser("user1");
+        metric.setQueryLogic("EventQuery");
+        metric.setCreateDate(createDate);
+        metric.setLifecycle(Lifecycle.DEFINED);
+        return metric;
+    }
+    
+    // the values of a mutation by column family and qualifier, summed as the table would
+    private Map<String,Long> values(Mutation m) {
+        Map<String,Long> values = new HashMap<>();
+        for (ColumnUpdate update : m.getUpdates()) {
+            String column = new String(update.getColumnFamily()) + ':' + new String(update.getColumnQualifier()).replace('\0', '/');
+            values.merge(column, Long.parseLong(new String(update.getValue())), Long::sum);
+        }
+        return values;
+    }
+    
+    @Test
+    public void testRow() {
+        Date date = new Date(1546398245000L); // 2019-01-02 03:04:05 UTC
+        assertEquals("2019010203", QueryMetricRollup.getRow(date));
+        assertEquals(new Date(1546398000000L), QueryMetricRollup.getHour("2019010203"));
+    }
+    
+    @Test
+    public void testMutation() {
+        QueryMetric defined = metric(new Date(1546398245000L));
+        assertTrue(QueryMetricRollup.isNewQuery(defined));
+        
+        Mutation m = QueryMetricRollup.getMutation(defined, null, VISIBILITY);
+        assertEquals("2019010203", new String(m.getRow()));
+        Map<String,Long> values = values(m);
+        assertEquals(1, values.size());
+        assertEquals(Long.valueOf(1), values.get("QUERIES:user1/EventQuery"));
+        
+        QueryMetric page1 = (QueryMetric) defined.duplicate();
+        page1.setLifecycle(Lifecycle.RESULTS);
+        page1.addPageTime(10, 50, 0, 50);
+        assertFalse(QueryMetricRollup.isNewQuery(page1));
+        
+        QueryMetric page2 = (QueryMetric) page1.duplicate();
+        page2.addPageTime(20, 5000, 100, 5100);
+        
+        // only the page that the previous update did not have
+        values = values(QueryMetricRollup.getMutation(page2, page1, VISIBILITY));
+        assertEquals(Long.valueOf(1), values.get("PAGES:user1/EventQuery"));
+        assertEquals(Long.valueOf(20), values.get("PAGE_RESULTS:user1/EventQuery"));
+        assertEquals(Long.valueOf(5000), values.get("PAGE_RESPONSE_TIME:user1/EventQuery"));
+        assertEquals(Long.valueOf(5000), values.get("MAX_PAGE_RESPONSE_TIME:user1/EventQuery"));
+        assertEquals(Long.valueOf(1), values.get("PAGE_RESPONSE_TIME_HISTOGRAM:user1/EventQuery/10000"));
+        assertNull(values.get("QUERIES:user1/EventQuery"));
+        
+        // nothing new
+        assertNull(QueryMetricRollup.getMutation(page2, page2, VISIBILITY));
+    }
+    
+    @Test
+    public void testHistogramBucket() {
+        assertEquals("10", QueryMetricRollup.getHistogramBucket(0));
+        assertEquals("100", QueryMetricRollup.getHistogramBucket(11));
+        assertEquals("300000", QueryMetricRollup.getHistogramBucket(300000));
+        assertEquals(QueryMetricRollup.HISTOGRAM_OVERFLOW, QueryMetricRollup.getHistogramBucket(300001));
+    }
+    
+    private void put(TreeMap<Key,Value> rollups, Date hour, String statistic, String column, long value) {
+        rollups.put(new Key(QueryMetricRollup.getRow(hour), statistic, column), new Value(Long.toString(value).getBytes()));
+    }
+    
+    @Test
+    public void testSummarize() {
+        Date now = new Date();
+        Date thisHour = DateUtils.truncate(now, Calendar.HOUR);
+        Date threeDaysAgo = DateUtils.addDays(now, -3);
+        Date lastYear = DateUtils.addDays(now, -365);
+        
+        TreeMap<Key,Value> rollups = new TreeMap<>();
+        put(rollups, thisHour, QueryMetricRollup.QUERIES, "user1\0EventQuery", 2);
+        put(rollups, thisHour, QueryMetricRollup.QUERIES, "user2\0EventQuery", 1);
+        put(rollups, thisHour, QueryMetricRollup.PAGES, "user1\0EventQuery", 3);
+        put(rollups, thisHour, QueryMetricRollup.PAGE_RESULTS, "user1\0EventQuery", 30);
+        put(rollups, thisHour, QueryMetricRollup.MIN_PAGE_RESULTS, "user1\0EventQuery", 5);
+        put(rollups, thisHour, QueryMetricRollup.MAX_PAGE_RESULTS, "user1\0EventQuery", 15);
+        put(rollups, thisHour, QueryMetricRollup.PAGE_RESPONSE_TIME, "user1\0EventQuery", 300);
+        put(rollups, thisHour, QueryMetricRollup.PAGE_RESPONSE_TIME_HISTOGRAM, "user1\0EventQuery\u0000100", 3);
+        put(rollups, threeDaysAgo, QueryMetricRollup.QUERIES, "user1\0EventQuery", 4);
+        put(rollups, threeDaysAgo, QueryMetricRollup.PAGES, "user1\0EventQuery", 1);
+        put(rollups, threeDaysAgo, QueryMetricRollup.MIN_PAGE_RESULTS, "user1\0EventQuery", 2);
+        put(rollups, threeDaysAgo, QueryMetricRollup.MAX_PAGE_RESULTS, "user1\0EventQuery", 2);
+        put(rollups, lastYear, QueryMetricRollup.QUERIES, "user1\0EventQuery", 8);
+        
+        QueryMetricsSummaryResponse response = QueryMetricRollup.summarize(rollups.entrySet().iterator(), new QueryMetricsSummaryResponse(), now);
+        
+        QueryMetricSummary hour1 = response.getHour1();
+        assertEquals(3, hour1.getQueryCount());
+        assertEquals(3, hour1.getTotalPages());
+        assertEquals(30, hour1.getTotalPageResultSize());
+        assertEquals(5, hour1.getMinPageResultSize());
+        assertEquals(15, hour1.getMaxPageResultSize());
+        assertEquals(300, hour1.getTotalPageResponseTime());
+        
+        QueryMetricSummary day7 = response.getDay7();
+        assertEquals(7, day7.getQueryCount());
+        assertEquals(4, day7.getTotalPages());
+        assertEquals(2, day7.getMinPageResultSize());
+        
+        assertEquals(3, response.getDay1().getQueryCount());
+        assertEquals(7, response.getDay90().getQueryCount());
+        assertEquals(15, response.getAll().getQueryCount());
+    }
+}
@@ -0,0 +1,152 @@
+package datawave.query.metrics;
+
+import datawave.ingest.mapreduce.handler.shard.AbstractColumnBasedHandler;
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.query.Constants;
+import datawave.security.authorization.DatawavePrincipal;
+import datawave.webservice.query.metric.BaseQueryMetric.Lifecycle;
+import datawave.webservice.query.metric.QueryMetric;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+import com.google.common.collect.Multimap;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ShardTableQueryMetricHandlerTest {
+    
+    private static final long CREATE_DATE = 1546398245000L; // 2019-01-02 03:04:05 UTC
+    
+    private ShardTableQueryMetricHandler handler;
+    private Configuration conf;
+    
+    @Before
+    public void setup() {
+        handler = new ShardTableQueryMetricHandler();
+        conf = Whitebox.getInternalState(handler, "conf");
+    }
+    
+    private AbstractColumnBasedHandler<Key> dataTypeHandler() {
+        ContentQueryMetricsHandler<Key> dataTypeHandler = new ContentQueryMetricsHandler<>();
+        dataTypeHandler.setup(new TaskAttemptContextImpl(conf, new TaskAttemptID()));
+        return dataTypeHandler;
+    }
+    
+    private QueryMetric metric(String queryId, long numUpdates, long numResults) {
+        QueryMetric metric = new QueryMetric();
+        metric.setQueryId(queryId);
+        metric.setUser("user1");
+        metric.setQueryType("RunningQuery");
+        metric.setQueryLogic("EventQuery");
+        metric.setQuery("FIELD == 'value'");
+        metric.setCreateDate(new Date(CREATE_DATE));
+        // a day after the query was created, which is outside of the date range of a query for the metric
+        metric.setLastUpdated(new Date(CREATE_DATE + 24 * 60 * 60 * 1000L));
+        metric.setLifecycle(Lifecycle.INITIALIZED);
+        metric.addPageTime(numResults, 100, CREATE_DATE, CREATE_DATE + 100);
+        metric.setNumUpdates(numUpdates);
+        return metric;
+    }
+    
+    // the values of the field index entries of a field
+    private Map<String,Key> fieldIndexKeys(Multimap<BulkIngestKey,Value> entries, String field) {
+        Map<String,Key> keys = new HashMap<>();
+        for (BulkIngestKey bulkIngestKey : entries.keySet()) {
+            Key key = bulkIngestKey.getKey();
+            if (key.getColumnFamily().toString().equals(Constants.FIELD_INDEX_PREFIX + field)) {
+                String cq = key.getColumnQualifier().toString();
+                keys.put(cq.substring(0, cq.indexOf('\0')), key);
+            }
+        }
+        return keys;
+    }
+    
+    @Test
+    public void testAppendedEntriesAreTimestampedFromCreateDate() {
+        QueryMetric stored = metric(UUID.randomUUID().toString(), 2, 10);
+        QueryMetric updated = metric(stored.getQueryId(), 3, 20);
+        
+        Multimap<BulkIngestKey,Value> entries = handler.getAppendedEntries(dataTypeHandler(), updated, stored);
+        
+        assertFalse(entries.isEmpty());
+        for (BulkIngestKey bulkIngestKey : entries.keySet()) {
+            assertEquals(bulkIngestKey.toString(), CREATE_DATE + 3, bulkIngestKey.getKey().getTimestamp());
+            assertFalse(bulkIngestKey.getKey().isDeleted());
+        }
+        assertEquals(1, fieldIndexKeys(entries, "NUM_RESULTS").size());
+    }
+    
+    @Test
+    public void testReplacedFieldIndexEntriesAreDeleted() {
+        QueryMetric stored = metric(UUID.randomUUID().toString(), 2, 10);
+        QueryMetric updated = metric(stored.getQueryId(), 3, 20);
+        
+        Multimap<BulkIngestKey,Value> appended = handler.getAppendedEntries(dataTypeHandler(), updated, stored);
+        AbstractColumnBasedHandler<Key> dataTypeHandler = dataTypeHandler();
+        Multimap<BulkIngestKey,Value> replaced = handler.getReplacedFieldIndexEntries(dataTypeHandler, updated, stored);
+        
+        String shardTable = dataTypeHandler.getShardTableName().toString();
+        assertFalse(replaced.isEmpty());
+        for (BulkIngestKey bulkIngestKey : replaced.keySet()) {
+            assertEquals(shardTable, bulkIngestKey.getTableName().toString());
+            assertTrue(bulkIngestKey.toString(), bulkIngestKey.getKey().getColumnFamily().toString().startsWith(Constants.FIELD_INDEX_PREFIX));
+            assertTrue(bulkIngestKey.getKey().isDeleted());
+            // newer than the entries of the stored metric, older than those of the update
+            assertEquals(CREATE_DATE + 2, bulkIngestKey.getKey().getTimestamp());
+        }
+        
+        // the old value of a changed field is deleted, and the new one is not
+        Map<String,Key> replacedResults = fieldIndexKeys(replaced, "NUM_RESULTS");
+        Map<String,Key> appendedResults = fieldIndexKeys(appended, "NUM_RESULTS");
+        assertEquals(1, replacedResults.size());
+        assertEquals(1, appendedResults.size());
+        assertNotEquals(replacedResults.keySet(), appendedResults.keySet());
+        
+        // unchanged fields are left alone
+        assertTrue(fieldIndexKeys(replaced, "QUERY_ID").isEmpty());
+        assertTrue(fieldIndexKeys(replaced, "USER").isEmpty());
+    }
+    
+    @Test
+    public void testStoredMetricIsUsedWhenNotCached() throws Exception {
+        final QueryMetric stored = metric(UUID.randomUUID().toString(), 5, 10);
+        ShardTableQueryMetricHandler handler = new ShardTableQueryMetricHandler() {
+            @Override
+            protected List<QueryMetric> getStoredQueryMetrics(QueryMetric updatedQueryMetric, DatawavePrincipal datawavePrincipal) {
+                return Collections.singletonList(stored);
+            }
+        };
+        Whitebox.setInternalState(handler, "appendOnly", true);
+        // the record writer only simulates the writes with the test configuration
+        handler.reload();
+        
+        QueryMetric updated = metric(stored.getQueryId(), 0, 20);
+        handler.updateMetric(updated, null);
+        assertEquals(6, updated.getNumUpdates());
+        
+        // the next update continues from the cached metric
+        QueryMetric next = metric(stored.getQueryId(), 0, 30);
+        handler.updateMetric(next, null);
+        assertEquals(7, next.getNumUpdates());
+        
+        Map<?,?> metricsCache = Whitebox.getInternalState(ShardTableQueryMetricHandler.class, "metricsCache");
+        assertNotNull(metricsCache.get(stored.getQueryId()));
+    }
+}
@@ -273,6 +273,46 @@ public abstract class GroupingTest {
         Assert.assertEquals(responseSet.size(), 1);
     }
     
+    @Test
+    public void testGroupingPushdown() throws Exception {
+        Map<String,String> extraParameters = new HashMap<>();
+        extraParameters.put("include.grouping.context", "true");
+        
+        Date startDate = format.parse("20091231");
+        Date endDate = format.parse("20150101");
+        
+        String queryString = "UUID =~ '^[CS].*'";
+        
+        // @formatter:off
+        Map<String,Integer> expectedMap = ImmutableMap.<String,Integer> builder()
+                .put("FEMALE-18", 2)
+                .put("MALE-30", 1)
+                .put("MALE-34", 1)
+                .put("MALE-16", 1)
+                .put("MALE-40", 2)
+                .put("MALE-20", 2)
+                .put("MALE-24", 1)
+                .put("MALE-22", 2)
+                .build();
+        // @formatter:on
+        
+        extraParameters.put("group.fields", "AGE,$GENDER");
+        extraParameters.put("group.fields.pushdown", "true");
+        
+        List<List<EventBase>> responseEvents = new ArrayList<>();
+        for (RebuildingScannerTestHelper.TEARDOWN teardown : TEARDOWNS) {
+            for (RebuildingScannerTestHelper.INTERRUPT interrupt : INTERRUPTS) {
+                responseEvents.add(((DefaultEventQueryResponse) runTestQueryWithGrouping(expectedMap, queryString, startDate, endDate, extraParameters,
+                                teardown, interrupt)).getEvents());
+            }
+        }
+        List<String> digested = digest(responseEvents);
+        log.debug("reponses:" + digested);
+        Set<String> responseSet = Sets.newHashSet(digested);
+        // if the grouped results from every type of rebuild are the same, there should be only 1 entry in the responseSet
+        Assert.assertEquals(responseSet.size(), 1);
+    }
+    
     // grab the relevant stuff from the events and do some formatting
     private List<String> digest(List<List<EventBase>> in) {
         List<String> stringList = new ArrayList<>();
@@ -514,6 +554,26 @@ public abstract class GroupingTest {
         }
     }
     
+    @Test
+    public void testCountingMapWithPartialCounts() {
+        MarkingFunctions markingFunctions = new MarkingFunctions.Default();
+        GroupingTransform.GroupCountingHashMap map = new GroupingTransform.GroupCountingHashMap(markingFunctions);
+        GroupingTypeAttribute attr1 = new GroupingTypeAttribute(new LcType("FOO"), new Key("FOO"), true);
+        attr1.setColumnVisibility(new ColumnVisibility("A"));
+        Assert.assertEquals(3, map.add(Collections.singleton(attr1), 3));
+        
+        GroupingTypeAttribute attr2 = new GroupingTypeAttribute(new LcType("FOO"), new Key("FOO"), true);
+        attr2.setColumnVisibility(new ColumnVisibility("B"));
+        Assert.assertEquals(7, map.add(Collections.singleton(attr2), 4));
+        Assert.assertEquals(8, map.add(Collections.singleton(attr2)));
+        
+        Assert.assertEquals(1, map.size());
+        Assert.assertEquals(new ColumnVisibility("A&B"), map.keySet().iterator().next().iterator().next().getColumnVisibility());
+        
+        map.clear();
+        Assert.assertEquals(2, map.add(Collections.singleton(attr2), 2));
+    }
+    
     private static RemoteEdgeDictionary mockRemoteEdgeDictionary = EasyMock.createMock(RemoteEdgeDictionary.class);
     
     public static class Producer {
@@ -13,6 +13,8 @@ import datawave.query.attributes.Attributes;
 import datawave.query.attributes.DiacriticContent;
 import datawave.query.attributes.Document;
 import datawave.query.jexl.JexlASTHelper;
+import datawave.query.tables.ShardQueryLogic;
+import datawave.webservice.query.metric.QueryMetric;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.commons.collections4.Transformer;
@@ -192,6 +194,45 @@ public class UniqueTransformTest {
         Assert.assertNull(transform.apply(null));
     }
     
+    @Test
+    public void testExactUniqueness() {
+        Random random = new Random(2000);
+        List<Document> input = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            input.add(createDocument(random, false));
+        }
+        
+        Set<String> fields = new HashSet<>();
+        int expected = input.size();
+        while (expected > input.size() / 2 || expected < 10) {
+            fields.clear();
+            while (fields.size() < 3) {
+                fields.add("Attr" + random.nextInt(100));
+            }
+            expected = countUniqueness(input, fields);
+        }
+        
+        // small enough that the field sets are spilled to disk
+        ShardQueryLogic logic = new ShardQueryLogic();
+        logic.setExactUnique(true);
+        logic.setUniqueMaxMemory(1024);
+        UniqueTransform transform = new UniqueTransform(logic, fields);
+        
+        int unique = 0;
+        for (Document d : input) {
+            if (transform.apply(Maps.immutableEntry(d.getMetadata(), d)) != null) {
+                unique++;
+            }
+        }
+        Assert.assertEquals(expected, unique);
+        
+        QueryMetric metric = new QueryMetric();
+        transform.writeQueryMetrics(metric);
+        Assert.assertTrue(metric.getUniqueSpillCount() > 0);
+        Assert.assertTrue(metric.getUniqueMemoryUsed() > 0);
+        transform.close();
+    }
+    
     /**
      * Test that groups get placed into separate field sets
      */
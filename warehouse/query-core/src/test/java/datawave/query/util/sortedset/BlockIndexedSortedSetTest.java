@@ -0,0 +1,212 @@
+package datawave.query.util.sortedset;
+
+import org.apache.accumulo.core.data.Key;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BlockIndexedSortedSetTest {
+    
+    private static final int NUM_ELEMENTS = 5000;
+    
+    private final List<SortedSetTempFileHandler> handlers = new ArrayList<>();
+    
+    private SortedSetTempFileHandler newHandler(FileSortedSet.PersistOptions.Format format) throws IOException {
+        SortedSetTempFileHandler handler = new SortedSetTempFileHandler() {
+            @Override
+            public FileSortedSet.PersistOptions getPersistOptions() {
+                // use small blocks to ensure we get a number of them
+                return new FileSortedSet.PersistOptions(true, true, 100, format, 1024);
+            }
+        };
+        handlers.add(handler);
+        return handler;
+    }
+    
+    private static Key key(int i) {
+        return new Key(String.format("row%08d", i), "cf", "cq");
+    }
+    
+    private SortedSet<Key> keys;
+    private SortedSet<String> strings;
+    
+    @Before
+    public void setUp() {
+        keys = new TreeSet<>();
+        strings = new TreeSet<>();
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            keys.add(key(i));
+            strings.add(String.format("value%08d", i));
+        }
+    }
+    
+    @After
+    public void tearDown() {
+        for (SortedSetTempFileHandler handler : handlers) {
+            handler.deleteFile();
+        }
+    }
+    
+    @Test
+    public void testKeyRoundTrip() throws Exception {
+        SortedSetTempFileHandler handler = newHandler(FileSortedSet.PersistOptions.Format.BLOCK_INDEXED);
+        FileKeySortedSet set = new FileKeySortedSet(keys, handler, true);
+        assertTrue(set.isPersisted());
+        assertTrue(BlockIndexedFormat.isBlockIndexed(handler));
+        assertEquals(NUM_ELEMENTS, set.size());
+        assertEquals(new ArrayList<>(keys), toList(set.iterator()));
+        
+        set.load();
+        assertFalse(set.isPersisted());
+        assertEquals(keys, set);
+    }
+    
+    @Test
+    public void testKeySubSets() throws Exception {
+        FileKeySortedSet set = new FileKeySortedSet(keys, newHandler(FileSortedSet.PersistOptions.Format.BLOCK_INDEXED), true);
+        assertEquals(new ArrayList<>(keys.tailSet(key(4321))), toList(set.tailSet(key(4321)).iterator()));
+        assertEquals(new ArrayList<>(keys.headSet(key(17))), toList(set.headSet(key(17)).iterator()));
+        assertEquals(new ArrayList<>(keys.subSet(key(2000), key(2100))), toList(set.subSet(key(2000), key(2100)).iterator()));
+        // a start key that is between elements
+        Key between = new Key(String.format("row%08d", 3000), "cf", "cq\0");
+        assertEquals(new ArrayList<>(keys.tailSet(between)), toList(set.tailSet(between).iterator()));
+        assertEquals(key(NUM_ELEMENTS - 1), set.last());
+        assertEquals(key(0), set.first());
+    }
+    
+    @Test
+    public void testSerializableRoundTrip() throws Exception {
+        SortedSetTempFileHandler handler = newHandler(FileSortedSet.PersistOptions.Format.BLOCK_INDEXED);
+        FileSerializableSortedSet<String> set = new FileSerializableSortedSet<>(strings,
+                        new FileSerializableSortedSet.SerializableFileHandler(handler), true);
+        assertTrue(BlockIndexedFormat.isBlockIndexed(handler));
+        assertEquals(NUM_ELEMENTS, set.size());
+        assertEquals(new ArrayList<>(strings), toList(set.iterator()));
+        assertEquals(new ArrayList<>(strings.subSet("value00001234", "value00001300")), toList(set.subSet("value00001234", "value00001300").iterator()));
+    }
+    
+    @Test
+    public void testSeekAfterRead() throws Exception {
+        SortedSetTempFileHandler handler = newHandler(FileSortedSet.PersistOptions.Format.BLOCK_INDEXED);
+        new FileKeySortedSet(keys, handler, true);
+        try (BlockIndexedInputStream<Key> stream = new BlockIndexedInputStream<>(handler, new BlockIndexedFormat.KeyCodec())) {
+            // forwards, backwards, within the last block read, and past the end
+            for (int i : new int[] {10, 4000, 17, 18, 11, 4998}) {
+                stream.seek(key(i), null, Comparator.naturalOrder());
+                assertEquals(key(i), stream.readObject());
+                assertEquals(key(i + 1), stream.readObject());
+            }
+            stream.seek(new Key("row99999999"), null, Comparator.naturalOrder());
+            assertNull(stream.readObject());
+            stream.seek(key(2000), key(2001), Comparator.naturalOrder());
+            assertEquals(key(2000), stream.readObject());
+            assertNull(stream.readObject());
+        }
+    }
+    
+    @Test
+    public void testSharedIndex() throws Exception {
+        SortedSetTempFileHandler handler = newHandler(FileSortedSet.PersistOptions.Format.BLOCK_INDEXED);
+        new FileKeySortedSet(keys, handler, true);
+        BlockIndexedFormat.KeyCodec codec = new BlockIndexedFormat.KeyCodec();
+        BlockIndexedFormat.Index<Key> index = BlockIndexedFormat.readIndex(handler, codec);
+        assertEquals(NUM_ELEMENTS, index.getSize());
+        assertTrue(index.getNumBlocks() > 1);
+        for (int i : new int[] {0, 1234, 4999}) {
+            try (BlockIndexedInputStream<Key> stream = new BlockIndexedInputStream<>(handler, codec, index)) {
+                assertEquals(NUM_ELEMENTS, stream.readSize());
+                stream.seek(key(i), null, Comparator.naturalOrder());
+                assertEquals(key(i), stream.readObject());
+            }
+        }
+    }
+    
+    @Test
+    public void testSerializableCodec() throws Exception {
+        BlockIndexedFormat.SerializableCodec<Serializable> codec = new BlockIndexedFormat.SerializableCodec<>();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        codec.write(out, new byte[] {1, 2, 3});
+        codec.write(out, "value\u00e9");
+        codec.write(out, 42L);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+        assertArrayEquals(new byte[] {1, 2, 3}, (byte[]) codec.read(in));
+        assertEquals("value\u00e9", codec.read(in));
+        assertEquals(42L, codec.read(in));
+        // a tag and a length along with the bytes
+        assertEquals(5, sizeOf(codec, new byte[] {1, 2, 3}));
+        assertEquals(7, sizeOf(codec, "value"));
+    }
+    
+    private static int sizeOf(BlockIndexedFormat.SerializableCodec<Serializable> codec, Serializable element) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        codec.write(new DataOutputStream(buffer), element);
+        return buffer.size();
+    }
+    
+    @Test
+    public void testBlockIndexedIsSmaller() throws Exception {
+        SortedSetTempFileHandler blockHandler = newHandler(FileSortedSet.PersistOptions.Format.BLOCK_INDEXED);
+        SortedSetTempFileHandler defaultHandler = newHandler(FileSortedSet.PersistOptions.Format.DEFAULT);
+        new FileSerializableSortedSet<>(strings, new FileSerializableSortedSet.SerializableFileHandler(blockHandler), true);
+        new FileSerializableSortedSet<>(strings, new FileSerializableSortedSet.SerializableFileHandler(defaultHandler), true);
+        assertTrue(blockHandler.getSize() < defaultHandler.getSize());
+    }
+    
+    @Test
+    public void testDefaultFormatStillReadable() throws Exception {
+        SortedSetTempFileHandler handler = newHandler(FileSortedSet.PersistOptions.Format.DEFAULT);
+        new FileKeySortedSet(keys, handler, true);
+        assertFalse(BlockIndexedFormat.isBlockIndexed(handler));
+        
+        // reading does not depend on the configured format
+        SortedSetTempFileHandler reader = new SortedSetTempFileHandler() {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return handler.getInputStream();
+            }
+            
+            @Override
+            public long getSize() {
+                return handler.getSize();
+            }
+            
+            @Override
+            public FileSortedSet.PersistOptions getPersistOptions() {
+                return new FileSortedSet.PersistOptions(true, true, 100, FileSortedSet.PersistOptions.Format.BLOCK_INDEXED, 1024);
+            }
+        };
+        handlers.add(reader);
+        FileKeySortedSet set = new FileKeySortedSet(reader, true);
+        assertEquals(NUM_ELEMENTS, set.size());
+        assertEquals(new ArrayList<>(keys.tailSet(key(100))), toList(set.tailSet(key(100)).iterator()));
+    }
+    
+    private static <E> List<E> toList(Iterator<E> it) {
+        List<E> list = new ArrayList<>();
+        while (it.hasNext()) {
+            list.add(it.next());
+        }
+        return list;
+    }
+}
@@ -0,0 +1,129 @@
+package datawave.query.util.sortedset;
+
+import org.apache.accumulo.core.data.Key;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of filling an ivarator result set from a number of threads using a synchronized {@link BufferedFileBackedSortedSet} (the previous
+ * approach) against a {@link ConcurrentBufferedSortedSet}. Run the main method from the test classpath, this is not run as part of the unit tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConcurrentBufferedSortedSetBenchmark {
+    
+    private static final int NUM_KEYS = 200000;
+    private static final int BUFFER_PERSIST_THRESHOLD = 10000;
+    
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int threads;
+    
+    @Param({"synchronized", "concurrent"})
+    public String buffer;
+    
+    private Key[] keys;
+    private ExecutorService executor;
+    private SortedSet<Key> set;
+    
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        keys = new Key[NUM_KEYS];
+        for (int i = 0; i < NUM_KEYS; i++) {
+            // spread the keys so that each thread is writing throughout the key space
+            keys[i] = new Key(String.format("20190101_%d", i % 7), "fi\0FIELD", String.format("value%08d\0datatype\0uid.%d", i, i));
+        }
+        executor = Executors.newFixedThreadPool(threads);
+    }
+    
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        BufferedFileBackedSortedSet<Key> fileSet = new BufferedFileBackedSortedSet<>(null, BUFFER_PERSIST_THRESHOLD, 100, 2,
+                        Collections.singletonList(new BufferedFileBackedSortedSet.SortedSetFileHandlerFactory() {
+                            @Override
+                            public FileSortedSet.SortedSetFileHandler createHandler() throws IOException {
+                                return new SortedSetTempFileHandler();
+                            }
+                            
+                            @Override
+                            public boolean isValid() {
+                                return true;
+                            }
+                        }), new FileKeySortedSet.Factory());
+        if ("concurrent".equals(buffer)) {
+            set = new ConcurrentBufferedSortedSet<>(fileSet);
+        } else {
+            set = Collections.synchronizedSortedSet(fileSet);
+        }
+    }
+    
+    @TearDown(Level.Invocation)
+    public void tearDownInvocation() {
+        set.clear();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        executor.shutdownNow();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(NUM_KEYS)
+    public void fill() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = offset; i < NUM_KEYS; i += threads) {
+                    set.add(keys[i]);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        // include moving any remaining buffered keys into the underlying set
+        if (set instanceof ConcurrentBufferedSortedSet) {
+            ((ConcurrentBufferedSortedSet<Key>) set).flush();
+        }
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(ConcurrentBufferedSortedSetBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,183 @@
+package datawave.query.util.sortedset;
+
+import org.apache.accumulo.core.data.Key;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentBufferedSortedSetTest {
+    
+    private static final int NUM_THREADS = 8;
+    private static final int KEYS_PER_THREAD = 1000;
+    
+    private BufferedFileBackedSortedSet<Key> delegate = null;
+    private ConcurrentBufferedSortedSet<Key> set = null;
+    private ExecutorService executor = null;
+    
+    @Before
+    public void setUp() throws Exception {
+        delegate = new BufferedFileBackedSortedSet<>(null, 100, 7, 2, Collections.singletonList(new BufferedFileBackedSortedSet.SortedSetFileHandlerFactory() {
+            @Override
+            public FileSortedSet.SortedSetFileHandler createHandler() throws IOException {
+                return new SortedSetTempFileHandler();
+            }
+            
+            @Override
+            public boolean isValid() {
+                return true;
+            }
+        }), new FileKeySortedSet.Factory());
+        set = new ConcurrentBufferedSortedSet<>(delegate, 4);
+        executor = Executors.newFixedThreadPool(NUM_THREADS);
+    }
+    
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        set.clear();
+        set = null;
+        delegate = null;
+    }
+    
+    private static Key key(int i) {
+        return new Key(String.format("row%08d", i));
+    }
+    
+    private void fill(int overlap) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < NUM_THREADS; t++) {
+            final int offset = t * (KEYS_PER_THREAD - overlap);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < KEYS_PER_THREAD; i++) {
+                    set.add(key(offset + i));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+    
+    @Test
+    public void testNumStripes() {
+        assertEquals(4, set.getNumStripes());
+        assertEquals(1, new ConcurrentBufferedSortedSet<>(delegate, 1).getNumStripes());
+        assertEquals(8, new ConcurrentBufferedSortedSet<>(delegate, 5).getNumStripes());
+    }
+    
+    @Test
+    public void testBufferedUntilThreshold() {
+        for (int i = 0; i < 99; i++) {
+            set.add(key(i));
+        }
+        assertEquals(99, set.getBufferSize());
+        assertFalse(delegate.hasPersistedData());
+        
+        set.add(key(99));
+        assertEquals(0, set.getBufferSize());
+        assertTrue(delegate.hasPersistedData());
+        assertEquals(100, set.size());
+    }
+    
+    @Test
+    public void testConcurrentFill() throws Exception {
+        fill(0);
+        assertTrue(delegate.hasPersistedData());
+        
+        Iterator<Key> it = set.iterator();
+        for (int i = 0; i < NUM_THREADS * KEYS_PER_THREAD; i++) {
+            assertTrue(it.hasNext());
+            assertEquals(key(i), it.next());
+        }
+        assertFalse(it.hasNext());
+    }
+    
+    @Test
+    public void testConcurrentFillWithDuplicates() throws Exception {
+        int overlap = KEYS_PER_THREAD / 2;
+        fill(overlap);
+        
+        SortedSet<Key> expected = new TreeSet<>();
+        for (int i = 0; i < NUM_THREADS * (KEYS_PER_THREAD - overlap) + overlap; i++) {
+            expected.add(key(i));
+        }
+        List<Key> actual = new ArrayList<>();
+        for (Key k : set) {
+            actual.add(k);
+        }
+        assertEquals(new ArrayList<>(expected), actual);
+        assertEquals(expected.size(), set.size());
+    }
+    
+    @Test
+    public void testTailSet() throws Exception {
+        fill(0);
+        Iterator<Key> it = set.tailSet(key(5000)).iterator();
+        for (int i = 5000; i < NUM_THREADS * KEYS_PER_THREAD; i++) {
+            assertEquals(key(i), it.next());
+        }
+        assertFalse(it.hasNext());
+    }
+    
+    @Test
+    public void testPersist() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            set.add(key(i));
+        }
+        assertFalse(set.isPersisted());
+        set.persist();
+        assertTrue(set.isPersisted());
+        assertEquals(0, set.getBufferSize());
+        assertTrue(delegate.hasPersistedData());
+        assertEquals(key(0), set.first());
+        assertEquals(key(49), set.last());
+    }
+    
+    @Test
+    public void testClear() throws Exception {
+        fill(0);
+        set.add(key(-1));
+        set.clear();
+        assertEquals(0, set.getBufferSize());
+        assertTrue(set.isEmpty());
+    }
+    
+    @Test
+    public void testConcurrentClear() throws Exception {
+        Future<?> filled = executor.submit(() -> {
+            fill(0);
+            return null;
+        });
+        while (!filled.isDone()) {
+            set.clear();
+        }
+        filled.get();
+        
+        // an add racing the clear must not leave the buffer size counting an entry that is no longer buffered
+        set.flush();
+        assertEquals(0, set.getBufferSize());
+        set.clear();
+        assertEquals(0, set.getBufferSize());
+        assertTrue(set.isPersisted());
+    }
+}
@@ -0,0 +1,70 @@
+package datawave.query.util.sortedset;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FileBackedUniqueSetTest {
+    
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    
+    private static byte[] value(int i) {
+        return ("f0:FIELD=value" + i).getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Test
+    public void testInMemory() throws IOException {
+        File dir = temporaryFolder.newFolder();
+        FileBackedUniqueSet set = new FileBackedUniqueSet(FileBackedUniqueSet.DEFAULT_MAX_MEMORY, dir);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(set.add(value(i)));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(set.add(value(i)));
+        }
+        assertEquals(1000, set.size());
+        assertEquals(0, set.getSpillCount());
+        assertEquals(0, dir.list().length);
+        set.close();
+    }
+    
+    @Test
+    public void testSpillAndMerge() throws IOException {
+        File dir = temporaryFolder.newFolder();
+        // small enough to spill every few hundred values, and small blocks to exercise the block index
+        FileBackedUniqueSet set = new FileBackedUniqueSet(16 * 1024, dir, 4, 0.01, 4 * 1024);
+        Set<ByteBuffer> expected = new HashSet<>();
+        Random random = new Random(1234);
+        for (int i = 0; i < 8000; i++) {
+            byte[] value = value(random.nextInt(4000));
+            assertEquals(expected.add(ByteBuffer.wrap(value)), set.add(value));
+        }
+        assertEquals(expected.size(), set.size());
+        assertTrue(set.getSpillCount() > 4);
+        assertTrue(set.getNumRuns() <= 4);
+        assertEquals(set.getNumRuns(), dir.list((d, name) -> name.endsWith(".bin")).length);
+        assertTrue(set.getMaxMemoryUsed() > 0);
+        
+        // everything seen so far is a duplicate
+        for (ByteBuffer value : expected) {
+            assertFalse(set.add(value.array()));
+        }
+        
+        set.close();
+        assertEquals(0, set.getNumRuns());
+        assertEquals(0, dir.list().length);
+    }
+}
@@ -575,6 +575,14 @@ public abstract class BaseQueryMetric implements HasMarkings, Serializable {
     @XmlElement
     protected long fiRanges = 0;
     @XmlElement
+    protected long prefetchDepth = 0;
+    @XmlElement
+    protected long prefetchWaitTime = 0;
+    @XmlElement
+    protected long uniqueMemoryUsed = 0;
+    @XmlElement
+    protected long uniqueSpillCount = 0;
+    @XmlElement
     protected String plan = null;
     @XmlElement
     protected long loginTime = -1;
@@ -762,6 +770,54 @@ public abstract class BaseQueryMetric implements HasMarkings, Serializable {
         this.fiRanges = fiRanges;
     }
     
+    /**
+     * @return the number of results that were already buffered by the prefetcher when the most recent page was requested
+     */
+    public long getPrefetchDepth() {
+        return prefetchDepth;
+    }
+    
+    public void setPrefetchDepth(long prefetchDepth) {
+        this.prefetchDepth = prefetchDepth;
+    }
+    
+    /**
+     * @return the total time (ms) that next calls have spent waiting on the prefetch queue
+     */
+    public long getPrefetchWaitTime() {
+        return prefetchWaitTime;
+    }
+    
+    public void setPrefetchWaitTime(long prefetchWaitTime) {
+        this.prefetchWaitTime = prefetchWaitTime;
+    }
+    
+    public void addPrefetchWaitTime(long waitTime) {
+        this.prefetchWaitTime += waitTime;
+    }
+    
+    /**
+     * @return the peak heap (bytes) used to track the unique field sets seen by an exact unique query
+     */
+    public long getUniqueMemoryUsed() {
+        return uniqueMemoryUsed;
+    }
+    
+    public void setUniqueMemoryUsed(long uniqueMemoryUsed) {
+        this.uniqueMemoryUsed = uniqueMemoryUsed;
+    }
+    
+    /**
+     * @return the number of times an exact unique query persisted its unique field sets to local files
+     */
+    public long getUniqueSpillCount() {
+        return uniqueSpillCount;
+    }
+    
+    public void setUniqueSpillCount(long uniqueSpillCount) {
+        this.uniqueSpillCount = uniqueSpillCount;
+    }
+    
     public long getLoginTime() {
         return loginTime;
     }
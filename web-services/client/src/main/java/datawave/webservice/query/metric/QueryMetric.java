@@ -95,6 +95,10 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
         this.yieldCount = other.yieldCount;
         this.docRanges = other.docRanges;
         this.fiRanges = other.fiRanges;
+        this.prefetchDepth = other.prefetchDepth;
+        this.prefetchWaitTime = other.prefetchWaitTime;
+        this.uniqueMemoryUsed = other.uniqueMemoryUsed;
+        this.uniqueSpillCount = other.uniqueSpillCount;
         this.plan = other.plan;
         this.loginTime = other.loginTime;
         
@@ -119,7 +123,8 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
                         .append(this.getErrorMessage()).append(this.getCreateCallTime()).append(this.getErrorCode()).append(this.getQueryName())
                         .append(this.getParameters()).append(this.getSourceCount()).append(this.getNextCount()).append(this.getSeekCount())
                         .append(this.getYieldCount()).append(this.getDocRanges()).append(this.getFiRanges()).append(this.getPlan()).append(this.getLoginTime())
-                        .append(this.getPredictions()).toHashCode();
+                        .append(this.getPredictions()).append(this.getPrefetchDepth()).append(this.getPrefetchWaitTime())
+                        .append(this.getUniqueMemoryUsed()).append(this.getUniqueSpillCount()).toHashCode();
     }
     
     @Override
@@ -146,7 +151,10 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
                             .append(this.getNextCount(), other.getNextCount()).append(this.getSeekCount(), other.getSeekCount())
                             .append(this.getYieldCount(), other.getYieldCount()).append(this.getDocRanges(), other.getDocRanges())
                             .append(this.getFiRanges(), other.getFiRanges()).append(this.getPlan(), other.getPlan())
-                            .append(this.getLoginTime(), other.getLoginTime()).append(this.getPredictions(), other.getPredictions()).isEquals();
+                            .append(this.getLoginTime(), other.getLoginTime()).append(this.getPredictions(), other.getPredictions())
+                            .append(this.getPrefetchDepth(), other.getPrefetchDepth()).append(this.getPrefetchWaitTime(), other.getPrefetchWaitTime())
+                            .append(this.getUniqueMemoryUsed(), other.getUniqueMemoryUsed()).append(this.getUniqueSpillCount(), other.getUniqueSpillCount())
+                            .isEquals();
         } else {
             return false;
         }
@@ -186,6 +194,10 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
         buf.append(" FI Ranges: ").append(this.getFiRanges());
         buf.append(" Login Time: ").append(this.getLoginTime());
         buf.append(" Predictions: ").append(this.getPredictions());
+        buf.append(" Prefetch Depth: ").append(this.getPrefetchDepth());
+        buf.append(" Prefetch Wait Time(ms): ").append(this.getPrefetchWaitTime());
+        buf.append(" Unique Memory Used: ").append(this.getUniqueMemoryUsed());
+        buf.append(" Unique Spill Count: ").append(this.getUniqueSpillCount());
         buf.append("\n");
         return buf.toString();
     }
@@ -369,6 +381,11 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
                 }
             }
             
+            output.writeInt64(37, message.prefetchDepth, false);
+            output.writeInt64(38, message.prefetchWaitTime, false);
+            output.writeInt64(39, message.uniqueMemoryUsed, false);
+            output.writeInt64(40, message.uniqueSpillCount, false);
+            
         }
         
         public void mergeFrom(Input input, QueryMetric message) throws IOException {
@@ -501,6 +518,18 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
                         }
                         message.predictions.add(input.mergeObject(null, Prediction.getSchema()));
                         break;
+                    case 37:
+                        message.prefetchDepth = input.readInt64();
+                        break;
+                    case 38:
+                        message.prefetchWaitTime = input.readInt64();
+                        break;
+                    case 39:
+                        message.uniqueMemoryUsed = input.readInt64();
+                        break;
+                    case 40:
+                        message.uniqueSpillCount = input.readInt64();
+                        break;
                     default:
                         input.handleUnknownField(number, this);
                         break;
@@ -583,6 +612,14 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
                     return "loginTime";
                 case 36:
                     return "predictions";
+                case 37:
+                    return "prefetchDepth";
+                case 38:
+                    return "prefetchWaitTime";
+                case 39:
+                    return "uniqueMemoryUsed";
+                case 40:
+                    return "uniqueSpillCount";
                 default:
                     return null;
             }
@@ -632,6 +669,10 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
             fieldMap.put("plan", 34);
             fieldMap.put("loginTime", 35);
             fieldMap.put("predictions", 36);
+            fieldMap.put("prefetchDepth", 37);
+            fieldMap.put("prefetchWaitTime", 38);
+            fieldMap.put("uniqueMemoryUsed", 39);
+            fieldMap.put("uniqueSpillCount", 40);
         }
     };
     
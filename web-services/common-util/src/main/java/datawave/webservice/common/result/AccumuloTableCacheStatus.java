@@ -56,7 +56,8 @@ public class AccumuloTableCacheStatus extends BaseResponse implements HtmlProvid
         builder.append("<h2>").append("Table Caches").append("</h2>");
         builder.append("<br/>");
         builder.append("<table>");
-        builder.append("<tr><th>Table Name</th><th>Connection Pool</th><th>Authorizations</th><th>Reload Interval (ms)</th><th>Max Rows</th><th>Last Refresh</th><th>Refreshing Now</th></tr>");
+        builder.append("<tr><th>Table Name</th><th>Connection Pool</th><th>Authorizations</th><th>Reload Interval (ms)</th><th>Max Rows</th><th>Last Refresh</th><th>Refreshing Now</th>");
+        builder.append("<th>Incremental Reload</th><th>Last Full Refresh</th><th>Last Reload (ms)</th><th>Last Reload Entries</th></tr>");
         for (TableCache cache : caches) {
             builder.append("<tr>");
             builder.append("<td>").append(cache.getTableName()).append("</td>");
@@ -66,6 +67,10 @@ public class AccumuloTableCacheStatus extends BaseResponse implements HtmlProvid
             builder.append("<td>").append(cache.getMaxRows()).append("</td>");
             builder.append("<td>").append(cache.getLastRefresh()).append("</td>");
             builder.append("<td>").append(cache.getCurrentlyRefreshing()).append("</td>");
+            builder.append("<td>").append(cache.getIncrementalReload()).append("</td>");
+            builder.append("<td>").append(cache.getLastFullRefresh()).append("</td>");
+            builder.append("<td>").append(cache.getLastReloadDuration()).append("</td>");
+            builder.append("<td>").append(cache.getLastReloadCount()).append("</td>");
             builder.append("</tr>");
         }
         builder.append("</table>");
@@ -109,6 +109,33 @@ public class ConnectionFactoryResponse extends BaseResponse implements HtmlProvi
         
         builder.append("<br/>");
         
+        builder.append("<h2>").append("Connection Users").append("</h2>");
+        builder.append("<table class=\"connectionPools\">");
+        builder.append("<tr><th>Pool Name</th><th>Priority</th><th>User</th><th>Num Active</th><th>Utilization</th><th>Num Waiting</th><th>Num Requests</th>");
+        builder.append("<th>Num Timeouts</th><th>Total Wait Time (ms)</th><th>Max Wait Time (ms)</th></tr>");
+        for (ConnectionPool f : connectionPools) {
+            List<ConnectionPoolUser> users = f.getUsers();
+            if (users != null) {
+                for (ConnectionPoolUser u : users) {
+                    builder.append("<tr>");
+                    builder.append("<td>").append(f.getPoolName()).append("</td>");
+                    builder.append("<td>").append(f.getPriority()).append("</td>");
+                    builder.append("<td>").append(StringEscapeUtils.escapeHtml(u.getUser())).append("</td>");
+                    builder.append("<td>").append(u.getNumActive()).append("</td>");
+                    builder.append("<td>").append(formatter.format(u.getUtilization())).append("</td>");
+                    builder.append("<td>").append(u.getNumWaiting()).append("</td>");
+                    builder.append("<td>").append(u.getNumRequests()).append("</td>");
+                    builder.append("<td>").append(u.getNumTimeouts()).append("</td>");
+                    builder.append("<td>").append(u.getTotalWaitTime()).append("</td>");
+                    builder.append("<td>").append(u.getMaxWaitTime()).append("</td>");
+                    builder.append("</tr>");
+                }
+            }
+        }
+        builder.append("</table>");
+        
+        builder.append("<br/>");
+        
         builder.append("<h2>").append("ConnectionRequests").append("</h2>");
         builder.append("<table class=\"connectionRequests\">");
         builder.append("<tr><th>Pool Name</th><th>Priority</th><th>State</th><th>Time In State (ms)</th><th>Key</th><th>Value</th></tr>");
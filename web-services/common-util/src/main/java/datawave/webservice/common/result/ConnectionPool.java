@@ -48,6 +48,10 @@ public class ConnectionPool implements Serializable, Comparable<ConnectionPool>
     @XmlElement(name = "Connection")
     private List<Connection> connectionRequests = null;
     
+    @XmlElementWrapper(name = "Users")
+    @XmlElement(name = "User")
+    private List<ConnectionPoolUser> users = null;
+    
     public Integer getNumIdle() {
         return numIdle;
     }
@@ -96,6 +100,14 @@ public class ConnectionPool implements Serializable, Comparable<ConnectionPool>
         this.connectionRequests = connectionRequests;
     }
     
+    public List<ConnectionPoolUser> getUsers() {
+        return users;
+    }
+    
+    public void setUsers(List<ConnectionPoolUser> users) {
+        this.users = users;
+    }
+    
     public String getPriority() {
         return priority;
     }
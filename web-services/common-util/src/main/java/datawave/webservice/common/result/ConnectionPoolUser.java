@@ -0,0 +1,109 @@
+package datawave.webservice.common.result;
+
+import java.io.Serializable;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * The connection usage of a user, and query logic if known, for a connection pool priority
+ */
+@XmlRootElement(name = "User")
+@XmlAccessorType(XmlAccessType.NONE)
+public class ConnectionPoolUser implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    @XmlAttribute
+    private String user = null;
+    
+    @XmlAttribute
+    private Integer numActive = null;
+    
+    @XmlAttribute
+    private Integer numWaiting = null;
+    
+    @XmlAttribute
+    private Long numRequests = null;
+    
+    @XmlAttribute
+    private Long numTimeouts = null;
+    
+    @XmlAttribute
+    private Long totalWaitTime = null;
+    
+    @XmlAttribute
+    private Long maxWaitTime = null;
+    
+    @XmlAttribute
+    private Float utilization = null;
+    
+    public String getUser() {
+        return user;
+    }
+    
+    public void setUser(String user) {
+        this.user = user;
+    }
+    
+    public Integer getNumActive() {
+        return numActive;
+    }
+    
+    public void setNumActive(Integer numActive) {
+        this.numActive = numActive;
+    }
+    
+    public Integer getNumWaiting() {
+        return numWaiting;
+    }
+    
+    public void setNumWaiting(Integer numWaiting) {
+        this.numWaiting = numWaiting;
+    }
+    
+    public Long getNumRequests() {
+        return numRequests;
+    }
+    
+    public void setNumRequests(Long numRequests) {
+        this.numRequests = numRequests;
+    }
+    
+    public Long getNumTimeouts() {
+        return numTimeouts;
+    }
+    
+    public void setNumTimeouts(Long numTimeouts) {
+        this.numTimeouts = numTimeouts;
+    }
+    
+    public Long getTotalWaitTime() {
+        return totalWaitTime;
+    }
+    
+    public void setTotalWaitTime(Long totalWaitTime) {
+        this.totalWaitTime = totalWaitTime;
+    }
+    
+    public Long getMaxWaitTime() {
+        return maxWaitTime;
+    }
+    
+    public void setMaxWaitTime(Long maxWaitTime) {
+        this.maxWaitTime = maxWaitTime;
+    }
+    
+    /**
+     * @return the connections held by the user as a fraction of the max active connections of the pool
+     */
+    public Float getUtilization() {
+        return utilization;
+    }
+    
+    public void setUtilization(Float utilization) {
+        this.utilization = utilization;
+    }
+}
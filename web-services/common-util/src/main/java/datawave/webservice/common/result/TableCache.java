@@ -35,6 +35,18 @@ public class TableCache implements Serializable {
     @XmlAttribute
     private Boolean currentlyRefreshing = null;
     
+    @XmlAttribute
+    private Boolean incrementalReload = null;
+    
+    @XmlAttribute
+    private Date lastFullRefresh = null;
+    
+    @XmlAttribute
+    private Long lastReloadDuration = null;
+    
+    @XmlAttribute
+    private Long lastReloadCount = null;
+    
     public String getTableName() {
         return tableName;
     }
@@ -63,6 +75,22 @@ public class TableCache implements Serializable {
         return currentlyRefreshing;
     }
     
+    public Boolean getIncrementalReload() {
+        return incrementalReload;
+    }
+    
+    public Date getLastFullRefresh() {
+        return lastFullRefresh;
+    }
+    
+    public Long getLastReloadDuration() {
+        return lastReloadDuration;
+    }
+    
+    public Long getLastReloadCount() {
+        return lastReloadCount;
+    }
+    
     public void setTableName(String tableName) {
         this.tableName = tableName;
     }
@@ -91,4 +119,20 @@ public class TableCache implements Serializable {
         this.currentlyRefreshing = currentlyRefreshing;
     }
     
+    public void setIncrementalReload(Boolean incrementalReload) {
+        this.incrementalReload = incrementalReload;
+    }
+    
+    public void setLastFullRefresh(Date lastFullRefresh) {
+        this.lastFullRefresh = lastFullRefresh;
+    }
+    
+    public void setLastReloadDuration(Long lastReloadDuration) {
+        this.lastReloadDuration = lastReloadDuration;
+    }
+    
+    public void setLastReloadCount(Long lastReloadCount) {
+        this.lastReloadCount = lastReloadCount;
+    }
+    
 }
@@ -317,6 +317,10 @@ public class AccumuloTableCache {
             t.setMaxRows(entry.getValue().getMaxRows());
             t.setLastRefresh(entry.getValue().getLastRefresh());
             t.setCurrentlyRefreshing((entry.getValue().getReference() != null));
+            t.setIncrementalReload(entry.getValue().isIncrementalReload());
+            t.setLastFullRefresh(entry.getValue().getLastFullRefresh());
+            t.setLastReloadDuration(entry.getValue().getLastReloadDuration());
+            t.setLastReloadCount(entry.getValue().getLastReloadCount());
             response.getCaches().add(t);
         }
         return response;
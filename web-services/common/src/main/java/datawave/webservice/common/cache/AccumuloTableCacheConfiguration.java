@@ -24,6 +24,12 @@ public class AccumuloTableCacheConfiguration {
     @Inject
     @ConfigProperty(name = "dw.cache.reloadInterval", defaultValue = "86400000")
     private long reloadInterval;
+    @Inject
+    @ConfigProperty(name = "dw.cache.incrementalReload", defaultValue = "false")
+    private boolean incrementalReload;
+    @Inject
+    @ConfigProperty(name = "dw.cache.fullReloadInterval", defaultValue = "604800000")
+    private long fullReloadInterval;
     
     private Map<String,TableCache> caches = new HashMap<>();
     
@@ -34,6 +40,8 @@ public class AccumuloTableCacheConfiguration {
             cache.setTableName(tableName);
             cache.setConnectionPoolName(poolName);
             cache.setReloadInterval(reloadInterval);
+            cache.setIncrementalReload(incrementalReload);
+            cache.setFullReloadInterval(fullReloadInterval);
             caches.put(tableName, cache);
         }
     }
@@ -20,6 +20,7 @@ import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.BatchWriter;
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.MutationsRejectedException;
 import org.apache.accumulo.core.client.NamespaceExistsException;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import datawave.accumulo.inmemory.InMemoryInstance;
@@ -29,12 +30,24 @@ import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.user.RegExFilter;
+import org.apache.accumulo.core.iterators.user.TimestampFilter;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.log4j.Logger;
 
 import com.google.common.collect.Lists;
 
+/**
+ * Caches a table in the {@link InMemoryInstance}. A full reload copies the table into a temporary table which then replaces the cached table, so a full reload
+ * is seen all at once.
+ * <p>
+ * With incremental reloads enabled, a reload only fetches the entries with a timestamp at or after the start of the last reload, using a
+ * {@link TimestampFilter}, and writes them into the cached table. Nothing is removed from the cached table, so a row is never missing while the new entries
+ * are written, but readers may see some of them before the others. A scan does not return deleted entries, so deletes, and entries written with older
+ * timestamps, e.g. with the date of the data, are only picked up by a full reload: the first reload, a reload requested through
+ * {@link AccumuloTableCache#reloadCache(String)}, a reload after the full reload interval and a reload after the previous one was limited by the max rows.
+ * Without a full reload interval every reload is a full reload.
+ */
 public class BaseTableCache implements Serializable, TableCache {
     
     private static final long serialVersionUID = 1L;
@@ -47,9 +60,16 @@ public class BaseTableCache implements Serializable, TableCache {
     private String auths = null;
     private long reloadInterval = 0;
     private long maxRows = Long.MAX_VALUE;
+    private boolean incrementalReload = false;
+    private long fullReloadInterval = 0;
     
     /** set programatically **/
     private Date lastRefresh = new Date(0);
+    private Date lastFullRefresh = new Date(0);
+    // the start of the last complete reload, or Long.MIN_VALUE if the next reload has to be a full reload
+    private long reloadMarkTimestamp = Long.MIN_VALUE;
+    private long lastReloadDuration = 0;
+    private long lastReloadCount = 0;
     private AccumuloConnectionFactory connectionFactory = null;
     private transient InMemoryInstance instance = null;
     private SharedCacheCoordinator watcher = null;
@@ -157,16 +177,59 @@ public class BaseTableCache implements Serializable, TableCache {
         this.maxRows = maxRows;
     }
     
+    @Override
+    public boolean isIncrementalReload() {
+        return incrementalReload;
+    }
+    
+    @Override
+    public void setIncrementalReload(boolean incrementalReload) {
+        this.incrementalReload = incrementalReload;
+    }
+    
+    @Override
+    public long getFullReloadInterval() {
+        return fullReloadInterval;
+    }
+    
+    @Override
+    public void setFullReloadInterval(long fullReloadInterval) {
+        this.fullReloadInterval = fullReloadInterval;
+    }
+    
+    @Override
+    public Date getLastFullRefresh() {
+        return lastFullRefresh;
+    }
+    
+    @Override
+    public long getLastReloadDuration() {
+        return lastReloadDuration;
+    }
+    
+    @Override
+    public long getLastReloadCount() {
+        return lastReloadCount;
+    }
+    
+    /**
+     * @return true if the next reload only needs to fetch the entries written since the last reload
+     */
+    private boolean isIncremental(long now) {
+        // a requested reload sets the last refresh to 0
+        return incrementalReload && reloadMarkTimestamp != Long.MIN_VALUE && lastRefresh.getTime() != 0 && fullReloadInterval > 0
+                        && (now - lastFullRefresh.getTime()) < fullReloadInterval;
+    }
+    
     @Override
     public Boolean call() throws Exception {
         if (!lock.tryLock(0, TimeUnit.SECONDS))
             return false;
+        long start = System.currentTimeMillis();
+        boolean incremental = isIncremental(start);
         // Read from the table in the real Accumulo
-        BatchScanner scanner = null;
-        BatchWriter writer = null;
         Connector accumuloConn = null;
         
-        String tempTableName = tableName + "Temp";
         try {
             Map<String,String> map = connectionFactory.getTrackingMap(Thread.currentThread().getStackTrace());
             accumuloConn = connectionFactory.getConnection(connectionPoolName, Priority.ADMIN, map);
@@ -179,11 +242,51 @@ public class BaseTableCache implements Serializable, TableCache {
             } else {
                 authorizations = new Authorizations(auths);
             }
-            scanner = accumuloConn.createBatchScanner(tableName, authorizations, 10);
             
             Connector instanceConnector = instance.getConnector(AccumuloTableCache.MOCK_USERNAME, AccumuloTableCache.MOCK_PASSWORD);
             instanceConnector.securityOperations().changeUserAuthorizations(AccumuloTableCache.MOCK_USERNAME, authorizations);
             
+            incremental = incremental && instanceConnector.tableOperations().exists(tableName);
+            long count = incremental ? reloadChanges(accumuloConn, instanceConnector, authorizations) : reload(accumuloConn, instanceConnector, authorizations);
+            
+            this.lastRefresh = new Date();
+            if (!incremental) {
+                this.lastFullRefresh = this.lastRefresh;
+            }
+            // the entries written from the start of this reload on are newer than the mark, whatever the timestamps of the entries already in the table. A
+            // reload that was cut off by the max rows did not see all of the table, so the next one has to be a full reload.
+            this.reloadMarkTimestamp = (count > maxRows) ? Long.MIN_VALUE : start;
+            this.lastReloadCount = count;
+            this.lastReloadDuration = System.currentTimeMillis() - start;
+            log.info("Cached " + count + (incremental ? " new" : "") + " k,v for table: " + tableName + " in " + lastReloadDuration + "ms");
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            throw e;
+        } finally {
+            try {
+                if (null != accumuloConn)
+                    connectionFactory.returnConnection(accumuloConn);
+            } catch (Exception e) {
+                log.error(e.getMessage(), e);
+            }
+            lock.unlock();
+        }
+        return true;
+    }
+    
+    /**
+     * Copy the table into a temporary table, which then replaces the cached table
+     *
+     * @return the number of entries copied
+     */
+    private long reload(Connector accumuloConn, Connector instanceConnector, Authorizations authorizations) throws Exception {
+        BatchScanner scanner = null;
+        BatchWriter writer = null;
+        
+        String tempTableName = tableName + "Temp";
+        try {
+            scanner = accumuloConn.createBatchScanner(tableName, authorizations, 10);
+            
             createNamespaceIfNecessary(instanceConnector.namespaceOperations(), tempTableName);
             
             if (instanceConnector.tableOperations().exists(tempTableName)) {
@@ -204,32 +307,20 @@ public class BaseTableCache implements Serializable, TableCache {
                     break;
                 Entry<Key,Value> value = iter.next();
                 
-                Key valueKey = value.getKey();
-                
-                Mutation m = new Mutation(value.getKey().getRow());
-                m.put(valueKey.getColumnFamily(), valueKey.getColumnQualifier(), new ColumnVisibility(valueKey.getColumnVisibility()), valueKey.getTimestamp(),
-                                value.getValue());
-                writer.addMutation(m);
+                addMutation(writer, value);
                 count++;
             }
-            this.lastRefresh = new Date();
+            writer.close();
+            writer = null;
+            
             try {
                 instanceConnector.tableOperations().delete(tableName);
             } catch (TableNotFoundException e) {
                 // the table will not exist the first time this is run
             }
             instanceConnector.tableOperations().rename(tempTableName, tableName);
-            log.info("Cached " + count + " k,v for table: " + tableName);
-        } catch (Exception e) {
-            log.error(e.getMessage(), e);
-            throw e;
+            return count;
         } finally {
-            try {
-                if (null != accumuloConn)
-                    connectionFactory.returnConnection(accumuloConn);
-            } catch (Exception e) {
-                log.error(e.getMessage(), e);
-            }
             if (null != scanner)
                 scanner.close();
             try {
@@ -238,18 +329,58 @@ public class BaseTableCache implements Serializable, TableCache {
             } catch (Exception e) {
                 log.warn("Error closing batch writer for table: " + tempTableName, e);
             }
-            lock.unlock();
         }
-        return true;
+    }
+    
+    /**
+     * Write the entries of the table with a timestamp at or after the start of the last reload into the cached table
+     *
+     * @return the number of entries copied
+     */
+    private long reloadChanges(Connector accumuloConn, Connector instanceConnector, Authorizations authorizations) throws Exception {
+        BatchScanner scanner = accumuloConn.createBatchScanner(tableName, authorizations, 10);
+        BatchWriter writer = null;
+        try {
+            writer = instanceConnector.createBatchWriter(tableName, 10L * (1024L * 1024L), 100L, 1);
+            setupScanner(scanner);
+            IteratorSetting newerEntries = new IteratorSetting(101, "newerEntries", TimestampFilter.class);
+            TimestampFilter.setStart(newerEntries, reloadMarkTimestamp, true);
+            scanner.addScanIterator(newerEntries);
+            
+            long count = 0;
+            for (Entry<Key,Value> value : scanner) {
+                if (count > maxRows)
+                    break;
+                addMutation(writer, value);
+                count++;
+            }
+            return count;
+        } finally {
+            scanner.close();
+            if (null != writer)
+                writer.close();
+        }
+    }
+    
+    private void addMutation(BatchWriter writer, Entry<Key,Value> value) throws MutationsRejectedException {
+        Key valueKey = value.getKey();
+        
+        Mutation m = new Mutation(valueKey.getRow());
+        m.put(valueKey.getColumnFamily(), valueKey.getColumnQualifier(), new ColumnVisibility(valueKey.getColumnVisibility()), valueKey.getTimestamp(),
+                        value.getValue());
+        writer.addMutation(m);
     }
     
     public void setupScanner(BatchScanner scanner) {
         scanner.setRanges(Lists.newArrayList(new Range()));
+        scanner.addScanIterator(getSkipFColumnSetting());
+    }
+    
+    private IteratorSetting getSkipFColumnSetting() {
         Map<String,String> options = new HashMap<>();
         options.put(RegExFilter.COLF_REGEX, "^f$");
         options.put("negate", "true");
-        IteratorSetting settings = new IteratorSetting(100, "skipFColumn", RegExFilter.class, options);
-        scanner.addScanIterator(settings);
+        return new IteratorSetting(100, "skipFColumn", RegExFilter.class, options);
     }
     
     @Override
@@ -31,6 +31,16 @@ public interface TableCache extends Callable<Boolean>, Serializable {
     
     long getMaxRows();
     
+    boolean isIncrementalReload();
+    
+    long getFullReloadInterval();
+    
+    Date getLastFullRefresh();
+    
+    long getLastReloadDuration();
+    
+    long getLastReloadCount();
+    
     void setTableName(String tableName);
     
     void setConnectionPoolName(String connectionPoolName);
@@ -51,6 +61,10 @@ public interface TableCache extends Callable<Boolean>, Serializable {
     
     void setMaxRows(long maxRows);
     
+    void setIncrementalReload(boolean incrementalReload);
+    
+    void setFullReloadInterval(long fullReloadInterval);
+    
     Boolean call() throws Exception;
     
 }
@@ -8,6 +8,7 @@ import datawave.webservice.common.connection.config.ConnectionPoolsConfiguration
 import datawave.webservice.common.result.Connection;
 import datawave.webservice.common.result.ConnectionFactoryResponse;
 import datawave.webservice.common.result.ConnectionPool;
+import datawave.webservice.common.result.ConnectionPoolUser;
 import org.apache.accumulo.core.Constants;
 import org.apache.accumulo.core.client.ClientConfiguration;
 import org.apache.accumulo.core.client.Connector;
@@ -94,6 +95,8 @@ public class AccumuloConnectionFactoryBean implements AccumuloConnectionFactory
     
     private Map<String,Map<Priority,AccumuloConnectionPool>> pools;
     
+    private Map<String,AccumuloConnectionScheduler> schedulers;
+    
     @Inject
     private ConnectionPoolsConfiguration connectionPoolsConfiguration;
     
@@ -102,6 +105,7 @@ public class AccumuloConnectionFactoryBean implements AccumuloConnectionFactory
     @PostConstruct
     public void init() {
         this.pools = new HashMap<>();
+        this.schedulers = new HashMap<>();
         
         if (this.connectionPoolsConfiguration == null) {
             log.error("connectionPoolsConfiguration was null - aborting init()");
@@ -117,6 +121,7 @@ public class AccumuloConnectionFactoryBean implements AccumuloConnectionFactory
             p.put(Priority.NORMAL, createConnectionPool(conf, conf.getNormalPriorityPoolSize()));
             p.put(Priority.LOW, createConnectionPool(conf, conf.getLowPriorityPoolSize()));
             this.pools.put(entry.getKey(), Collections.unmodifiableMap(p));
+            this.schedulers.put(entry.getKey(), new AccumuloConnectionScheduler(p, conf.getMaxWait(), conf.isBorrowFromLowerPriority()));
             try {
                 setupMockAccumuloUser(conf, p.get(Priority.NORMAL), instances);
             } catch (Exception e) {
@@ -265,7 +270,7 @@ public class AccumuloConnectionFactoryBean implements AccumuloConnectionFactory
                 trackingMap.put("proxyServers", proxyServers.toString());
         }
         AccumuloConnectionPool pool = pools.get(poolName).get(priority);
-        Connector c = pool.borrowObject(trackingMap);
+        Connector c = schedulers.get(poolName).borrowObject(priority, trackingMap);
         Connector mock = cache.getInstance().getConnector(pool.getFactory().getUsername(), new PasswordToken(pool.getFactory().getPassword()));
         WrappedConnector wrappedConnector = new WrappedConnector(c, mock);
         String classLoaderContext = System.getProperty("dw.accumulo.classLoader.context");
@@ -298,6 +303,7 @@ public class AccumuloConnectionFactoryBean implements AccumuloConnectionFactory
             for (Entry<Priority,AccumuloConnectionPool> poolEntry : entry.getValue().entrySet()) {
                 if (poolEntry.getValue().connectorCameFromHere(connection)) {
                     poolEntry.getValue().returnObject(connection);
+                    schedulers.get(entry.getKey()).returned(connection);
                     return;
                 }
             }
@@ -316,6 +322,14 @@ public class AccumuloConnectionFactoryBean implements AccumuloConnectionFactory
             buf.append("HIGH: ").append(entry.getValue().get(Priority.HIGH)).append("\n");
             buf.append("NORMAL: ").append(entry.getValue().get(Priority.NORMAL)).append("\n");
             buf.append("LOW: ").append(entry.getValue().get(Priority.LOW)).append("\n");
+            AccumuloConnectionScheduler scheduler = schedulers.get(entry.getKey());
+            for (Priority priority : Priority.values()) {
+                for (ConnectionPoolUser user : scheduler.getUsers(priority)) {
+                    buf.append(priority).append(" ").append(user.getUser()).append(": NumActive: ").append(user.getNumActive()).append(" NumWaiting: ")
+                                    .append(user.getNumWaiting()).append(" NumRequests: ").append(user.getNumRequests()).append(" TotalWaitTime: ")
+                                    .append(user.getTotalWaitTime()).append(" MaxWaitTime: ").append(user.getMaxWaitTime()).append("\n");
+                }
+            }
         }
         
         return buf.toString();
@@ -358,7 +372,12 @@ public class AccumuloConnectionFactoryBean implements AccumuloConnectionFactory
                 MutableInt numWaiting = new MutableInt();
                 // getConnectionPoolStats will collect the tracking maps and maxActive, numActive, maxIdle, numIdle while synchronized
                 // to ensure consistency between the GenericObjectPool and the tracking maps
-                List<Map<String,String>> requestingConnectionsMap = p.getConnectionPoolStats(maxActive, numActive, maxIdle, numIdle, numWaiting);
+                List<Map<String,String>> requestingConnectionsMap = new ArrayList<>(p.getConnectionPoolStats(maxActive, numActive, maxIdle, numIdle,
+                                numWaiting));
+                // the requests that are waiting in the scheduler rather than in the pool
+                AccumuloConnectionScheduler scheduler = schedulers.get(poolName);
+                requestingConnectionsMap.addAll(scheduler.getWaiting(priority));
+                numWaiting.add(scheduler.getNumWaiting(priority));
                 
                 ConnectionPool poolInfo = new ConnectionPool();
                 poolInfo.setPriority(priority.name());
@@ -396,6 +415,7 @@ public class AccumuloConnectionFactoryBean implements AccumuloConnectionFactory
                 }
                 Collections.sort(requestingConnections);
                 poolInfo.setConnectionRequests(requestingConnections);
+                poolInfo.setUsers(scheduler.getUsers(priority));
                 connectionPools.add(poolInfo);
             }
         }
@@ -418,6 +438,7 @@ public class AccumuloConnectionFactoryBean implements AccumuloConnectionFactory
                 MutableInt numWaiting = new MutableInt();
                 MutableInt unused = new MutableInt();
                 poolEntry.getValue().getConnectionPoolStats(maxActive, numActive, unused, unused, numWaiting);
+                numWaiting.add(schedulers.get(entry.getKey()).getNumWaiting(poolEntry.getKey()));
                 
                 double percentage = (numActive.doubleValue() + numWaiting.doubleValue()) / maxActive.doubleValue();
                 if (percentage > maxPercentage) {
@@ -0,0 +1,422 @@
+package datawave.webservice.common.connection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import datawave.webservice.common.connection.AccumuloConnectionFactory.Priority;
+import datawave.webservice.common.result.ConnectionPoolUser;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.log4j.Logger;
+
+/**
+ * Schedules the connection requests for the priority pools of a connection pool name, instead of each request blocking in the pool of its priority.
+ * <p>
+ * A request that can not be served right away waits in a queue that is shared by the pools. When connections become available they are handed to the waiting
+ * requests in fair share order: the request of the user, and query logic if known, that holds the fewest connections relative to the weight of its priority
+ * goes first, and requests with the same share go in arrival order. A request is served from the pool of its priority, and if that pool is exhausted, from the
+ * idle capacity of the lower priority pools. A request waits until the max wait or the expiration of its query, if either is set, and then fails with a
+ * {@link NoSuchElementException} like a pool that timed out. ADMIN requests are not scheduled, they use the ADMIN pool directly.
+ * <p>
+ * The scheduler also keeps the number of requests, the time spent waiting and the connections held per user and query logic for each priority.
+ */
+public class AccumuloConnectionScheduler {
+    
+    private static final Logger log = Logger.getLogger(AccumuloConnectionScheduler.class);
+    
+    public static final String QUERY_USER = "query.user";
+    public static final String QUERY_LOGIC = "query.logic";
+    public static final String QUERY_EXPIRATION = "query.expiration";
+    public static final String USER_DN = "user.dn";
+    
+    // the users without connections or waiting requests are dropped from the stats of a priority when it has more than this many users
+    private static final int MAX_IDLE_USERS = 1000;
+    
+    private final Map<Priority,AccumuloConnectionPool> pools;
+    private final long maxWait;
+    private final boolean borrowFromLowerPriority;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition dispatched = lock.newCondition();
+    private final List<Request> waiting = new ArrayList<>();
+    private final Map<Priority,Integer> reserved = new EnumMap<>(Priority.class);
+    private final Map<Connector,Request> borrowed = new HashMap<>();
+    private final Map<String,Integer> held = new HashMap<>();
+    private final Map<Priority,Map<String,UserStats>> stats = new EnumMap<>(Priority.class);
+    private long sequence = 0;
+    
+    private static class Request {
+        private final Priority priority;
+        private final String user;
+        private final Map<String,String> trackingMap;
+        private final long sequence;
+        private final long start = System.currentTimeMillis();
+        private UserStats stats = null;
+        private Priority poolPriority = null;
+        
+        private Request(Priority priority, String user, Map<String,String> trackingMap, long sequence) {
+            this.priority = priority;
+            this.user = user;
+            this.trackingMap = trackingMap;
+            this.sequence = sequence;
+        }
+    }
+    
+    private static class UserStats {
+        private long requests = 0;
+        private long timeouts = 0;
+        private long totalWaitTime = 0;
+        private long maxWaitTime = 0;
+        private int active = 0;
+        // the requests that are waiting or borrowing
+        private int pending = 0;
+    }
+    
+    /**
+     * @param pools
+     *            the pools of each priority
+     * @param maxWait
+     *            the maximum time in ms that a request waits for a connection, or a negative value to only limit it by the expiration of the query
+     * @param borrowFromLowerPriority
+     *            whether a request may use the idle connections of the lower priority pools when the pool of its priority is exhausted
+     */
+    public AccumuloConnectionScheduler(Map<Priority,AccumuloConnectionPool> pools, long maxWait, boolean borrowFromLowerPriority) {
+        this.pools = pools;
+        this.maxWait = maxWait;
+        this.borrowFromLowerPriority = borrowFromLowerPriority;
+        for (Priority priority : Priority.values()) {
+            reserved.put(priority, 0);
+            stats.put(priority, new HashMap<>());
+        }
+    }
+    
+    /**
+     * Get a connection for a request with the given priority, waiting until one can be given to it
+     *
+     * @param priority
+     *            the priority of the request
+     * @param trackingMap
+     *            the tracking map of the request
+     * @return the connection
+     * @throws NoSuchElementException
+     *             if no connection was available before the deadline of the request
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     * @throws Exception
+     *             if the pool fails to provide a connection
+     */
+    public Connector borrowObject(Priority priority, Map<String,String> trackingMap) throws Exception {
+        if (priority.equals(Priority.ADMIN)) {
+            return pools.get(Priority.ADMIN).borrowObject(trackingMap);
+        }
+        
+        Request request;
+        lock.lock();
+        try {
+            request = new Request(priority, getUser(trackingMap), trackingMap, sequence++);
+            request.stats = getStats(priority, request.user);
+            request.stats.requests++;
+            request.stats.pending++;
+            trackingMap.put("connection.state.start", Long.toString(request.start));
+            trackingMap.put("state", AccumuloConnectionFactory.State.WAITING.toString());
+            waiting.add(request);
+            dispatch();
+            
+            long deadline = getDeadline(trackingMap, request.start);
+            while (request.poolPriority == null) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    waiting.remove(request);
+                    request.stats.pending--;
+                    request.stats.timeouts++;
+                    recordWait(request);
+                    throw new NoSuchElementException("Timed out waiting for a " + priority + " connection for " + request.user);
+                }
+                try {
+                    if (deadline == Long.MAX_VALUE) {
+                        dispatched.await();
+                    } else {
+                        dispatched.await(remaining, TimeUnit.MILLISECONDS);
+                    }
+                } catch (InterruptedException e) {
+                    request.stats.pending--;
+                    if (request.poolPriority == null) {
+                        waiting.remove(request);
+                    } else {
+                        release(request);
+                        dispatch();
+                    }
+                    throw e;
+                }
+            }
+            recordWait(request);
+        } finally {
+            lock.unlock();
+        }
+        
+        // the connection is reserved for this request, so the pool will not block
+        Connector connector = null;
+        try {
+            connector = pools.get(request.poolPriority).borrowObject(trackingMap);
+        } finally {
+            lock.lock();
+            try {
+                reserved.put(request.poolPriority, reserved.get(request.poolPriority) - 1);
+                request.stats.pending--;
+                if (connector != null) {
+                    borrowed.put(connector, request);
+                    request.stats.active++;
+                } else {
+                    held.merge(request.user, -1, Integer::sum);
+                }
+                dispatch();
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (!request.poolPriority.equals(priority) && log.isDebugEnabled()) {
+            log.debug("Gave " + request.user + " a " + request.poolPriority + " connection for a " + priority + " request");
+        }
+        return connector;
+    }
+    
+    /**
+     * Called when a connection was returned to its pool, to give it to a waiting request
+     *
+     * @param connector
+     *            the returned connection
+     */
+    public void returned(Connector connector) {
+        lock.lock();
+        try {
+            Request request = borrowed.remove(connector);
+            if (request != null) {
+                held.merge(request.user, -1, Integer::sum);
+                request.stats.active--;
+            }
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private static void recordWait(Request request) {
+        long waitTime = System.currentTimeMillis() - request.start;
+        request.stats.totalWaitTime += waitTime;
+        request.stats.maxWaitTime = Math.max(request.stats.maxWaitTime, waitTime);
+    }
+    
+    // a request that was given a connection, but will not borrow it
+    private void release(Request request) {
+        reserved.put(request.poolPriority, reserved.get(request.poolPriority) - 1);
+        held.merge(request.user, -1, Integer::sum);
+    }
+    
+    /**
+     * Give the available connections to the waiting requests, first from the pools of their priorities, then from the lower priority pools
+     */
+    private void dispatch() {
+        if (waiting.isEmpty()) {
+            return;
+        }
+        boolean dispatchedAny = dispatch(false);
+        if (borrowFromLowerPriority) {
+            dispatchedAny |= dispatch(true);
+        }
+        if (dispatchedAny) {
+            dispatched.signalAll();
+        }
+    }
+    
+    private boolean dispatch(boolean lowerPriority) {
+        boolean dispatchedAny = false;
+        while (true) {
+            Request next = null;
+            Priority nextPool = null;
+            for (Request request : waiting) {
+                Priority pool = getAvailablePool(request.priority, lowerPriority);
+                if (pool != null && (next == null || compare(request, next) < 0)) {
+                    next = request;
+                    nextPool = pool;
+                }
+            }
+            if (next == null) {
+                return dispatchedAny;
+            }
+            waiting.remove(next);
+            next.poolPriority = nextPool;
+            reserved.put(nextPool, reserved.get(nextPool) + 1);
+            held.merge(next.user, 1, Integer::sum);
+            dispatchedAny = true;
+        }
+    }
+    
+    private Priority getAvailablePool(Priority priority, boolean lowerPriority) {
+        if (!lowerPriority) {
+            return getAvailable(priority) > 0 ? priority : null;
+        }
+        // the closest lower priority first, the ADMIN pool is not lent out
+        for (int i = priority.ordinal() - 1; i >= 0; i--) {
+            Priority lower = Priority.values()[i];
+            if (getAvailable(lower) > 0) {
+                return lower;
+            }
+        }
+        return null;
+    }
+    
+    private int getAvailable(Priority priority) {
+        AccumuloConnectionPool pool = pools.get(priority);
+        int maxTotal = pool.getMaxTotal();
+        if (maxTotal < 0) {
+            return Integer.MAX_VALUE;
+        }
+        return maxTotal - pool.getNumActive() - reserved.get(priority);
+    }
+    
+    /**
+     * Compare two waiting requests by the share of the connections that their users hold, weighted by their priorities, and then by their arrival
+     */
+    private int compare(Request r1, Request r2) {
+        int c = Long.compare(held.getOrDefault(r1.user, 0) * getWeight(r2.priority), held.getOrDefault(r2.user, 0) * getWeight(r1.priority));
+        return c != 0 ? c : Long.compare(r1.sequence, r2.sequence);
+    }
+    
+    private static long getWeight(Priority priority) {
+        return 1L << priority.ordinal();
+    }
+    
+    private long getDeadline(Map<String,String> trackingMap, long start) {
+        long deadline = (maxWait < 0) ? Long.MAX_VALUE : start + maxWait;
+        String expiration = trackingMap.get(QUERY_EXPIRATION);
+        if (expiration != null) {
+            try {
+                deadline = Math.min(deadline, Long.parseLong(expiration));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring invalid " + QUERY_EXPIRATION + ": " + expiration);
+            }
+        }
+        return deadline;
+    }
+    
+    /**
+     * @param trackingMap
+     *            the tracking map of a request
+     * @return the user of the request, with the query logic if known
+     */
+    public static String getUser(Map<String,String> trackingMap) {
+        String user = trackingMap.get(QUERY_USER);
+        if (user == null) {
+            user = trackingMap.get(USER_DN);
+        }
+        if (user == null) {
+            user = "unknown";
+        }
+        String logic = trackingMap.get(QUERY_LOGIC);
+        return (logic == null) ? user : user + " / " + logic;
+    }
+    
+    private UserStats getStats(Priority priority, String user) {
+        Map<String,UserStats> users = stats.get(priority);
+        UserStats userStats = users.get(user);
+        if (userStats == null) {
+            if (users.size() >= MAX_IDLE_USERS) {
+                removeIdleUsers(users);
+            }
+            userStats = new UserStats();
+            users.put(user, userStats);
+        }
+        return userStats;
+    }
+    
+    private static void removeIdleUsers(Map<String,UserStats> users) {
+        for (Iterator<UserStats> it = users.values().iterator(); it.hasNext();) {
+            UserStats userStats = it.next();
+            if (userStats.active == 0 && userStats.pending == 0) {
+                it.remove();
+            }
+        }
+    }
+    
+    private int getNumWaiting(Priority priority, String user) {
+        int numWaiting = 0;
+        for (Request request : waiting) {
+            if (request.priority.equals(priority) && (user == null || request.user.equals(user))) {
+                numWaiting++;
+            }
+        }
+        return numWaiting;
+    }
+    
+    /**
+     * @param priority
+     *            a priority
+     * @return the number of requests with the priority that are waiting for a connection
+     */
+    public int getNumWaiting(Priority priority) {
+        lock.lock();
+        try {
+            return getNumWaiting(priority, null);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * @param priority
+     *            a priority
+     * @return the tracking maps of the requests with the priority that are waiting for a connection
+     */
+    public List<Map<String,String>> getWaiting(Priority priority) {
+        List<Map<String,String>> trackingMaps = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Request request : waiting) {
+                if (request.priority.equals(priority)) {
+                    trackingMaps.add(Collections.unmodifiableMap(request.trackingMap));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return trackingMaps;
+    }
+    
+    /**
+     * @param priority
+     *            a priority
+     * @return the connection usage of the users that requested connections with the priority, sorted by user
+     */
+    public List<ConnectionPoolUser> getUsers(Priority priority) {
+        int maxTotal = pools.get(priority).getMaxTotal();
+        List<ConnectionPoolUser> users = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Map.Entry<String,UserStats> entry : new TreeMap<>(stats.get(priority)).entrySet()) {
+                UserStats userStats = entry.getValue();
+                ConnectionPoolUser user = new ConnectionPoolUser();
+                user.setUser(entry.getKey());
+                user.setNumActive(userStats.active);
+                user.setNumWaiting(getNumWaiting(priority, entry.getKey()));
+                user.setNumRequests(userStats.requests);
+                user.setNumTimeouts(userStats.timeouts);
+                user.setTotalWaitTime(userStats.totalWaitTime);
+                user.setMaxWaitTime(userStats.maxWaitTime);
+                user.setUtilization(maxTotal > 0 ? (float) userStats.active / maxTotal : 0f);
+                users.add(user);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return users;
+    }
+}
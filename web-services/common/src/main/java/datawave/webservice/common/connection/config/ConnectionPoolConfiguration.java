@@ -12,6 +12,8 @@ public class ConnectionPoolConfiguration {
     private int normalPriorityPoolSize;
     private int highPriorityPoolSize;
     private int adminPriorityPoolSize;
+    private long maxWait;
+    private boolean borrowFromLowerPriority;
     
     public ConnectionPoolConfiguration(String poolName) {
         username = ConfigResolver.getPropertyValue("dw." + poolName + ".accumulo.userName");
@@ -22,6 +24,8 @@ public class ConnectionPoolConfiguration {
         normalPriorityPoolSize = Integer.parseInt(ConfigResolver.getPropertyValue("dw." + poolName + ".pool.normal.size", "50"));
         highPriorityPoolSize = Integer.parseInt(ConfigResolver.getPropertyValue("dw." + poolName + ".pool.high.size", "100"));
         adminPriorityPoolSize = Integer.parseInt(ConfigResolver.getPropertyValue("dw." + poolName + ".pool.admin.size", "200"));
+        maxWait = Long.parseLong(ConfigResolver.getPropertyValue("dw." + poolName + ".pool.maxWait", "-1"));
+        borrowFromLowerPriority = Boolean.parseBoolean(ConfigResolver.getPropertyValue("dw." + poolName + ".pool.borrowFromLowerPriority", "true"));
     }
     
     public String getUsername() {
@@ -56,4 +60,12 @@ public class ConnectionPoolConfiguration {
         return adminPriorityPoolSize;
     }
     
+    public long getMaxWait() {
+        return maxWait;
+    }
+    
+    public boolean isBorrowFromLowerPriority() {
+        return borrowFromLowerPriority;
+    }
+    
 }
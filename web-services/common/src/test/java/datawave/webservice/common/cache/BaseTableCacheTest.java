@@ -0,0 +1,211 @@
+package datawave.webservice.common.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import datawave.accumulo.inmemory.InMemoryInstance;
+import datawave.webservice.common.connection.AccumuloConnectionFactory;
+import datawave.webservice.common.connection.AccumuloConnectionFactory.Priority;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BaseTableCacheTest {
+    
+    private static final String TABLE_NAME = "cachedTable";
+    
+    private Connector source;
+    private InMemoryInstance cacheInstance;
+    private BaseTableCache cache;
+    
+    @Before
+    public void setup() throws Exception {
+        source = new InMemoryInstance(UUID.randomUUID() + "source").getConnector("root", new PasswordToken(""));
+        source.tableOperations().create(TABLE_NAME);
+        
+        AccumuloConnectionFactory connectionFactory = EasyMock.createMock(AccumuloConnectionFactory.class);
+        EasyMock.expect(connectionFactory.getTrackingMap(EasyMock.anyObject())).andReturn(new HashMap<>()).anyTimes();
+        EasyMock.expect(connectionFactory.getConnection(EasyMock.eq("WAREHOUSE"), EasyMock.eq(Priority.ADMIN), EasyMock.anyObject())).andReturn(source)
+                        .anyTimes();
+        connectionFactory.returnConnection(source);
+        EasyMock.expectLastCall().anyTimes();
+        EasyMock.replay(connectionFactory);
+        
+        cacheInstance = new InMemoryInstance(UUID.randomUUID() + "cache");
+        cache = new BaseTableCache();
+        cache.setTableName(TABLE_NAME);
+        cache.setConnectionPoolName("WAREHOUSE");
+        cache.setInstance(cacheInstance);
+        cache.setConnectionFactory(connectionFactory);
+        cache.setIncrementalReload(true);
+        cache.setFullReloadInterval(3600000L);
+    }
+    
+    private void write(String row, long timestamp) throws Exception {
+        write(row, "cq", timestamp);
+    }
+    
+    private void write(String row, String cq, long timestamp) throws Exception {
+        BatchWriter writer = source.createBatchWriter(TABLE_NAME, new BatchWriterConfig());
+        Mutation m = new Mutation(row);
+        m.put("cf", cq, timestamp, new Value(new byte[0]));
+        writer.addMutation(m);
+        writer.close();
+    }
+    
+    private void delete(String row) throws Exception {
+        BatchWriter writer = source.createBatchWriter(TABLE_NAME, new BatchWriterConfig());
+        Mutation m = new Mutation(row);
+        m.putDelete("cf", "cq");
+        writer.addMutation(m);
+        writer.close();
+    }
+    
+    private Set<String> getCachedRows() throws Exception {
+        Set<String> rows = new TreeSet<>();
+        for (String entry : getCachedEntries()) {
+            rows.add(entry.substring(0, entry.indexOf(' ')));
+        }
+        return rows;
+    }
+    
+    private Set<String> getCachedEntries() throws Exception {
+        Connector connector = cacheInstance.getConnector(AccumuloTableCache.MOCK_USERNAME, AccumuloTableCache.MOCK_PASSWORD);
+        Set<String> entries = new TreeSet<>();
+        for (Entry<Key,Value> entry : connector.createScanner(TABLE_NAME, new Authorizations())) {
+            entries.add(entry.getKey().getRow() + " " + entry.getKey().getColumnQualifier() + " " + entry.getKey().getTimestamp());
+        }
+        return entries;
+    }
+    
+    @Test
+    public void testIncrementalReload() throws Exception {
+        write("row1", 10);
+        write("row2", 20);
+        
+        assertTrue(cache.call());
+        assertEquals(new TreeSet<>(Arrays.asList("row1", "row2")), getCachedRows());
+        assertEquals(2, cache.getLastReloadCount());
+        Date lastFullRefresh = cache.getLastFullRefresh();
+        assertTrue(lastFullRefresh.getTime() > 0);
+        
+        write("row3", System.currentTimeMillis());
+        delete("row1");
+        // older than the last reload
+        write("row4", 5);
+        // the next reload starts after the entries written so far
+        Thread.sleep(10);
+        
+        // only the new entry is fetched, the delete and the older entry wait for a full reload
+        assertTrue(cache.call());
+        assertEquals(new TreeSet<>(Arrays.asList("row1", "row2", "row3")), getCachedRows());
+        assertEquals(1, cache.getLastReloadCount());
+        assertEquals(lastFullRefresh, cache.getLastFullRefresh());
+        
+        // nothing has changed
+        assertTrue(cache.call());
+        assertEquals(0, cache.getLastReloadCount());
+        
+        // a requested reload is a full reload
+        cache.setLastRefresh(new Date(0));
+        assertTrue(cache.call());
+        assertEquals(new TreeSet<>(Arrays.asList("row2", "row3", "row4")), getCachedRows());
+        assertEquals(3, cache.getLastReloadCount());
+        assertNotSame(lastFullRefresh, cache.getLastFullRefresh());
+    }
+    
+    @Test
+    public void testIncrementalReloadOfChangedRow() throws Exception {
+        write("row1", "cq1", 10);
+        write("row1", "cq2", 10);
+        assertTrue(cache.call());
+        
+        // the rewritten entry replaces the cached one, and the rest of the row stays cached
+        long timestamp = System.currentTimeMillis();
+        write("row1", "cq1", timestamp);
+        assertTrue(cache.call());
+        assertEquals(new TreeSet<>(Arrays.asList("row1 cq1 " + timestamp, "row1 cq2 10")), getCachedEntries());
+        assertEquals(1, cache.getLastReloadCount());
+    }
+    
+    @Test
+    public void testIncrementalReloadCopiesLessThanFullReload() throws Exception {
+        BatchWriter writer = source.createBatchWriter(TABLE_NAME, new BatchWriterConfig());
+        for (int i = 0; i < 1000; i++) {
+            Mutation m = new Mutation("row" + i);
+            m.put("cf", "cq", 10, new Value(new byte[0]));
+            writer.addMutation(m);
+        }
+        writer.close();
+        assertTrue(cache.call());
+        assertEquals(1000, cache.getLastReloadCount());
+        
+        write("row1000", System.currentTimeMillis());
+        assertTrue(cache.call());
+        assertEquals(1, cache.getLastReloadCount());
+        assertEquals(1001, getCachedRows().size());
+        
+        cache.setIncrementalReload(false);
+        write("row1001", System.currentTimeMillis());
+        assertTrue(cache.call());
+        assertEquals(1002, cache.getLastReloadCount());
+    }
+    
+    @Test
+    public void testFullReloadInterval() throws Exception {
+        cache.setFullReloadInterval(1);
+        write("row1", 10);
+        assertTrue(cache.call());
+        Date lastFullRefresh = cache.getLastFullRefresh();
+        
+        Thread.sleep(10);
+        write("row2", 20);
+        assertTrue(cache.call());
+        assertEquals(new TreeSet<>(Arrays.asList("row1", "row2")), getCachedRows());
+        assertEquals(2, cache.getLastReloadCount());
+        assertNotSame(lastFullRefresh, cache.getLastFullRefresh());
+    }
+    
+    @Test
+    public void testFullReload() throws Exception {
+        cache.setIncrementalReload(false);
+        write("row1", 10);
+        assertTrue(cache.call());
+        
+        write("row2", 5);
+        assertTrue(cache.call());
+        assertEquals(new TreeSet<>(Arrays.asList("row1", "row2")), getCachedRows());
+        assertEquals(2, cache.getLastReloadCount());
+    }
+    
+    @Test
+    public void testNoFullReloadInterval() throws Exception {
+        // without a full reload interval deletes would never be picked up, so every reload is a full reload
+        cache.setFullReloadInterval(0);
+        write("row1", 10);
+        assertTrue(cache.call());
+        
+        delete("row1");
+        write("row2", System.currentTimeMillis());
+        assertTrue(cache.call());
+        assertEquals(new TreeSet<>(Collections.singletonList("row2")), getCachedRows());
+    }
+}
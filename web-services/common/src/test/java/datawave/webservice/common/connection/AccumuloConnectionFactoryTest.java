@@ -71,6 +71,7 @@ public class AccumuloConnectionFactoryTest extends EasyMockSupport {
         
         String defaultPoolName = conf.getDefaultPool();
         HashMap<String,Map<Priority,AccumuloConnectionPool>> pools = new HashMap<>();
+        HashMap<String,AccumuloConnectionScheduler> schedulers = new HashMap<>();
         MyAccumuloConnectionPool warehousePool = new MyAccumuloConnectionPool(warehouseFactory);
         MyAccumuloConnectionPool metricsPool = new MyAccumuloConnectionPool(metricsFactory);
         for (Entry<String,ConnectionPoolConfiguration> entry : conf.getPools().entrySet()) {
@@ -91,10 +92,12 @@ public class AccumuloConnectionFactoryTest extends EasyMockSupport {
             p.put(Priority.NORMAL, acp);
             p.put(Priority.LOW, acp);
             pools.put(entry.getKey(), Collections.unmodifiableMap(p));
+            schedulers.put(entry.getKey(), new AccumuloConnectionScheduler(p, -1, true));
         }
         Whitebox.setInternalState(bean, ConnectionPoolsConfiguration.class, conf);
         Whitebox.setInternalState(bean, "defaultPoolName", defaultPoolName);
         Whitebox.setInternalState(bean, "pools", pools);
+        Whitebox.setInternalState(bean, "schedulers", schedulers);
     }
     
     @After
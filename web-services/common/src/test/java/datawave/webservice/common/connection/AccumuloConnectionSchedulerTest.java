@@ -0,0 +1,182 @@
+package datawave.webservice.common.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import datawave.accumulo.inmemory.InMemoryInstance;
+import datawave.webservice.common.connection.AccumuloConnectionFactory.Priority;
+import datawave.webservice.common.result.ConnectionPoolUser;
+import org.apache.accumulo.core.client.Connector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AccumuloConnectionSchedulerTest {
+    
+    private Map<Priority,AccumuloConnectionPool> pools;
+    private ExecutorService executor;
+    
+    @Before
+    public void setup() {
+        AccumuloConnectionPoolFactory factory = new AccumuloConnectionPoolFactory("root", "", new InMemoryInstance(UUID.randomUUID().toString()));
+        pools = new EnumMap<>(Priority.class);
+        for (Priority priority : Priority.values()) {
+            AccumuloConnectionPool pool = new AccumuloConnectionPool(factory);
+            pool.setMaxTotal(1);
+            pools.put(priority, pool);
+        }
+        executor = Executors.newCachedThreadPool();
+    }
+    
+    @After
+    public void cleanup() {
+        executor.shutdownNow();
+        for (AccumuloConnectionPool pool : pools.values()) {
+            pool.close();
+        }
+    }
+    
+    private Map<String,String> trackingMap(String user) {
+        Map<String,String> trackingMap = new HashMap<>();
+        trackingMap.put(AccumuloConnectionScheduler.QUERY_USER, user);
+        trackingMap.put(AccumuloConnectionScheduler.QUERY_LOGIC, "EventQuery");
+        return trackingMap;
+    }
+    
+    private Connector borrow(AccumuloConnectionScheduler scheduler, Priority priority, String user) throws Exception {
+        return scheduler.borrowObject(priority, trackingMap(user));
+    }
+    
+    private void giveBack(AccumuloConnectionScheduler scheduler, Priority priority, Connector connector) {
+        pools.get(priority).returnObject(connector);
+        scheduler.returned(connector);
+    }
+    
+    private void waitForWaiting(AccumuloConnectionScheduler scheduler, Priority priority, int numWaiting) throws InterruptedException {
+        long end = System.currentTimeMillis() + 10000;
+        while (scheduler.getNumWaiting(priority) != numWaiting) {
+            if (System.currentTimeMillis() > end) {
+                fail("Expected " + numWaiting + " waiting requests");
+            }
+            Thread.sleep(10);
+        }
+    }
+    
+    @Test
+    public void testBorrowFromLowerPriority() throws Exception {
+        AccumuloConnectionScheduler scheduler = new AccumuloConnectionScheduler(pools, 100, true);
+        
+        assertNotNull(borrow(scheduler, Priority.HIGH, "user1"));
+        Connector normal = borrow(scheduler, Priority.HIGH, "user1");
+        assertEquals(1, pools.get(Priority.NORMAL).getNumActive());
+        Connector low = borrow(scheduler, Priority.HIGH, "user1");
+        assertEquals(1, pools.get(Priority.LOW).getNumActive());
+        assertEquals(0, pools.get(Priority.ADMIN).getNumActive());
+        
+        // the LOW pool is exhausted by the HIGH request until it is returned
+        try {
+            borrow(scheduler, Priority.LOW, "user2");
+            fail("Expected the request to time out");
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+        giveBack(scheduler, Priority.LOW, low);
+        assertNotNull(borrow(scheduler, Priority.LOW, "user2"));
+        
+        List<ConnectionPoolUser> users = scheduler.getUsers(Priority.HIGH);
+        assertEquals(1, users.size());
+        assertEquals("user1 / EventQuery", users.get(0).getUser());
+        assertEquals(2, users.get(0).getNumActive().intValue());
+        assertEquals(3, users.get(0).getNumRequests().longValue());
+        assertEquals(2.0f, users.get(0).getUtilization(), 0.0f);
+        
+        users = scheduler.getUsers(Priority.LOW);
+        assertEquals(1, users.get(0).getNumTimeouts().longValue());
+        assertTrue(users.get(0).getMaxWaitTime() >= 100);
+        
+        giveBack(scheduler, Priority.NORMAL, normal);
+        assertEquals(1, scheduler.getUsers(Priority.HIGH).get(0).getNumActive().intValue());
+    }
+    
+    @Test
+    public void testNotBorrowingFromLowerPriority() throws Exception {
+        AccumuloConnectionScheduler scheduler = new AccumuloConnectionScheduler(pools, 100, false);
+        
+        assertNotNull(borrow(scheduler, Priority.NORMAL, "user1"));
+        try {
+            borrow(scheduler, Priority.NORMAL, "user1");
+            fail("Expected the request to time out");
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+        assertEquals(0, pools.get(Priority.LOW).getNumActive());
+    }
+    
+    @Test
+    public void testQueryExpiration() throws Exception {
+        AccumuloConnectionScheduler scheduler = new AccumuloConnectionScheduler(pools, -1, false);
+        
+        assertNotNull(borrow(scheduler, Priority.NORMAL, "user1"));
+        Map<String,String> trackingMap = trackingMap("user1");
+        trackingMap.put(AccumuloConnectionScheduler.QUERY_EXPIRATION, Long.toString(System.currentTimeMillis() + 100));
+        try {
+            scheduler.borrowObject(Priority.NORMAL, trackingMap);
+            fail("Expected the request to time out");
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+        assertEquals(0, scheduler.getNumWaiting(Priority.NORMAL));
+    }
+    
+    @Test
+    public void testFairShare() throws Exception {
+        pools.get(Priority.NORMAL).setMaxTotal(2);
+        AccumuloConnectionScheduler scheduler = new AccumuloConnectionScheduler(pools, -1, false);
+        
+        Connector first = borrow(scheduler, Priority.NORMAL, "user1");
+        assertNotNull(borrow(scheduler, Priority.NORMAL, "user1"));
+        
+        // user1 asks first, but holds more connections than user2
+        Future<Connector> user1 = executor.submit(() -> borrow(scheduler, Priority.NORMAL, "user1"));
+        waitForWaiting(scheduler, Priority.NORMAL, 1);
+        Future<Connector> user2 = executor.submit(() -> borrow(scheduler, Priority.NORMAL, "user2"));
+        waitForWaiting(scheduler, Priority.NORMAL, 2);
+        assertEquals(2, scheduler.getWaiting(Priority.NORMAL).size());
+        
+        giveBack(scheduler, Priority.NORMAL, first);
+        Connector second = user2.get(10, TimeUnit.SECONDS);
+        assertNotNull(second);
+        waitForWaiting(scheduler, Priority.NORMAL, 1);
+        
+        giveBack(scheduler, Priority.NORMAL, second);
+        assertNotNull(user1.get(10, TimeUnit.SECONDS));
+        assertTrue(scheduler.getWaiting(Priority.NORMAL).isEmpty());
+    }
+    
+    @Test
+    public void testInterrupted() throws Exception {
+        AccumuloConnectionScheduler scheduler = new AccumuloConnectionScheduler(pools, -1, false);
+        
+        Connector connector = borrow(scheduler, Priority.NORMAL, "user1");
+        Future<Connector> waiting = executor.submit(() -> borrow(scheduler, Priority.NORMAL, "user2"));
+        waitForWaiting(scheduler, Priority.NORMAL, 1);
+        waiting.cancel(true);
+        waitForWaiting(scheduler, Priority.NORMAL, 0);
+        
+        giveBack(scheduler, Priority.NORMAL, connector);
+        assertNotNull(borrow(scheduler, Priority.NORMAL, "user1"));
+    }
+}
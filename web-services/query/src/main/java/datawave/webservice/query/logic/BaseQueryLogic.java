@@ -33,6 +33,7 @@ public abstract class BaseQueryLogic<T> implements QueryLogic<T> {
     protected Iterator<T> iterator = (Iterator<T>) Collections.emptyList().iterator();
     private int maxPageSize = 0;
     private long pageByteTrigger = 0;
+    private int prefetchDepth = 0;
     private boolean collectQueryMetrics = true;
     private String _connPoolName;
     protected Principal principal;
@@ -67,6 +68,7 @@ public abstract class BaseQueryLogic<T> implements QueryLogic<T> {
         this.iterator = other.iterator;
         setMaxPageSize(other.getMaxPageSize());
         setPageByteTrigger(other.getPageByteTrigger());
+        setPrefetchDepth(other.getPrefetchDepth());
         setCollectQueryMetrics(other.getCollectQueryMetrics());
         setConnPoolName(other.getConnPoolName());
         setPrincipal(other.getPrincipal());
@@ -175,6 +177,16 @@ public abstract class BaseQueryLogic<T> implements QueryLogic<T> {
         this.pageByteTrigger = pageByteTrigger;
     }
     
+    @Override
+    public int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+    
+    @Override
+    public void setPrefetchDepth(int prefetchDepth) {
+        this.prefetchDepth = prefetchDepth;
+    }
+    
     @Override
     public int getBaseIteratorPriority() {
         return getConfig().getBaseIteratorPriority();
@@ -141,6 +141,11 @@ public interface QueryLogic<T> extends Iterable<T>, Cloneable, ParameterValidato
      */
     long getPageByteTrigger();
     
+    /**
+     * @return the number of results to prefetch in the background between next calls, or 0 if results are pulled only when a page is requested
+     */
+    int getPrefetchDepth();
+    
     /**
      * Returns the base iterator priority.
      * 
@@ -185,6 +190,12 @@ public interface QueryLogic<T> extends Iterable<T>, Cloneable, ParameterValidato
      */
     void setPageByteTrigger(long pageByteTrigger);
     
+    /**
+     * @param prefetchDepth
+     *            the number of results to prefetch in the background between next calls, or 0 to disable prefetching
+     */
+    void setPrefetchDepth(int prefetchDepth);
+    
     /**
      * Sets the base iterator priority
      * 
@@ -281,6 +281,7 @@ public class QueryMetricsWriter {
         
         if (!metricQueue.isEmpty()) {
             log.debug("writing " + metricQueue.size() + " query metric updates");
+            long start = System.currentTimeMillis();
             for (QueryMetricHolder queryMetricHolder : metricQueue) {
                 try {
                     BaseQueryMetric queryMetric = queryMetricHolder.getQueryMetric();
@@ -298,7 +299,10 @@ public class QueryMetricsWriter {
             } catch (Throwable t) {
                 failedMetrics.addAll(metricQueue);
             }
-            log.debug("wrote " + (metricQueue.size() - failedMetrics.size()) + " query metric updates");
+            int written = metricQueue.size() - failedMetrics.size();
+            long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+            log.debug("wrote " + written + " query metric updates in " + elapsed + "ms ("
+                            + new DecimalFormat("0.0").format(written * 1000.0 / elapsed) + " updates/sec)");
         }
         return failedMetrics;
     }
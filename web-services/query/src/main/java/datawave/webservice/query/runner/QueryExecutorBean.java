@@ -3142,6 +3142,13 @@ public class QueryExecutorBean implements QueryExecutor {
         if (q.getId() != null) {
             trackingMap.put("query.query", q.getQuery());
         }
+        if (q.getQueryLogicName() != null) {
+            trackingMap.put("query.logic", q.getQueryLogicName());
+        }
+        // the connection scheduler stops waiting for a connection when the query expires
+        if (q.getExpirationDate() != null) {
+            trackingMap.put("query.expiration", Long.toString(q.getExpirationDate().getTime()));
+        }
     }
     
     /**
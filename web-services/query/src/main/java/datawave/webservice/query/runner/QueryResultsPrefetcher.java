@@ -0,0 +1,357 @@
+package datawave.webservice.query.runner;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import datawave.webservice.query.logic.WritesQueryMetrics;
+import datawave.webservice.query.metric.BaseQueryMetric;
+import datawave.webservice.query.metric.QueryMetric;
+
+import org.apache.commons.collections4.iterators.TransformIterator;
+import org.apache.log4j.Logger;
+import org.jboss.logging.NDC;
+
+/**
+ * A bounded producer/consumer stage that pulls results from a query's {@link TransformIterator} on an executor thread. Up to {@code depth} results are
+ * buffered ahead of the client so that the next page is filled in the background between next calls, and the {@link RunningQuery} drains the buffer in
+ * batches rather than handing off one result at a time.
+ * <p>
+ * The producer only holds an executor thread while there is room in the buffer. Once the buffer is full it parks by returning the thread to the executor, and
+ * it is resubmitted when the consumer drains results, so a query whose client is slow or idle does not tie up a thread of the shared executor.
+ * <p>
+ * The metrics of the transformer (next and seek counts etc.) are changed by the producer while it pulls results. They are copied into a snapshot after each
+ * result, and only that snapshot is handed to the consumer by {@link #writeQueryMetrics(BaseQueryMetric)}, under the same lock. The snapshot is also used to
+ * stop producing once the max work of the query has been reached.
+ * <p>
+ * Once started, the prefetcher is the only caller of the underlying iterator until it has been stopped.
+ */
+public class QueryResultsPrefetcher implements Runnable, WritesQueryMetrics {
+    
+    private static final Logger log = Logger.getLogger(QueryResultsPrefetcher.class);
+    
+    private final TransformIterator iter;
+    private final int depth;
+    private final long maxResults;
+    private final long maxWork;
+    private final String ndc;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    
+    // guarded by lock
+    private final Deque<Object> buffer = new ArrayDeque<>();
+    private final QueryMetric snapshot = new QueryMetric();
+    private ExecutorService executor = null;
+    private Future<?> future = null;
+    // a result is being pulled from the iterator, it counts against the depth of the buffer
+    private boolean pulling = false;
+    // the producer has been submitted and has not yet parked or finished
+    private boolean running = false;
+    private boolean done = false;
+    private boolean maxWorkReached = false;
+    private long produced = 0;
+    private Throwable failure = null;
+    
+    private volatile boolean stopped = false;
+    
+    /**
+     * @param iter
+     *            the transform iterator to pull results from
+     * @param depth
+     *            the maximum number of results to buffer ahead of the consumer
+     * @param maxResults
+     *            the maximum number of results to pull from the iterator, or a negative number for no limit
+     * @param maxWork
+     *            the maximum number of next and seek calls, as reported by the transformer, after which no more results are pulled, or a negative number for
+     *            no limit
+     * @param ndc
+     *            the nested diagnostic context to push on the producer thread, may be null
+     */
+    public QueryResultsPrefetcher(TransformIterator iter, int depth, long maxResults, long maxWork, String ndc) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Prefetch depth must be positive: " + depth);
+        }
+        this.iter = iter;
+        this.depth = depth;
+        this.maxResults = maxResults;
+        this.maxWork = maxWork;
+        this.ndc = ndc;
+    }
+    
+    /**
+     * Start prefetching results on the supplied executor. The producer is resubmitted to the same executor whenever it has parked on a full buffer and the
+     * consumer makes room.
+     *
+     * @param executor
+     *            the executor to run the producer on
+     */
+    public void start(ExecutorService executor) {
+        lock.lock();
+        try {
+            this.executor = executor;
+            submit();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // must be called with the lock held
+    private void submit() {
+        running = true;
+        try {
+            future = executor.submit(this);
+        } catch (RuntimeException e) {
+            running = false;
+            throw e;
+        }
+    }
+    
+    @Override
+    public void run() {
+        if (ndc != null) {
+            NDC.push(ndc);
+        }
+        try {
+            while (true) {
+                lock.lock();
+                try {
+                    if (stopped || done) {
+                        running = false;
+                        return;
+                    }
+                    if (maxResults >= 0 && produced >= maxResults) {
+                        finish();
+                        return;
+                    }
+                    if (buffer.size() >= depth) {
+                        // park until the consumer makes room, giving the thread back to the executor
+                        running = false;
+                        return;
+                    }
+                    pulling = true;
+                } finally {
+                    lock.unlock();
+                }
+                
+                Object o = null;
+                Throwable t = null;
+                boolean hasNext = false;
+                try {
+                    hasNext = iter.hasNext();
+                    if (hasNext) {
+                        o = iter.next();
+                    }
+                } catch (Throwable e) {
+                    t = e;
+                }
+                
+                lock.lock();
+                try {
+                    pulling = false;
+                    // this is the only place the metrics of the transformer are read while the producer is running
+                    if (iter.getTransformer() instanceof WritesQueryMetrics) {
+                        ((WritesQueryMetrics) iter.getTransformer()).writeQueryMetrics(snapshot);
+                    }
+                    if (stopped) {
+                        running = false;
+                        return;
+                    }
+                    if (t != null) {
+                        failure = t;
+                        finish();
+                        return;
+                    }
+                    if (!hasNext || o == null) {
+                        log.debug("No more results to prefetch");
+                        finish();
+                        return;
+                    }
+                    buffer.add(o);
+                    produced++;
+                    available.signalAll();
+                    if (maxResults >= 0 && produced >= maxResults) {
+                        finish();
+                        return;
+                    }
+                    if (maxWork >= 0 && (snapshot.getNextCount() + snapshot.getSeekCount()) >= maxWork) {
+                        log.debug("Max work has been reached, no more results to prefetch");
+                        maxWorkReached = true;
+                        finish();
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } finally {
+            if (ndc != null) {
+                NDC.pop();
+            }
+        }
+    }
+    
+    // must be called with the lock held
+    private void finish() {
+        done = true;
+        running = false;
+        available.signalAll();
+    }
+    
+    /**
+     * Move up to {@code max} buffered results into {@code results}, waiting up to the supplied timeout for the first one to become available. Taking results
+     * resumes a producer that parked on a full buffer.
+     *
+     * @param results
+     *            the list to add results to
+     * @param max
+     *            the maximum number of results to add
+     * @param timeout
+     *            how long to wait for the first result
+     * @param unit
+     *            the unit of the timeout
+     * @return false if there are no more results to drain, true otherwise (even if the wait timed out before any results were available)
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     * @throws ExecutionException
+     *             if the producer failed while pulling results from the iterator
+     */
+    public boolean drain(List<Object> results, int max, long timeout, TimeUnit unit) throws InterruptedException, ExecutionException {
+        if (max <= 0) {
+            return !isExhausted();
+        }
+        lock.lock();
+        try {
+            long remaining = unit.toNanos(timeout);
+            while (buffer.isEmpty() && !done && !stopped) {
+                if (remaining <= 0) {
+                    // still waiting on the producer
+                    return true;
+                }
+                remaining = available.awaitNanos(remaining);
+            }
+            if (stopped) {
+                return false;
+            }
+            for (int i = 0; i < max && !buffer.isEmpty(); i++) {
+                results.add(buffer.poll());
+            }
+            if (!done && !running) {
+                submit();
+            }
+            if (buffer.isEmpty() && done) {
+                if (failure != null) {
+                    throw new ExecutionException(failure);
+                }
+                return false;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private boolean isExhausted() {
+        lock.lock();
+        try {
+            return stopped || (done && buffer.isEmpty());
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Write the metrics that the transformer had reported when the producer last handed off a result
+     *
+     * @param metric
+     *            the metric to update
+     */
+    @Override
+    public void writeQueryMetrics(BaseQueryMetric metric) {
+        lock.lock();
+        try {
+            // the same fields, and conditions, as the transformers use to write their metrics
+            if (snapshot.getSourceCount() > 0) {
+                metric.setSourceCount(snapshot.getSourceCount());
+                metric.setNextCount(snapshot.getNextCount());
+                metric.setSeekCount(snapshot.getSeekCount());
+                metric.setYieldCount(snapshot.getYieldCount());
+                metric.setDocRanges(snapshot.getDocRanges());
+                metric.setFiRanges(snapshot.getFiRanges());
+            }
+            if (snapshot.getUniqueMemoryUsed() > 0 || snapshot.getUniqueSpillCount() > 0) {
+                metric.setUniqueMemoryUsed(snapshot.getUniqueMemoryUsed());
+                metric.setUniqueSpillCount(snapshot.getUniqueSpillCount());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * @return the number of results currently buffered, including one that may be in the process of being pulled from the iterator
+     */
+    public int getBufferedCount() {
+        lock.lock();
+        try {
+            return buffer.size() + (pulling ? 1 : 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * @return true if the producer is holding an executor thread, false if it has parked on a full buffer, finished or not been started
+     */
+    public boolean isRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * @return true if the producer stopped because the max work was reached
+     */
+    public boolean isMaxWorkReached() {
+        lock.lock();
+        try {
+            return maxWorkReached;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int getDepth() {
+        return depth;
+    }
+    
+    public boolean isStopped() {
+        return stopped;
+    }
+    
+    /**
+     * Stop prefetching. Any buffered results are discarded and a consumer waiting in {@link #drain(List, int, long, TimeUnit)} is released.
+     */
+    public void stop() {
+        lock.lock();
+        try {
+            this.stopped = true;
+            if (future != null) {
+                future.cancel(true);
+            }
+            buffer.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
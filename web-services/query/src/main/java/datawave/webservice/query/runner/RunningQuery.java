@@ -64,6 +64,7 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
     private RunningQueryTiming timing = null;
     private ExecutorService executor = null;
     private volatile Future<Object> future = null;
+    private transient volatile QueryResultsPrefetcher prefetcher = null;
     private QueryPredictor predictor = null;
     
     public RunningQuery() {
@@ -132,11 +133,19 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
     }
     
     private void addNDC() {
+        String ndc = getNDC();
+        if (ndc != null) {
+            NDC.push(ndc);
+        }
+    }
+    
+    private String getNDC() {
         String user = this.settings.getUserDN();
         UUID uuid = this.settings.getId();
         if (user != null && uuid != null) {
-            NDC.push("[" + user + "] [" + uuid + "]");
+            return "[" + user + "] [" + uuid + "]";
         }
+        return null;
     }
     
     private void removeNDC() {
@@ -199,7 +208,13 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
             // test for any exceptions prior to loop as hasNext() would likely be false;
             testForUncaughtException(resultList.size());
             
-            while (!this.finished && ((future != null) || this.iter.hasNext())) {
+            // once started, the prefetcher is the only caller of the transform iterator
+            QueryResultsPrefetcher prefetcher = getPrefetcher();
+            if (prefetcher != null) {
+                this.getMetric().setPrefetchDepth(prefetcher.getBufferedCount());
+            }
+            
+            while (!this.finished && ((prefetcher != null) || (future != null) || this.iter.hasNext())) {
                 // if we are canceled, then break out
                 if (this.canceled) {
                     log.info("Query has been cancelled, aborting query.next call");
@@ -253,6 +268,48 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
                     break;
                 }
                 
+                if (prefetcher != null) {
+                    // take as many results as the page limits allow in one batch
+                    long waitStart = System.currentTimeMillis();
+                    boolean more = true;
+                    try {
+                        more = prefetcher.drain(resultList, getPrefetchBatchSize(currentPageCount), 1, TimeUnit.MINUTES);
+                    } catch (InterruptedException ie) {
+                        // in this case we were most likely cancelled, no longer waiting
+                    }
+                    this.getMetric().addPrefetchWaitTime(System.currentTimeMillis() - waitStart);
+                    
+                    // the transform iterator may have updated the metrics (next/seek calls etc.) while prefetching, take the snapshot from the last handoff
+                    prefetcher.writeQueryMetrics(this.getMetric());
+                    
+                    for (int i = currentPageCount; i < resultList.size(); i++) {
+                        if (this.logic.getPageByteTrigger() > 0) {
+                            currentPageBytes += ObjectSizeOf.Sizer.getObjectSize(resultList.get(i));
+                        }
+                        currentPageCount++;
+                        numResults++;
+                    }
+                    
+                    if (!more) {
+                        // a stopped prefetcher means we were cancelled or closed, not that the results are exhausted
+                        if (prefetcher.isMaxWorkReached()) {
+                            log.info("Query logic max work has been reached, aborting query.next call");
+                            this.getMetric().setLifecycle(QueryMetric.Lifecycle.MAXWORK);
+                        } else if (getMaxResults() >= 0 && numResults >= getMaxResults()) {
+                            // the last batch may have taken the results up to the max results, which the checks above will not see again
+                            log.info("Query logic max results has been reached, aborting query.next call");
+                            this.getMetric().setLifecycle(QueryMetric.Lifecycle.MAXRESULTS);
+                        } else if (!prefetcher.isStopped()) {
+                            log.debug("Prefetcher exhausted, no more results");
+                            this.finished = true;
+                        }
+                        break;
+                    }
+                    
+                    testForUncaughtException(resultList.size());
+                    continue;
+                }
+                
                 Object o = null;
                 if (executor != null) {
                     if (future == null) {
@@ -334,6 +391,11 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
     
     public void cancel() {
         this.canceled = true;
+        // stop prefetching and release any blocked next call
+        QueryResultsPrefetcher prefetcher = this.prefetcher;
+        if (prefetcher != null) {
+            prefetcher.stop();
+        }
         // save off the future as it could be removed at any time
         Future<Object> future = this.future;
         // cancel the future if we have one
@@ -345,6 +407,55 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
         this.getMetric().setLifecycle(QueryMetric.Lifecycle.CANCELLED);
     }
     
+    /**
+     * Lazily start prefetching results if an executor is available and the query logic has a prefetch depth configured
+     *
+     * @return the prefetcher, or null if results are not being prefetched
+     */
+    private QueryResultsPrefetcher getPrefetcher() {
+        if (this.prefetcher == null && this.future == null && this.executor != null && this.logic.getPrefetchDepth() > 0) {
+            long maxResults = getMaxResults();
+            QueryResultsPrefetcher newPrefetcher = new QueryResultsPrefetcher(this.iter, this.logic.getPrefetchDepth(), (maxResults >= 0 ? Math.max(
+                            maxResults - numResults, 0) : -1), this.logic.getMaxWork(), getNDC());
+            newPrefetcher.start(this.executor);
+            this.prefetcher = newPrefetcher;
+        }
+        return this.prefetcher;
+    }
+    
+    /**
+     * @return the max number of results across all pages, or a negative number if there is no limit
+     */
+    private long getMaxResults() {
+        if (this.settings.isMaxResultsOverridden()) {
+            return this.settings.getMaxResultsOverride();
+        }
+        return this.logic.getMaxResults();
+    }
+    
+    /**
+     * Determine how many prefetched results may be taken at once without exceeding the page size, max page size or max results
+     *
+     * @param currentPageCount
+     *            the number of results already in the page
+     * @return the number of results to take
+     */
+    private int getPrefetchBatchSize(int currentPageCount) {
+        // the page byte trigger has to be checked after every result
+        if (this.logic.getPageByteTrigger() > 0) {
+            return 1;
+        }
+        long batchSize = this.settings.getPagesize() - currentPageCount;
+        if (this.logic.getMaxPageSize() > 0) {
+            batchSize = Math.min(batchSize, this.logic.getMaxPageSize() - currentPageCount);
+        }
+        long maxResults = getMaxResults();
+        if (maxResults >= 0) {
+            batchSize = Math.min(batchSize, maxResults - numResults);
+        }
+        return (int) Math.max(batchSize, 0);
+    }
+    
     public boolean isFinished() {
         return finished;
     }
@@ -407,6 +518,11 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
     public void closeConnection(AccumuloConnectionFactory factory) throws Exception {
         this.getMetric().setLifecycle(BaseQueryMetric.Lifecycle.CLOSED);
         
+        // the prefetcher must not be pulling from the transform iterator once the logic is being closed
+        if (prefetcher != null) {
+            prefetcher.stop();
+        }
+        
         if (iter != null && iter.getTransformer() instanceof WritesResultCardinalities) {
             ((WritesResultCardinalities) iter.getTransformer()).writeResultCardinalities();
         }
@@ -0,0 +1,240 @@
+package datawave.webservice.query.runner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import datawave.webservice.query.logic.WritesQueryMetrics;
+import datawave.webservice.query.metric.BaseQueryMetric;
+import datawave.webservice.query.metric.QueryMetric;
+
+import org.apache.commons.collections4.Transformer;
+import org.apache.commons.collections4.functors.NOPTransformer;
+import org.apache.commons.collections4.iterators.TransformIterator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class QueryResultsPrefetcherTest {
+    
+    private ExecutorService executor;
+    
+    @Before
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+    
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+    }
+    
+    private static class CountingTransformer implements Transformer<Object,Object>, WritesQueryMetrics {
+        private long count = 0;
+        
+        @Override
+        public Object transform(Object input) {
+            count++;
+            return input;
+        }
+        
+        @Override
+        public void writeQueryMetrics(BaseQueryMetric metric) {
+            metric.setSourceCount(1);
+            metric.setNextCount(count);
+        }
+    }
+    
+    private static TransformIterator iterator(Object... results) {
+        return new TransformIterator(Arrays.asList(results).iterator(), NOPTransformer.nopTransformer());
+    }
+    
+    @Test
+    public void testDrainInBatches() throws Exception {
+        QueryResultsPrefetcher prefetcher = new QueryResultsPrefetcher(iterator("a", "b", "c", "d", "e"), 10, -1, -1, null);
+        prefetcher.start(executor);
+        
+        List<Object> results = new ArrayList<>();
+        while (results.size() < 3) {
+            Assert.assertTrue(prefetcher.drain(results, 3 - results.size(), 1, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), results);
+        
+        boolean more = true;
+        while (more) {
+            more = prefetcher.drain(results, 10, 1, TimeUnit.SECONDS);
+        }
+        Assert.assertEquals(Arrays.asList("a", "b", "c", "d", "e"), results);
+        Assert.assertFalse(prefetcher.drain(results, 10, 1, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    public void testDepthBoundsBufferedResults() throws Exception {
+        QueryResultsPrefetcher prefetcher = new QueryResultsPrefetcher(iterator("a", "b", "c", "d", "e"), 2, -1, -1, null);
+        prefetcher.start(executor);
+        
+        // wait for the producer to fill the buffer
+        long start = System.currentTimeMillis();
+        while (prefetcher.getBufferedCount() < 2 && System.currentTimeMillis() - start < 5000) {
+            Thread.sleep(10);
+        }
+        // the producer parks on the full buffer instead of holding the executor thread
+        while (prefetcher.isRunning() && System.currentTimeMillis() - start < 5000) {
+            Thread.sleep(10);
+        }
+        Assert.assertFalse(prefetcher.isRunning());
+        Assert.assertEquals(2, prefetcher.getBufferedCount());
+        
+        List<Object> results = new ArrayList<>();
+        boolean more = true;
+        while (more) {
+            more = prefetcher.drain(results, 10, 1, TimeUnit.SECONDS);
+        }
+        Assert.assertEquals(Arrays.asList("a", "b", "c", "d", "e"), results);
+    }
+    
+    @Test
+    public void testParkedProducersShareExecutor() throws Exception {
+        // with a single executor thread, the second prefetcher can only run once the first has parked
+        QueryResultsPrefetcher first = new QueryResultsPrefetcher(iterator("a", "b", "c"), 1, -1, -1, null);
+        QueryResultsPrefetcher second = new QueryResultsPrefetcher(iterator("x", "y", "z"), 1, -1, -1, null);
+        first.start(executor);
+        second.start(executor);
+        
+        List<Object> firstResults = new ArrayList<>();
+        List<Object> secondResults = new ArrayList<>();
+        boolean firstMore = true;
+        boolean secondMore = true;
+        while (firstMore || secondMore) {
+            if (secondMore) {
+                secondMore = second.drain(secondResults, 10, 1, TimeUnit.SECONDS);
+            }
+            if (firstMore) {
+                firstMore = first.drain(firstResults, 10, 1, TimeUnit.SECONDS);
+            }
+        }
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), firstResults);
+        Assert.assertEquals(Arrays.asList("x", "y", "z"), secondResults);
+    }
+    
+    @Test
+    public void testMaxWorkStopsProducer() throws Exception {
+        CountingTransformer transformer = new CountingTransformer();
+        QueryResultsPrefetcher prefetcher = new QueryResultsPrefetcher(new TransformIterator(Arrays.asList("a", "b", "c", "d", "e").iterator(), transformer),
+                        10, -1, 2, null);
+        prefetcher.start(executor);
+        
+        List<Object> results = new ArrayList<>();
+        boolean more = true;
+        while (more) {
+            more = prefetcher.drain(results, 10, 1, TimeUnit.SECONDS);
+        }
+        Assert.assertEquals(Arrays.asList("a", "b"), results);
+        Assert.assertTrue(prefetcher.isMaxWorkReached());
+        Assert.assertEquals(2, transformer.count);
+    }
+    
+    @Test
+    public void testMetricsAreWrittenFromSnapshot() throws Exception {
+        CountingTransformer transformer = new CountingTransformer();
+        QueryResultsPrefetcher prefetcher = new QueryResultsPrefetcher(new TransformIterator(Arrays.asList("a", "b", "c").iterator(), transformer), 10, -1,
+                        -1, null);
+        
+        QueryMetric metric = new QueryMetric();
+        prefetcher.writeQueryMetrics(metric);
+        Assert.assertEquals(0, metric.getNextCount());
+        
+        prefetcher.start(executor);
+        List<Object> results = new ArrayList<>();
+        boolean more = true;
+        while (more) {
+            more = prefetcher.drain(results, 10, 1, TimeUnit.SECONDS);
+        }
+        prefetcher.writeQueryMetrics(metric);
+        Assert.assertEquals(1, metric.getSourceCount());
+        Assert.assertEquals(3, metric.getNextCount());
+    }
+    
+    @Test
+    public void testMaxResults() throws Exception {
+        QueryResultsPrefetcher prefetcher = new QueryResultsPrefetcher(iterator("a", "b", "c", "d", "e"), 10, 2, -1, null);
+        prefetcher.start(executor);
+        
+        List<Object> results = new ArrayList<>();
+        boolean more = true;
+        while (more) {
+            more = prefetcher.drain(results, 10, 1, TimeUnit.SECONDS);
+        }
+        Assert.assertEquals(Arrays.asList("a", "b"), results);
+    }
+    
+    @Test
+    public void testNullResultEndsPrefetch() throws Exception {
+        QueryResultsPrefetcher prefetcher = new QueryResultsPrefetcher(iterator("a", null, "c"), 10, -1, -1, null);
+        prefetcher.start(executor);
+        
+        List<Object> results = new ArrayList<>();
+        boolean more = true;
+        while (more) {
+            more = prefetcher.drain(results, 10, 1, TimeUnit.SECONDS);
+        }
+        Assert.assertEquals(Arrays.asList("a"), results);
+    }
+    
+    @Test(expected = ExecutionException.class)
+    public void testFailureIsPassedToConsumer() throws Exception {
+        Iterator<Object> failing = new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+            
+            @Override
+            public Object next() {
+                throw new IllegalStateException("INTENTIONALLY THROWN TEST EXCEPTION");
+            }
+        };
+        QueryResultsPrefetcher prefetcher = new QueryResultsPrefetcher(new TransformIterator(failing, NOPTransformer.nopTransformer()), 10, -1, -1, null);
+        prefetcher.start(executor);
+        
+        List<Object> results = new ArrayList<>();
+        boolean more = true;
+        while (more) {
+            more = prefetcher.drain(results, 10, 1, TimeUnit.SECONDS);
+        }
+    }
+    
+    @Test
+    public void testStopReleasesConsumer() throws Exception {
+        Iterator<Object> blocking = new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+            
+            @Override
+            public Object next() {
+                try {
+                    Thread.sleep(60000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }
+        };
+        QueryResultsPrefetcher prefetcher = new QueryResultsPrefetcher(new TransformIterator(blocking, NOPTransformer.nopTransformer()), 10, -1, -1, null);
+        prefetcher.start(executor);
+        prefetcher.stop();
+        
+        List<Object> results = new ArrayList<>();
+        Assert.assertFalse(prefetcher.drain(results, 10, 1, TimeUnit.SECONDS));
+        Assert.assertTrue(results.isEmpty());
+        Assert.assertTrue(prefetcher.isStopped());
+    }
+}